@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver;
+
+import gnu.trove.map.hash.TIntObjectHashMap;
+import org.chocosolver.graphsolver.variables.GraphVar;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solution;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.RealVar;
+import org.chocosolver.solver.variables.SetVar;
+import org.chocosolver.solver.variables.Variable;
+
+import java.util.ArrayList;
+
+/**
+ * A solution which, in addition to integer, set and real variables, stores the value of graph variables.
+ * Each graph value is stored in the compact format of GraphVar.getEncodedValue(),
+ * i.e. with O(#nodes + #arcs) integers instead of a boolean adjacency matrix,
+ * and restored in O(n + #potential arcs) with a single notification per variable.
+ */
+public class GraphSolution extends Solution {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private final Model model;
+	private final Variable[] varsToStore;
+	private GraphVar[] graphVars;
+	private TIntObjectHashMap<int[]> graphmap;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * Create an empty solution object
+	 * able to store the value of each variable in <code>varsToStore</code> when calling <code>record()</code>
+	 *
+	 * Stores all variables of the model (including graph variables) by default, when <code>varsToStore</code> is empty
+	 *
+	 * @param model model of the solution
+	 * @param varsToStore variables to store in this object
+	 */
+	public GraphSolution(Model model, Variable... varsToStore) {
+		super(model, varsToStore);
+		this.model = model;
+		this.varsToStore = varsToStore;
+		this.graphVars = retrieveGraphVars(varsToStore.length == 0 ? model.getVars() : varsToStore);
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	@Override
+	public GraphSolution record() {
+		super.record();
+		if (varsToStore.length == 0) {
+			// variables may have been added to the model since this object was created
+			graphVars = retrieveGraphVars(model.getVars());
+		}
+		if (graphmap == null) {
+			graphmap = new TIntObjectHashMap<>(graphVars.length);
+		} else {
+			graphmap.clear();
+		}
+		for (GraphVar g : graphVars) {
+			if (g.isInstantiated()) {
+				graphmap.put(g.getId(), g.getEncodedValue());
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public GraphSolution copySolution() {
+		Variable[] vars = varsToStore.length == 0 ? model.getVars() : varsToStore;
+		GraphSolution copy = new GraphSolution(model, vars);
+		for (Variable v : vars) {
+			try {
+				switch (v.getTypeAndKind() & Variable.KIND) {
+					case Variable.INT:
+					case Variable.BOOL:
+						copy.setIntVal((IntVar) v, getIntVal((IntVar) v));
+						break;
+					case Variable.SET:
+						copy.setSetVal((SetVar) v, getSetVal((SetVar) v));
+						break;
+					case Variable.REAL:
+						copy.setRealBounds((RealVar) v, getRealBounds((RealVar) v));
+						break;
+					default:
+						break;
+				}
+			} catch (SolverException ignored) {
+				// the variable was not instantiated when this solution was recorded
+			}
+		}
+		if (graphmap != null) {
+			copy.graphmap = new TIntObjectHashMap<>(graphmap);
+		}
+		return copy;
+	}
+
+	/**
+	 * Get the value of variable g in this solution
+	 *
+	 * @param g GraphVar (graph variable)
+	 * @return the value of g in this solution, in the format of GraphVar.getEncodedValue(),
+	 * or null if g was not instantiated when the solution was recorded
+	 * @throws SolverException if no solution has been recorded
+	 */
+	public int[] getGraphVal(GraphVar g) {
+		if (graphmap == null) {
+			throw new SolverException("No solution has been recorded");
+		}
+		return graphmap.get(g.getId());
+	}
+
+	/**
+	 * Set the value of variable g in this solution
+	 *
+	 * @param g GraphVar (graph variable)
+	 * @param value value of g in this solution, in the format of GraphVar.getEncodedValue()
+	 */
+	public void setGraphVal(GraphVar g, int[] value) {
+		if (graphmap == null) {
+			graphmap = new TIntObjectHashMap<>(graphVars.length);
+		}
+		graphmap.put(g.getId(), value);
+	}
+
+	/**
+	 * Restore the solution in <code>model</code>, graph variables first.
+	 * Must be called in a new world, just like Solution.restore()
+	 *
+	 * @throws ContradictionException if restoring the solution fails
+	 */
+	@Override
+	public void restore() throws ContradictionException {
+		if (graphmap != null) {
+			for (GraphVar g : graphVars) {
+				int[] value = graphmap.get(g.getId());
+				if (value != null) {
+					g.instantiateTo(value, this);
+				}
+			}
+		}
+		super.restore();
+	}
+
+	private static GraphVar[] retrieveGraphVars(Variable[] vars) {
+		ArrayList<GraphVar> gvars = new ArrayList<>();
+		for (Variable v : vars) {
+			if ((v.getTypeAndKind() & Variable.KIND) == GraphVar.GRAPH) {
+				gvars.add((GraphVar) v);
+			}
+		}
+		return gvars.toArray(new GraphVar[gvars.size()]);
+	}
+}
@@ -34,12 +34,16 @@ import org.chocosolver.graphsolver.cstrs.channeling.nodes.PropNodeBoolsChannel;
 import org.chocosolver.graphsolver.cstrs.channeling.nodes.PropNodeSetChannel;
 import org.chocosolver.graphsolver.cstrs.connectivity.PropBiconnected;
 import org.chocosolver.graphsolver.cstrs.connectivity.PropConnected;
+import org.chocosolver.graphsolver.cstrs.connectivity.PropConnected_Incr;
+import org.chocosolver.graphsolver.cstrs.connectivity.PropKConnected;
 import org.chocosolver.graphsolver.cstrs.connectivity.PropNbCC;
 import org.chocosolver.graphsolver.cstrs.connectivity.PropNbSCC;
 import org.chocosolver.graphsolver.cstrs.cost.trees.PropMaxDegVarTree;
+import org.chocosolver.graphsolver.cstrs.cost.ICostProvider;
 import org.chocosolver.graphsolver.cstrs.cost.trees.PropTreeCostSimple;
 import org.chocosolver.graphsolver.cstrs.cost.trees.lagrangianRelaxation.PropLagr_DCMST_generic;
 import org.chocosolver.graphsolver.cstrs.cost.tsp.PropCycleCostSimple;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.lagrangianRelaxation.CandidateSetFinder;
 import org.chocosolver.graphsolver.cstrs.cost.tsp.lagrangianRelaxation.PropLagr_OneTree;
 import org.chocosolver.graphsolver.cstrs.cycles.*;
 import org.chocosolver.graphsolver.cstrs.degree.*;
@@ -771,10 +775,51 @@ public interface IGraphConstraintFactory {
 	/**
 	 * Creates a connectedness constraint which ensures that g is connected
 	 * @param g	an undirected graph variable
+	 * @param incremental	if true, the constraint only reacts to the arcs and nodes removed since its last propagation
+	 *                      and explores the affected part of the graph (PropConnected_Incr),
+	 *                      otherwise it recomputes the connectivity of g at each propagation (PropConnected)
 	 * @return A connectedness constraint which ensures that g is connected
 	 */
+	default Constraint connected(UndirectedGraphVar g, boolean incremental){
+		if(incremental){
+			return new Constraint("connected",new PropConnected_Incr(g));
+		}
+		return connected(g);
+	}
+
+	/**
+	 * Creates a biconnectedness constraint which ensures that g is biconnected,
+	 * i.e. g is connected and has no articulation point
+	 * @param g	an undirected graph variable
+	 * @return A biconnectedness constraint which ensures that g is biconnected
+	 */
 	default Constraint biconnected(UndirectedGraphVar g){
-		return new Constraint("connected",new PropBiconnected(g));
+		return new Constraint("biconnected",new PropBiconnected(g));
+	}
+
+	/**
+	 * Creates a k-edge-connectivity constraint which ensures that every two nodes of g
+	 * are linked by at least k edge-disjoint paths (the graph remains connected after removing any k-1 edges).
+	 * Fails when less than k paths remain in the upper bound and enforces edges of min cuts of size k
+	 * @param g	an undirected graph variable
+	 * @param k	number of edge-disjoint paths
+	 * @return A k-edge-connectivity constraint
+	 */
+	default Constraint kEdgeConnected(UndirectedGraphVar g, int k){
+		return new Constraint("kEdgeConnected",new PropKConnected(g, k, false));
+	}
+
+	/**
+	 * Creates a k-vertex-connectivity constraint which ensures that every two nodes of g
+	 * are linked by at least k internally vertex-disjoint paths, an edge between them counting as one path
+	 * (the graph remains connected after removing any k-1 nodes).
+	 * Fails when less than k paths remain in the upper bound and enforces nodes and edges of min cuts of size k
+	 * @param g	an undirected graph variable
+	 * @param k	number of internally vertex-disjoint paths
+	 * @return A k-vertex-connectivity constraint
+	 */
+	default Constraint kVertexConnected(UndirectedGraphVar g, int k){
+		return new Constraint("kVertexConnected",new PropKConnected(g, k, true));
 	}
 
 	/**
@@ -785,7 +830,6 @@ public interface IGraphConstraintFactory {
 	 */
 	default Constraint nbConnectedComponents(UndirectedGraphVar g, IntVar nb){
 		if(nb.isInstantiatedTo(1))return connected(g);
-		if(nb.isInstantiatedTo(2))return connected(g);
 		return new Constraint("NbCC",new PropNbCC(g,nb));
 	}
 	/**
@@ -851,7 +895,7 @@ public interface IGraphConstraintFactory {
 		}
 		nbPreds[root] = 0;
 		return new Constraint("directedTree"
-				,new PropArborescence(g,root)
+				,new PropArborescence(g,root,false,true)
 				,new PropNodeDegree_AtMost_Coarse(g, Orientation.PREDECESSORS, nbPreds)
 				,new PropNodeDegree_AtLeast_Incr(g, Orientation.PREDECESSORS, nbPreds)
 		);
@@ -864,7 +908,7 @@ public interface IGraphConstraintFactory {
 	 * @return a directed forest constraint
 	 */
 	default Constraint directedForest(DirectedGraphVar g){
-		return new Constraint("directedForest",new PropArborescences(g)
+		return new Constraint("directedForest",new PropArborescences(g,false,true)
 				,new PropNodeDegree_AtMost_Coarse(g, Orientation.PREDECESSORS, 1)
 		);
 	}
@@ -884,7 +928,7 @@ public interface IGraphConstraintFactory {
 	 * @return A constraint which ensures that every vertex in g is reachable by a simple path from the root
 	 */
 	default Constraint reachability(DirectedGraphVar g, int root){
-		return new Constraint("reachability_from_"+root,new PropReachability(g,root));
+		return new Constraint("reachability_from_"+root,new PropReachability(g,root,false,true));
 	}
 
 	// directed path
@@ -1007,11 +1051,54 @@ public interface IGraphConstraintFactory {
 	 * @return a tsp constraint
 	 */
 	default Constraint tsp(UndirectedGraphVar GRAPHVAR, IntVar COSTVAR, int[][] EDGE_COSTS, int LAGR_MODE) {
+		return tsp(GRAPHVAR, COSTVAR, ICostProvider.dense(EDGE_COSTS), LAGR_MODE);
+	}
+
+	/**
+	 * Constraint modeling the Traveling Salesman Problem
+	 *
+	 * @param GRAPHVAR   graph variable representing a Hamiltonian cycle
+	 * @param COSTVAR    variable representing the cost of the cycle
+	 * @param EDGE_COSTS edge costs (dense, sparse or computed on the fly), only queried for potential edges
+	 * @param LAGR_MODE  use the Lagrangian relaxation of the tsp
+	 *                   described by Held and Karp
+	 *                   {0:no Lagrangian relaxation,
+	 *                   1:Lagrangian relaxation (since root node),
+	 *                   2:Lagrangian relaxation but wait a first solution before running it}
+	 * @return a tsp constraint
+	 */
+	default Constraint tsp(UndirectedGraphVar GRAPHVAR, IntVar COSTVAR, ICostProvider EDGE_COSTS, int LAGR_MODE) {
+		return tsp(GRAPHVAR, COSTVAR, EDGE_COSTS, LAGR_MODE, null);
+	}
+
+	/**
+	 * Constraint modeling the Traveling Salesman Problem, whose Lagrangian relaxation
+	 * runs subgradient iterations on a sparse candidate set of edges (k-nearest or alpha-nearness),
+	 * computed at the end of the first relaxation. Lower bounds and filtering still consider all the edges.
+	 * This makes the relaxation practical on large complete graphs.
+	 *
+	 * @param GRAPHVAR   graph variable representing a Hamiltonian cycle
+	 * @param COSTVAR    variable representing the cost of the cycle
+	 * @param EDGE_COSTS edge costs (dense, sparse or computed on the fly), only queried for potential edges
+	 * @param LAGR_MODE  use the Lagrangian relaxation of the tsp
+	 *                   described by Held and Karp
+	 *                   {0:no Lagrangian relaxation,
+	 *                   1:Lagrangian relaxation (since root node),
+	 *                   2:Lagrangian relaxation but wait a first solution before running it}
+	 * @param CANDIDATES candidate set finder (can be null), e.g. new CandidateSetFinder(n, CandidateSetFinder.ALPHA_NEARNESS, 5),
+	 *                   whose candidate set can also be given to the search strategy (GraphSearch.preferCandidates)
+	 * @return a tsp constraint
+	 */
+	default Constraint tsp(UndirectedGraphVar GRAPHVAR, IntVar COSTVAR, ICostProvider EDGE_COSTS, int LAGR_MODE,
+						   CandidateSetFinder CANDIDATES) {
 		Propagator[] props = ArrayUtils.append(hamiltonianCycle(GRAPHVAR).getPropagators(),
 				new Propagator[]{new PropCycleCostSimple(GRAPHVAR, COSTVAR, EDGE_COSTS)});
 		if (LAGR_MODE > 0) {
 			PropLagr_OneTree hk = new PropLagr_OneTree(GRAPHVAR, COSTVAR, EDGE_COSTS);
 			hk.waitFirstSolution(LAGR_MODE == 2);
+			if (CANDIDATES != null) {
+				hk.useCandidateSet(CANDIDATES);
+			}
 			props = ArrayUtils.append(props,new Propagator[]{hk});
 		}
 		return new Constraint("TSP",props);
@@ -1036,6 +1123,28 @@ public interface IGraphConstraintFactory {
 	default Constraint dcmst(UndirectedGraphVar GRAPH, IntVar[] DEGREES,
 													 IntVar COSTVAR, int[][] EDGE_COSTS,
 													 int LAGR_MODE){
+		return dcmst(GRAPH, DEGREES, COSTVAR, ICostProvider.dense(EDGE_COSTS), LAGR_MODE);
+	}
+
+	/**
+	 * Creates a degree-constrained minimum spanning tree constraint :
+	 * GRAPH is a spanning tree of cost COSTVAR and each vertex degree is constrained
+	 *
+	 * BEWARE : assumes the channeling between GRAPH and DEGREES is already done
+	 *
+	 * @param GRAPH		an undirected graph variable
+	 * @param DEGREES	the degree of every vertex
+	 * @param COSTVAR    variable representing the cost of the mst
+	 * @param EDGE_COSTS edge costs (dense, sparse or computed on the fly), only queried for potential edges
+	 * @param LAGR_MODE  use the Lagrangian relaxation of the dcmst
+	 *                   {0:no Lagrangian relaxation,
+	 *                   1:Lagrangian relaxation (since root node),
+	 *                   2:Lagrangian relaxation but wait a first solution before running it}
+	 * @return a degree-constrained minimum spanning tree constraint
+	 */
+	default Constraint dcmst(UndirectedGraphVar GRAPH, IntVar[] DEGREES,
+													 IntVar COSTVAR, ICostProvider EDGE_COSTS,
+													 int LAGR_MODE){
 		Propagator[] props = ArrayUtils.append(
 				tree(GRAPH).getPropagators()
 				,new Propagator[]{
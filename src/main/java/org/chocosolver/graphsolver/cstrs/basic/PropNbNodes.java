@@ -68,8 +68,8 @@ public class PropNbNodes extends Propagator<Variable> {
 
     @Override
     public void propagate(int evtmask) throws ContradictionException {
-        int env = g.getPotentialNodes().size();
-        int ker = g.getMandatoryNodes().size();
+        int env = g.getNbPotentialNodes();
+        int ker = g.getNbMandatoryNodes();
         k.updateLowerBound(ker, this);
         k.updateUpperBound(env, this);
         if (ker == env) {
@@ -109,8 +109,8 @@ public class PropNbNodes extends Propagator<Variable> {
 
     @Override
     public ESat isEntailed() {
-        int env = g.getPotentialNodes().size();
-        int ker = g.getMandatoryNodes().size();
+        int env = g.getNbPotentialNodes();
+        int ker = g.getNbMandatoryNodes();
         if (env < k.getLB() || ker > k.getUB()) {
             return ESat.FALSE;
         }
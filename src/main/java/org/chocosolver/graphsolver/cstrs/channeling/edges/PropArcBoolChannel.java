@@ -55,13 +55,20 @@ public class PropArcBoolChannel extends Propagator<Variable> {
 	//***********************************************************************************
 
 	public PropArcBoolChannel(BoolVar isIn, int from, int to, GraphVar gV) {
-		super(new Variable[]{isIn,gV}, PropagatorPriority.UNARY, false);
+		super(new Variable[]{isIn,watch(gV,from)}, PropagatorPriority.UNARY, false);
 		this.bool = isIn;
 		this.from = from;
 		this.to = to;
 		this.g = gV;
 	}
 
+	/**
+	 * Only modifications of arc (from,to) are relevant, so the propagator watches node from (if it exists)
+	 */
+	private static Variable watch(GraphVar gV, int from) {
+		return from >= 0 && from < gV.getNbMaxNodes() ? gV.watchNode(from) : gV;
+	}
+
 	//***********************************************************************************
 	// METHODS
 	//***********************************************************************************
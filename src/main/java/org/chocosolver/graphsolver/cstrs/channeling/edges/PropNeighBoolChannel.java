@@ -30,6 +30,7 @@ package org.chocosolver.graphsolver.cstrs.channeling.edges;
 import org.chocosolver.graphsolver.variables.GraphEventType;
 import org.chocosolver.graphsolver.variables.GraphVar;
 import org.chocosolver.graphsolver.variables.IncidentSet;
+import org.chocosolver.graphsolver.variables.delta.GraphDeltaMonitor;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
@@ -37,9 +38,13 @@ import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.Variable;
 import org.chocosolver.solver.variables.events.IntEventType;
 import org.chocosolver.util.ESat;
+import org.chocosolver.util.procedure.PairProcedure;
 import org.chocosolver.util.tools.ArrayUtils;
 
 /**
+ * Channeling between the incident set of a vertex and boolean variables.
+ * The propagator only watches the given vertex of the graph variable.
+ *
  * @author Jean-Guillaume Fages
  */
 public class PropNeighBoolChannel extends Propagator<Variable> {
@@ -52,17 +57,21 @@ public class PropNeighBoolChannel extends Propagator<Variable> {
 	private GraphVar g;
 	private int vertex;
 	private IncidentSet inc;
+	private GraphDeltaMonitor gdm;
+	private PairProcedure arcProc;
 
 	//***********************************************************************************
 	// CONSTRUCTORS
 	//***********************************************************************************
 
 	public PropNeighBoolChannel(BoolVar[] neigh, final int vertex, GraphVar gV, IncidentSet incSet) {
-		super(ArrayUtils.append(neigh,new Variable[]{gV}), PropagatorPriority.LINEAR, true);
+		super(ArrayUtils.append(neigh,new Variable[]{gV.watchNode(vertex)}), PropagatorPriority.LINEAR, true);
 		this.vertex = vertex;
 		this.bools = neigh;
 		this.g = gV;
 		this.inc = incSet;
+		this.gdm = gV.watchNode(vertex).monitorDelta(this);
+		this.arcProc = (x, y) -> channel(x == vertex ? y : x);
 		super.linkVariables();
 	}
 
@@ -89,12 +98,9 @@ public class PropNeighBoolChannel extends Propagator<Variable> {
 			}
 		}
 		for(int i=0;i<bools.length;i++){
-			if(!inc.getPotSet(g,vertex).contains(i)){
-				bools[i].setToFalse(this);
-			}else if(inc.getMandSet(g,vertex).contains(i)){
-				bools[i].setToTrue(this);
-			}
+			channel(i);
 		}
+		gdm.unfreeze();
 	}
 
 	@Override
@@ -106,12 +112,19 @@ public class PropNeighBoolChannel extends Propagator<Variable> {
 				inc.remove(g,vertex,idxVarInProp,this);
 			}
 		} else {
-			for(int i=0;i<bools.length;i++){
-				if(!inc.getPotSet(g,vertex).contains(i)){
-					bools[i].setToFalse(this);
-				}else if(inc.getMandSet(g,vertex).contains(i)){
-					bools[i].setToTrue(this);
-				}
+			gdm.freeze();
+			gdm.forEachArc(arcProc, GraphEventType.REMOVE_ARC);
+			gdm.forEachArc(arcProc, GraphEventType.ADD_ARC);
+			gdm.unfreeze();
+		}
+	}
+
+	private void channel(int i) throws ContradictionException {
+		if(i < bools.length) {
+			if (!inc.getPotSet(g, vertex).contains(i)) {
+				bools[i].setToFalse(this);
+			} else if (inc.getMandSet(g, vertex).contains(i)) {
+				bools[i].setToTrue(this);
 			}
 		}
 	}
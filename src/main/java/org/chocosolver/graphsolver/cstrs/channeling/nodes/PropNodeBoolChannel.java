@@ -58,12 +58,19 @@ public class PropNodeBoolChannel extends Propagator<Variable> {
 	//***********************************************************************************
 
 	public PropNodeBoolChannel(BoolVar isIn, int vertex, GraphVar gV) {
-		super(new Variable[]{isIn,gV}, PropagatorPriority.UNARY, false);
+		super(new Variable[]{isIn,watch(gV,vertex)}, PropagatorPriority.UNARY, false);
 		this.bool = isIn;
 		this.vertex = vertex;
 		this.g = gV;
 	}
 
+	/**
+	 * Only modifications of vertex are relevant, so the propagator watches it (if it exists)
+	 */
+	private static Variable watch(GraphVar gV, int vertex) {
+		return vertex >= 0 && vertex < gV.getNbMaxNodes() ? gV.watchNode(vertex) : gV;
+	}
+
 	//***********************************************************************************
 	// METHODS
 	//***********************************************************************************
@@ -27,17 +27,38 @@
 
 package org.chocosolver.graphsolver.cstrs.connectivity;
 
-import org.chocosolver.graphsolver.util.ConnectivityFinder;
+import org.chocosolver.graphsolver.util.BiconnectivityFinder;
 import org.chocosolver.graphsolver.variables.GraphEventType;
 import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
+import org.chocosolver.graphsolver.variables.delta.GraphDeltaMonitor;
+import org.chocosolver.memory.IStateBool;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.util.ESat;
+import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+import org.chocosolver.util.procedure.IntProcedure;
+import org.chocosolver.util.procedure.PairProcedure;
+
+import java.util.BitSet;
 
 
 /**
  * Propagator for enforcing a graph variable to be bi-connected
+ * (i.e. connected and without articulation point, a single edge and a single node being bi-connected)
+ * <p/>
+ * Filtering relies on the block-cut tree of the upper bound (see BiconnectivityFinder), rooted at a mandatory node:
+ * - nodes which are not connected to mandatory nodes are removed;
+ * - an articulation point with mandatory nodes on two of its sides fails
+ * (it is either missing, or an articulation point of the solution);
+ * - the sides of an articulation point which contain no mandatory node are removed,
+ * as their nodes can only be reached through it;
+ * - a bridge between two mandatory nodes is enforced;
+ * - with at least 3 mandatory nodes, a mandatory node needs two neighbors, which are enforced if it has only two.
+ * <p/>
+ * After this filtering, if there are at least 3 mandatory nodes, the upper bound is bi-connected.
+ * Then, as long as no node or edge is removed, new mandatory nodes only trigger the degree rule (read from the delta).
  *
  * @author Jean-Guillaume Fages
  */
@@ -47,17 +68,48 @@ public class PropBiconnected extends Propagator<UndirectedGraphVar> {
     // VARIABLES
     //***********************************************************************************
 
+    private int n;
     private UndirectedGraphVar g;
-    private ConnectivityFinder env_CC_finder;
+    private GraphDeltaMonitor gdm;
+    private IntProcedure nodeEnforced, nodeRemoved;
+    private PairProcedure arcRemoved;
+    private boolean removals;
+    // true iff the upper bound is known to be bi-connected with at least 3 mandatory nodes
+    private IStateBool ubBiconnected;
+    private BiconnectivityFinder env_BCC_finder;
+    // block-cut tree: block b has index b, articulation point a has index nbBCC + a
+    private int nbBCC, treeSize;
+    private BitSet removedSide;
+    private int[] blockOfNode, apBlockStart, apBlocks, parent, order, nbMand;
+    // nodes to remove, and mandatory nodes whose degree should be checked
+    private BitSet toRemoveSet;
+    private int[] toRemove, toCheck;
+    private int nbToCheck;
 
     //***********************************************************************************
     // CONSTRUCTORS
     //***********************************************************************************
 
     public PropBiconnected(UndirectedGraphVar graph) {
-        super(new UndirectedGraphVar[]{graph}, PropagatorPriority.LINEAR, false);
+        super(new UndirectedGraphVar[]{graph}, PropagatorPriority.LINEAR, true);
         this.g = graph;
-        env_CC_finder = new ConnectivityFinder(g.getUB());
+        this.n = g.getNbMaxNodes();
+        this.gdm = g.monitorDelta(this);
+        this.ubBiconnected = model.getEnvironment().makeBool(false);
+        this.env_BCC_finder = new BiconnectivityFinder(g.getUB());
+        this.blockOfNode = new int[n];
+        this.apBlockStart = new int[n + 1];
+        this.apBlocks = new int[2 * n];
+        this.parent = new int[2 * n];
+        this.order = new int[2 * n];
+        this.nbMand = new int[2 * n];
+        this.removedSide = new BitSet(2 * n);
+        this.toRemoveSet = new BitSet(n);
+        this.toRemove = new int[n];
+        this.toCheck = new int[n];
+        this.nodeEnforced = i -> toCheck[nbToCheck++] = i;
+        this.nodeRemoved = i -> removals = true;
+        this.arcRemoved = (i, j) -> removals = true;
     }
 
     //***********************************************************************************
@@ -66,9 +118,237 @@ public class PropBiconnected extends Propagator<UndirectedGraphVar> {
 
     @Override
     public void propagate(int evtmask) throws ContradictionException {
-        if (g.getPotentialNodes().size() == g.getMandatoryNodes().size() && !env_CC_finder.isBiconnected()) {
+        filter();
+        gdm.unfreeze();
+    }
+
+    @Override
+    public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+        removals = false;
+        nbToCheck = 0;
+        gdm.freeze();
+        gdm.forEachNode(nodeRemoved, GraphEventType.REMOVE_NODE);
+        if (!removals) {
+            gdm.forEachArc(arcRemoved, GraphEventType.REMOVE_ARC);
+        }
+        gdm.forEachNode(nodeEnforced, GraphEventType.ADD_NODE);
+        gdm.unfreeze();
+        if (removals || !ubBiconnected.get()) {
+            filter();
+        } else {
+            checkDegrees();
+        }
+    }
+
+    private void filter() throws ContradictionException {
+        ISet mand = g.getMandatoryNodes();
+        if (g.getNbPotentialNodes() == 0) {
+            fails();
+        }
+        if (mand.size() == 0) {
+            return;
+        }
+        env_BCC_finder.findAll();
+        buildBlockCutTree(mand.iterator().nextInt());
+        // nodes which are not connected to the root
+        toRemoveSet.clear();
+        int[] nodeCC = env_BCC_finder.getNodeCC();
+        int cc = nodeCC[mand.iterator().nextInt()];
+        ISetIterator iter = g.getPotentialNodes().iterator();
+        while (iter.hasNext()) {
+            int i = iter.nextInt();
+            if (nodeCC[i] != cc) {
+                if (mand.contains(i)) {
+                    fails();
+                }
+                toRemoveSet.set(i);
+            }
+        }
+        // sides of articulation points (parents come before their children in the bfs order)
+        removedSide.clear();
+        for (int k = 0; k < treeSize; k++) {
+            int t = order[k];
+            if (k > 0 && removedSide.get(parent[t])) {
+                removedSide.set(t);
+                if (t < nbBCC) {
+                    removeBlock(t);
+                }
+            } else if (t >= nbBCC) {
+                filterArticulationPoint(t, k == 0);
+            }
+        }
+        int size = 0;
+        for (int i = toRemoveSet.nextSetBit(0); i >= 0; i = toRemoveSet.nextSetBit(i + 1)) {
+            toRemove[size++] = i;
+        }
+        g.removeNodes(toRemove, size, this);
+        // bridges between mandatory nodes
+        for (int k = 0; k < env_BCC_finder.bridgeFrom.size(); k++) {
+            int i = env_BCC_finder.bridgeFrom.get(k);
+            int j = env_BCC_finder.bridgeTo.get(k);
+            if (mand.contains(i) && mand.contains(j)) {
+                g.enforceArc(i, j, this);
+            }
+        }
+        nbToCheck = 0;
+        if (mand.size() >= 3) {
+            iter = mand.iterator();
+            while (iter.hasNext()) {
+                toCheck[nbToCheck++] = iter.nextInt();
+            }
+            checkDegrees();
+        }
+        ubBiconnected.set(mand.size() >= 3);
+    }
+
+    /**
+     * Computes the block-cut tree of the component of root, in bfs order, with the number of mandatory nodes in each subtree
+     */
+    private void buildBlockCutTree(int root) {
+        nbBCC = env_BCC_finder.getNbBCC();
+        int[] offsets = env_BCC_finder.getBCCOffsets();
+        int[] nodes = env_BCC_finder.getBCCNodes();
+        // blocks of each articulation point
+        for (int i = 0; i <= n; i++) {
+            apBlockStart[i] = 0;
+        }
+        for (int b = 0; b < nbBCC; b++) {
+            for (int k = offsets[b]; k < offsets[b + 1]; k++) {
+                int i = nodes[k];
+                if (env_BCC_finder.isArticulationPoint(i)) {
+                    apBlockStart[i + 1]++;
+                } else {
+                    blockOfNode[i] = b;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            apBlockStart[i + 1] += apBlockStart[i];
+        }
+        for (int b = 0; b < nbBCC; b++) {
+            for (int k = offsets[b]; k < offsets[b + 1]; k++) {
+                int i = nodes[k];
+                if (env_BCC_finder.isArticulationPoint(i)) {
+                    apBlocks[apBlockStart[i]++] = b;
+                }
+            }
+        }
+        for (int i = n; i > 0; i--) {
+            apBlockStart[i] = apBlockStart[i - 1];
+        }
+        apBlockStart[0] = 0;
+        // bfs from the root
+        ISet mand = g.getMandatoryNodes();
+        int size = nbBCC + n;
+        for (int t = 0; t < size; t++) {
+            parent[t] = -1;
+            order[t] = -1;
+        }
+        int first = 0;
+        int last = 0;
+        int r = env_BCC_finder.isArticulationPoint(root) ? nbBCC + root : blockOfNode[root];
+        order[last++] = r;
+        parent[r] = r;
+        while (first < last) {
+            int t = order[first++];
+            if (t < nbBCC) {
+                nbMand[t] = 0;
+                for (int k = offsets[t]; k < offsets[t + 1]; k++) {
+                    int i = nodes[k];
+                    if (env_BCC_finder.isArticulationPoint(i)) {
+                        if (parent[nbBCC + i] == -1) {
+                            parent[nbBCC + i] = t;
+                            order[last++] = nbBCC + i;
+                        }
+                    } else if (mand.contains(i)) {
+                        nbMand[t]++;
+                    }
+                }
+            } else {
+                int a = t - nbBCC;
+                nbMand[t] = mand.contains(a) ? 1 : 0;
+                for (int k = apBlockStart[a]; k < apBlockStart[a + 1]; k++) {
+                    int b = apBlocks[k];
+                    if (parent[b] == -1) {
+                        parent[b] = t;
+                        order[last++] = b;
+                    }
+                }
+            }
+        }
+        treeSize = last;
+        for (int k = last - 1; k > 0; k--) {
+            nbMand[parent[order[k]]] += nbMand[order[k]];
+        }
+    }
+
+    /**
+     * The side of t which contains the root has a mandatory node (unless t is the root),
+     * so other sides must not contain any, and their nodes can be removed
+     */
+    private void filterArticulationPoint(int t, boolean isRoot) throws ContradictionException {
+        int a = t - nbBCC;
+        int nbPositiveSides = isRoot ? 0 : 1;
+        for (int k = apBlockStart[a]; k < apBlockStart[a + 1]; k++) {
+            int b = apBlocks[k];
+            if (parent[b] == t && nbMand[b] > 0) {
+                nbPositiveSides++;
+            }
+        }
+        if (nbPositiveSides > 1) {
             fails();
         }
+        if (nbPositiveSides == 1) {
+            for (int k = apBlockStart[a]; k < apBlockStart[a + 1]; k++) {
+                int b = apBlocks[k];
+                if (parent[b] == t && nbMand[b] == 0) {
+                    removedSide.set(b);
+                    removeBlock(b);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the nodes of block b, except the articulation point through which it is reached
+     */
+    private void removeBlock(int b) {
+        int[] offsets = env_BCC_finder.getBCCOffsets();
+        int[] nodes = env_BCC_finder.getBCCNodes();
+        int a = parent[b] - nbBCC;
+        for (int k = offsets[b]; k < offsets[b + 1]; k++) {
+            if (nodes[k] != a) {
+                toRemoveSet.set(nodes[k]);
+            }
+        }
+    }
+
+    /**
+     * With at least 3 nodes, every node of a bi-connected graph has at least two neighbors
+     */
+    private void checkDegrees() throws ContradictionException {
+        ISet mand = g.getMandatoryNodes();
+        while (nbToCheck > 0) {
+            int i = toCheck[--nbToCheck];
+            ISet neigh = g.getPotNeighOf(i);
+            int degree = neigh.size() - (neigh.contains(i) ? 1 : 0);
+            if (degree < 2) {
+                fails();
+            }
+            if (degree == 2) {
+                ISetIterator iter = neigh.iterator();
+                while (iter.hasNext()) {
+                    int j = iter.nextInt();
+                    if (j != i) {
+                        boolean newNode = !mand.contains(j);
+                        g.enforceArc(i, j, this);
+                        if (newNode) {
+                            toCheck[nbToCheck++] = j;
+                        }
+                    }
+                }
+            }
+        }
     }
 
     //***********************************************************************************
@@ -82,14 +362,14 @@ public class PropBiconnected extends Propagator<UndirectedGraphVar> {
 
     @Override
     public ESat isEntailed() {
-		if (g.getPotentialNodes().size() == g.getMandatoryNodes().size()){
-			return ESat.UNDEFINED;
-		}
-        if (!env_CC_finder.isBiconnected()) {
-            return ESat.FALSE;
-        }
-        if (g.isInstantiated()) {
-            return ESat.TRUE;
+        if (g.getNbPotentialNodes() == g.getNbMandatoryNodes()) {
+            env_BCC_finder.findAll();
+            if (!env_BCC_finder.isBiconnected()) {
+                return ESat.FALSE;
+            }
+            if (g.isInstantiated()) {
+                return ESat.TRUE;
+            }
         }
         return ESat.UNDEFINED;
     }
@@ -28,20 +28,22 @@
 package org.chocosolver.graphsolver.cstrs.connectivity;
 
 import org.chocosolver.graphsolver.util.ConnectivityFinder;
+import org.chocosolver.graphsolver.util.GraphTraversal;
 import org.chocosolver.graphsolver.variables.GraphEventType;
 import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.util.ESat;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
 
 import java.util.BitSet;
 
 /**
  * Propagator checking that the graph is connected
- * can filter by forcing bridges
- *
- * In case not all vertices are mandatory, the filtering could be improved
+ * can filter by removing unreachable nodes and by forcing the nodes and bridges
+ * which are necessary to connect mandatory nodes together (articulation points and bridges
+ * of the envelope which dominate a mandatory node, computed by one dfs)
  *
  * @author Jean-Guillaume Fages
  */
@@ -57,6 +59,7 @@ public class PropConnected extends Propagator<UndirectedGraphVar> {
 	private int[] fifo;
 	private UndirectedGraphVar g;
 	private ConnectivityFinder env_CC_finder;
+	private GraphTraversal traversal;
 	private boolean checkerOnly;
 
 	//***********************************************************************************
@@ -74,6 +77,7 @@ public class PropConnected extends Propagator<UndirectedGraphVar> {
 		this.visited = new BitSet(n);
 		this.fifo = new int[n];
 		this.env_CC_finder = new ConnectivityFinder(g.getUB());
+		this.traversal = new GraphTraversal(n);
 		this.checkerOnly = checkerOnly;
 	}
 
@@ -94,21 +98,23 @@ public class PropConnected extends Propagator<UndirectedGraphVar> {
 		if(g.getMandatoryNodes().size()>1) {
 			// explore the graph from the first mandatory node
 			explore();
-			// remove unreachable nodes
+			// remove unreachable nodes (at once)
+			int size = 0;
 			for (int o = visited.nextClearBit(0); o < n; o = visited.nextClearBit(o + 1)) {
-				g.removeNode(o,this);
+				fifo[size++] = o;
 			}
-			// force isthma in case vertices are fixed
-			if (g.getMandatoryNodes().size() == g.getPotentialNodes().size() && !checkerOnly) {
-				if (!env_CC_finder.isConnectedAndFindIsthma()) {
-					throw new UnsupportedOperationException("connectivity has been checked");
+			g.removeNodes(fifo, size, this);
+			// force nodes and bridges which are necessary to connect mandatory nodes together
+			if (!checkerOnly) {
+				env_CC_finder.findCutsOf(g.getMandatoryNodes().iterator().nextInt(), g.getMandatoryNodes());
+				for (int i = 0; i < env_CC_finder.cutNodes.size(); i++) {
+					g.enforceNode(env_CC_finder.cutNodes.get(i), this);
 				}
 				int nbIsma = env_CC_finder.isthmusFrom.size();
 				for (int i = 0; i < nbIsma; i++) {
 					g.enforceArc(env_CC_finder.isthmusFrom.get(i), env_CC_finder.isthmusTo.get(i), this);
 				}
 			}
-			// one could force nodes which are necessary to connect mandatory nodes together (dominator algo)
 		}
 	}
 
@@ -122,8 +128,9 @@ public class PropConnected extends Propagator<UndirectedGraphVar> {
 			return ESat.FALSE;
 		}
 		explore();
-		for(int i: g.getMandatoryNodes()){
-			if(!visited.get(i)){
+		ISetIterator iter = g.getMandatoryNodes().iterator();
+		while (iter.hasNext()) {
+			if(!visited.get(iter.nextInt())){
 				return ESat.FALSE;
 			}
 		}
@@ -136,22 +143,9 @@ public class PropConnected extends Propagator<UndirectedGraphVar> {
 
 	private void explore() {
 		visited.clear();
-		int first = 0;
-		int last = 0;
 		if(g.getMandatoryNodes().size()<=0){
 			return; // empty graph
 		}
-		int i = g.getMandatoryNodes().iterator().next();
-		fifo[last++] = i;
-		visited.set(i);
-		while (first < last) {
-			i = fifo[first++];
-			for (int j : g.getPotNeighOf(i)) {
-				if (!visited.get(j)) {
-					visited.set(j);
-					fifo[last++] = j;
-				}
-			}
-		}
+		traversal.bfs(g.getUB(), g.getMandatoryNodes().iterator().nextInt(), false, visited, fifo);
 	}
 }
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.cstrs.connectivity;
+
+import org.chocosolver.graphsolver.util.ComponentSplitter;
+import org.chocosolver.graphsolver.util.BiconnectivityFinder;
+import org.chocosolver.graphsolver.util.GraphTraversal;
+import org.chocosolver.graphsolver.variables.GraphEventType;
+import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
+import org.chocosolver.graphsolver.variables.delta.GraphDeltaMonitor;
+import org.chocosolver.memory.IStateBool;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+import org.chocosolver.util.procedure.PairProcedure;
+
+import java.util.BitSet;
+
+/**
+ * Incremental propagator checking that the graph is connected
+ * (removes unreachable nodes and forces bridges once vertices are fixed)
+ *
+ * As soon as a vertex is mandatory, the upper bound is kept connected: every potential vertex
+ * lies in the component of the mandatory ones. This invariant is trailed, so that arc and vertex removals
+ * are handled from the delta: the surviving endpoints of removed arcs are checked to be still connected
+ * by growing two breadth-first searches in turn, which stops as soon as they meet
+ * or when the smallest side is exhausted (that side is then removed, or a failure is raised).
+ * Hence, the work is proportional to the part of the graph which is affected by the removal.
+ */
+public class PropConnected_Incr extends Propagator<UndirectedGraphVar> {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private int n;
+	private UndirectedGraphVar g;
+	private GraphDeltaMonitor gdm;
+	private PairProcedure arcRemoved;
+	// true iff the upper bound is known to be connected
+	private IStateBool ubConnected;
+	// true iff bridges have been enforced since the last arc removal
+	private IStateBool bridgesDone;
+	private BiconnectivityFinder env_BCC_finder;
+	private GraphTraversal traversal;
+	private ComponentSplitter splitter;
+	private BitSet visited;
+	private int[] fifo;
+	// surviving endpoints of removed arcs
+	private int[] touched;
+	private int nbTouched;
+	private BitSet isTouched;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	public PropConnected_Incr(UndirectedGraphVar graph) {
+		super(new UndirectedGraphVar[]{graph}, PropagatorPriority.LINEAR, true);
+		this.g = graph;
+		this.n = graph.getNbMaxNodes();
+		this.gdm = g.monitorDelta(this);
+		this.ubConnected = model.getEnvironment().makeBool(false);
+		this.bridgesDone = model.getEnvironment().makeBool(false);
+		this.env_BCC_finder = new BiconnectivityFinder(g.getUB());
+		this.traversal = new GraphTraversal(n);
+		this.splitter = new ComponentSplitter(n);
+		this.visited = new BitSet(n);
+		this.fifo = new int[n];
+		this.touched = new int[n];
+		this.isTouched = new BitSet(n);
+		this.arcRemoved = (i, j) -> {
+			touch(i);
+			touch(j);
+		};
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	@Override
+	public int getPropagationConditions(int vIdx) {
+		return GraphEventType.REMOVE_ARC.getMask() + GraphEventType.ADD_NODE.getMask() + GraphEventType.REMOVE_NODE.getMask();
+	}
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		if (g.getNbPotentialNodes() == 0) {
+			fails();
+		}
+		if (g.getNbMandatoryNodes() > 0) {
+			// explore the graph from a mandatory node and remove unreachable nodes (at once)
+			explore();
+			int size = 0;
+			ISetIterator iter = g.getPotentialNodes().iterator();
+			while (iter.hasNext()) {
+				int i = iter.nextInt();
+				if (!visited.get(i)) {
+					fifo[size++] = i;
+				}
+			}
+			g.removeNodes(fifo, size, this);
+			ubConnected.set(true);
+			bridgesDone.set(false);
+			enforceBridges();
+		} else {
+			ubConnected.set(false);
+		}
+		gdm.unfreeze();
+	}
+
+	@Override
+	public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+		if (!ubConnected.get()) {
+			propagate(0);
+			return;
+		}
+		nbTouched = 0;
+		gdm.freeze();
+		gdm.forEachArc(arcRemoved, GraphEventType.REMOVE_ARC);
+		gdm.unfreeze();
+		for (int k = 0; k < nbTouched; k++) {
+			isTouched.clear(touched[k]);
+		}
+		if (g.getNbPotentialNodes() == 0) {
+			fails();
+		}
+		// Before the removals, the upper bound was connected, so it still is
+		// iff all the surviving endpoints of removed arcs are connected to one of them
+		// (if the side of the anchor gets removed, so do all the nodes which have been connected to it)
+		ISet pot = g.getPotentialNodes();
+		int anchor = -1;
+		for (int k = 0; k < nbTouched; k++) {
+			int t = touched[k];
+			if (pot.contains(t)) {
+				if (anchor == -1) {
+					anchor = t;
+				} else {
+					connect(anchor, t);
+					if (!pot.contains(anchor)) {
+						anchor = t;
+					}
+				}
+			}
+		}
+		if (nbTouched > 0) {
+			bridgesDone.set(false);
+		}
+		enforceBridges();
+	}
+
+	private void touch(int i) {
+		if (!isTouched.get(i) && g.getPotentialNodes().contains(i)) {
+			isTouched.set(i);
+			touched[nbTouched++] = i;
+		}
+	}
+
+	private void enforceBridges() throws ContradictionException {
+		if (!bridgesDone.get() && g.getNbMandatoryNodes() == g.getNbPotentialNodes()) {
+			env_BCC_finder.findAll();
+			if (env_BCC_finder.getNbCC() != 1) {
+				throw new UnsupportedOperationException("connectivity has been checked");
+			}
+			int nbIsma = env_BCC_finder.bridgeFrom.size();
+			for (int i = 0; i < nbIsma; i++) {
+				g.enforceArc(env_BCC_finder.bridgeFrom.get(i), env_BCC_finder.bridgeTo.get(i), this);
+			}
+			bridgesDone.set(true);
+		}
+	}
+
+	/**
+	 * Checks whether a and b are still connected in the upper bound.
+	 * If they are not, the side which does not contain mandatory nodes is removed.
+	 *
+	 * @throws ContradictionException if both sides contain mandatory nodes
+	 */
+	private void connect(int a, int b) throws ContradictionException {
+		if (!splitter.split(g.getUB(), a, b)) {
+			return;
+		}
+		// at least one node is mandatory, as the upper bound is kept connected
+		int[] side = splitter.getCutSide();
+		int size = splitter.getCutSize();
+		int nbMand = g.getNbMandatoryNodes();
+		ISet mand = g.getMandatoryNodes();
+		int nbMandInSide = 0;
+		for (int k = 0; k < size; k++) {
+			if (mand.contains(side[k])) {
+				nbMandInSide++;
+			}
+		}
+		if (nbMandInSide == 0) {
+			g.removeNodes(side, size, this);
+		} else if (nbMandInSide < nbMand) {
+			fails();
+		} else {
+			// the other side has no mandatory node: remove it
+			g.removeNodes(splitter.getOtherSide(), splitter.completeOtherSide(), this);
+		}
+	}
+
+	private void explore() {
+		visited.clear();
+		traversal.bfs(g.getUB(), g.getMandatoryNodes().iterator().nextInt(), false, visited, fifo);
+	}
+
+	@Override
+	public ESat isEntailed() {
+		if (g.getNbPotentialNodes() == 1) {
+			return ESat.TRUE;
+		}
+		//Graphs with zero nodes are not connected.
+		if (g.getNbMandatoryNodes() == 0) {
+			return ESat.FALSE;
+		}
+		explore();
+		ISetIterator iter = g.getMandatoryNodes().iterator();
+		while (iter.hasNext()) {
+			if (!visited.get(iter.nextInt())) {
+				return ESat.FALSE;
+			}
+		}
+		if (!g.isInstantiated()) {
+			return ESat.UNDEFINED;
+		}
+		return ESat.TRUE;
+	}
+}
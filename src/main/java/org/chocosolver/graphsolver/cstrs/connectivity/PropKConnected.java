@@ -0,0 +1,429 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.cstrs.connectivity;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.chocosolver.graphsolver.util.DisjointPathFinder;
+import org.chocosolver.graphsolver.variables.GraphEventType;
+import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
+import org.chocosolver.graphsolver.variables.delta.GraphDeltaMonitor;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+import org.chocosolver.util.procedure.IntProcedure;
+import org.chocosolver.util.procedure.PairProcedure;
+
+import java.util.Arrays;
+
+/**
+ * Propagator ensuring that every two nodes of the final graph are linked by (at least) k edge-disjoint paths
+ * (k-edge-connectivity) or k internally vertex-disjoint paths (k-vertex-connectivity, a direct edge counting as one path)
+ * <p/>
+ * Paths are computed as max-flows in the upper bound, between mandatory nodes (sources) and other nodes:
+ * - a potential node which is linked to a source by less than k paths is removed (a mandatory one leads to a failure);
+ * - if a mandatory node is linked to a source by exactly k paths, edges and nodes of a min cut are enforced.
+ * <p/>
+ * One source is enough for edge-connectivity (cuts are transitive), while k sources are used for vertex-connectivity
+ * (any cut of less than k nodes misses one of them).
+ * <p/>
+ * Paths found for each pair are kept, together with an index from edges to the pairs whose paths cross them,
+ * so that a pair is checked again only if one of its paths lost an edge, if it is linked by exactly k paths
+ * and some edge has been removed (min cuts may have changed), or if its node became mandatory.
+ * Upon backtrack, kept paths remain valid as long as their edges still exist, only pairs linked by k paths or less
+ * are checked again.
+ */
+public class PropKConnected extends Propagator<UndirectedGraphVar> {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private UndirectedGraphVar g;
+	private int n, k, maxSources, nbSources;
+	private boolean vertexDisjoint;
+	private DisjointPathFinder env_path_finder;
+	private int[] sources, entailSources;
+	// pair (sources[q], t) has index q*n+t: number of paths found by its last check (-1 if unknown),
+	// and version of these paths (incremented by each check)
+	private int[] nbPaths, version;
+	// pairs to check
+	private TIntArrayList queue;
+	private boolean[] queued;
+	// pairs whose last paths cross each edge (x,y), x<y, keyed by x*n+y and encoded as pair<<32|version
+	private TLongObjectHashMap<TLongArrayList> users;
+	private TIntArrayList pathFrom, pathTo;
+	// true iff some edge has been removed since pairs linked by k paths have been checked
+	private boolean ubChanged;
+	// kept paths are up to date as long as no backtrack occurred since the last propagation
+	private IStateInt lastPropagation;
+	private int nbPropagations;
+	private GraphDeltaMonitor gdm;
+	private PairProcedure edgeRemoved;
+	private IntProcedure nodeEnforced;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * @param graph          an undirected graph variable
+	 * @param k              number of disjoint paths required between every two nodes
+	 * @param vertexDisjoint true for k-vertex-connectivity, false for k-edge-connectivity
+	 */
+	public PropKConnected(UndirectedGraphVar graph, int k, boolean vertexDisjoint) {
+		super(new UndirectedGraphVar[]{graph}, PropagatorPriority.CUBIC, true);
+		this.g = graph;
+		this.k = k;
+		this.vertexDisjoint = vertexDisjoint;
+		this.n = g.getNbMaxNodes();
+		this.maxSources = vertexDisjoint ? k : 1;
+		env_path_finder = new DisjointPathFinder(g.getUB(), vertexDisjoint);
+		sources = new int[maxSources];
+		entailSources = new int[maxSources];
+		nbPaths = new int[maxSources * n];
+		version = new int[maxSources * n];
+		queue = new TIntArrayList();
+		queued = new boolean[maxSources * n];
+		users = new TLongObjectHashMap<>();
+		pathFrom = new TIntArrayList();
+		pathTo = new TIntArrayList();
+		lastPropagation = model.getEnvironment().makeInt(-1);
+		gdm = g.monitorDelta(this);
+		edgeRemoved = (x, y) -> {
+			ubChanged = true;
+			invalidate(x, y);
+		};
+		nodeEnforced = this::nodeEnforced;
+	}
+
+	//***********************************************************************************
+	// PROPAGATIONS
+	//***********************************************************************************
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		clearQueue();
+		lastPropagation.set(++nbPropagations);
+		gdm.unfreeze();
+		users.clear();
+		Arrays.fill(nbPaths, -1);
+		nbSources = 0;
+		addSources();
+		filter();
+	}
+
+	@Override
+	public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+		clearQueue();
+		gdm.freeze();
+		if (lastPropagation.get() == nbPropagations) {
+			gdm.forEachArc(edgeRemoved, GraphEventType.REMOVE_ARC);
+			gdm.forEachNode(nodeEnforced, GraphEventType.ADD_NODE);
+		} else {
+			revise();
+		}
+		gdm.unfreeze();
+		lastPropagation.set(++nbPropagations);
+		filter();
+	}
+
+	/**
+	 * Checks queued pairs, and pairs linked by exactly k paths whenever some edge has been removed
+	 *
+	 * @throws ContradictionException if two mandatory nodes are linked by less than k paths
+	 */
+	private void filter() throws ContradictionException {
+		while (ubChanged || !queue.isEmpty()) {
+			if (ubChanged) {
+				ubChanged = false;
+				ISetIterator iter = g.getMandatoryNodes().iterator();
+				while (iter.hasNext()) {
+					int t = iter.nextInt();
+					for (int q = 0; q < nbSources; q++) {
+						if (nbPaths[q * n + t] == k) {
+							enqueue(q * n + t);
+						}
+					}
+				}
+			}
+			while (!queue.isEmpty()) {
+				int pair = queue.removeAt(queue.size() - 1);
+				queued[pair] = false;
+				check(pair);
+			}
+		}
+	}
+
+	/**
+	 * Computes disjoint paths between sources[pair/n] and node pair%n, and filters the graph accordingly
+	 */
+	private void check(int pair) throws ContradictionException {
+		int q = pair / n;
+		int s = sources[q];
+		int t = pair % n;
+		version[pair]++;
+		if (t == s || isSource(sources, t, q) || !g.getPotentialNodes().contains(t)) {
+			// nothing is known about this pair anymore
+			nbPaths[pair] = -1;
+			return;
+		}
+		int nb = g.getPotNeighOf(t).size() < k ? 0 : env_path_finder.findDisjointPaths(s, t, k);
+		nbPaths[pair] = nb;
+		if (nb < k) {
+			// other pairs may have paths through t
+			ISetIterator iter = g.getPotNeighOf(t).iterator();
+			while (iter.hasNext()) {
+				invalidate(t, iter.nextInt());
+			}
+			ubChanged = true;
+			g.removeNode(t, this);
+			return;
+		}
+		long entry = ((long) pair << 32) | (version[pair] & 0xFFFFFFFFL);
+		env_path_finder.getPathEdges(pathFrom, pathTo);
+		for (int i = 0; i < pathFrom.size(); i++) {
+			long key = edge(pathFrom.getQuick(i), pathTo.getQuick(i));
+			TLongArrayList list = users.get(key);
+			if (list == null) {
+				list = new TLongArrayList();
+				users.put(key, list);
+			} else if (list.size() > nbPaths.length) {
+				purge(list);
+			}
+			list.add(entry);
+		}
+		ISet mand = g.getMandatoryNodes();
+		if (nb == k && mand.contains(t)) {
+			TIntArrayList cutNodes = env_path_finder.cutNodes;
+			TIntArrayList cutFrom = env_path_finder.cutFrom;
+			TIntArrayList cutTo = env_path_finder.cutTo;
+			for (int i = 0; i < cutNodes.size(); i++) {
+				if (g.enforceNode(cutNodes.get(i), this)) {
+					nodeEnforced(cutNodes.get(i));
+				}
+			}
+			for (int i = 0; i < cutFrom.size(); i++) {
+				int x = cutFrom.get(i);
+				int y = cutTo.get(i);
+				boolean newX = !mand.contains(x);
+				boolean newY = !mand.contains(y);
+				g.enforceArc(x, y, this);
+				if (newX) {
+					nodeEnforced(x);
+				}
+				if (newY) {
+					nodeEnforced(y);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Queues pairs whose last paths cross edge (x,y), which is being removed
+	 * (entries are kept until these pairs are checked again, in case of a failure)
+	 */
+	private void invalidate(int x, int y) {
+		TLongArrayList list = users.get(edge(x, y));
+		if (list != null) {
+			for (int i = 0; i < list.size(); i++) {
+				long entry = list.getQuick(i);
+				int pair = (int) (entry >>> 32);
+				if ((int) entry == version[pair]) {
+					enqueue(pair);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes entries of pairs which have been checked again since
+	 */
+	private void purge(TLongArrayList list) {
+		int size = 0;
+		for (int i = 0; i < list.size(); i++) {
+			long entry = list.getQuick(i);
+			if ((int) entry == version[(int) (entry >>> 32)]) {
+				list.setQuick(size++, entry);
+			}
+		}
+		list.remove(size, list.size() - size);
+	}
+
+	/**
+	 * Node v became mandatory: pairs linked by exactly k paths now have cuts to enforce,
+	 * and v is a new source if there are not enough of them
+	 */
+	private void nodeEnforced(int v) {
+		for (int q = 0; q < nbSources; q++) {
+			if (nbPaths[q * n + v] == k) {
+				enqueue(q * n + v);
+			}
+		}
+		if (nbSources < maxSources && !isSource(sources, v, nbSources)) {
+			addSource(v);
+		}
+	}
+
+	/**
+	 * A backtrack occurred: sources which are no longer mandatory are dropped (with their pairs),
+	 * pairs which were not known to be linked by more than k paths and pairs whose paths lost an edge are queued
+	 */
+	private void revise() {
+		ISet mand = g.getMandatoryNodes();
+		int nb = 0;
+		while (nb < nbSources && mand.contains(sources[nb])) {
+			nb++;
+		}
+		for (int pair = nb * n; pair < nbSources * n; pair++) {
+			nbPaths[pair] = -1;
+			version[pair]++;
+		}
+		nbSources = nb;
+		for (int pair = 0; pair < nbSources * n; pair++) {
+			if (nbPaths[pair] <= k) {
+				enqueue(pair);
+			}
+		}
+		users.retainEntries((key, list) -> {
+			purge(list);
+			if (!g.getPotNeighOf((int) (key / n)).contains((int) (key % n))) {
+				for (int i = 0; i < list.size(); i++) {
+					enqueue((int) (list.getQuick(i) >>> 32));
+				}
+			}
+			return !list.isEmpty();
+		});
+		addSources();
+	}
+
+	/**
+	 * Completes sources with mandatory nodes
+	 */
+	private void addSources() {
+		ISetIterator iter = g.getMandatoryNodes().iterator();
+		while (nbSources < maxSources && iter.hasNext()) {
+			int s = iter.nextInt();
+			if (!isSource(sources, s, nbSources)) {
+				addSource(s);
+			}
+		}
+	}
+
+	/**
+	 * Adds s as a new source, and queues all its pairs
+	 */
+	private void addSource(int s) {
+		int q = nbSources++;
+		sources[q] = s;
+		ISetIterator iter = g.getPotentialNodes().iterator();
+		while (iter.hasNext()) {
+			enqueue(q * n + iter.nextInt());
+		}
+	}
+
+	private void enqueue(int pair) {
+		if (!queued[pair]) {
+			queued[pair] = true;
+			queue.add(pair);
+		}
+	}
+
+	/**
+	 * Empties the queue, which may be left non-empty by a failure
+	 */
+	private void clearQueue() {
+		for (int i = 0; i < queue.size(); i++) {
+			queued[queue.getQuick(i)] = false;
+		}
+		queue.resetQuick();
+		ubChanged = false;
+	}
+
+	private long edge(int x, int y) {
+		return x < y ? (long) x * n + y : (long) y * n + x;
+	}
+
+	/**
+	 * @return the number of sources, taken among mandatory nodes
+	 */
+	private int selectSources(int[] into) {
+		int nb = 0;
+		ISetIterator iter = g.getMandatoryNodes().iterator();
+		while (nb < maxSources && iter.hasNext()) {
+			into[nb++] = iter.nextInt();
+		}
+		return nb;
+	}
+
+	/**
+	 * @return true iff t is one of the q first sources (pairs of sources are checked once)
+	 */
+	private static boolean isSource(int[] sources, int t, int q) {
+		for (int i = 0; i < q; i++) {
+			if (sources[i] == t) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	//***********************************************************************************
+	// INFO
+	//***********************************************************************************
+
+	@Override
+	public int getPropagationConditions(int vIdx) {
+		// removing a node removes its edges, isolated nodes do not matter
+		return GraphEventType.REMOVE_ARC.getMask() + GraphEventType.ADD_NODE.getMask();
+	}
+
+	@Override
+	public ESat isEntailed() {
+		int nb = selectSources(entailSources);
+		for (int q = 0; q < nb; q++) {
+			int s = entailSources[q];
+			ISetIterator iter = g.getMandatoryNodes().iterator();
+			while (iter.hasNext()) {
+				int t = iter.nextInt();
+				if (t != s && !isSource(entailSources, t, q) && env_path_finder.findDisjointPaths(s, t, k) < k) {
+					return ESat.FALSE;
+				}
+			}
+		}
+		if (g.isInstantiated()) {
+			return ESat.TRUE;
+		}
+		return ESat.UNDEFINED;
+	}
+}
@@ -27,19 +27,36 @@
 
 package org.chocosolver.graphsolver.cstrs.connectivity;
 
+import org.chocosolver.graphsolver.util.ComponentSplitter;
+import org.chocosolver.graphsolver.util.BiconnectivityFinder;
 import org.chocosolver.graphsolver.util.ConnectivityFinder;
+import org.chocosolver.graphsolver.variables.GraphEventType;
 import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
+import org.chocosolver.graphsolver.variables.delta.GraphDeltaMonitor;
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.memory.IStateIntVector;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.Variable;
 import org.chocosolver.util.ESat;
+import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+import org.chocosolver.util.procedure.IntProcedure;
+import org.chocosolver.util.procedure.PairProcedure;
 
 /**
  * Propagator that ensures that the final graph consists in K Connected Components (CC)
  * <p/>
- * simple checker and a bit of pruning (runs in linear time)
+ * simple checker and a bit of pruning
+ * <p/>
+ * CC of both bounds are computed once (linear time) and then maintained incrementally:
+ * - CC of the lower bound are stored in a trailed union-find (union by rank, no path compression,
+ * so that backtracking simply restores the trailed parents), updated on node and arc enforcements;
+ * - CC of the upper bound are stored as trailed labels, updated on node and arc removals:
+ * each removed arc is checked by a ComponentSplitter, whose work is proportional to the smallest side.
  *
  * @author Jean-Guillaume Fages
  */
@@ -52,17 +69,70 @@ public class PropNbCC extends Propagator<Variable> {
 	private UndirectedGraphVar g;
 	private IntVar k;
 	private ConnectivityFinder env_CC_finder, ker_CC_finder;
+	private BiconnectivityFinder env_BCC_finder;
+	private int[] toRemove;
+	private GraphDeltaMonitor gdm;
+	private IntProcedure nodeEnforced, nodeRemoved;
+	private PairProcedure arcEnforced, arcRemoved;
+	// lower bound: union-find over mandatory nodes and number of CC
+	private IStateIntVector parent, rank;
+	private IStateInt nbLbCC;
+	// upper bound: label of nodes, number of potential and mandatory nodes per label,
+	// number of CC and number of CC with a mandatory node
+	private IStateIntVector ubLabel, nbPotIn, nbMandIn;
+	private IStateInt nbUbCC, nbMandCC;
+	private ComponentSplitter splitter;
+	// remaining endpoints of removed arcs, and representative endpoint of each label
+	private int[] touched, stamp, rep, repTime;
+	private int nbTouched, time;
 
 	//***********************************************************************************
 	// CONSTRUCTORS
 	//***********************************************************************************
 
 	public PropNbCC(UndirectedGraphVar graph, IntVar k) {
-		super(new Variable[]{graph, k}, PropagatorPriority.LINEAR, false);
+		super(new Variable[]{graph, k}, PropagatorPriority.LINEAR, true);
 		this.g = graph;
 		this.k = k;
+		int n = g.getNbMaxNodes();
 		env_CC_finder = new ConnectivityFinder(g.getUB());
 		ker_CC_finder = new ConnectivityFinder(g.getLB());
+		env_BCC_finder = new BiconnectivityFinder(g.getUB());
+		toRemove = new int[n];
+		gdm = g.monitorDelta(this);
+		IEnvironment environment = model.getEnvironment();
+		parent = environment.makeIntVector(n, 0);
+		rank = environment.makeIntVector(n, 0);
+		nbLbCC = environment.makeInt(0);
+		ubLabel = environment.makeIntVector(n, 0);
+		nbPotIn = environment.makeIntVector(n, 0);
+		nbMandIn = environment.makeIntVector(n, 0);
+		nbUbCC = environment.makeInt(0);
+		nbMandCC = environment.makeInt(0);
+		splitter = new ComponentSplitter(n);
+		touched = new int[n];
+		stamp = new int[n];
+		rep = new int[n];
+		repTime = new int[n];
+		nodeEnforced = this::nodeEnforced;
+		nodeRemoved = this::nodeRemoved;
+		arcEnforced = this::union;
+		arcRemoved = (i, j) -> {
+			touch(i);
+			touch(j);
+		};
+	}
+
+	/**
+	 * Computes CC from scratch with several threads when a bound has at least threshold nodes.
+	 * This only concerns the initial propagation (typically at the root node) and the entailment check,
+	 * as CC are then maintained incrementally
+	 *
+	 * @param threshold minimum number of nodes for a parallel computation (Integer.MAX_VALUE by default)
+	 */
+	public void setParallelThreshold(int threshold) {
+		env_CC_finder.setParallelThreshold(threshold);
+		ker_CC_finder.setParallelThreshold(threshold);
 	}
 
 	//***********************************************************************************
@@ -71,55 +141,227 @@ public class PropNbCC extends Propagator<Variable> {
 
 	@Override
 	public void propagate(int evtmask) throws ContradictionException {
-		// trivial case
-		k.updateLowerBound(0,this);
-		if(g.getPotentialNodes().size() == 0){
-			k.instantiateTo(0,this);
-			return;
-		}
-		if(k.getUB() == 0){
-			for(int i : g.getPotentialNodes()){
-				g.removeNode(i,this);
+		// initial computation of CC
+		env_CC_finder.findAllCC();
+		int ccs = env_CC_finder.getNBCC();
+		int mandCC = 0;
+		ISet mand = g.getMandatoryNodes();
+		for (int cc = 0; cc < ccs; cc++) {
+			int first = env_CC_finder.getCC_firstNode()[cc];
+			int nbPot = 0, nbMand = 0;
+			for (int i = first; i >= 0; i = env_CC_finder.getCC_nextNode()[i]) {
+				ubLabel.quickSet(i, first);
+				nbPot++;
+				if (mand.contains(i)) {
+					nbMand++;
+				}
 			}
-			return;
+			nbPotIn.quickSet(first, nbPot);
+			nbMandIn.quickSet(first, nbMand);
+			if (nbMand > 0) {
+				mandCC++;
+			}
+		}
+		nbUbCC.set(ccs);
+		nbMandCC.set(mandCC);
+		nbLbCC.set(0);
+		ISetIterator iter = mand.iterator();
+		while (iter.hasNext()) {
+			makeSet(iter.nextInt());
 		}
+		iter = mand.iterator();
+		while (iter.hasNext()) {
+			int i = iter.nextInt();
+			ISetIterator nei = g.getMandNeighOf(i).iterator();
+			while (nei.hasNext()) {
+				union(i, nei.nextInt());
+			}
+		}
+		gdm.unfreeze();
+		filter();
+	}
+
+	@Override
+	public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+		// graph events may still be pending when k is modified, so the delta is always consumed
+		nbTouched = 0;
+		time++;
+		gdm.freeze();
+		gdm.forEachNode(nodeEnforced, GraphEventType.ADD_NODE);
+		gdm.forEachArc(arcEnforced, GraphEventType.ADD_ARC);
+		gdm.forEachNode(nodeRemoved, GraphEventType.REMOVE_NODE);
+		gdm.forEachArc(arcRemoved, GraphEventType.REMOVE_ARC);
+		gdm.unfreeze();
+		checkTouched();
+		filter();
+	}
 
+	private void filter() throws ContradictionException {
 		// bound computation
-		int min = minCC();
-		int max = maxCC();
+		int min = nbMandCC.get();
 		k.updateLowerBound(min, this);
-		k.updateUpperBound(max,this);
-
-		// A bit of pruning (removes unreachable nodes)
-		if(k.getUB() == min && min != max){
-			int ccs = env_CC_finder.getNBCC();
-			boolean pot = true;
-			for (int cc = 0; cc < ccs; cc++) {
-				for (int i = env_CC_finder.getCC_firstNode()[cc]; i >= 0 && pot; i = env_CC_finder.getCC_nextNode()[i]) {
-					if (g.getMandatoryNodes().contains(i)) {
-						pot = false;
-					}
-				}
-				if(pot){
-					for (int i = env_CC_finder.getCC_firstNode()[cc]; i >= 0; i = env_CC_finder.getCC_nextNode()[i]) {
-						g.removeNode(i,this);
-					}
+		k.updateUpperBound(maxCC(nbLbCC.get()), this);
+
+		// A bit of pruning: removes nodes of CC without mandatory nodes (they would create extra CC)
+		if (k.getUB() == min && nbUbCC.get() > min) {
+			int size = 0;
+			ISetIterator iter = g.getPotentialNodes().iterator();
+			while (iter.hasNext()) {
+				int i = iter.nextInt();
+				if (nbMandIn.quickGet(ubLabel.quickGet(i)) == 0) {
+					toRemove[size++] = i;
 				}
 			}
+			g.removeNodes(toRemove, size, this);
+			nbUbCC.set(min);
+			k.updateUpperBound(maxCC(nbLbCC.get()), this);
 		}
 
 		// Force isthma in case of 1 CC and if vertices are fixed
 		if(k.isInstantiatedTo(1) && g.getMandatoryNodes().size()==g.getPotentialNodes().size()){
-			if (!env_CC_finder.isConnectedAndFindIsthma()) {
+			env_BCC_finder.findAll();
+			if (env_BCC_finder.getNbCC() != 1) {
 				throw new UnsupportedOperationException("connectivity has been checked");
 			}
-			int nbIsma = env_CC_finder.isthmusFrom.size();
+			int nbIsma = env_BCC_finder.bridgeFrom.size();
 			for (int i = 0; i < nbIsma; i++) {
-				g.enforceArc(env_CC_finder.isthmusFrom.get(i), env_CC_finder.isthmusTo.get(i), this);
+				int from = env_BCC_finder.bridgeFrom.get(i);
+				int to = env_BCC_finder.bridgeTo.get(i);
+				g.enforceArc(from, to, this);
+				// own modifications are not seen by the delta monitor
+				union(from, to);
+			}
+		}
+	}
+
+	//***********************************************************************************
+	// LOWER BOUND
+	//***********************************************************************************
+
+	private void makeSet(int i) {
+		parent.quickSet(i, i);
+		rank.quickSet(i, 0);
+		nbLbCC.add(1);
+	}
+
+	private int find(int i) {
+		while (parent.quickGet(i) != i) {
+			i = parent.quickGet(i);
+		}
+		return i;
+	}
+
+	private void union(int i, int j) {
+		int ri = find(i);
+		int rj = find(j);
+		if (ri != rj) {
+			int ranki = rank.quickGet(ri);
+			int rankj = rank.quickGet(rj);
+			if (ranki < rankj) {
+				parent.quickSet(ri, rj);
+			} else {
+				parent.quickSet(rj, ri);
+				if (ranki == rankj) {
+					rank.quickSet(ri, ranki + 1);
+				}
+			}
+			nbLbCC.add(-1);
+		}
+	}
+
+	private void nodeEnforced(int i) {
+		makeSet(i);
+		int l = ubLabel.quickGet(i);
+		nbMandIn.quickSet(l, nbMandIn.quickGet(l) + 1);
+		if (nbMandIn.quickGet(l) == 1) {
+			nbMandCC.add(1);
+		}
+	}
+
+	//***********************************************************************************
+	// UPPER BOUND
+	//***********************************************************************************
+
+	private void nodeRemoved(int i) {
+		int l = ubLabel.quickGet(i);
+		nbPotIn.quickSet(l, nbPotIn.quickGet(l) - 1);
+		if (nbPotIn.quickGet(l) == 0) {
+			nbUbCC.add(-1);
+		}
+	}
+
+	private void touch(int i) {
+		if (stamp[i] != time && g.getPotentialNodes().contains(i)) {
+			stamp[i] = time;
+			touched[nbTouched++] = i;
+		}
+	}
+
+	/**
+	 * Checks that the remaining endpoints of removed arcs are still connected.
+	 * Every new CC contains such an endpoint, so, for each label, they are compared
+	 * to a representative endpoint having that label.
+	 */
+	private void checkTouched() {
+		for (int q = 0; q < nbTouched; q++) {
+			int t = touched[q];
+			int l = ubLabel.quickGet(t);
+			if (repTime[l] != time) {
+				repTime[l] = time;
+				rep[l] = t;
+			} else if (splitter.split(g.getUB(), rep[l], t)) {
+				int r = rep[l];
+				split(l);
+				// previous endpoints of label l are on the side of r
+				int lr = ubLabel.quickGet(r);
+				int lt = ubLabel.quickGet(t);
+				repTime[lr] = repTime[lt] = time;
+				rep[lr] = r;
+				rep[lt] = t;
 			}
 		}
 	}
 
+	/**
+	 * Relabels the cut side of the splitter, which has been separated from the rest of the CC labelled by l
+	 */
+	private void split(int l) {
+		ISet mand = g.getMandatoryNodes();
+		int[] side = splitter.getCutSide();
+		int size = splitter.getCutSize();
+		if (splitter.isInCutSide(l)) {
+			// the label must remain a node of its CC (or a removed one), so the other side is relabelled
+			side = splitter.getOtherSide();
+			size = splitter.completeOtherSide();
+		}
+		int nbMand = 0;
+		int label = side[0];
+		for (int q = 0; q < size; q++) {
+			ubLabel.quickSet(side[q], label);
+			if (mand.contains(side[q])) {
+				nbMand++;
+			}
+		}
+		int nbMandRest = nbMandIn.quickGet(l) - nbMand;
+		nbPotIn.quickSet(label, size);
+		nbMandIn.quickSet(label, nbMand);
+		nbPotIn.quickSet(l, nbPotIn.quickGet(l) - size);
+		nbMandIn.quickSet(l, nbMandRest);
+		nbUbCC.add(1);
+		if (nbMand > 0 && nbMandRest > 0) {
+			nbMandCC.add(1);
+		}
+	}
+
+	//***********************************************************************************
+	// INFO
+	//***********************************************************************************
+
+	private int maxCC(int nbK) {
+		int delta = g.getPotentialNodes().size()-g.getMandatoryNodes().size();
+		return nbK+delta;
+	}
+
 	public int minCC() {
 		env_CC_finder.findAllCC();
 		int ccs = env_CC_finder.getNBCC();
@@ -137,15 +379,9 @@ public class PropNbCC extends Propagator<Variable> {
 
 	public int maxCC() {
 		ker_CC_finder.findAllCC();
-		int nbK = ker_CC_finder.getNBCC();
-		int delta = g.getPotentialNodes().size()-g.getMandatoryNodes().size();
-		return nbK+delta;
+		return maxCC(ker_CC_finder.getNBCC());
 	}
 
-	//***********************************************************************************
-	// INFO
-	//***********************************************************************************
-
 	@Override
 	public ESat isEntailed() {
 		if (k.getUB() < minCC() || k.getLB()>maxCC()) {
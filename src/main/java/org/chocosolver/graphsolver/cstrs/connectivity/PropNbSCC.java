@@ -29,17 +29,35 @@ package org.chocosolver.graphsolver.cstrs.connectivity;
 
 import org.chocosolver.graphsolver.util.StrongConnectivityFinder;
 import org.chocosolver.graphsolver.variables.DirectedGraphVar;
+import org.chocosolver.graphsolver.variables.GraphEventType;
+import org.chocosolver.graphsolver.variables.delta.GraphDeltaMonitor;
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.memory.IStateIntVector;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.Variable;
 import org.chocosolver.util.ESat;
+import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+import org.chocosolver.util.procedure.IntProcedure;
+import org.chocosolver.util.procedure.PairProcedure;
+
+import java.util.Arrays;
 
 /**
  * Propagator that ensures that the final graph consists in K Strongly Connected Components (SCC)
  * <p/>
- * simple checker and a bit of pruning (runs in linear time)
+ * simple checker and a bit of pruning
+ * <p/>
+ * SCC of both bounds are computed once (linear time) and then maintained incrementally, with trailed labels
+ * (each node is labelled by a node of its SCC):
+ * - an arc (or node) removal can only split the SCC of the upper bound which contains it,
+ * so Tarjan algorithm is only run on the nodes of that SCC;
+ * - an arc enforcement (u,v) merges the SCC of the lower bound which lie on a cycle through (u,v),
+ * i.e. nodes reachable from v which reach u.
  *
  * @author Jean-Guillaume Fages
  */
@@ -52,17 +70,70 @@ public class PropNbSCC extends Propagator<Variable> {
 	private DirectedGraphVar g;
 	private IntVar k;
 	private StrongConnectivityFinder env_CC_finder, ker_CC_finder;
+	private GraphDeltaMonitor gdm;
+	private IntProcedure nodeEnforced, nodeRemoved;
+	private PairProcedure arcEnforced, arcRemoved;
+	// SCC of the upper bound: label of nodes, number of mandatory nodes per label, number of SCC, number of SCC with a mandatory node
+	private IStateIntVector ubLabel, nbMandIn;
+	private IStateInt nbUbSCC, nbMandSCC;
+	// SCC of the lower bound: label of nodes and number of SCC
+	private IStateIntVector lbLabel;
+	private IStateInt nbLbSCC;
+	// removed SCC (by label) and nodes from which their remaining parts are collected
+	private int[] dirty, seeds, fifo;
+	private int nbDirty, nbSeeds;
+	// time-stamped marks
+	private int[] mark, labelMark, seedMark;
+	private int stamp, batch;
 
 	//***********************************************************************************
 	// CONSTRUCTORS
 	//***********************************************************************************
 
 	public PropNbSCC(DirectedGraphVar graph, IntVar k) {
-		super(new Variable[]{graph, k}, PropagatorPriority.LINEAR, false);
+		super(new Variable[]{graph, k}, PropagatorPriority.LINEAR, true);
 		this.g = graph;
 		this.k = k;
+		int n = g.getNbMaxNodes();
 		env_CC_finder = new StrongConnectivityFinder(g.getUB());
 		ker_CC_finder = new StrongConnectivityFinder(g.getLB());
+		gdm = g.monitorDelta(this);
+		IEnvironment environment = model.getEnvironment();
+		ubLabel = environment.makeIntVector(n, 0);
+		nbMandIn = environment.makeIntVector(n, 0);
+		lbLabel = environment.makeIntVector(n, 0);
+		nbUbSCC = environment.makeInt(0);
+		nbMandSCC = environment.makeInt(0);
+		nbLbSCC = environment.makeInt(0);
+		dirty = new int[n];
+		seeds = new int[n];
+		fifo = new int[n];
+		mark = new int[n];
+		labelMark = new int[n];
+		seedMark = new int[n];
+		nodeEnforced = this::nodeEnforced;
+		nodeRemoved = i -> markDirty(ubLabel.quickGet(i));
+		arcRemoved = (i, j) -> {
+			int l = ubLabel.quickGet(i);
+			if (l == ubLabel.quickGet(j)) {
+				markDirty(l);
+				addSeed(i);
+				addSeed(j);
+			}
+		};
+		arcEnforced = this::arcEnforced;
+	}
+
+	/**
+	 * Computes SCC from scratch with several threads when a bound has at least threshold nodes.
+	 * This only concerns the initial propagation (typically at the root node) and the entailment check,
+	 * as SCC are then maintained incrementally
+	 *
+	 * @param threshold minimum number of nodes for a parallel computation (Integer.MAX_VALUE by default)
+	 */
+	public void setParallelThreshold(int threshold) {
+		env_CC_finder.setParallelThreshold(threshold);
+		ker_CC_finder.setParallelThreshold(threshold);
 	}
 
 	//***********************************************************************************
@@ -71,44 +142,235 @@ public class PropNbSCC extends Propagator<Variable> {
 
 	@Override
 	public void propagate(int evtmask) throws ContradictionException {
-		// trivial case
-		k.updateLowerBound(0,this);
-		if(g.getPotentialNodes().size() == 0){
-			k.instantiateTo(0,this);
+		// initial computation of SCC
+		env_CC_finder.findAllSCC();
+		int mandSCC = 0;
+		for (int cc = 0; cc < env_CC_finder.getNbSCC(); cc++) {
+			if (label(env_CC_finder, cc, ubLabel) > 0) {
+				mandSCC++;
+			}
+		}
+		nbUbSCC.set(env_CC_finder.getNbSCC());
+		nbMandSCC.set(mandSCC);
+		ker_CC_finder.findAllSCC();
+		for (int cc = 0; cc < ker_CC_finder.getNbSCC(); cc++) {
+			label(ker_CC_finder, cc, lbLabel);
+		}
+		nbLbSCC.set(ker_CC_finder.getNbSCC());
+		gdm.unfreeze();
+		filter();
+	}
+
+	@Override
+	public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+		// graph events may still be pending when k is modified, so the delta is always consumed
+		nbDirty = nbSeeds = 0;
+		batch = nextStamp();
+		gdm.freeze();
+		gdm.forEachNode(nodeEnforced, GraphEventType.ADD_NODE);
+		gdm.forEachArc(arcEnforced, GraphEventType.ADD_ARC);
+		gdm.forEachNode(nodeRemoved, GraphEventType.REMOVE_NODE);
+		gdm.forEachArc(arcRemoved, GraphEventType.REMOVE_ARC);
+		gdm.unfreeze();
+		if (nbDirty > 0) {
+			splitDirtySCC();
+		}
+		filter();
+	}
+
+	private void filter() throws ContradictionException {
+		int min = nbMandSCC.get();
+		k.updateLowerBound(min, this);
+		k.updateUpperBound(maxCC(nbLbSCC.get()), this);
+		// A bit of pruning: removes nodes of SCC without mandatory nodes (they would create extra SCC)
+		if (k.getUB() == min && nbUbSCC.get() > min) {
+			int size = 0;
+			ISetIterator iter = g.getPotentialNodes().iterator();
+			while (iter.hasNext()) {
+				int i = iter.nextInt();
+				if (nbMandIn.quickGet(ubLabel.quickGet(i)) == 0) {
+					fifo[size++] = i;
+				}
+			}
+			g.removeNodes(fifo, size, this);
+			nbUbSCC.set(min);
+			k.updateUpperBound(maxCC(nbLbSCC.get()), this);
+		}
+	}
+
+	/**
+	 * Labels nodes of the given SCC with its first node
+	 *
+	 * @return the number of mandatory nodes in the SCC
+	 */
+	private int label(StrongConnectivityFinder finder, int cc, IStateIntVector labels) {
+		ISet mand = g.getMandatoryNodes();
+		int first = finder.getSCCFirstNode(cc);
+		int nbMand = 0;
+		for (int i = first; i >= 0; i = finder.getNextNode(i)) {
+			labels.quickSet(i, first);
+			if (mand.contains(i)) {
+				nbMand++;
+			}
+		}
+		if (labels == ubLabel) {
+			nbMandIn.quickSet(first, nbMand);
+		}
+		return nbMand;
+	}
+
+	private void nodeEnforced(int i) {
+		lbLabel.quickSet(i, i);
+		nbLbSCC.add(1);
+		int l = ubLabel.quickGet(i);
+		nbMandIn.quickSet(l, nbMandIn.quickGet(l) + 1);
+		if (nbMandIn.quickGet(l) == 1) {
+			nbMandSCC.add(1);
+		}
+	}
+
+	/**
+	 * Merges the SCC of the lower bound which lie on a cycle through (u,v)
+	 */
+	private void arcEnforced(int u, int v) {
+		int lu = lbLabel.quickGet(u);
+		if (lu == lbLabel.quickGet(v)) {
 			return;
 		}
-		if(k.getUB() == 0){
-			for(int i : g.getPotentialNodes()){
-				g.removeNode(i,this);
+		// forward search from v
+		int sf = nextStamp();
+		int first = 0, last = 0;
+		mark[v] = sf;
+		fifo[last++] = v;
+		while (first < last && mark[u] != sf) {
+			ISetIterator iter = g.getMandSuccOf(fifo[first++]).iterator();
+			while (iter.hasNext()) {
+				int j = iter.nextInt();
+				if (mark[j] != sf) {
+					mark[j] = sf;
+					fifo[last++] = j;
+				}
 			}
+		}
+		if (mark[u] != sf) {
 			return;
 		}
+		// complete the forward search, then backward search from u among reached nodes
+		while (first < last) {
+			ISetIterator iter = g.getMandSuccOf(fifo[first++]).iterator();
+			while (iter.hasNext()) {
+				int j = iter.nextInt();
+				if (mark[j] != sf) {
+					mark[j] = sf;
+					fifo[last++] = j;
+				}
+			}
+		}
+		int sb = nextStamp();
+		first = last = 0;
+		mark[u] = sb;
+		fifo[last++] = u;
+		labelMark[lu] = sb;
+		int nbMerged = 1;
+		while (first < last) {
+			int i = fifo[first++];
+			int l = lbLabel.quickGet(i);
+			if (labelMark[l] != sb) {
+				labelMark[l] = sb;
+				nbMerged++;
+			}
+			lbLabel.quickSet(i, lu);
+			ISetIterator iter = g.getMandPredOf(i).iterator();
+			while (iter.hasNext()) {
+				int j = iter.nextInt();
+				if (mark[j] == sf) {
+					mark[j] = sb;
+					fifo[last++] = j;
+				}
+			}
+		}
+		nbLbSCC.add(1 - nbMerged);
+	}
 
-		// bound computation
-		int min = minCC();
-		int max = maxCC();
-		k.updateLowerBound(min, this);
-		k.updateUpperBound(max,this);
-
-		// A bit of pruning (removes unreachable nodes)
-		if(k.getUB() == min && min != max){
-			int ccs = env_CC_finder.getNbSCC();
-			boolean pot = true;
-			for (int cc = 0; cc < ccs; cc++) {
-				for (int i = env_CC_finder.getSCCFirstNode(cc); i >= 0 && pot; i = env_CC_finder.getNextNode(i)) {
-					if (g.getMandatoryNodes().contains(i)) {
-						pot = false;
-					}
+	private void markDirty(int l) {
+		if (labelMark[l] != batch) {
+			labelMark[l] = batch;
+			dirty[nbDirty++] = l;
+		}
+	}
+
+	private void addSeed(int i) {
+		if (seedMark[i] != batch) {
+			seedMark[i] = batch;
+			seeds[nbSeeds++] = i;
+		}
+	}
+
+	/**
+	 * Recomputes the SCC of the upper bound which have lost arcs or nodes.
+	 * The remaining nodes of such a SCC are reachable (regardless of arc directions, within the SCC)
+	 * from the endpoints of its removed arcs, so Tarjan algorithm is only run on them.
+	 */
+	private void splitDirtySCC() {
+		int s = nextStamp();
+		for (int d = 0; d < nbDirty; d++) {
+			int l = dirty[d];
+			nbUbSCC.add(-1);
+			if (nbMandIn.quickGet(l) > 0) {
+				nbMandSCC.add(-1);
+			}
+		}
+		ISet pot = g.getPotentialNodes();
+		for (int q = 0; q < nbSeeds; q++) {
+			int seed = seeds[q];
+			if (mark[seed] != s && pot.contains(seed)) {
+				// collects the part of the SCC of seed which is weakly connected to seed
+				int l = ubLabel.quickGet(seed);
+				int first = 0, last = 0;
+				mark[seed] = s;
+				fifo[last++] = seed;
+				while (first < last) {
+					int i = fifo[first++];
+					last = collect(g.getPotSuccOf(i).iterator(), l, s, last);
+					last = collect(g.getPotPredOf(i).iterator(), l, s, last);
 				}
-				if(pot){
-					for (int i = env_CC_finder.getSCCFirstNode(cc); i >= 0; i = env_CC_finder.getNextNode(i)) {
-						g.removeNode(i,this);
+				env_CC_finder.findAllSCCOf(fifo, last);
+				for (int cc = 0; cc < env_CC_finder.getNbSCC(); cc++) {
+					nbUbSCC.add(1);
+					if (label(env_CC_finder, cc, ubLabel) > 0) {
+						nbMandSCC.add(1);
 					}
 				}
 			}
 		}
 	}
 
+	private int collect(ISetIterator iter, int l, int s, int last) {
+		while (iter.hasNext()) {
+			int j = iter.nextInt();
+			if (mark[j] != s && ubLabel.quickGet(j) == l) {
+				mark[j] = s;
+				fifo[last++] = j;
+			}
+		}
+		return last;
+	}
+
+	private int nextStamp() {
+		if (stamp >= Integer.MAX_VALUE - 2) {
+			Arrays.fill(mark, 0);
+			Arrays.fill(labelMark, 0);
+			Arrays.fill(seedMark, 0);
+			stamp = 0;
+		}
+		return ++stamp;
+	}
+
+	private int maxCC(int nbK) {
+		int delta = g.getPotentialNodes().size()-g.getMandatoryNodes().size();
+		return nbK+delta;
+	}
+
 	public int minCC() {
 		env_CC_finder.findAllSCC();
 		int ccs = env_CC_finder.getNbSCC();
@@ -126,9 +388,7 @@ public class PropNbSCC extends Propagator<Variable> {
 
 	public int maxCC() {
 		ker_CC_finder.findAllSCC();
-		int nbK = ker_CC_finder.getNbSCC();
-		int delta = g.getPotentialNodes().size()-g.getMandatoryNodes().size();
-		return nbK+delta;
+		return maxCC(ker_CC_finder.getNbSCC());
 	}
 
 	//***********************************************************************************
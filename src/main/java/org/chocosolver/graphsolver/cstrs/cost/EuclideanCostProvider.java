@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.cstrs.cost;
+
+/**
+ * Costs computed on the fly from vertex coordinates,
+ * as the Euclidean distance rounded to the nearest integer (EUC_2D distance of the TSPLIB).
+ * Requires O(n) memory.
+ */
+public class EuclideanCostProvider implements ICostProvider {
+
+	private final double[] x, y;
+
+	/**
+	 * @param x	abscissa of every vertex (not copied)
+	 * @param y	ordinate of every vertex (not copied)
+	 */
+	public EuclideanCostProvider(double[] x, double[] y) {
+		if (x.length != y.length) {
+			throw new IllegalArgumentException("x and y should have the same length");
+		}
+		this.x = x;
+		this.y = y;
+	}
+
+	@Override
+	public int getNbMaxNodes() {
+		return x.length;
+	}
+
+	@Override
+	public int getCost(int i, int j) {
+		double dx = x[i] - x[j];
+		double dy = y[i] - y[j];
+		return (int) (Math.sqrt(dx * dx + dy * dy) + 0.5);
+	}
+}
@@ -58,5 +58,15 @@ public interface GraphLagrangianRelaxation extends IGraphRelaxation {
 
     void remove(int i, int j) throws ContradictionException;
 
+    /**
+     * Removes arcs (from[k],to[k]) for every k in [0,size-1]
+     * Can be overridden to notify propagators once for all removals
+     */
+    default void removeAll(int[] from, int[] to, int size) throws ContradictionException {
+        for (int k = 0; k < size; k++) {
+            remove(from[k], to[k]);
+        }
+    }
+
     void enforce(int i, int j) throws ContradictionException;
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.cstrs.cost;
+
+import org.chocosolver.graphsolver.variables.EdgeUniverse;
+
+/**
+ * Provides the integer cost of arcs (or edges) of a graph over vertices [0,n-1].
+ * This decouples cost-based constraints and search strategies from the representation of costs:
+ * a dense matrix (O(n^2) memory), a sparse list of candidate edges (O(n+m) memory)
+ * or a function computed on the fly, such as Euclidean distances (O(n) memory).
+ * <br/>
+ * Costs are only queried for arcs which may belong to the graph (potential arcs).
+ */
+public interface ICostProvider {
+
+	/**
+	 * @return the maximum number of vertices, vertices are in [0,getNbMaxNodes()-1]
+	 */
+	int getNbMaxNodes();
+
+	/**
+	 * @param i a vertex
+	 * @param j a vertex
+	 * @return the cost of arc (or edge) (i,j)
+	 */
+	int getCost(int i, int j);
+
+	/**
+	 * @param costMatrix cost matrix, costMatrix[i][j] is the cost of arc (i,j)
+	 * @return a cost provider reading costMatrix (which is not copied)
+	 */
+	static ICostProvider dense(int[][] costMatrix) {
+		return new DenseCostProvider(costMatrix);
+	}
+
+	/**
+	 * @param universe	candidate edges
+	 * @param edgeCosts	edgeCosts[e] is the cost of the edge of id e in universe
+	 * @return a cost provider for undirected graphs whose edges belong to universe
+	 */
+	static ICostProvider sparse(EdgeUniverse universe, int[] edgeCosts) {
+		return new SparseCostProvider(universe, edgeCosts);
+	}
+
+	/**
+	 * @param x	abscissa of every vertex
+	 * @param y	ordinate of every vertex
+	 * @return a cost provider computing rounded Euclidean distances on the fly
+	 */
+	static ICostProvider euclidean(double[] x, double[] y) {
+		return new EuclideanCostProvider(x, y);
+	}
+}
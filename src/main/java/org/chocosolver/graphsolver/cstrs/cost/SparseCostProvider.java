@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.cstrs.cost;
+
+import org.chocosolver.graphsolver.variables.EdgeUniverse;
+
+/**
+ * Costs of the candidate edges of an EdgeUniverse, stored by edge id (compressed sparse rows).
+ * Requires O(n+m) memory and finds the cost of an edge (i,j) in O(log(degree(i))).
+ * Costs are symmetric: (i,j) and (j,i) denote the same edge.
+ */
+public class SparseCostProvider implements ICostProvider {
+
+	private final EdgeUniverse universe;
+	private final int[] edgeCosts;
+
+	/**
+	 * @param universe	candidate edges
+	 * @param edgeCosts	edgeCosts[e] is the cost of the edge of id e in universe (not copied)
+	 */
+	public SparseCostProvider(EdgeUniverse universe, int[] edgeCosts) {
+		if (edgeCosts.length != universe.getNbEdges()) {
+			throw new IllegalArgumentException("one cost per candidate edge is expected");
+		}
+		this.universe = universe;
+		this.edgeCosts = edgeCosts;
+	}
+
+	/**
+	 * @param n			maximum number of vertices
+	 * @param edges		candidate edges, each one given as a pair of vertices {i,j} in [0,n-1]
+	 * @param edgeCosts	edgeCosts[e] is the cost of edge edges[e]
+	 */
+	public SparseCostProvider(int n, int[][] edges, int[] edgeCosts) {
+		this(new EdgeUniverse(n, edges), edgeCosts);
+	}
+
+	@Override
+	public int getNbMaxNodes() {
+		return universe.getNbMaxNodes();
+	}
+
+	@Override
+	public int getCost(int i, int j) {
+		int e = universe.getEdge(i, j);
+		if (e == -1) {
+			throw new IllegalArgumentException("(" + i + "," + j + ") is not a candidate edge");
+		}
+		return edgeCosts[e];
+	}
+
+	/**
+	 * @param e an edge id
+	 * @return the cost of the edge of id e
+	 */
+	public int getEdgeCost(int e) {
+		return edgeCosts[e];
+	}
+
+	/**
+	 * @return the candidate edges
+	 */
+	public EdgeUniverse getUniverse() {
+		return universe;
+	}
+}
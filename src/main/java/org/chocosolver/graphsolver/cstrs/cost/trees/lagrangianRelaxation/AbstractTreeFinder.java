@@ -62,7 +62,18 @@ public abstract class AbstractTreeFinder {
     // METHODS
     //***********************************************************************************
 
-    public abstract void computeMST(double[][] costMatrix, UndirectedGraph graph) throws ContradictionException;
+    /**
+     * Computes a minimum spanning tree of graph
+     *
+     * @param costs edge weights, only queried for edges of graph
+     * @param graph the graph
+     * @throws ContradictionException if graph has no spanning tree
+     */
+    public abstract void computeMST(EdgeWeights costs, UndirectedGraph graph) throws ContradictionException;
+
+    public void computeMST(double[][] costMatrix, UndirectedGraph graph) throws ContradictionException {
+        computeMST((i, j) -> costMatrix[i][j], graph);
+    }
 
     public abstract void performPruning(double UB) throws ContradictionException;
 
@@ -81,4 +92,22 @@ public abstract class AbstractTreeFinder {
     public double getRepCost(int from, int to) {
         throw new UnsupportedOperationException("not implemented yet");
     }
+
+    //***********************************************************************************
+    // EDGE WEIGHTS
+    //***********************************************************************************
+
+    /**
+     * Weight of the edges of a graph, which may be stored or computed on the fly
+     * (e.g. Lagrangian costs derived from original costs and penalties)
+     */
+    @FunctionalInterface
+    public interface EdgeWeights {
+        /**
+         * @param i a vertex
+         * @param j a vertex
+         * @return the weight of edge (i,j)
+         */
+        double get(int i, int j);
+    }
 }
@@ -29,14 +29,14 @@ package org.chocosolver.graphsolver.cstrs.cost.trees.lagrangianRelaxation;
 
 import gnu.trove.list.array.TIntArrayList;
 import org.chocosolver.graphsolver.cstrs.cost.GraphLagrangianRelaxation;
+import org.chocosolver.graphsolver.util.BatchLCAFinder;
+import org.chocosolver.graphsolver.util.DoubleRadixSort;
 import org.chocosolver.graphsolver.util.LCAGraphManager;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.util.objects.graphs.DirectedGraph;
 import org.chocosolver.util.objects.graphs.UndirectedGraph;
 import org.chocosolver.util.objects.setDataStructures.ISet;
 import org.chocosolver.util.objects.setDataStructures.SetType;
-import org.chocosolver.util.sort.ArraySort;
-import org.chocosolver.util.sort.IntComparator;
 
 import java.util.BitSet;
 
@@ -47,12 +47,13 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
     //***********************************************************************************
 
     protected TIntArrayList ma;     //mandatory arcs (i,j) <-> i*n+j
-    // indexes are sorted
+    // indexes are sorted, arrays are sized to the number of edges of the graph (not n*n)
     protected int[] sortedArcs;   // from sorted to lex
-    protected int[][] indexOfArc; // from lex (i,j) to sorted (i+1)*n+j
+    protected double[] costs;     // cost of the sorted arc
     protected BitSet activeArcs; // if sorted is active
     // UNSORTED
-    protected double[] costs;             // cost of the lex arc
+    protected int[] arcs, order;  // lex arcs in graph order and their sorting permutation
+    protected double[] arcCosts;  // cost of the lex arc, in graph order
     protected int[] p, rank;
     // CCtree
     protected int ccN;
@@ -60,14 +61,16 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
     protected int[] ccTp;
     protected double[] ccTEdgeCost;
     protected LCAGraphManager lca;
+    // offline lca of all the arcs to filter, lca is only preprocessed for point queries
+    protected BatchLCAFinder batchLCA;
+    protected boolean lcaReady;
     protected int fromInterest, cctRoot;
     protected BitSet useful;
     protected double minTArc, maxTArc;
-    protected double[][] distMatrix;
+    protected EdgeWeights distMatrix;
 
 	//sort
-	protected ArraySort sorter;
-	protected IntComparator comparator;
+	protected DoubleRadixSort sorter;
 
     //***********************************************************************************
     // CONSTRUCTOR
@@ -75,11 +78,8 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
 
     public KruskalMSTFinder(int nbNodes, GraphLagrangianRelaxation propagator) {
         super(nbNodes, propagator);
-        activeArcs = new BitSet(n * n);
+        activeArcs = new BitSet(n);
         rank = new int[n];
-        costs = new double[n * n];
-        sortedArcs = new int[n * n];
-        indexOfArc = new int[n][n];
         p = new int[n];
         // CCtree
         ccN = 2 * n + 1;
@@ -89,25 +89,53 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
         ccTp = new int[n];
         useful = new BitSet(n);
         lca = new LCAGraphManager(ccN);
+        batchLCA = new BatchLCAFinder(ccN, n);
 		//sort
-		sorter = new ArraySort(n*n,false,true);
-		comparator = (i1, i2) -> {
-            if (costs[i1] < costs[i2])
-                return -1;
-            else if (costs[i1] > costs[i2])
-                return 1;
-            else return 0;
-        };
+		sorter = new DoubleRadixSort(n);
+		ensureCapacity(n);
+    }
+
+    /**
+     * Grows the arc arrays so that they can hold nbArcs arcs
+     *
+     * @param nbArcs number of edges of the graph
+     */
+    protected void ensureCapacity(int nbArcs) {
+        if (arcs == null || arcs.length < nbArcs) {
+            int capacity = arcs == null ? nbArcs : Math.max(nbArcs, arcs.length * 3 / 2);
+            arcs = new int[capacity];
+            order = new int[capacity];
+            arcCosts = new double[capacity];
+            sortedArcs = new int[capacity];
+            costs = new double[capacity];
+            sorter.ensureCapacity(capacity);
+        }
+    }
+
+    /**
+     * Sorts the size arcs stored in arcs/arcCosts by increasing cost into sortedArcs/costs
+     *
+     * @param size number of arcs
+     */
+    protected void sortArcs(int size) {
+        sorter.sort(arcCosts, size, order);
+        for (int k = 0; k < size; k++) {
+            sortedArcs[k] = arcs[order[k]];
+            costs[k] = arcCosts[order[k]];
+        }
+        activeArcs.clear();
+        activeArcs.set(0, size);
     }
 
     //***********************************************************************************
     // FIND MST
     //***********************************************************************************
 
-    public void computeMST(double[][] costs, UndirectedGraph graph) throws ContradictionException {
+    public void computeMST(EdgeWeights costs, UndirectedGraph graph) throws ContradictionException {
         g = graph;
         distMatrix = costs;
         ma = propHK.getMandatoryArcsList();
+        lcaReady = false;
         sortArcs();
         treeCost = 0;
         cctRoot = n - 1;
@@ -128,14 +156,15 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
         }
         assert size % 2 == 0;
 		size /= 2;
+        ensureCapacity(size);
         ISet nei;
         int idx = 0;
         for (int i = 0; i < n; i++) {
             nei = g.getNeighOf(i);
             for (int j : nei) {
                 if (i < j) {
-					sortedArcs[idx] = i * n + j;
-                    costs[i * n + j] = distMatrix[i][j];
+					arcs[idx] = i * n + j;
+                    arcCosts[idx] = distMatrix.get(i, j);
                     idx++;
                 }
             }
@@ -143,14 +172,7 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
         for (int i = n; i < ccN; i++) {
             ccTree.removeNode(i);
         }
-		sorter.sort(sortedArcs,size,comparator);
-        int v;
-        activeArcs.clear();
-        activeArcs.set(0, size);
-        for (idx = 0; idx < size; idx++) {
-            v = sortedArcs[idx];
-            indexOfArc[v / n][v % n] = idx;
-        }
+		sortArcs(size);
     }
 
     //***********************************************************************************
@@ -161,16 +183,28 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
         double delta = UB - treeCost;
         assert delta >= 0;
         fromInterest = 0;
+        lcaReady = false;
         if (selectAndCompress(delta)) {
-            lca.preprocess(cctRoot, ccTree);
             pruning(fromInterest, delta);
         }
     }
 
+    /**
+     * Point query, preprocessing ccTree on the first call after its last modification
+     * (filtering uses batchLCA instead)
+     */
+    protected int getLCA(int i, int j) {
+        if (!lcaReady) {
+            lca.preprocess(cctRoot, ccTree);
+            lcaReady = true;
+        }
+        return lca.getLCA(i, j);
+    }
+
     protected boolean selectRelevantArcs(double delta) throws ContradictionException {
         // Trivially no inference
         int idx = activeArcs.nextSetBit(0);
-        while (idx >= 0 && costs[sortedArcs[idx]] - minTArc <= delta) {
+        while (idx >= 0 && costs[idx] - minTArc <= delta) {
             idx = activeArcs.nextSetBit(idx + 1);
         }
         if (idx == -1) {
@@ -178,7 +212,7 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
         }
         fromInterest = idx;
         // Maybe interesting
-        while (idx >= 0 && costs[sortedArcs[idx]] - maxTArc <= delta) {
+        while (idx >= 0 && costs[idx] - maxTArc <= delta) {
             idx = activeArcs.nextSetBit(idx + 1);
         }
         // Trivially infeasible arcs
@@ -196,7 +230,7 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
     protected boolean selectAndCompress(double delta) throws ContradictionException {
         // Trivially no inference
         int idx = activeArcs.nextSetBit(0);
-        while (idx >= 0 && costs[sortedArcs[idx]] - minTArc <= delta) {
+        while (idx >= 0 && costs[idx] - minTArc <= delta) {
             idx = activeArcs.nextSetBit(idx + 1);
         }
         if (idx == -1) {
@@ -205,7 +239,7 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
         fromInterest = idx;
         // Maybe interesting
         useful.clear();
-        while (idx >= 0 && costs[sortedArcs[idx]] - maxTArc <= delta) {
+        while (idx >= 0 && costs[idx] - maxTArc <= delta) {
             useful.set(sortedArcs[idx] / n);
             useful.set(sortedArcs[idx] % n);
             idx = activeArcs.nextSetBit(idx + 1);
@@ -256,6 +290,16 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
     protected void pruning(int fi, double delta) throws ContradictionException {
         int i, j;
         double repCost;
+        batchLCA.clear();
+        for (int arc = activeArcs.nextSetBit(fi); arc >= 0; arc = activeArcs.nextSetBit(arc + 1)) {
+            i = sortedArcs[arc] / n;
+            j = sortedArcs[arc] % n;
+            if (!Tree.edgeExists(i, j)) {
+                batchLCA.addQuery(i, j);
+            }
+        }
+        batchLCA.solve(cctRoot, ccTree);
+        int q = 0;
         for (int arc = activeArcs.nextSetBit(fi); arc >= 0; arc = activeArcs.nextSetBit(arc + 1)) {
             i = sortedArcs[arc] / n;
             j = sortedArcs[arc] % n;
@@ -263,10 +307,9 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
                 if (propHK.isMandatory(i, j)) {
                     throw new UnsupportedOperationException();
                 }
-//				repCost = ccTEdgeCost[getLCA(i,j)];
-                repCost = ccTEdgeCost[lca.getLCA(i, j)];
+                repCost = ccTEdgeCost[batchLCA.getLCA(q++)];
 //				PropSymmetricHeldKarp.reducedCosts[i][j] = repCost;
-                if (costs[i * n + j] - repCost > delta) {
+                if (costs[arc] - repCost > delta) {
                     activeArcs.clear(arc);
                     propHK.remove(i, j);
                 }
@@ -292,7 +335,7 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
                 LINK(rFrom, rTo);
                 Tree.addEdge(from, to);
                 updateCCTree(rFrom, rTo, val);
-                treeCost += costs[arc];
+                treeCost += distMatrix.get(from, to);
                 tSize++;
             } else {
                 propHK.contradiction();
@@ -319,7 +362,7 @@ public class KruskalMSTFinder extends AbstractTreeFinder {
             if (rFrom != rTo) {
                 LINK(rFrom, rTo);
                 Tree.addEdge(from, to);
-                cost = costs[sortedArcs[idx]];
+                cost = costs[idx];
                 updateCCTree(rFrom, rTo, cost);
                 if (cost > maxTArc) {
                     maxTArc = cost;
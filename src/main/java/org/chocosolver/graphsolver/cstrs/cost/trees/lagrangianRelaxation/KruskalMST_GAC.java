@@ -29,14 +29,14 @@ package org.chocosolver.graphsolver.cstrs.cost.trees.lagrangianRelaxation;
 
 import gnu.trove.list.array.TIntArrayList;
 import org.chocosolver.graphsolver.cstrs.cost.GraphLagrangianRelaxation;
+import org.chocosolver.graphsolver.util.BatchLCAFinder;
+import org.chocosolver.graphsolver.util.DoubleRadixSort;
 import org.chocosolver.graphsolver.util.LCAGraphManager;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.util.objects.graphs.DirectedGraph;
 import org.chocosolver.util.objects.graphs.UndirectedGraph;
 import org.chocosolver.util.objects.setDataStructures.ISet;
 import org.chocosolver.util.objects.setDataStructures.SetType;
-import org.chocosolver.util.sort.ArraySort;
-import org.chocosolver.util.sort.IntComparator;
 
 import java.util.BitSet;
 
@@ -47,11 +47,14 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
     //***********************************************************************************
 
     protected TIntArrayList ma;     //mandatory arcs (i,j) <-> i*n+j
-    // indexes are sorted
+    // indexes are sorted, arrays are sized to the number of edges of the graph (not n*n)
     protected int[] sortedArcs;   // from sorted to lex
+    protected double[] costs;     // cost of the sorted arc
     protected BitSet activeArcs; // if sorted is active
     // UNSORTED
-    protected double[] costs;             // cost of the lex arc
+    protected int[] arcs, order;  // lex arcs in graph order and their sorting permutation
+    protected double[] arcCosts;  // cost of the lex arc, in graph order
+    protected EdgeWeights distMatrix;
     protected int[] p, rank;
     // CCtree
     protected int ccN;
@@ -59,16 +62,20 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
     protected int[] ccTp;
     protected double[] ccTEdgeCost;
     protected LCAGraphManager lca;
+    // offline lca of all the arcs to filter, lca is only preprocessed for point queries
+    protected BatchLCAFinder batchLCA;
+    protected boolean lcaReady;
     protected int cctRoot;
     protected BitSet useful;
     protected double minTArc, maxTArc;
-    protected int[][] map;
-    protected double[][] repCosts;
+    // tree edges are identified by their child vertex in the BFS tree rooted at 0:
+    // (i,parent[i]) is replaced by arc repOf[i] (-1 if none) at cost treeRepCosts[i]
+    protected int[] parent, repOf;
+    protected double[] treeRepCosts;
 	protected int[] fifo;
 
 	//sort
-	protected ArraySort sorter;
-	protected IntComparator comparator;
+	protected DoubleRadixSort sorter;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -76,10 +83,8 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
 
     public KruskalMST_GAC(int nbNodes, GraphLagrangianRelaxation propagator) {
         super(nbNodes, propagator);
-        activeArcs = new BitSet(n * n);
+        activeArcs = new BitSet(n);
         rank = new int[n];
-        costs = new double[n * n];
-        sortedArcs = new int[n * n];
         p = new int[n];
         // CCtree
         ccN = 2 * n + 1;
@@ -89,21 +94,34 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
         ccTp = new int[n];
         useful = new BitSet(n);
         lca = new LCAGraphManager(ccN);
-        map = new int[n][n];
-        repCosts = new double[n][n];
+        batchLCA = new BatchLCAFinder(ccN, n);
+        parent = new int[n];
+        repOf = new int[n];
+        treeRepCosts = new double[n];
 		fifo = new int[n];
 		//sort
-		sorter = new ArraySort(n*n,false,true);
-		comparator = (i1, i2) -> {
-            if (costs[i1] < costs[i2])
-                return -1;
-            else if (costs[i1] > costs[i2])
-                return 1;
-            else return 0;
-        };
+		sorter = new DoubleRadixSort(n);
+		ensureCapacity(n);
     }
 
-    protected void sortArcs(double[][] costMatrix) {
+    /**
+     * Grows the arc arrays so that they can hold nbArcs arcs
+     *
+     * @param nbArcs number of edges of the graph
+     */
+    protected void ensureCapacity(int nbArcs) {
+        if (arcs == null || arcs.length < nbArcs) {
+            int capacity = arcs == null ? nbArcs : Math.max(nbArcs, arcs.length * 3 / 2);
+            arcs = new int[capacity];
+            order = new int[capacity];
+            arcCosts = new double[capacity];
+            sortedArcs = new int[capacity];
+            costs = new double[capacity];
+            sorter.ensureCapacity(capacity);
+        }
+    }
+
+    protected void sortArcs() {
         int size = 0;
         for (int i = 0; i < n; i++) {
             p[i] = i;
@@ -115,6 +133,7 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
             size += g.getNeighOf(i).size();
         }
 		size /= 2; // recent change
+        ensureCapacity(size);
         int idx = 0;
         ISet nei;
         for (int i = 0; i < n; i++) {
@@ -122,8 +141,8 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
             for (int j : nei) {
 				assert i!=j;
 				if(i<j){
-					sortedArcs[idx] = i * n + j;
-					costs[i * n + j] = costMatrix[i][j];
+					arcs[idx] = i * n + j;
+					arcCosts[idx] = distMatrix.get(i, j);
 					idx++;
 				}
             }
@@ -132,7 +151,11 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
         for (int i = n; i < ccN; i++) {
             ccTree.removeNode(i);
         }
-		sorter.sort(sortedArcs,size,comparator);
+		sorter.sort(arcCosts, size, order);
+		for (int k = 0; k < size; k++) {
+			sortedArcs[k] = arcs[order[k]];
+			costs[k] = arcCosts[order[k]];
+		}
         activeArcs.clear();
         activeArcs.set(0, size);
     }
@@ -141,10 +164,12 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
     // METHODS
     //***********************************************************************************
 
-    public void computeMST(double[][] costs, UndirectedGraph graph) throws ContradictionException {
+    public void computeMST(EdgeWeights costs, UndirectedGraph graph) throws ContradictionException {
         g = graph;
+        distMatrix = costs;
         ma = propHK.getMandatoryArcsList();
-        sortArcs(costs);
+        lcaReady = false;
+        sortArcs();
         treeCost = 0;
         cctRoot = n - 1;
         int tSize = addMandatoryArcs();
@@ -155,17 +180,31 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
         double delta = UB - treeCost;
         assert delta >= 0;
         prepareMandArcDetection();
+        lcaReady = false;
         if (selectRelevantArcs(delta)) {
-            lca.preprocess(cctRoot, ccTree);
             pruning(delta);
         }
     }
 
+    /**
+     * Point query, preprocessing ccTree on the first call after its last modification
+     * (filtering uses batchLCA instead)
+     */
+    protected int getLCA(int i, int j) {
+        if (!lcaReady) {
+            lca.preprocess(cctRoot, ccTree);
+            lcaReady = true;
+        }
+        return lca.getLCA(i, j);
+    }
+
     protected void prepareMandArcDetection() {
         // RECYCLING ccTp is used to model the compressed path
         ISet nei;
         for (int i = 0; i < n; i++) {
             ccTp[i] = -1;
+            parent[i] = -1;
+            repOf[i] = -1;
         }
         useful.clear();
         useful.set(0);
@@ -180,8 +219,7 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
             for (int s : nei) {
                 if (ccTp[s] == -1) {
                     ccTp[s] = k;
-                    map[s][k] = -1;
-                    map[k][s] = -1;
+                    parent[s] = k;
                     if (!useful.get(s)) {
 						fifo[last++] = s;
                         useful.set(s);
@@ -194,18 +232,12 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
     protected void markTreeEdges(int[] next, int i, int j) {
         int rep = i * n + j;
         if (Tree.edgeExists(j, i)) {
-            if (map[j][i] == -1) {
-                map[j][i] = map[i][j] = rep;
-            }
+            mark(parent[i] == j ? i : j, rep);
             return;
         }
         if (next[i] == next[j]) {
-            if (map[i][next[i]] == -1) {
-                map[i][next[i]] = map[next[i]][i] = rep;
-            }
-            if (map[j][next[j]] == -1) {
-                map[j][next[j]] = map[next[j]][j] = rep;
-            }
+            mark(i, rep);
+            mark(j, rep);
             return;
         }
         useful.clear();
@@ -222,26 +254,32 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
         for (int b = j; b != meeting; ) {
             tmp = next[b];
             next[b] = meeting;
-            if (map[b][tmp] == -1) {
-                map[b][tmp] = map[tmp][b] = rep;
-            }
+            mark(b, rep);
             b = tmp;
         }
         for (a = i; a != meeting; ) {
             tmp = next[a];
             next[a] = meeting;
-            if (map[a][tmp] == -1) {
-                map[a][tmp] = map[tmp][a] = rep;
-            }
+            mark(a, rep);
             a = tmp;
         }
     }
 
+    /**
+     * Records that the tree edge (c,parent[c]) can be replaced by arc rep, unless a cheaper arc was found before.
+     * When next[c] has been compressed (next[c] != parent[c]), (c,parent[c]) is already marked.
+     */
+    private void mark(int c, int rep) {
+        if (parent[c] != -1 && repOf[c] == -1) {
+            repOf[c] = rep;
+        }
+    }
+
     protected boolean selectRelevantArcs(double delta) throws ContradictionException {
         // Trivially no inference
         int idx = activeArcs.nextSetBit(0);
         // Maybe interesting
-        while (idx >= 0 && costs[sortedArcs[idx]] - maxTArc <= delta) {
+        while (idx >= 0 && costs[idx] - maxTArc <= delta) {
             idx = activeArcs.nextSetBit(idx + 1);
         }
         // Trivially infeasible arcs
@@ -269,12 +307,21 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
 
     protected void pruning(double delta) throws ContradictionException {
         int i;
+        batchLCA.clear();
+        for (int arc = activeArcs.nextSetBit(0); arc >= 0; arc = activeArcs.nextSetBit(arc + 1)) {
+            i = sortedArcs[arc] / n;
+            int j = sortedArcs[arc] % n;
+            if (!Tree.edgeExists(i, j)) {
+                batchLCA.addQuery(i, j);
+            }
+        }
+        batchLCA.solve(cctRoot, ccTree);
+        int q = 0;
         for (int arc = activeArcs.nextSetBit(0); arc >= 0; arc = activeArcs.nextSetBit(arc + 1)) {
             i = sortedArcs[arc] / n;
             int j = sortedArcs[arc] % n;
             if (!Tree.edgeExists(i, j)) {
-                repCosts[i][j] = costs[i * n + j] - ccTEdgeCost[lca.getLCA(i, j)];
-                if (repCosts[i][j] > delta) {
+                if (costs[arc] - ccTEdgeCost[batchLCA.getLCA(q++)] > delta) {
                     activeArcs.clear(arc);
                     propHK.remove(i, j);
                 } else {
@@ -287,20 +334,16 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
 			nei = Tree.getNeighOf(i);
 			for (int j : nei) {
 				if(i<j){
-					if (map[i][j] != -1) {
-						repCosts[i][j] = costs[map[i][j]] - costs[i * n + j];
-						if (repCosts[i][j] > delta) {
+					int c = parent[i] == j ? i : j;
+					int rep = repOf[c];
+					if (rep != -1) {
+						treeRepCosts[c] = distMatrix.get(rep / n, rep % n) - distMatrix.get(i, j);
+						if (treeRepCosts[c] > delta) {
 							propHK.enforce(i, j);
 						}
 					} else {
 						propHK.enforce(i, j);
 					}
-
-//					repCost = costs[map[i][j]];
-//					if(repCost-costs[i*n+j]>delta){
-//						propHK.enforce(i,j);
-//					}
-//				}
 				}
 			}
         }
@@ -324,7 +367,7 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
                 LINK(rFrom, rTo);
                 Tree.addEdge(from, to);
                 updateCCTree(rFrom, rTo, val);
-                treeCost += costs[arc];
+                treeCost += distMatrix.get(from, to);
                 tSize++;
             } else {
                 propHK.contradiction();
@@ -350,7 +393,7 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
             if (rFrom != rTo) {
                 LINK(rFrom, rTo);
                 Tree.addEdge(from, to);
-                cost = costs[sortedArcs[idx]];
+                cost = costs[idx];
                 updateCCTree(rFrom, rTo, cost);
                 if (cost > maxTArc) {
                     maxTArc = cost;
@@ -395,7 +438,10 @@ public class KruskalMST_GAC extends AbstractTreeFinder {
     }
 
     public double getRepCost(int from, int to) {
-        return repCosts[from][to];
+        if (Tree.edgeExists(from, to)) {
+            return treeRepCosts[parent[from] == to ? from : to];
+        }
+        return distMatrix.get(from, to) - ccTEdgeCost[getLCA(from, to)];
     }
 
 //	private int getLCA(int i, int j) {
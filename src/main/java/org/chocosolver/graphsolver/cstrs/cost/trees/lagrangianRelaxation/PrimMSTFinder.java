@@ -42,7 +42,7 @@ public class PrimMSTFinder extends AbstractTreeFinder {
     // VARIABLES
     //***********************************************************************************
 
-    protected double[][] costs;
+    protected EdgeWeights costs;
     protected ISimpleHeap heap;
     protected BitSet inTree;
     protected int[] mate;
@@ -55,9 +55,23 @@ public class PrimMSTFinder extends AbstractTreeFinder {
     //***********************************************************************************
 
     public PrimMSTFinder(int nbNodes, GraphLagrangianRelaxation propagator) {
+        this(nbNodes, new FastSimpleHeap(nbNodes), propagator);
+    }
+
+    /**
+     * Prim's algorithm with a heap selected from the density of the graph (see ISimpleHeap.make)
+     *
+     * @param nbNodes    number of nodes
+     * @param nbEdges    number of edges of the graph (e.g. of the initial upper bound)
+     * @param propagator the Lagrangian relaxation
+     */
+    public PrimMSTFinder(int nbNodes, long nbEdges, GraphLagrangianRelaxation propagator) {
+        this(nbNodes, ISimpleHeap.make(nbNodes, nbEdges), propagator);
+    }
+
+    private PrimMSTFinder(int nbNodes, ISimpleHeap heap, GraphLagrangianRelaxation propagator) {
         super(nbNodes, propagator);
-        heap = new FastSimpleHeap(nbNodes);
-//		heap = new FastArrayHeap(nbNodes);
+        this.heap = heap;
         inTree = new BitSet(n);
         mate = new int[n];
     }
@@ -66,7 +80,16 @@ public class PrimMSTFinder extends AbstractTreeFinder {
     // METHODS
     //***********************************************************************************
 
-    public void computeMST(double[][] costs, UndirectedGraph graph) throws ContradictionException {
+    /**
+     * Replaces the heap used by Prim's algorithm, e.g. when the graph it runs on becomes sparser
+     *
+     * @param heap an empty heap over nbNodes elements
+     */
+    public void setHeap(ISimpleHeap heap) {
+        this.heap = heap;
+    }
+
+    public void computeMST(EdgeWeights costs, UndirectedGraph graph) throws ContradictionException {
         g = graph;
         for (int i = 0; i < n; i++) {
             Tree.getNeighOf(i).clear();
@@ -101,10 +124,10 @@ public class PrimMSTFinder extends AbstractTreeFinder {
             throw new UnsupportedOperationException();
         }
         Tree.addEdge(from, to);
-        treeCost += costs[from][to];
+        treeCost += costs.get(from, to);
         if (FILTER) {
             if (!propHK.isMandatory(from, to)) {
-                maxTArc = Math.max(maxTArc, costs[from][to]);
+                maxTArc = Math.max(maxTArc, costs.get(from, to));
             }
         }
         tSize++;
@@ -121,7 +144,7 @@ public class PrimMSTFinder extends AbstractTreeFinder {
                         heap.addOrUpdateElement(j, Integer.MIN_VALUE);
                         mate[j] = i;
                     } else {
-                        if (heap.addOrUpdateElement(j, costs[i][j])) {
+                        if (heap.addOrUpdateElement(j, costs.get(i, j))) {
                             mate[j] = i;
                         }
                     }
@@ -137,7 +160,7 @@ public class PrimMSTFinder extends AbstractTreeFinder {
             for (int i = 0; i < n; i++) {
                 nei = g.getNeighOf(i);
                 for (int j : nei) {
-                    if (i < j && (!Tree.edgeExists(i, j)) && costs[i][j] - maxTArc > delta) {
+                    if (i < j && (!Tree.edgeExists(i, j)) && costs.get(i, j) - maxTArc > delta) {
                         propHK.remove(i, j);
                     }
                 }
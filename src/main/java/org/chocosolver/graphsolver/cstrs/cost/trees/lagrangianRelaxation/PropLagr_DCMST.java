@@ -28,6 +28,8 @@ package org.chocosolver.graphsolver.cstrs.cost.trees.lagrangianRelaxation;
 
 import gnu.trove.list.array.TIntArrayList;
 import org.chocosolver.graphsolver.cstrs.cost.GraphLagrangianRelaxation;
+import org.chocosolver.graphsolver.cstrs.cost.ICostProvider;
+import org.chocosolver.graphsolver.variables.IGraphVarFactory;
 import org.chocosolver.graphsolver.variables.GraphEventType;
 import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
 import org.chocosolver.solver.constraints.Propagator;
@@ -54,8 +56,9 @@ public class PropLagr_DCMST extends Propagator<Variable> implements GraphLagrang
 	protected UndirectedGraph g;
 	protected IntVar obj;
 	protected int n;
-	protected int[][] originalCosts;
-	protected double[][] costs;
+	protected ICostProvider originalCosts;
+	// Lagrangian costs, computed on the fly (no n*n working set)
+	protected AbstractTreeFinder.EdgeWeights costs;
 	protected double[] penalities;
 	protected double totalPenalities;
 	protected UndirectedGraph mst;
@@ -76,25 +79,36 @@ public class PropLagr_DCMST extends Propagator<Variable> implements GraphLagrang
 	 * Propagator performing the Lagrangian relaxation of the Degree Constrained Minimum Spanning Tree Problem
 	 */
 	public PropLagr_DCMST(UndirectedGraphVar graph, IntVar cost, int[] maxDegree, int[][] costMatrix, boolean waitFirstSol) {
+		this(graph, cost, maxDegree, ICostProvider.dense(costMatrix), waitFirstSol);
+	}
+
+	/**
+	 * Propagator performing the Lagrangian relaxation of the Degree Constrained Minimum Spanning Tree Problem
+	 */
+	public PropLagr_DCMST(UndirectedGraphVar graph, IntVar cost, int[] maxDegree, ICostProvider costProvider, boolean waitFirstSol) {
 		super(new Variable[]{graph, cost}, PropagatorPriority.CUBIC, false);
 		gV = graph;
 		n = gV.getNbMaxNodes();
 		obj = cost;
-		originalCosts = costMatrix;
-		costs = new double[n][n];
+		originalCosts = costProvider;
+		costs = (i, j) -> originalCosts.getCost(i, j) + penalities[i] + penalities[j];
 		penalities = new double[n];
 		totalPenalities = 0;
 		mandatoryArcsList = new TIntArrayList();
 		nbRem = 0;
 		nbSprints = 30;
 		this.maxDegree = maxDegree;
-		HK = new PrimMSTFinder(n, this);
+		HK = new PrimMSTFinder(n, gV.getNbPotentialArcs(), this);
 		HKfilter = new KruskalMST_GAC(n, this);
 		this.waitFirstSol = waitFirstSol;
-		g = new UndirectedGraph(n, SetType.BITSET, true);
+		// relaxation graph until the first filtering: potential edges only, so that costs are never queried for other pairs
+		g = new UndirectedGraph(n, gV.getNbPotentialArcs() < IGraphVarFactory.SPARSE_DENSITY * n * n / 2
+				? IGraphVarFactory.SPARSE_UB_TYPE : SetType.BITSET, true);
 		for (int i = 0; i < n; i++) {
-			for (int j = i+1; j < n; j++) {
-				g.addEdge(i, j);
+			for (int j : gV.getPotNeighOf(i)) {
+				if (i < j) {
+					g.addEdge(i, j);
+				}
 			}
 		}
 	}
@@ -219,15 +233,6 @@ public class PropLagr_DCMST extends Propagator<Variable> implements GraphLagrang
 			totalPenalities += penalities[i] * maxDegree[i];
 		}
 		assert !(totalPenalities > Double.MAX_VALUE / (n - 1) || totalPenalities < 0);
-		ISet nei;
-		for (int i = 0; i < n; i++) {
-			nei = g.getNeighOf(i);
-			for (int j : nei) {
-				if (i < j) {
-					costs[j][i] = costs[i][j] = originalCosts[i][j] + penalities[i] + penalities[j];
-				}
-			}
-		}
 		return false;
 	}
 
@@ -272,15 +277,6 @@ public class PropLagr_DCMST extends Propagator<Variable> implements GraphLagrang
 					mandatoryArcsList.add(i * n + j);
 				}
 			}
-			nei = g.getNeighOf(i);
-			for (int j : nei) {
-				if (i < j) {
-					costs[j][i] = costs[i][j] = originalCosts[i][j] + penalities[i] + penalities[j];
-					if (costs[i][j] < 0) {
-						throw new UnsupportedOperationException();
-					}
-				}
-			}
 		}
 		lagrangianRelaxation();
 	}
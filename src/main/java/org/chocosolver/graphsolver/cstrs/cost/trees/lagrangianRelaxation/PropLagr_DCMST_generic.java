@@ -28,6 +28,8 @@ package org.chocosolver.graphsolver.cstrs.cost.trees.lagrangianRelaxation;
 
 import gnu.trove.list.array.TIntArrayList;
 import org.chocosolver.graphsolver.cstrs.cost.GraphLagrangianRelaxation;
+import org.chocosolver.graphsolver.cstrs.cost.ICostProvider;
+import org.chocosolver.graphsolver.variables.IGraphVarFactory;
 import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
@@ -52,8 +54,9 @@ public class PropLagr_DCMST_generic extends Propagator<Variable> implements Grap
 	protected UndirectedGraph g;
 	protected IntVar obj;
 	protected int n;
-	protected int[][] originalCosts;
-	protected double[][] costs;
+	protected ICostProvider originalCosts;
+	// Lagrangian costs, computed on the fly (no n*n working set)
+	protected AbstractTreeFinder.EdgeWeights costs;
 	protected UndirectedGraph mst;
 	protected TIntArrayList mandatoryArcsList;
 	protected AbstractTreeFinder HKfilter, HK;
@@ -76,12 +79,19 @@ public class PropLagr_DCMST_generic extends Propagator<Variable> implements Grap
 	 * Propagator performing the Lagrangian relaxation of the Degree Constrained Minimum Spanning Tree Problem
 	 */
 	public PropLagr_DCMST_generic(UndirectedGraphVar graph, IntVar cost, IntVar[] degrees, int[][] costMatrix, boolean waitFirstSol) {
+		this(graph, cost, degrees, ICostProvider.dense(costMatrix), waitFirstSol);
+	}
+
+	/**
+	 * Propagator performing the Lagrangian relaxation of the Degree Constrained Minimum Spanning Tree Problem
+	 */
+	public PropLagr_DCMST_generic(UndirectedGraphVar graph, IntVar cost, IntVar[] degrees, ICostProvider costProvider, boolean waitFirstSol) {
 		super(new Variable[]{graph, cost}, PropagatorPriority.CUBIC, false);
 		gV = graph;
 		n = gV.getNbMaxNodes();
 		obj = cost;
-		originalCosts = costMatrix;
-		costs = new double[n][n];
+		originalCosts = costProvider;
+		costs = (i, j) -> originalCosts.getCost(i, j) + lambdaMin[i] + lambdaMin[j] + lambdaMax[i] + lambdaMax[j];
 		lambdaMin = new double[n];
 		lambdaMax = new double[n];
 		mandatoryArcsList = new TIntArrayList();
@@ -90,13 +100,17 @@ public class PropLagr_DCMST_generic extends Propagator<Variable> implements Grap
 		this.D = degrees;
 		this.Dmin = new int[n];
 		this.Dmax = new int[n];
-		HK = new PrimMSTFinder(n, this);
+		HK = new PrimMSTFinder(n, gV.getNbPotentialArcs(), this);
 		HKfilter = new KruskalMST_GAC(n, this);
 		this.waitFirstSol = waitFirstSol;
-		g = new UndirectedGraph(n, SetType.BITSET, true);
+		// relaxation graph until the first filtering: potential edges only, so that costs are never queried for other pairs
+		g = new UndirectedGraph(n, gV.getNbPotentialArcs() < IGraphVarFactory.SPARSE_DENSITY * n * n / 2
+				? IGraphVarFactory.SPARSE_UB_TYPE : SetType.BITSET, true);
 		for (int i = 0; i < n; i++) {
-			for (int j = i+1; j < n; j++) {
-				g.addEdge(i, j);
+			for (int j : gV.getPotNeighOf(i)) {
+				if (i < j) {
+					g.addEdge(i, j);
+				}
 			}
 		}
 	}
@@ -245,13 +259,6 @@ public class PropLagr_DCMST_generic extends Propagator<Variable> implements Grap
 		for (int i = 0; i < n; i++) {
 			C += Dmax[i] * lambdaMax[i];
 			C += Dmin[i] * lambdaMin[i];
-			ISet nei = g.getNeighOf(i);
-			for (int j : nei) {
-				if (i < j) {
-					costs[j][i] = costs[i][j] = originalCosts[i][j] + lambdaMin[i] + lambdaMin[j] + lambdaMax[i] + lambdaMax[j];
-					assert costs[j][i] >= 0;
-				}
-			}
 		}
 		assert C > -Double.MAX_VALUE / (n - 1) && C < Double.MAX_VALUE / (n - 1);
 	}
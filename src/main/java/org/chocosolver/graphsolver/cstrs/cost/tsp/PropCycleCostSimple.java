@@ -27,6 +27,7 @@
 
 package org.chocosolver.graphsolver.cstrs.cost.tsp;
 
+import org.chocosolver.graphsolver.cstrs.cost.ICostProvider;
 import org.chocosolver.graphsolver.variables.GraphEventType;
 import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
 import org.chocosolver.solver.constraints.Propagator;
@@ -54,7 +55,7 @@ public class PropCycleCostSimple extends Propagator<Variable> {
     protected UndirectedGraphVar g;
     protected int n;
     protected IntVar sum;
-    protected int[][] distMatrix;
+    protected ICostProvider costs;
     protected int[] replacementCost;
 
     //***********************************************************************************
@@ -62,11 +63,15 @@ public class PropCycleCostSimple extends Propagator<Variable> {
     //***********************************************************************************
 
     public PropCycleCostSimple(UndirectedGraphVar graph, IntVar obj, int[][] costMatrix) {
+        this(graph, obj, ICostProvider.dense(costMatrix));
+    }
+
+    public PropCycleCostSimple(UndirectedGraphVar graph, IntVar obj, ICostProvider costs) {
         super(new Variable[]{graph, obj}, PropagatorPriority.LINEAR, false);
         g = graph;
         sum = obj;
         n = g.getNbMaxNodes();
-        distMatrix = costMatrix;
+        this.costs = costs;
         replacementCost = new int[n];
     }
 
@@ -92,9 +97,9 @@ public class PropCycleCostSimple extends Propagator<Variable> {
             ISet ker = g.getMandNeighOf(i);
             for (int j : env) {
                 if (i <= j) {
-                    maxSum += distMatrix[i][j];
+                    maxSum += costs.getCost(i, j);
                     if (ker.contains(j)) {
-                        minSum += distMatrix[i][j];
+                        minSum += costs.getCost(i, j);
                     }
                 }
             }
@@ -145,7 +150,7 @@ public class PropCycleCostSimple extends Propagator<Variable> {
                     if (replacementCost[i] == -1 || replacementCost[j] == -1) {
                         g.removeArc(i, j, this);
                     }
-                    if ((2 * distMatrix[i][j] - replacementCost[i] - replacementCost[j]) / 2 > delta) {
+                    if ((2 * costs.getCost(i, j) - replacementCost[i] - replacementCost[j]) / 2 > delta) {
                         g.removeArc(i, j, this);
                     }
                 }
@@ -156,20 +161,20 @@ public class PropCycleCostSimple extends Propagator<Variable> {
     protected int findTwoBest(int i) throws ContradictionException {
         if (g.getMandNeighOf(i).isEmpty()) {
             int mc1 = getBestNot(i, -2);
-            int cost = distMatrix[i][getBestNot(i, mc1)];
+            int cost = costs.getCost(i, getBestNot(i, mc1));
             replacementCost[i] = cost;
-            return distMatrix[i][mc1] + cost;
+            return costs.getCost(i, mc1) + cost;
         }else{
             Iterator<Integer> it = g.getMandNeighOf(i).iterator();
             int mc1 = it.next();
             if (it.hasNext()) {
                 int mc2 = it.next();
                 replacementCost[i] = -1;
-                return distMatrix[i][mc1] + distMatrix[i][mc2];
+                return costs.getCost(i, mc1) + costs.getCost(i, mc2);
             }
-            int cost = distMatrix[i][getBestNot(i, mc1)];
+            int cost = costs.getCost(i, getBestNot(i, mc1));
             replacementCost[i] = cost;
-            return distMatrix[i][mc1] + cost;
+            return costs.getCost(i, mc1) + cost;
 
         }
     }
@@ -179,9 +184,9 @@ public class PropCycleCostSimple extends Propagator<Variable> {
         int cost = -1;
         int idx = -1;
         for (int j : nei) {
-            if (j != not && (idx == -1 || cost > distMatrix[i][j])) {
+            if (j != not && (idx == -1 || cost > costs.getCost(i, j))) {
                 idx = j;
-                cost = distMatrix[i][j];
+                cost = costs.getCost(i, j);
             }
         }
         if (idx == -1) {
@@ -193,14 +198,14 @@ public class PropCycleCostSimple extends Propagator<Variable> {
     protected int findTwoWorst(int i) throws ContradictionException {
         if (g.getMandNeighOf(i).isEmpty()) {
             int mc1 = getWorstNot(i, -2);
-            return distMatrix[i][mc1] + distMatrix[i][getWorstNot(i, mc1)];
+            return costs.getCost(i, mc1) + costs.getCost(i, getWorstNot(i, mc1));
         }else{
             Iterator<Integer> it = g.getMandNeighOf(i).iterator();
             int mc1 = it.next();
             if (it.hasNext()) {
-                return distMatrix[i][mc1] + distMatrix[i][it.next()];
+                return costs.getCost(i, mc1) + costs.getCost(i, it.next());
             }
-            return distMatrix[i][mc1] + distMatrix[i][getWorstNot(i, mc1)];
+            return costs.getCost(i, mc1) + costs.getCost(i, getWorstNot(i, mc1));
         }
     }
 
@@ -209,9 +214,9 @@ public class PropCycleCostSimple extends Propagator<Variable> {
         int cost = -1;
         int idx = -1;
         for (int j : nei) {
-            if (j != not && (idx == -1 || cost < distMatrix[i][j])) {
+            if (j != not && (idx == -1 || cost < costs.getCost(i, j))) {
                 idx = j;
-                cost = distMatrix[i][j];
+                cost = costs.getCost(i, j);
             }
         }
         if (idx == -1) {
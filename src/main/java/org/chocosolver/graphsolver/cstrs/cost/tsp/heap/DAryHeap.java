@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.chocosolver.graphsolver.cstrs.cost.tsp.heap;
+
+/**
+ * Indexed d-ary heap (4-ary by default) with decrease-key.
+ * Keys are stored along elements in the heap array, so that sifting down compares d contiguous keys.
+ * Shallower than a binary heap: O(log_d(n)) decrease-key, O(d.log_d(n)) removal.
+ */
+public class DAryHeap implements ISimpleHeap {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    private int d;
+    private int[] elements, positions;
+    private double[] keys;
+    private int size;
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    /**
+     * 4-ary heap for storing elements in the range [0,n-1]
+     *
+     * @param n maximal number of elements
+     */
+    public DAryHeap(int n) {
+        this(n, 4);
+    }
+
+    /**
+     * d-ary heap for storing elements in the range [0,n-1]
+     *
+     * @param n maximal number of elements
+     * @param d arity of the heap
+     */
+    public DAryHeap(int n, int d) {
+        if (d < 2) {
+            throw new IllegalArgumentException("the arity of a heap should be at least 2");
+        }
+        this.d = d;
+        elements = new int[n];
+        positions = new int[n];
+        keys = new double[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = -1;
+        }
+        size = 0;
+    }
+
+    //***********************************************************************************
+    // METHODS
+    //***********************************************************************************
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int removeFirstElement() {
+        if (size == 0) {
+            return -1;
+        }
+        int first = elements[0];
+        positions[first] = -1;
+        size--;
+        if (size > 0) {
+            siftDown(0, elements[size], keys[size]);
+        }
+        return first;
+    }
+
+    @Override
+    public boolean addOrUpdateElement(int element, double value) {
+        int pos = positions[element];
+        if (pos == -1) {
+            siftUp(size++, element, value);
+            return true;
+        }
+        if (value >= keys[pos]) {
+            return false;
+        }
+        siftUp(pos, element, value);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (int k = 0; k < size; k++) {
+            positions[elements[k]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Places element of key value at position pos or above
+     */
+    private void siftUp(int pos, int element, double value) {
+        while (pos > 0) {
+            int parent = (pos - 1) / d;
+            if (keys[parent] <= value) {
+                break;
+            }
+            move(parent, pos);
+            pos = parent;
+        }
+        set(pos, element, value);
+    }
+
+    /**
+     * Places element of key value at position pos or below
+     */
+    private void siftDown(int pos, int element, double value) {
+        int child = pos * d + 1;
+        while (child < size) {
+            int end = Math.min(child + d, size);
+            int best = child;
+            for (int k = child + 1; k < end; k++) {
+                if (keys[k] < keys[best]) {
+                    best = k;
+                }
+            }
+            if (keys[best] >= value) {
+                break;
+            }
+            move(best, pos);
+            pos = best;
+            child = pos * d + 1;
+        }
+        set(pos, element, value);
+    }
+
+    private void move(int from, int to) {
+        elements[to] = elements[from];
+        keys[to] = keys[from];
+        positions[elements[to]] = to;
+    }
+
+    private void set(int pos, int element, double value) {
+        elements[pos] = element;
+        keys[pos] = value;
+        positions[element] = pos;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.chocosolver.graphsolver.cstrs.cost.tsp.heap;
+
+import java.util.Arrays;
+
+/**
+ * Heap stored as a plain array of keys, scanned at every removal: O(1) add/decrease-key and O(n) removal.
+ * Absent elements have an infinite key, so that the scan is a branch-light loop over contiguous doubles.
+ * Best for Prim's algorithm on dense graphs, where there are much more decrease-keys than removals.
+ */
+public class DenseArrayHeap implements ISimpleHeap {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    private double[] keys;
+    private boolean[] in;
+    private int size;
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    /**
+     * Array heap for storing elements in the range [0,n-1]
+     *
+     * @param n maximal number of elements
+     */
+    public DenseArrayHeap(int n) {
+        keys = new double[n];
+        in = new boolean[n];
+        Arrays.fill(keys, Double.POSITIVE_INFINITY);
+        size = 0;
+    }
+
+    //***********************************************************************************
+    // METHODS
+    //***********************************************************************************
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int removeFirstElement() {
+        if (size == 0) {
+            return -1;
+        }
+        int min = -1;
+        double minKey = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] < minKey) {
+                minKey = keys[i];
+                min = i;
+            }
+        }
+        if (min == -1) {
+            // remaining elements have an infinite key
+            for (min = 0; !in[min]; min++) ;
+        }
+        in[min] = false;
+        keys[min] = Double.POSITIVE_INFINITY;
+        size--;
+        return min;
+    }
+
+    @Override
+    public boolean addOrUpdateElement(int element, double value) {
+        if (!in[element]) {
+            in[element] = true;
+            keys[element] = value;
+            size++;
+            return true;
+        }
+        if (value < keys[element]) {
+            keys[element] = value;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, Double.POSITIVE_INFINITY);
+            Arrays.fill(in, false);
+            size = 0;
+        }
+    }
+}
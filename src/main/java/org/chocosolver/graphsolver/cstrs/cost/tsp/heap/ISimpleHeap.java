@@ -34,6 +34,24 @@ package org.chocosolver.graphsolver.cstrs.cost.tsp.heap;
  */
 public interface ISimpleHeap {
 
+    /**
+     * Creates a heap suited to Prim's algorithm on a graph with nbNodes nodes and nbEdges edges:
+     * on dense graphs, there are much more decrease-keys than pops so an array scanned at every pop (DenseArrayHeap) is best,
+     * on sparse graphs a 4-ary heap (DAryHeap) is used
+     *
+     * @param nbNodes number of nodes (elements are in [0,nbNodes-1])
+     * @param nbEdges number of edges of the graph
+     * @return a heap for nbNodes elements
+     */
+    static ISimpleHeap make(int nbNodes, long nbEdges) {
+        // array: O(n^2 + m), heap: O(m.log(n))
+        int log = 32 - Integer.numberOfLeadingZeros(Math.max(nbNodes, 2) - 1);
+        if (nbEdges * log >= (long) nbNodes * nbNodes) {
+            return new DenseArrayHeap(nbNodes);
+        }
+        return new DAryHeap(nbNodes);
+    }
+
 
     /**
      * Get and remove the lowest element of the heap
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.chocosolver.graphsolver.cstrs.cost.tsp.lagrangianRelaxation;
+
+import org.chocosolver.graphsolver.cstrs.cost.trees.lagrangianRelaxation.AbstractTreeFinder.EdgeWeights;
+import org.chocosolver.util.objects.graphs.UndirectedGraph;
+import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.SetType;
+
+/**
+ * Computes a sparse candidate set of edges for the TSP, made of the nbCandidates best edges of every vertex.
+ * Edges are ranked either by their cost (k-nearest neighbors)
+ * or by their alpha-nearness with respect to a minimum 1-tree (Helsgaun, EJOR 2000):
+ * alpha(i,j) is the increase of the 1-tree cost when (i,j) is forced into it.
+ * <p>
+ * The candidate set always contains the 1-tree it is computed from, so it always has a 1-tree.
+ * Computing alpha-nearness takes O(n^2) time and O(n) memory, and is meant to be done once, at the root node.
+ */
+public class CandidateSetFinder {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    // edge ranking
+    public static final int K_NEAREST = 0;
+    public static final int ALPHA_NEARNESS = 1;
+
+    private int n;
+    private int mode;
+    private int nbCandidates;
+    private UndirectedGraph candidates;
+    // 1-tree of V \ {0} rooted at node 1: parent, cost of the edge to the parent and bfs order
+    private int[] parent, order;
+    private double[] parentCost;
+    // max cost on the tree path from the current node to every node, and path marks
+    private double[] beta;
+    private int[] mark;
+    // the best edges of the current node, sorted by increasing key
+    private int[] best;
+    private double[] bestKey, bestCost;
+    private int nbBest;
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    /**
+     * @param nbNodes      number of vertices
+     * @param mode         edge ranking (K_NEAREST or ALPHA_NEARNESS)
+     * @param nbCandidates number of candidate edges selected for every vertex (5 is usually enough)
+     */
+    public CandidateSetFinder(int nbNodes, int mode, int nbCandidates) {
+        if (mode != K_NEAREST && mode != ALPHA_NEARNESS) {
+            throw new IllegalArgumentException("mode " + mode + " does not exist");
+        }
+        if (nbCandidates < 2) {
+            throw new IllegalArgumentException("at least two candidate edges per vertex are required");
+        }
+        this.n = nbNodes;
+        this.mode = mode;
+        this.nbCandidates = nbCandidates;
+        candidates = new UndirectedGraph(n, SetType.LINKED_LIST, true);
+        best = new int[nbCandidates];
+        bestKey = new double[nbCandidates];
+        bestCost = new double[nbCandidates];
+        if (mode == ALPHA_NEARNESS) {
+            parent = new int[n];
+            order = new int[n];
+            parentCost = new double[n];
+            beta = new double[n];
+            mark = new int[n];
+        }
+    }
+
+    //***********************************************************************************
+    // METHODS
+    //***********************************************************************************
+
+    /**
+     * Computes the candidate set (previous candidates are kept)
+     *
+     * @param graph   the graph whose edges are ranked
+     * @param oneTree a minimum 1-tree of graph, with respect to costs, whose special vertex is 0
+     * @param costs   edge weights (e.g. Lagrangian costs), only queried for edges of graph
+     */
+    public void compute(UndirectedGraph graph, UndirectedGraph oneTree, EdgeWeights costs) {
+        for (int i = 0; i < n; i++) {
+            for (int j : oneTree.getNeighOf(i)) {
+                candidates.addEdge(i, j);
+            }
+        }
+        if (mode == ALPHA_NEARNESS) {
+            buildTree(oneTree, costs);
+        }
+        // alpha(0,j) = c(0,j) - c of the most expensive edge of 0 in the 1-tree
+        double beta0 = Double.NEGATIVE_INFINITY;
+        for (int j : oneTree.getNeighOf(0)) {
+            beta0 = Math.max(beta0, costs.get(0, j));
+        }
+        for (int i = 0; i < n; i++) {
+            nbBest = 0;
+            if (mode == ALPHA_NEARNESS && i != 0) {
+                computeBeta(i);
+            }
+            ISet nei = graph.getNeighOf(i);
+            for (int j : nei) {
+                double c = costs.get(i, j);
+                double key = c;
+                if (mode == ALPHA_NEARNESS) {
+                    key = i == 0 || j == 0 ? c - beta0 : c - beta[j];
+                }
+                insert(j, key, c);
+            }
+            for (int k = 0; k < nbBest; k++) {
+                candidates.addEdge(i, best[k]);
+            }
+        }
+    }
+
+    /**
+     * Adds edge (i,j) to the candidate set
+     *
+     * @return true iff (i,j) was not a candidate edge
+     */
+    public boolean readmit(int i, int j) {
+        return candidates.addEdge(i, j);
+    }
+
+    /**
+     * @return the number of candidate edges selected for every vertex
+     */
+    public int getNbCandidates() {
+        return nbCandidates;
+    }
+
+    /**
+     * @return the candidate set, empty until the first call to compute
+     */
+    public UndirectedGraph getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Inserts j in the nbCandidates best edges, ties being broken by costs
+     */
+    private void insert(int j, double key, double c) {
+        int k = nbBest;
+        while (k > 0 && (bestKey[k - 1] > key || (bestKey[k - 1] == key && bestCost[k - 1] > c))) {
+            k--;
+        }
+        if (k == nbCandidates) {
+            return;
+        }
+        int last = Math.min(nbBest, nbCandidates - 1);
+        System.arraycopy(best, k, best, k + 1, last - k);
+        System.arraycopy(bestKey, k, bestKey, k + 1, last - k);
+        System.arraycopy(bestCost, k, bestCost, k + 1, last - k);
+        best[k] = j;
+        bestKey[k] = key;
+        bestCost[k] = c;
+        nbBest = last + 1;
+    }
+
+    /**
+     * Roots the spanning tree of V \ {0} at node 1 and sorts its nodes in bfs order
+     */
+    private void buildTree(UndirectedGraph oneTree, EdgeWeights costs) {
+        for (int i = 0; i < n; i++) {
+            parent[i] = -1;
+            mark[i] = -1;
+        }
+        int first = 0, last = 0;
+        parent[1] = 1;
+        order[last++] = 1;
+        while (first < last) {
+            int k = order[first++];
+            for (int s : oneTree.getNeighOf(k)) {
+                if (s != 0 && parent[s] == -1) {
+                    parent[s] = k;
+                    parentCost[s] = costs.get(k, s);
+                    order[last++] = s;
+                }
+            }
+        }
+        assert last == n - 1 : "the 1-tree should span V \\ {0}";
+    }
+
+    /**
+     * beta[j] = maximum cost of the edges on the tree path from i to j, for every node j != 0.
+     * The path from i to the root is computed first, other nodes take the value of their parent (bfs order).
+     */
+    private void computeBeta(int i) {
+        beta[i] = Double.NEGATIVE_INFINITY;
+        mark[i] = i;
+        for (int u = i; parent[u] != u; u = parent[u]) {
+            beta[parent[u]] = Math.max(beta[u], parentCost[u]);
+            mark[parent[u]] = i;
+        }
+        for (int k = 0; k < n - 1; k++) {
+            int j = order[k];
+            if (mark[j] != i) {
+                beta[j] = Math.max(beta[parent[j]], parentCost[j]);
+            }
+        }
+    }
+}
@@ -33,6 +33,8 @@ import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.util.objects.graphs.UndirectedGraph;
 import org.chocosolver.util.objects.setDataStructures.ISet;
 
+import java.util.Arrays;
+
 public class KruskalOneTree_GAC extends KruskalMSTFinder {
 
     //***********************************************************************************
@@ -40,9 +42,14 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
     //***********************************************************************************
 
     private int min1, min2;
-    private int[][] map;
-    private double[][] marginalCosts;
+    // tree edges are identified by their child vertex in the BFS tree rooted at 1:
+    // (i,parent[i]) is replaced by arc repOf[i] (-1 if none) at marginal cost treeMarginalCosts[i]
+    private int[] parent, repOf;
+    private double[] treeMarginalCosts;
 	private int[] fifo;
+	// arcs to remove at once
+	private int[] remFrom, remTo;
+	private int nbRem;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -50,16 +57,19 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
 
     public KruskalOneTree_GAC(int nbNodes, GraphLagrangianRelaxation propagator) {
         super(nbNodes, propagator);
-        map = new int[n][n];
-        marginalCosts = new double[n][n];
+        parent = new int[n];
+        repOf = new int[n];
+        treeMarginalCosts = new double[n];
 		fifo = new int[n];
+		remFrom = new int[n];
+		remTo = new int[n];
     }
 
     //***********************************************************************************
     // METHODS
     //***********************************************************************************
 
-    public void computeMST(double[][] costs, UndirectedGraph graph) throws ContradictionException {
+    public void computeMST(EdgeWeights costs, UndirectedGraph graph) throws ContradictionException {
         super.computeMST(costs, graph);
         add0Node();
     }
@@ -70,8 +80,8 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
             throw new UnsupportedOperationException("mst>ub");
         }
         prepareMandArcDetection();
+        lcaReady = false;
         if (selectRelevantArcs(delta)) {
-            lca.preprocess(cctRoot, ccTree);
             pruning(0, delta);
         }
     }
@@ -91,14 +101,15 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
         size -= g.getNeighOf(0).size();
         assert size % 2 == 0;
         size /= 2;
+        ensureCapacity(size);
         ISet nei;
         int idx = 0;
         for (int i = 1; i < n; i++) {
             nei = g.getNeighOf(i);
             for (int j : nei) {
                 if (i < j) {
-                    sortedArcs[idx] = i * n + j;
-                    costs[i * n + j] = distMatrix[i][j];
+                    arcs[idx] = i * n + j;
+                    arcCosts[idx] = distMatrix.get(i, j);
                     idx++;
                 }
             }
@@ -106,58 +117,73 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
         for (int i = n; i < ccN; i++) {
             ccTree.removeNode(i);
         }
-		sorter.sort(sortedArcs,size,comparator);
-        int v;
-        activeArcs.clear();
-        activeArcs.set(0, size);
-        for (idx = 0; idx < size; idx++) {
-            v = sortedArcs[idx];
-            indexOfArc[v / n][v % n] = idx;
-        }
+		sortArcs(size);
     }
 
     protected void pruning(int fi, double delta) throws ContradictionException {
         ISet nei = g.getNeighOf(0);
         for (int i : nei) {
             if (i != min1 && i != min2) {
-                if (distMatrix[0][i] - distMatrix[0][min2] > delta) {
-                    propHK.remove(0, i);
+                if (distMatrix.get(0, i) - distMatrix.get(0, min2) > delta) {
+                    remove(0, i);
                 }
             }
         }
 
+        batchLCA.clear();
+        for (int arc = activeArcs.nextSetBit(0); arc >= 0; arc = activeArcs.nextSetBit(arc + 1)) {
+            int i = sortedArcs[arc] / n;
+            int j = sortedArcs[arc] % n;
+            if (!Tree.edgeExists(i, j)) {
+                batchLCA.addQuery(i, j);
+            }
+        }
+        batchLCA.solve(cctRoot, ccTree);
+        int q = 0;
         for (int arc = activeArcs.nextSetBit(0); arc >= 0; arc = activeArcs.nextSetBit(arc + 1)) {
             int i = sortedArcs[arc] / n;
             int j = sortedArcs[arc] % n;
             if (!Tree.edgeExists(i, j)) {
-                marginalCosts[i][j] = costs[i * n + j] - ccTEdgeCost[lca.getLCA(i, j)];
-                if (marginalCosts[i][j] > delta) {
+                if (costs[arc] - ccTEdgeCost[batchLCA.getLCA(q++)] > delta) {
                     activeArcs.clear(arc);
-                    propHK.remove(i, j);
+                    remove(i, j);
                 } else {
                     markTreeEdges(ccTp, i, j);
                 }
             }
         }
+        flushRemovals();
         for (int i = 1; i < n; i++) {
             nei = Tree.getNeighOf(i);
             for (int j : nei) {
-                if (i < j)
-                    if (map[i][j] == -1 || costs[map[i][j]] - costs[i * n + j] > delta) {
+                if (i < j) {
+                    int c = parent[i] == j ? i : j;
+                    int rep = repOf[c];
+                    if (rep == -1 || distMatrix.get(rep / n, rep % n) - distMatrix.get(i, j) > delta) {
                         propHK.enforce(i, j);
                     } else {
-                        marginalCosts[i][j] = costs[map[i][j]] - costs[i * n + j];
+                        treeMarginalCosts[c] = distMatrix.get(rep / n, rep % n) - distMatrix.get(i, j);
                     }
-//				if(j!=0 && costs[map[i][j]]-costs[i*n+j]>delta){
-//					propHK.enforce(i,j);
-//				}
-//				if(i<j && map[i][j]==-1){
-//					propHK.enforce(i,j);
-//				}
+                }
             }
         }
     }
 
+    private void remove(int i, int j) {
+        if (nbRem == remFrom.length) {
+            remFrom = Arrays.copyOf(remFrom, nbRem * 2);
+            remTo = Arrays.copyOf(remTo, nbRem * 2);
+        }
+        remFrom[nbRem] = i;
+        remTo[nbRem++] = j;
+    }
+
+    private void flushRemovals() throws ContradictionException {
+        int size = nbRem;
+        nbRem = 0;
+        propHK.removeAll(remFrom, remTo, size);
+    }
+
     protected boolean selectRelevantArcs(double delta) throws ContradictionException {
         return selectAndCompress(delta);
     }
@@ -166,17 +192,18 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
         // Trivially no inference
         int idx = activeArcs.nextSetBit(0);
         // Maybe interesting
-        while (idx >= 0 && costs[sortedArcs[idx]] - maxTArc <= delta) {
+        while (idx >= 0 && costs[idx] - maxTArc <= delta) {
             idx = activeArcs.nextSetBit(idx + 1);
         }
         // Trivially infeasible arcs
         while (idx >= 0) {
             if (!Tree.edgeExists(sortedArcs[idx] / n, sortedArcs[idx] % n)) {
-                propHK.remove(sortedArcs[idx] / n, sortedArcs[idx] % n);
+                remove(sortedArcs[idx] / n, sortedArcs[idx] % n);
                 activeArcs.clear(idx);
             }
             idx = activeArcs.nextSetBit(idx + 1);
         }
+        flushRemovals();
         //contract ccTree
         cctRoot++;
         int newNode = cctRoot;
@@ -212,7 +239,7 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
                     LINK(rFrom, rTo);
                     Tree.addEdge(from, to);
                     updateCCTree(rFrom, rTo, val);
-                    treeCost += costs[arc];
+                    treeCost += distMatrix.get(from, to);
                     tSize++;
                 } else {
                     propHK.contradiction();
@@ -240,7 +267,7 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
             if (rFrom != rTo) {
                 LINK(rFrom, rTo);
                 Tree.addEdge(from, to);
-                cost = costs[sortedArcs[idx]];
+                cost = costs[idx];
                 updateCCTree(rFrom, rTo, cost);
                 if (cost > maxTArc) {
                     maxTArc = cost;
@@ -265,7 +292,7 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
                 if (min1 == -1) {
                     min1 = j;
                 }
-                if (distMatrix[0][j] < distMatrix[0][min1]) {
+                if (distMatrix.get(0, j) < distMatrix.get(0, min1)) {
                     min2 = min1;
                     min1 = j;
                 }
@@ -278,7 +305,7 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
                 }
             }
             if (min1 != j && !b2) {
-                if (min2 == -1 || distMatrix[0][j] < distMatrix[0][min2]) {
+                if (min2 == -1 || distMatrix.get(0, j) < distMatrix.get(0, min2)) {
                     min2 = j;
                 }
                 if (propHK.isMandatory(0, j)) {
@@ -294,14 +321,14 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
             propHK.contradiction();
         }
         if (!propHK.isMandatory(0, min1)) {
-            maxTArc = Math.max(maxTArc, distMatrix[0][min1]);
+            maxTArc = Math.max(maxTArc, distMatrix.get(0, min1));
         }
         if (!propHK.isMandatory(0, min2)) {
-            maxTArc = Math.max(maxTArc, distMatrix[0][min2]);
+            maxTArc = Math.max(maxTArc, distMatrix.get(0, min2));
         }
         Tree.addEdge(0, min1);
         Tree.addEdge(0, min2);
-        treeCost += distMatrix[0][min1] + distMatrix[0][min2];
+        treeCost += distMatrix.get(0, min1) + distMatrix.get(0, min2);
     }
 
     //***********************************************************************************
@@ -313,6 +340,8 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
         ISet nei;
         for (int i = 0; i < n; i++) {
             ccTp[i] = -1;
+            parent[i] = -1;
+            repOf[i] = -1;
         }
         useful.clear();
         useful.set(0);
@@ -328,7 +357,7 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
             for (int s : nei) {
                 if (ccTp[s] == -1) {
                     ccTp[s] = k;
-                    map[s][k] = map[k][s] = -1;
+                    parent[s] = k;
                     if (!useful.get(s)) {
                         fifo[last++] = s;
                         useful.set(s);
@@ -344,12 +373,8 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
             throw new UnsupportedOperationException();
         }
         if (next[i] == next[j]) {
-            if (map[i][next[i]] == -1) {
-                map[i][next[i]] = map[next[i]][i] = rep;
-            }
-            if (map[j][next[j]] == -1) {
-                map[j][next[j]] = map[next[j]][j] = rep;
-            }
+            mark(i, rep);
+            mark(j, rep);
             return;
         }
         useful.clear();
@@ -366,21 +391,27 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
         for (int b = j; b != meeting; ) {
             tmp = next[b];
             next[b] = meeting;
-            if (map[b][tmp] == -1) {
-                map[b][tmp] = map[tmp][b] = rep;
-            }
+            mark(b, rep);
             b = tmp;
         }
         for (a = i; a != meeting; ) {
             tmp = next[a];
             next[a] = meeting;
-            if (map[a][tmp] == -1) {
-                map[a][tmp] = map[tmp][a] = rep;
-            }
+            mark(a, rep);
             a = tmp;
         }
     }
 
+    /**
+     * Records that the tree edge (c,parent[c]) can be replaced by arc rep, unless a cheaper arc was found before.
+     * When next[c] has been compressed (next[c] != parent[c]), (c,parent[c]) is already marked.
+     */
+    private void mark(int c, int rep) {
+        if (parent[c] != -1 && repOf[c] == -1) {
+            repOf[c] = rep;
+        }
+    }
+
     public double getRepCost(int from, int to) {
         if (from > to) {
             return getRepCost(to, from);//to check
@@ -388,12 +419,10 @@ public class KruskalOneTree_GAC extends KruskalMSTFinder {
         if (from == 0) {
             return 0;
         }
-        return marginalCosts[from][to];
-//		if(map[from][to]==-1){
-//			System.out.println(map[to][from]);
-//			System.exit(0);
-//		}
-//		return costs[map[from][to]]-costs[from*n+to];
+        if (Tree.edgeExists(from, to)) {
+            return treeMarginalCosts[parent[from] == to ? from : to];
+        }
+        return distMatrix.get(from, to) - ccTEdgeCost[getLCA(from, to)];
     }
 
 //	public double getMarginalCost(int from, int to){
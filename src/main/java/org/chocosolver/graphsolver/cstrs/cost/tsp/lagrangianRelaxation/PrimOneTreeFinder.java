@@ -27,18 +27,51 @@
 
 package org.chocosolver.graphsolver.cstrs.cost.tsp.lagrangianRelaxation;
 
+import gnu.trove.list.array.TIntArrayList;
 import org.chocosolver.graphsolver.cstrs.cost.GraphLagrangianRelaxation;
 import org.chocosolver.graphsolver.cstrs.cost.trees.lagrangianRelaxation.PrimMSTFinder;
+import org.chocosolver.graphsolver.util.DoubleRadixSort;
+import org.chocosolver.graphsolver.util.GraphTraversal;
 import org.chocosolver.solver.exception.ContradictionException;
-import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.graphs.UndirectedGraph;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
 
+/**
+ * Minimum 1-tree finder used to compute Held-Karp bounds.
+ * <p>
+ * Once penalities are given through {@link #setPenalities(double[])}, the 1-tree is not recomputed from scratch
+ * between two subgradient iterations: the tree edges which got more expensive (or were removed) are cut, and
+ * a Kruskal is run on the remaining tree edges, the edges which got cheaper and the edges reconnecting
+ * the pieces of the tree that are not the largest one. This gives the same bound as a complete Prim, and falls back
+ * to it when too many penalities changed.
+ */
 public class PrimOneTreeFinder extends PrimMSTFinder {
 
     //***********************************************************************************
-    // CONSTRUCTORS
+    // VARIABLES
     //***********************************************************************************
 
+    // repair is tried when it scans less than this ratio of the adjacency of the graph
+    private final static double REPAIR_RATIO = 0.3;
+
     protected int oneNode;
+    private int min1, min2;
+    // previous spanning tree of V \ {oneNode}, with the penalities it has been computed with
+    private double[] penalities, lastPenalities;
+    private UndirectedGraph lastGraph;
+    private boolean valid;
+    private int[] treeFrom, treeTo;
+    private double[] treeCosts;
+    private int nbTreeEdges;
+    private TIntArrayList enforced;
+    // repair
+    private int[] parent, size, comp;
+    private int[] candFrom, candTo, order;
+    private double[] candCosts;
+    private int nbCand;
+    private DoubleRadixSort sorter;
+    // primitive cursors over neighbors in the graph and in the tree
+    private GraphTraversal graphCursors, treeCursors;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -46,12 +79,274 @@ public class PrimOneTreeFinder extends PrimMSTFinder {
 
     public PrimOneTreeFinder(int nbNodes, GraphLagrangianRelaxation propagator) {
         super(nbNodes, propagator);
+        oneNode = 0;
+        graphCursors = new GraphTraversal(n);
+        treeCursors = new GraphTraversal(n);
+    }
+
+    public PrimOneTreeFinder(int nbNodes, long nbEdges, GraphLagrangianRelaxation propagator) {
+        super(nbNodes, nbEdges, propagator);
+        oneNode = 0;
+        graphCursors = new GraphTraversal(n);
+        treeCursors = new GraphTraversal(n);
     }
 
     //***********************************************************************************
     // METHODS
     //***********************************************************************************
 
+    /**
+     * Enables the repair of the previous 1-tree when only a few penalities changed.
+     * Edge weights given to {@link #computeMST(EdgeWeights, UndirectedGraph)} must then be
+     * a fixed cost plus penalities[i] + penalities[j].
+     *
+     * @param penalities Lagrangian multipliers, modified in place by the caller between two computations
+     */
+    public void setPenalities(double[] penalities) {
+        this.penalities = penalities;
+        lastPenalities = new double[n];
+        treeFrom = new int[n];
+        treeTo = new int[n];
+        treeCosts = new double[n];
+        enforced = new TIntArrayList();
+        parent = new int[n];
+        size = new int[n];
+        comp = new int[n];
+        ensureCapacity(2 * n);
+        valid = false;
+    }
+
+    /**
+     * Forgets the previous 1-tree, which must be done when edges or mandatory edges may have been restored
+     * (e.g. upon backtrack)
+     */
+    public void invalidate() {
+        valid = false;
+        if (enforced != null) {
+            enforced.clear();
+        }
+    }
+
+    /**
+     * Notifies that edge (i,j) became mandatory since the last computation
+     */
+    public void edgeEnforced(int i, int j) {
+        if (valid) {
+            enforced.add(i * n + j);
+        }
+    }
+
+    @Override
+    public void computeMST(EdgeWeights costs, UndirectedGraph graph) throws ContradictionException {
+        if (penalities == null) {
+            super.computeMST(costs, graph);
+            return;
+        }
+        this.costs = costs;
+        boolean repair = valid && graph == lastGraph;
+        valid = false;
+        if (!repair || !repair(graph)) {
+            super.computeMST(costs, graph);
+        }
+        storeTree();
+    }
+
+    /**
+     * Computes the new 1-tree from the previous one, by a Kruskal on the edges that may belong to it.
+     * Tree edges which did not get more expensive partition V \ {oneNode} into components.
+     * An edge which is not in the previous tree and which lies inside a component is more expensive than
+     * every edge of the tree path between its extremities, unless one of its penalities decreased
+     * (or it became mandatory), so it can be ignored.
+     *
+     * @return false if the repair would scan too many edges (nothing is modified then)
+     */
+    private boolean repair(UndirectedGraph graph) throws ContradictionException {
+        g = graph;
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        nbCand = 0;
+        for (int k = 0; k < nbTreeEdges; k++) {
+            int i = treeFrom[k];
+            int j = treeTo[k];
+            if (g.edgeExists(i, j)) {
+                double c = costs.get(i, j);
+                addCandidate(i, j, c);
+                if (c <= treeCosts[k] || propHK.isMandatory(i, j)) {
+                    union(i, j);
+                }
+            }
+        }
+        int largest = -1;
+        long work = 0, total = 0;
+        for (int i = 0; i < n; i++) {
+            if (i != oneNode) {
+                comp[i] = find(i);
+                if (largest == -1 || size[comp[i]] > size[largest]) {
+                    largest = comp[i];
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (i != oneNode) {
+                int deg = g.getNeighOf(i).size();
+                total += deg;
+                if (comp[i] != largest || penalities[i] < lastPenalities[i]) {
+                    work += deg;
+                }
+            }
+        }
+        if (largest == -1 || work > REPAIR_RATIO * total) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (i != oneNode && (comp[i] != largest || penalities[i] < lastPenalities[i])) {
+                ISetIterator nei = graphCursors.cursor(i, g.getNeighOf(i));
+                while (nei.hasNext()) {
+                    int j = nei.nextInt();
+                    if (j != oneNode && isCandidate(i, j, largest)
+                            && (j > i || !isCandidate(j, i, largest)) && !Tree.edgeExists(i, j)) {
+                        addCandidate(i, j, costs.get(i, j));
+                    }
+                }
+            }
+        }
+        TIntArrayList mandatory = propHK.getMandatoryArcsList();
+        for (int k = 0; k < mandatory.size() + enforced.size(); k++) {
+            int e = k < mandatory.size() ? mandatory.get(k) : enforced.get(k - mandatory.size());
+            int i = e / n;
+            int j = e % n;
+            if (i != oneNode && j != oneNode && !Tree.edgeExists(i, j) && g.edgeExists(i, j)) {
+                addCandidate(i, j, costs.get(i, j));
+            }
+        }
+        // kruskal on candidates, mandatory edges first
+        for (int k = 0; k < nbCand; k++) {
+            if (propHK.isMandatory(candFrom[k], candTo[k])) {
+                candCosts[k] = Double.NEGATIVE_INFINITY;
+            }
+        }
+        sorter.sort(candCosts, nbCand, order);
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+            Tree.getNeighOf(i).clear();
+        }
+        minVal = propHK.getMinArcVal();
+        if (FILTER) {
+            maxTArc = minVal;
+        }
+        treeCost = 0;
+        tSize = 0;
+        for (int k = 0; k < nbCand && tSize < n - 2; k++) {
+            int i = candFrom[order[k]];
+            int j = candTo[order[k]];
+            if (find(i) != find(j)) {
+                union(i, j);
+                addTreeEdge(i, j);
+            }
+        }
+        if (tSize != n - 2) {
+            propHK.contradiction();
+        }
+        selectOneNodeEdges();
+        addTreeEdge(oneNode, min1);
+        addTreeEdge(oneNode, min2);
+        return true;
+    }
+
+    /**
+     * @return true iff non-tree edge (i,j), scanned from i, may enter the tree:
+     * it either links two components or got cheaper since the last computation
+     */
+    private boolean isCandidate(int i, int j, int largest) {
+        if (comp[i] != comp[j]) {
+            return comp[i] != largest;
+        }
+        return penalities[i] < lastPenalities[i] && penalities[i] + penalities[j] < lastPenalities[i] + lastPenalities[j];
+    }
+
+    private void addTreeEdge(int i, int j) {
+        Tree.addEdge(i, j);
+        treeCost += costs.get(i, j);
+        if (FILTER && !propHK.isMandatory(i, j)) {
+            maxTArc = Math.max(maxTArc, costs.get(i, j));
+        }
+        tSize++;
+    }
+
+    private void addCandidate(int i, int j, double c) {
+        if (nbCand == candFrom.length) {
+            ensureCapacity(nbCand * 3 / 2);
+        }
+        candFrom[nbCand] = i;
+        candTo[nbCand] = j;
+        candCosts[nbCand] = c;
+        nbCand++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        int[] from = candFrom, to = candTo;
+        double[] c = candCosts;
+        candFrom = new int[capacity];
+        candTo = new int[capacity];
+        candCosts = new double[capacity];
+        order = new int[capacity];
+        if (from != null) {
+            System.arraycopy(from, 0, candFrom, 0, nbCand);
+            System.arraycopy(to, 0, candTo, 0, nbCand);
+            System.arraycopy(c, 0, candCosts, 0, nbCand);
+        }
+        if (sorter == null) {
+            sorter = new DoubleRadixSort(capacity);
+        }
+    }
+
+    private int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private void union(int i, int j) {
+        int ri = find(i);
+        int rj = find(j);
+        if (ri != rj) {
+            if (size[ri] < size[rj]) {
+                int t = ri;
+                ri = rj;
+                rj = t;
+            }
+            parent[rj] = ri;
+            size[ri] += size[rj];
+        }
+    }
+
+    private void storeTree() {
+        nbTreeEdges = 0;
+        for (int i = 0; i < n; i++) {
+            if (i != oneNode) {
+                ISetIterator nei = treeCursors.cursor(i, Tree.getNeighOf(i));
+                while (nei.hasNext()) {
+                    int j = nei.nextInt();
+                    if (i < j && j != oneNode) {
+                        treeFrom[nbTreeEdges] = i;
+                        treeTo[nbTreeEdges] = j;
+                        treeCosts[nbTreeEdges] = costs.get(i, j);
+                        nbTreeEdges++;
+                    }
+                }
+            }
+        }
+        System.arraycopy(penalities, 0, lastPenalities, 0, n);
+        lastGraph = g;
+        enforced.clear();
+        valid = true;
+    }
+
     @Override
     protected void prim() throws ContradictionException {
         minVal = propHK.getMinArcVal();
@@ -60,16 +355,49 @@ public class PrimOneTreeFinder extends PrimMSTFinder {
         }
         chooseOneNode();
         inTree.set(oneNode);
-        ISet nei = g.getNeighOf(oneNode);
-        int min1 = -1;
-        int min2 = -1;
+        selectOneNodeEdges();
+        int first = -1, sizeFirst = n + 1;
+        for (int i = 0; i < n; i++) {
+            if (i != oneNode && g.getNeighOf(i).size() < sizeFirst) {
+                first = i;
+                sizeFirst = g.getNeighOf(i).size();
+            }
+        }
+        if (first == -1) {
+            propHK.contradiction();
+        }
+        addNode(first);
+        int from, to;
+        while (tSize < n - 2 && !heap.isEmpty()) {
+            to = heap.removeFirstElement();
+            from = mate[to];
+            addArc(from, to);
+        }
+        if (tSize != n - 2) {
+            propHK.contradiction();
+        }
+        addArc(oneNode, min1);
+        addArc(oneNode, min2);
+        if (Tree.getNeighOf(oneNode).size() != 2) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Selects the two cheapest edges of oneNode (mandatory edges first) into min1 and min2
+     */
+    private void selectOneNodeEdges() throws ContradictionException {
+        ISetIterator nei = graphCursors.cursor(oneNode, g.getNeighOf(oneNode));
+        min1 = -1;
+        min2 = -1;
         boolean b1 = false, b2 = false;
-        for (int j : nei) {
+        while (nei.hasNext()) {
+            int j = nei.nextInt();
             if (!b1) {
                 if (min1 == -1) {
                     min1 = j;
                 }
-                if (costs[oneNode][j] < costs[oneNode][min1]) {
+                if (costs.get(oneNode, j) < costs.get(oneNode, min1)) {
                     min2 = min1;
                     min1 = j;
                 }
@@ -82,7 +410,7 @@ public class PrimOneTreeFinder extends PrimMSTFinder {
                 }
             }
             if (min1 != j && !b2) {
-                if (min2 == -1 || costs[oneNode][j] < costs[oneNode][min2]) {
+                if (min2 == -1 || costs.get(oneNode, j) < costs.get(oneNode, min2)) {
                     min2 = j;
                 }
                 if (propHK.isMandatory(oneNode, j)) {
@@ -96,37 +424,12 @@ public class PrimOneTreeFinder extends PrimMSTFinder {
         }
         if (FILTER) {
             if (!propHK.isMandatory(oneNode, min1)) {
-                maxTArc = Math.max(maxTArc, costs[oneNode][min1]);
+                maxTArc = Math.max(maxTArc, costs.get(oneNode, min1));
             }
             if (!propHK.isMandatory(oneNode, min2)) {
-                maxTArc = Math.max(maxTArc, costs[oneNode][min2]);
+                maxTArc = Math.max(maxTArc, costs.get(oneNode, min2));
             }
         }
-        int first = -1, sizeFirst = n + 1;
-        for (int i = 0; i < n; i++) {
-            if (i != oneNode && g.getNeighOf(i).size() < sizeFirst) {
-                first = i;
-                sizeFirst = g.getNeighOf(i).size();
-            }
-        }
-        if (first == -1) {
-            propHK.contradiction();
-        }
-        addNode(first);
-        int from, to;
-        while (tSize < n - 2 && !heap.isEmpty()) {
-            to = heap.removeFirstElement();
-            from = mate[to];
-            addArc(from, to);
-        }
-        if (tSize != n - 2) {
-            propHK.contradiction();
-        }
-        addArc(oneNode, min1);
-        addArc(oneNode, min2);
-        if (Tree.getNeighOf(oneNode).size() != 2) {
-            throw new UnsupportedOperationException();
-        }
     }
 
     private void chooseOneNode() {
@@ -29,9 +29,12 @@ package org.chocosolver.graphsolver.cstrs.cost.tsp.lagrangianRelaxation;
 
 import gnu.trove.list.array.TIntArrayList;
 import org.chocosolver.graphsolver.cstrs.cost.GraphLagrangianRelaxation;
+import org.chocosolver.graphsolver.cstrs.cost.ICostProvider;
 import org.chocosolver.graphsolver.cstrs.cost.trees.lagrangianRelaxation.AbstractTreeFinder;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.heap.ISimpleHeap;
 import org.chocosolver.graphsolver.variables.GraphEventType;
 import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
+import org.chocosolver.memory.IStateInt;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
@@ -41,6 +44,7 @@ import org.chocosolver.solver.variables.events.IntEventType;
 import org.chocosolver.util.ESat;
 import org.chocosolver.util.objects.graphs.UndirectedGraph;
 import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.SetType;
 
 /**
  * TSP Lagrangian relaxation
@@ -59,36 +63,52 @@ public class PropLagr_OneTree extends Propagator<Variable> implements GraphLagra
 	protected UndirectedGraphVar gV;
     protected IntVar obj;
     protected int n;
-    protected int[][] originalCosts;
-    protected double[][] costs;
+    protected ICostProvider originalCosts;
+    // Lagrangian costs, computed on the fly from original costs and penalities (no n*n working set)
+    protected AbstractTreeFinder.EdgeWeights costs;
     protected double[] penalities;
     protected double totalPenalities;
     protected UndirectedGraph mst;
     protected TIntArrayList mandatoryArcsList;
     protected double step;
-    protected AbstractTreeFinder HKfilter, HK;
+    protected AbstractTreeFinder HKfilter;
+    protected PrimOneTreeFinder HK;
     protected boolean waitFirstSol;
     protected int nbSprints;
+    // HK repairs its previous 1-tree as long as no backtrack occurred since the last propagation
+    private IStateInt lastRelaxation;
+    private int nbRelaxations;
+    // optional candidate set: subgradient iterations run on the candidate edges of g only (sparse),
+    // bounds and filtering still rely on g, and edges of its 1-trees are re-admitted into the candidate set
+    private CandidateSetFinder candidateFinder;
+    private UndirectedGraph sparse;
+    private boolean candidatesReady;
 
     //***********************************************************************************
     // CONSTRUCTORS
     //***********************************************************************************
 
-	protected PropLagr_OneTree(Variable[] vars, int[][] costMatrix) {
+	protected PropLagr_OneTree(Variable[] vars, ICostProvider costProvider, long nbEdges) {
 		super(vars, PropagatorPriority.CUBIC, false);
-		originalCosts = costMatrix;
-		n = originalCosts.length;
-		costs = new double[n][n];
+		originalCosts = costProvider;
+		n = originalCosts.getNbMaxNodes();
+		costs = (i, j) -> originalCosts.getCost(i, j) + penalities[i] + penalities[j];
 		totalPenalities = 0;
 		penalities = new double[n];
 		mandatoryArcsList = new TIntArrayList();
 		nbSprints = 30;
-		HK = new PrimOneTreeFinder(n, this);
+		HK = new PrimOneTreeFinder(n, nbEdges, this);
+		HK.setPenalities(penalities);
 		HKfilter = new KruskalOneTree_GAC(n, this);
+		lastRelaxation = getModel().getEnvironment().makeInt(-1);
 	}
 
     public PropLagr_OneTree(UndirectedGraphVar graph, IntVar cost, int[][] costMatrix) {
-        this(new Variable[]{graph, cost}, costMatrix);
+        this(graph, cost, ICostProvider.dense(costMatrix));
+    }
+
+    public PropLagr_OneTree(UndirectedGraphVar graph, IntVar cost, ICostProvider costProvider) {
+        this(new Variable[]{graph, cost}, costProvider, graph.getNbPotentialArcs());
         g = graph.getUB();
 		gV = graph;
         obj = cost;
@@ -103,13 +123,25 @@ public class PropLagr_OneTree extends Propagator<Variable> implements GraphLagra
             return;//the UB does not allow to prune
         }
         // initialisation
+        if (lastRelaxation.get() != nbRelaxations) {
+            HK.invalidate();
+        }
+        lastRelaxation.set(++nbRelaxations);
         rebuild();
-        setCosts();
+        if (candidatesReady) {
+            syncCandidates();
+        }
         int lb;
         do {
             lb = obj.getLB();
             lagrangianRelaxation();
         } while (lb < obj.getLB());
+        if (candidateFinder != null && !candidatesReady) {
+            HK.computeMST(costs, g);
+            candidateFinder.compute(g, HK.getMST(), costs);
+            candidatesReady = true;
+            syncCandidates();
+        }
     }
 
     protected void lagrangianRelaxation() throws ContradictionException {
@@ -119,6 +151,7 @@ public class PropLagr_OneTree extends Propagator<Variable> implements GraphLagra
         double bestHKB;
         bestHKB = 0;
         HKfilter.computeMST(costs, g);
+        readmitCandidates();
         hkb = HKfilter.getBound() - totalPenalities;
         bestHKB = hkb;
         mst = HKfilter.getMST();
@@ -129,7 +162,7 @@ public class PropLagr_OneTree extends Propagator<Variable> implements GraphLagra
         HKfilter.performPruning((double) (obj.getUB()) + totalPenalities + 0.001);
         for (int iter = 5; iter > 0; iter--) {
             for (int i = nbSprints; i > 0; i--) {
-                HK.computeMST(costs, g);
+                HK.computeMST(costs, candidatesReady ? sparse : g);
                 hkb = HK.getBound() - totalPenalities;
                 if (hkb > bestHKB + 1) {
                     bestHKB = hkb;
@@ -138,14 +171,17 @@ public class PropLagr_OneTree extends Propagator<Variable> implements GraphLagra
                 if (hkb - Math.floor(hkb) < 0.001) {
                     hkb = Math.floor(hkb);
                 }
-                obj.updateLowerBound((int) Math.ceil(hkb), this);
+                if (!candidatesReady) {
+                    // a 1-tree of the candidate edges does not give a lower bound
+                    obj.updateLowerBound((int) Math.ceil(hkb), this);
+                }
                 // HK.performPruning((double) (obj.getUB()) + totalPenalities + 0.001);
                 //	DO NOT FILTER HERE TO SPEED UP CONVERGENCE (not always true)
                 updateStep(hkb, alpha);
                 HKPenalities();
-                updateCostMatrix();
             }
             HKfilter.computeMST(costs, g);
+            readmitCandidates();
             hkb = HKfilter.getBound() - totalPenalities;
             if (hkb > bestHKB + 1) {
                 bestHKB = hkb;
@@ -158,7 +194,6 @@ public class PropLagr_OneTree extends Propagator<Variable> implements GraphLagra
             HKfilter.performPruning((double) (obj.getUB()) + totalPenalities + 0.001);
             updateStep(hkb, alpha);
             HKPenalities();
-            updateCostMatrix();
             alpha *= beta;
             beta /= 2;
         }
@@ -181,17 +216,48 @@ public class PropLagr_OneTree extends Propagator<Variable> implements GraphLagra
         }
     }
 
-    protected void setCosts() {
-        ISet nei;
+    /**
+     * Restricts sparse to the candidate edges which are in g
+     */
+    private void syncCandidates() {
+        UndirectedGraph cand = candidateFinder.getCandidates();
+        boolean added = false;
         for (int i = 0; i < n; i++) {
-            nei = g.getNeighOf(i);
-            for (int j : nei) {
+            for (int j : cand.getNeighOf(i)) {
                 if (i < j) {
-                    costs[i][j] = originalCosts[i][j] + penalities[i] + penalities[j];
-                    costs[j][i] = costs[i][j];
+                    if (g.edgeExists(i, j)) {
+                        added |= sparse.addEdge(i, j);
+                    } else {
+                        sparse.removeEdge(i, j);
+                    }
                 }
             }
         }
+        if (added) {
+            HK.invalidate();
+        }
+    }
+
+    /**
+     * Adds the edges of the last 1-tree of g which are not candidate edges to the candidate set,
+     * so that the candidate set always has the 1-tree the bound comes from
+     */
+    private void readmitCandidates() {
+        if (candidatesReady) {
+            boolean added = false;
+            UndirectedGraph tree = HKfilter.getMST();
+            for (int i = 0; i < n; i++) {
+                for (int j : tree.getNeighOf(i)) {
+                    if (i < j && candidateFinder.readmit(i, j)) {
+                        sparse.addEdge(i, j);
+                        added = true;
+                    }
+                }
+            }
+            if (added) {
+                HK.invalidate();
+            }
+        }
     }
 
     protected void updateStep(double hkb, double alpha) {
@@ -228,19 +294,6 @@ public class PropLagr_OneTree extends Propagator<Variable> implements GraphLagra
         this.totalPenalities = 2 * sumPenalities;
     }
 
-    protected void updateCostMatrix() {
-        ISet nei;
-        for (int i = 0; i < n; i++) {
-            nei = g.getNeighOf(i);
-            for (int j : nei) {
-                if (i < j) {
-                    costs[i][j] = originalCosts[i][j] + penalities[i] + penalities[j];
-                    costs[j][i] = costs[i][j];
-                }
-            }
-        }
-    }
-
     //***********************************************************************************
     // INFERENCE
     //***********************************************************************************
@@ -249,8 +302,15 @@ public class PropLagr_OneTree extends Propagator<Variable> implements GraphLagra
         gV.removeArc(from, to, this);
     }
 
+    @Override
+    public void removeAll(int[] from, int[] to, int size) throws ContradictionException {
+        gV.removeArcs(from, to, size, this);
+    }
+
     public void enforce(int from, int to) throws ContradictionException {
-        gV.enforceArc(from, to, this);
+        if (gV.enforceArc(from, to, this)) {
+            HK.edgeEnforced(from, to);
+        }
     }
 
     public void contradiction() throws ContradictionException {
@@ -291,6 +351,19 @@ public class PropLagr_OneTree extends Propagator<Variable> implements GraphLagra
         waitFirstSol = b;
     }
 
+    /**
+     * Runs subgradient iterations on a sparse candidate set of edges, computed at the end of the first relaxation.
+     * Lower bounds and filtering are still computed on all the edges.
+     *
+     * @param finder candidate set finder, whose candidate set may also be given to the search strategy
+     */
+    public void useCandidateSet(CandidateSetFinder finder) {
+        candidateFinder = finder;
+        sparse = new UndirectedGraph(n, SetType.LINKED_LIST, true);
+        // subgradient iterations run on about n*nbCandidates edges
+        HK.setHeap(ISimpleHeap.make(n, (long) n * finder.getNbCandidates()));
+    }
+
     public boolean contains(int i, int j) {
         return mst == null || mst.edgeExists(i, j);
     }
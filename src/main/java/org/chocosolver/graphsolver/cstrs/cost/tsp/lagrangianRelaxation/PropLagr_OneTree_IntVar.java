@@ -27,6 +27,7 @@
 
 package org.chocosolver.graphsolver.cstrs.cost.tsp.lagrangianRelaxation;
 
+import org.chocosolver.graphsolver.cstrs.cost.ICostProvider;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.ESat;
@@ -54,7 +55,7 @@ public class PropLagr_OneTree_IntVar extends PropLagr_OneTree {
 	//***********************************************************************************
 
 	public PropLagr_OneTree_IntVar(IntVar[] graph, IntVar cost, int[][] costMatrix, boolean waitFirstSol) {
-		super(ArrayUtils.append(graph,new IntVar[]{cost}), costMatrix);
+		super(ArrayUtils.append(graph,new IntVar[]{cost}), ICostProvider.dense(costMatrix), nbEdges(graph));
 		this.succ = graph;
 		g = new UndirectedGraph(n, SetType.BIPARTITESET,true);
 		obj = cost;
@@ -91,6 +92,13 @@ public class PropLagr_OneTree_IntVar extends PropLagr_OneTree {
 		succ[to].removeValue(from,this);
 	}
 
+	@Override
+	public void removeAll(int[] from, int[] to, int size) throws ContradictionException {
+		for (int k = 0; k < size; k++) {
+			remove(from[k], to[k]);
+		}
+	}
+
 	@Override
 	public void enforce(int from, int to) throws ContradictionException {
 		if(!succ[from].contains(to)){
@@ -99,6 +107,7 @@ public class PropLagr_OneTree_IntVar extends PropLagr_OneTree {
 		if(!succ[to].contains(from)){
 			succ[from].instantiateTo(to,this);
 		}
+		HK.edgeEnforced(from, to);
 	}
 
 	@Override
@@ -111,6 +120,14 @@ public class PropLagr_OneTree_IntVar extends PropLagr_OneTree {
 		return succ[i].isInstantiatedTo(j) || succ[j].isInstantiatedTo(i);
 	}
 
+	private static long nbEdges(IntVar[] succ){
+		long nb = 0;
+		for (IntVar v : succ) {
+			nb += v.getDomainSize();
+		}
+		return nb / 2;
+	}
+
 	public static boolean checkSymmetry(int[][] costMatrix){
 		int n = costMatrix.length;
 		for (int i = 0; i < n; i++) {
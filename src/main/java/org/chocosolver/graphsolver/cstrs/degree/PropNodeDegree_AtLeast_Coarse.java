@@ -117,7 +117,7 @@ public class PropNodeDegree_AtLeast_Coarse extends Propagator<GraphVar> {
     public ESat isEntailed() {
         ISet act = g.getMandatoryNodes();
         for (int i : act) {
-            if (target.getPotSet(g, i).size() < degrees[i]) {
+            if (target.getPotDegree(g, i) < degrees[i]) {
                 return ESat.FALSE;
             }
         }
@@ -132,13 +132,11 @@ public class PropNodeDegree_AtLeast_Coarse extends Propagator<GraphVar> {
     //***********************************************************************************
 
     private void checkAtLeast(int i) throws ContradictionException {
-        ISet nei = target.getPotSet(g, i);
-        ISet ker = target.getMandSet(g, i);
-        int size = nei.size();
+        int size = target.getPotDegree(g, i);
         if (size < degrees[i]) {
             g.removeNode(i, this);
-        } else if (size == degrees[i] && g.getMandatoryNodes().contains(i) && ker.size() < size) {
-            for (int s : nei) {
+        } else if (size == degrees[i] && g.getMandatoryNodes().contains(i) && target.getMandDegree(g, i) < size) {
+            for (int s : target.getPotSet(g, i)) {
                 target.enforce(g, i, s, this);
             }
         }
@@ -143,7 +143,7 @@ public class PropNodeDegree_AtLeast_Incr extends Propagator<GraphVar> {
 	public ESat isEntailed() {
 		ISet act = g.getMandatoryNodes();
 		for (int i : act) {
-			if (target.getPotSet(g, i).size() < degrees[i]) {
+			if (target.getPotDegree(g, i) < degrees[i]) {
 				return ESat.FALSE;
 			}
 		}
@@ -158,13 +158,11 @@ public class PropNodeDegree_AtLeast_Incr extends Propagator<GraphVar> {
 	//***********************************************************************************
 
 	private void checkAtLeast(int i) throws ContradictionException {
-		ISet pot = target.getPotSet(g, i);
-		ISet ker = target.getMandSet(g, i);
-		int potSize = pot.size();
+		int potSize = target.getPotDegree(g, i);
 		if (potSize < degrees[i]) {
 			g.removeNode(i, this);
-		} else if (potSize == degrees[i] && g.getMandatoryNodes().contains(i) && ker.size() < potSize) {
-			for (int s : pot) {
+		} else if (potSize == degrees[i] && g.getMandatoryNodes().contains(i) && target.getMandDegree(g, i) < potSize) {
+			for (int s : target.getPotSet(g, i)) {
 				target.enforce(g, i, s, this);
 			}
 		}
@@ -118,7 +118,7 @@ public class PropNodeDegree_AtMost_Coarse extends Propagator<GraphVar> {
     public ESat isEntailed() {
         ISet act = g.getMandatoryNodes();
         for (int i : act) {
-            if (target.getPotSet(g, i).size() > degrees[i]) {
+            if (target.getPotDegree(g, i) > degrees[i]) {
                 return ESat.FALSE;
             }
         }
@@ -141,10 +141,10 @@ public class PropNodeDegree_AtMost_Coarse extends Propagator<GraphVar> {
     private void checkAtMost(int i) throws ContradictionException {
         ISet ker = target.getMandSet(g, i);
         ISet env = target.getPotSet(g, i);
-        int size = ker.size();
+        int size = target.getMandDegree(g, i);
         if (size > degrees[i]) {
             g.removeNode(i, this);
-        } else if (size == degrees[i] && env.size() > size) {
+        } else if (size == degrees[i] && target.getPotDegree(g, i) > size) {
             for (int other : env) {
                 if (!ker.contains(other)) {
                     target.remove(g, i, other, this);
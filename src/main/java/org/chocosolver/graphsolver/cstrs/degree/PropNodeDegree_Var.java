@@ -108,15 +108,15 @@ public class PropNodeDegree_Var extends Propagator<Variable> {
 			}
 			ISet env = target.getPotSet(g, i);
 			ISet ker = target.getMandSet(g, i);
-			degrees[i].updateLowerBound(ker.size(),this);
-			degrees[i].updateUpperBound(env.size(),this);
-			if(ker.size() < env.size() && degrees[i].isInstantiated()){
+			degrees[i].updateLowerBound(target.getMandDegree(g, i),this);
+			degrees[i].updateUpperBound(target.getPotDegree(g, i),this);
+			if(target.getMandDegree(g, i) < target.getPotDegree(g, i) && degrees[i].isInstantiated()){
 				int d = degrees[i].getValue();
-				if(env.size() == d){
+				if(target.getPotDegree(g, i) == d){
 					for (int s : env) {
 						target.enforce(g, i, s, this);
 					}
-				}else if(ker.size() == d){
+				}else if(target.getMandDegree(g, i) == d){
 					for (int s : env) {
 						if(!ker.contains(s)) {
 							target.remove(g, i, s, this);
@@ -143,17 +143,17 @@ public class PropNodeDegree_Var extends Propagator<Variable> {
 			}
 			ISet env = target.getPotSet(g, i);
 			ISet ker = target.getMandSet(g, i);
-			degrees[i].updateLowerBound(ker.size(),this);
-			degrees[i].updateUpperBound(env.size(),this);
-			if(ker.size() < env.size() && degrees[i].isInstantiated()){
+			degrees[i].updateLowerBound(target.getMandDegree(g, i),this);
+			degrees[i].updateUpperBound(target.getPotDegree(g, i),this);
+			if(target.getMandDegree(g, i) < target.getPotDegree(g, i) && degrees[i].isInstantiated()){
 				int d = degrees[i].getValue();
-				if(env.size() == d){
+				if(target.getPotDegree(g, i) == d){
 					for (int s : env) {
 						if(target.enforce(g, i, s, this)){
 							toDo.set(s);
 						}
 					}
-				}else if(ker.size() == d){
+				}else if(target.getMandDegree(g, i) == d){
 					for (int s : env) {
 						if(!ker.contains(s)) {
 							if (target.remove(g, i, s, this)) {
@@ -178,13 +178,11 @@ public class PropNodeDegree_Var extends Propagator<Variable> {
 			if((!degrees[i].contains(0)) && !g.getPotentialNodes().contains(i)){
 				return ESat.FALSE;
 			}
-			ISet env = target.getPotSet(g, i);
-			ISet ker = target.getMandSet(g, i);
-			if(degrees[i].getLB()>env.size()
-					|| degrees[i].getUB()<ker.size()){
+			if(degrees[i].getLB()>target.getPotDegree(g, i)
+					|| degrees[i].getUB()<target.getMandDegree(g, i)){
 				return ESat.FALSE;
 			}
-			if(env.size() != ker.size() || !degrees[i].isInstantiated()){
+			if(target.getPotDegree(g, i) != target.getMandDegree(g, i) || !degrees[i].isInstantiated()){
 				done = false;
 			}
 		}
@@ -56,7 +56,11 @@ public class PropArborescence extends PropArborescences {
 	}
 
 	public PropArborescence(DirectedGraphVar graph, int root, boolean simple) {
-		super(graph,simple);
+		this(graph,root,simple,false);
+	}
+
+	public PropArborescence(DirectedGraphVar graph, int root, boolean simple, boolean incremental) {
+		super(graph,simple,incremental);
 		this.root = root;
 		this.visited = new BitSet(n);
 		this.fifo = new int[n];
@@ -69,13 +73,20 @@ public class PropArborescence extends PropArborescences {
 	@Override
 	public void propagate(int evt) throws ContradictionException {
 		g.enforceNode(root, this);
+		super.propagate(evt);
+	}
+
+	@Override
+	protected void filter() throws ContradictionException {
 		// explore the graph from the root
 		explore();
 		// remove unreachable nodes
 		for (int o = visited.nextClearBit(0); o < n; o = visited.nextClearBit(o + 1)) {
-			g.removeNode(o,this);
+			if (g.removeNode(o,this)) {
+				removeFromFlowGraph(o);
+			}
 		}
-		super.propagate(evt);
+		super.filter();
 	}
 
 	@Override
@@ -96,6 +107,11 @@ public class PropArborescence extends PropArborescences {
 		connectedGraph.addArc(n, root);
 	}
 
+	@Override
+	protected void arcEnforced(int x, int y) {
+		// the flow graph only depends on potential arcs and nodes
+	}
+
 	protected void explore() {
 		visited.clear();
 		int first = 0;
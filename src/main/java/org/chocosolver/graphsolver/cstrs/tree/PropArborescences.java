@@ -28,6 +28,9 @@
 package org.chocosolver.graphsolver.cstrs.tree;
 
 import org.chocosolver.graphsolver.variables.DirectedGraphVar;
+import org.chocosolver.graphsolver.variables.GraphEventType;
+import org.chocosolver.graphsolver.variables.delta.GraphDeltaMonitor;
+import org.chocosolver.memory.IStateInt;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
@@ -37,13 +40,21 @@ import org.chocosolver.util.graphOperations.dominance.AlphaDominatorsFinder;
 import org.chocosolver.util.graphOperations.dominance.SimpleDominatorsFinder;
 import org.chocosolver.util.objects.graphs.DirectedGraph;
 import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
 import org.chocosolver.util.objects.setDataStructures.SetType;
+import org.chocosolver.util.procedure.IntProcedure;
+import org.chocosolver.util.procedure.PairProcedure;
 
 import java.util.BitSet;
 
 /**
  * Arborescences constraint (simplification from tree constraint) based on dominators
  * CONSIDERS THAT EACH NODE WITH NO PREDECESSOR IS A ROOT (needs at least one such node)
+ * <p/>
+ * In incremental mode, the flow graph is backtrackable and kept in sync with graph events,
+ * instead of being rebuilt at each propagation. Dominators are only recomputed when some modification
+ * of the flow graph may change them (see removeFlowArc), or when the dominator tree was computed in another search state.
+ * Otherwise, only new mandatory nodes and nodes which lost a predecessor are handled.
  * @author Jean-Guillaume Fages
  */
 public class PropArborescences extends Propagator<DirectedGraphVar> {
@@ -61,6 +72,15 @@ public class PropArborescences extends Propagator<DirectedGraphVar> {
 	protected AbstractLengauerTarjanDominatorsFinder domFinder;
 	protected ISet[] successors;
 	protected BitSet mandVert;
+	// incremental mode
+	protected final boolean incremental;
+	protected GraphDeltaMonitor gdm;
+	protected boolean graphChanged;
+	// identifies the dominator tree held by domFinder, and the one of the current search state
+	private int nbDomComputations;
+	private IStateInt domStamp;
+	private PairProcedure arcRemoved, arcEnforced;
+	private IntProcedure nodeRemoved, nodeEnforced;
 
 	//***********************************************************************************
 	// CONSTRUCTORS
@@ -71,12 +91,32 @@ public class PropArborescences extends Propagator<DirectedGraphVar> {
 	}
 
 	public PropArborescences(DirectedGraphVar graph, boolean simple) {
-		super(new DirectedGraphVar[]{graph}, PropagatorPriority.QUADRATIC, false);
+		this(graph,simple,false);
+	}
+
+	/**
+	 * @param graph       a directed graph variable
+	 * @param simple      true to use a simple (quadratic) dominator algorithm instead of Lengauer-Tarjan one
+	 * @param incremental true to maintain the flow graph from graph events and skip useless dominator computations
+	 */
+	public PropArborescences(DirectedGraphVar graph, boolean simple, boolean incremental) {
+		super(new DirectedGraphVar[]{graph}, PropagatorPriority.QUADRATIC, incremental);
 		g = graph;
 		n = g.getNbMaxNodes();
 		successors = new ISet[n];
-		connectedGraph = new DirectedGraph(n + 1, SetType.BITSET, true);
 		mandVert = new BitSet(n);
+		this.incremental = incremental;
+		if (incremental) {
+			connectedGraph = new DirectedGraph(model, n + 1, SetType.BITSET, true);
+			gdm = g.monitorDelta(this);
+			domStamp = model.getEnvironment().makeInt(-1);
+			arcRemoved = this::removeFlowArc;
+			arcEnforced = this::arcEnforced;
+			nodeRemoved = this::removeFromFlowGraph;
+			nodeEnforced = mandVert::set;
+		} else {
+			connectedGraph = new DirectedGraph(n + 1, SetType.BITSET, true);
+		}
 		if (simple) {
 			domFinder = new SimpleDominatorsFinder(n, connectedGraph);
 		} else {
@@ -92,8 +132,42 @@ public class PropArborescences extends Propagator<DirectedGraphVar> {
 	public void propagate(int evtmask) throws ContradictionException {
 		// reset data structures
 		reset();
+		filter();
+		if (incremental) {
+			gdm.unfreeze();
+		}
+	}
+
+	@Override
+	public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+		graphChanged = false;
+		mandVert.clear();
+		gdm.freeze();
+		gdm.forEachNode(nodeRemoved, GraphEventType.REMOVE_NODE);
+		gdm.forEachArc(arcRemoved, GraphEventType.REMOVE_ARC);
+		gdm.forEachArc(arcEnforced, GraphEventType.ADD_ARC);
+		gdm.forEachNode(nodeEnforced, GraphEventType.ADD_NODE);
+		gdm.unfreeze();
+		if (graphChanged || !isDomTreeValid()) {
+			filter();
+		} else {
+			// same dominators: only new mandatory nodes have to be handled
+			while (mandVert.nextSetBit(0) >= 0) {
+				enforceDominatorsFrom(mandVert.nextSetBit(0));
+			}
+		}
+	}
+
+	/**
+	 * Computes dominators of the flow graph and filters the graph variable accordingly
+	 * @throws ContradictionException if some node is not reachable
+	 */
+	protected void filter() throws ContradictionException {
 		// reach all nodes from root
 		if (domFinder.findDominators()) {
+			if (incremental) {
+				domStamp.set(++nbDomComputations);
+			}
 			// remove backward arcs
 			remBackArcs();
 			// enforce dominators and arc-dominators
@@ -103,6 +177,13 @@ public class PropArborescences extends Propagator<DirectedGraphVar> {
 		}
 	}
 
+	/**
+	 * @return true iff the dominator tree of domFinder has been computed in the current search state (or above)
+	 */
+	private boolean isDomTreeValid() {
+		return domStamp.get() == nbDomComputations;
+	}
+
 	protected void reset(){
 		// reset data structure
 		for (int i = 0; i < n + 1; i++) {
@@ -121,13 +202,62 @@ public class PropArborescences extends Propagator<DirectedGraphVar> {
 		}
 	}
 
+	/**
+	 * Updates the flow graph when arc (x,y) becomes mandatory
+	 */
+	protected void arcEnforced(int x, int y) {
+		// y is not a root anymore
+		removeFlowArc(n, y);
+	}
+
+	/**
+	 * Removes arc (x,y) from the flow graph, and checks whether dominators may have changed.
+	 * They do not when (x,y) is a backward arc, nor when the arc from the immediate dominator of y remains:
+	 * a node newly dominated would make y newly dominated, whereas y is still reached from its immediate dominator.
+	 */
+	protected void removeFlowArc(int x, int y) {
+		if (connectedGraph.removeArc(x, y) && incremental) {
+			if (!isDomTreeValid()) {
+				graphChanged = true;
+			} else if (!domFinder.isDomminatedBy(x, y)) {
+				int i = domFinder.getImmediateDominatorsOf(y);
+				if (i == x || !connectedGraph.arcExists(i, y)) {
+					graphChanged = true;
+				} else if (g.getMandatoryNodes().contains(y)) {
+					// arc-dominators of y may have changed
+					mandVert.set(y);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates the flow graph when node x is removed: it is directly reached from the virtual root
+	 */
+	protected void removeFromFlowGraph(int x) {
+		ISetIterator iter = connectedGraph.getSuccOf(x).iterator();
+		while (iter.hasNext()) {
+			connectedGraph.getPredOf(iter.nextInt()).remove(x);
+		}
+		iter = connectedGraph.getPredOf(x).iterator();
+		while (iter.hasNext()) {
+			connectedGraph.getSuccOf(iter.nextInt()).remove(x);
+		}
+		connectedGraph.getSuccOf(x).clear();
+		connectedGraph.getPredOf(x).clear();
+		connectedGraph.addArc(n, x);
+		graphChanged = incremental;
+	}
+
 	protected void remBackArcs() throws ContradictionException {
 		// remove backward arcs
 		for (int x : g.getPotentialNodes()) {
 			g.removeArc(x, x, this); // no loop
+			removeFlowArc(x, x);
 			for (int y : g.getPotSuccOf(x)) {
 				if (domFinder.isDomminatedBy(x, y)) {
 					g.removeArc(x, y, this);
+					removeFlowArc(x, y);
 				}
 			}
 		}
@@ -166,6 +296,7 @@ public class PropArborescences extends Propagator<DirectedGraphVar> {
 				}
 				if (arcDom) {
 					g.enforceArc(i, j, this);
+					arcEnforced(i, j);
 				}
 			}
 		}
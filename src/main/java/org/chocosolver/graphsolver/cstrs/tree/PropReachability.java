@@ -52,6 +52,10 @@ public class PropReachability extends PropArborescence {
 		super(graph,root,simple);
 	}
 
+	public PropReachability(DirectedGraphVar graph, int root, boolean simple, boolean incremental) {
+		super(graph,root,simple,incremental);
+	}
+
 	//***********************************************************************************
 	// METHODS
 	//***********************************************************************************
@@ -34,10 +34,11 @@
 
 package org.chocosolver.graphsolver.search.strategy;
 
+import org.chocosolver.graphsolver.cstrs.cost.ICostProvider;
 import org.chocosolver.graphsolver.search.GraphAssignment;
 import org.chocosolver.graphsolver.search.GraphDecision;
 import org.chocosolver.graphsolver.variables.GraphVar;
-import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.graphs.UndirectedGraph;
 
 public class GraphSearch extends GraphStrategy {
 
@@ -60,12 +61,15 @@ public class GraphSearch extends GraphStrategy {
     // variables
     private int n;
     private int mode;
-    private int[][] costs;
+    private ICostProvider costs;
     private GraphAssignment decisionType;
     private int from, to;
     private int value;
 	private boolean useLC;
 	private int lastFrom=-1;
+	// if not null, arcs of candidates are selected first
+	private UndirectedGraph candidates;
+	private boolean restrict;
 
 	/**
 	 * Search strategy for graphs
@@ -73,7 +77,7 @@ public class GraphSearch extends GraphStrategy {
 	 * @param graphVar   varriable to branch on
 	 */
 	public GraphSearch(GraphVar graphVar) {
-		this(graphVar,null);
+		this(graphVar, (ICostProvider) null);
 	}
 
 	/**
@@ -83,8 +87,18 @@ public class GraphSearch extends GraphStrategy {
 	 * @param costMatrix can be null
 	 */
 	public GraphSearch(GraphVar graphVar, int[][] costMatrix) {
+		this(graphVar, costMatrix == null ? null : ICostProvider.dense(costMatrix));
+	}
+
+	/**
+	 * Search strategy for graphs
+	 *
+	 * @param graphVar   varriable to branch on
+	 * @param costs      arc costs (dense, sparse or computed on the fly), can be null
+	 */
+	public GraphSearch(GraphVar graphVar, ICostProvider costs) {
         super(graphVar, null, null, NodeArcPriority.ARCS);
-        costs = costMatrix;
+        this.costs = costs;
         n = g.getNbMaxNodes();
     }
 
@@ -119,6 +133,17 @@ public class GraphSearch extends GraphStrategy {
 		return this;
 	}
 
+	/**
+	 * Branches on arcs of candidates first (e.g. the candidate set of a tsp constraint),
+	 * other arcs are only selected once all candidate arcs are decided
+	 *
+	 * @param candidates a graph over the same nodes, which may be filled later on (e.g. at the end of the root propagation)
+	 */
+	public GraphSearch preferCandidates(UndirectedGraph candidates){
+		this.candidates = candidates;
+		return this;
+	}
+
     @Override
     public GraphDecision getDecision() {
         if (g.isInstantiated()) {
@@ -137,6 +162,21 @@ public class GraphSearch extends GraphStrategy {
     private void computeNextArc() {
 		to = -1;
 		from = -1;
+		restrict = candidates != null;
+		if (restrict) {
+			scanNeighbors();
+			restrict = false;
+			if (to != -1) {
+				return;
+			}
+		}
+		scanNeighbors();
+        if (to == -1) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private void scanNeighbors() {
 		if(useLC && lastFrom !=-1){
 			evaluateNeighbors(lastFrom);
 			if(to != -1) {
@@ -148,18 +188,14 @@ public class GraphSearch extends GraphStrategy {
                 return;
             }
         }
-        if (to == -1) {
-            throw new UnsupportedOperationException();
-        }
     }
 
     private boolean evaluateNeighbors(int i) {
-        ISet set = g.getPotSuccOrNeighOf(i);
-        if (set.size() == g.getMandSuccOrNeighOf(i).size()) {
+        if (g.getPotSuccOrNeighDegree(i) == g.getMandSuccOrNeighDegree(i)) {
             return false;
         }
-        for (int j : set) {
-            if (!g.getMandSuccOrNeighOf(i).contains(j)) {
+        for (int j : g.getPotSuccOrNeighOf(i)) {
+            if (!g.getMandSuccOrNeighOf(i).contains(j) && (!restrict || candidates.edgeExists(i, j))) {
                 int v = -1;
                 switch (mode) {
                     case LEX:
@@ -168,24 +204,24 @@ public class GraphSearch extends GraphStrategy {
                         return true;
                     case MIN_P_DEGREE:
                     case MAX_P_DEGREE:
-                        v = g.getPotSuccOrNeighOf(i).size()
-                                + g.getPotPredOrNeighOf(j).size();
+                        v = g.getPotSuccOrNeighDegree(i)
+                                + g.getPotPredOrNeighDegree(j);
                         break;
                     case MIN_M_DEGREE:
                     case MAX_M_DEGREE:
-                        v = g.getMandSuccOrNeighOf(i).size()
-                                + g.getMandPredOrNeighOf(j).size();
+                        v = g.getMandSuccOrNeighDegree(i)
+                                + g.getMandPredOrNeighDegree(j);
                         break;
                     case MIN_DELTA_DEGREE:
                     case MAX_DELTA_DEGREE:
-                        v = g.getPotSuccOrNeighOf(i).size()
-                                + g.getPotPredOrNeighOf(j).size()
-                                - g.getMandSuccOrNeighOf(i).size()
-                                - g.getMandPredOrNeighOf(j).size();
+                        v = g.getPotSuccOrNeighDegree(i)
+                                + g.getPotPredOrNeighDegree(j)
+                                - g.getMandSuccOrNeighDegree(i)
+                                - g.getMandPredOrNeighDegree(j);
                         break;
                     case MIN_COST:
                     case MAX_COST:
-                        v = costs[i][j];
+                        v = costs.getCost(i, j);
                         break;
                     default:
                         throw new UnsupportedOperationException("mode " + mode + " does not exist");
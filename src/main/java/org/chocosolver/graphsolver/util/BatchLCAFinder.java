@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.chocosolver.graphsolver.util;
+
+import org.chocosolver.util.objects.graphs.DirectedGraph;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+
+import java.util.Arrays;
+
+/**
+ * Answers a batch of lowest common ancestor queries over a rooted tree in one pass,
+ * with the offline algorithm of Tarjan (union-find over a depth-first search): O((n+q).alpha(n)) time.
+ * Unlike LCAGraphManager, there is no per-query bit manipulation,
+ * which suits filtering algorithms querying every non-tree arc once.
+ * <p/>
+ * Usage: clear(), addQuery(x,y) for every query, solve(root, tree), then getLCA(q) for every query index q.
+ */
+public class BatchLCAFinder {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private int nbNodes;
+	private GraphTraversal traversal;
+	// queries, stored twice (once per extremity) in linked lists: head[x] -> next[2q or 2q+1]
+	private int nbQueries;
+	private int[] head, next, other, answer;
+	// depth-first search
+	private int[] stack, order, father;
+	// union-find, where ancestor[find(x)] is the current ancestor of the set of x
+	private int[] uf, ancestor;
+	private boolean[] done;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * @param nbNodes  maximum number of nodes of the tree
+	 * @param capacity initial number of queries (grown on demand)
+	 */
+	public BatchLCAFinder(int nbNodes, int capacity) {
+		this.nbNodes = nbNodes;
+		traversal = new GraphTraversal(nbNodes);
+		head = new int[nbNodes];
+		stack = new int[nbNodes];
+		order = new int[nbNodes];
+		father = new int[nbNodes];
+		uf = new int[nbNodes];
+		ancestor = new int[nbNodes];
+		done = new boolean[nbNodes];
+		capacity = Math.max(capacity, 1);
+		next = new int[2 * capacity];
+		other = new int[2 * capacity];
+		answer = new int[capacity];
+		clear();
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	/**
+	 * Removes all queries
+	 */
+	public void clear() {
+		nbQueries = 0;
+		for (int i = 0; i < nbNodes; i++) {
+			head[i] = -1;
+		}
+	}
+
+	/**
+	 * Adds a query for the lowest common ancestor of x and y
+	 *
+	 * @return the index of the query, whose answer is given by getLCA after solve
+	 */
+	public int addQuery(int x, int y) {
+		if (nbQueries == answer.length) {
+			int capacity = nbQueries * 3 / 2 + 1;
+			next = Arrays.copyOf(next, 2 * capacity);
+			other = Arrays.copyOf(other, 2 * capacity);
+			answer = Arrays.copyOf(answer, capacity);
+		}
+		int q = nbQueries++;
+		other[2 * q] = y;
+		next[2 * q] = head[x];
+		head[x] = 2 * q;
+		other[2 * q + 1] = x;
+		next[2 * q + 1] = head[y];
+		head[y] = 2 * q + 1;
+		return q;
+	}
+
+	/**
+	 * Answers all the queries, whose nodes must belong to tree
+	 *
+	 * @param root root of the tree
+	 * @param tree a directed tree, arcs going from fathers to sons
+	 */
+	public void solve(int root, DirectedGraph tree) {
+		// depth-first preorder (its reverse is a postorder of the mirrored dfs)
+		int size = 0, top = 0;
+		stack[top++] = root;
+		father[root] = root;
+		while (top > 0) {
+			int i = stack[--top];
+			order[size++] = i;
+			uf[i] = i;
+			ancestor[i] = i;
+			done[i] = false;
+			ISetIterator iter = traversal.cursor(i, tree.getSuccOf(i));
+			while (iter.hasNext()) {
+				int j = iter.nextInt();
+				father[j] = i;
+				stack[top++] = j;
+			}
+		}
+		// a node is done once its subtree is, its set is then merged into the one of its father
+		for (int k = size - 1; k >= 0; k--) {
+			int i = order[k];
+			done[i] = true;
+			for (int e = head[i]; e != -1; e = next[e]) {
+				int j = other[e];
+				if (done[j]) {
+					answer[e >> 1] = ancestor[find(j)];
+				}
+			}
+			if (i != root) {
+				int f = father[i];
+				int r = find(f);
+				uf[find(i)] = r;
+				ancestor[r] = f;
+			}
+		}
+	}
+
+	/**
+	 * @param q index of a query
+	 * @return the lowest common ancestor of the nodes of query q
+	 */
+	public int getLCA(int q) {
+		return answer[q];
+	}
+
+	private int find(int i) {
+		while (uf[i] != i) {
+			uf[i] = uf[uf[i]];
+			i = uf[i];
+		}
+		return i;
+	}
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.util;
+
+import gnu.trove.list.array.TIntArrayList;
+import org.chocosolver.util.objects.graphs.IGraph;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+
+import java.util.BitSet;
+
+/**
+ * Finds, in one depth-first search, the connected components, bridges, articulation points
+ * and biconnected components of an undirected graph, possibly restricted to a subset of its nodes.
+ * The search is iterative (Hopcroft and Tarjan, 1973) and runs in O(N+M) time.
+ * All structures are allocated once, so that the finder can be called at each propagation.
+ * <p/>
+ * A biconnected component (BCC) is a maximal set of nodes which remains connected when any single node is removed.
+ * Every edge belongs to exactly one BCC (a bridge forms a BCC of two nodes), an isolated node forms a BCC on its own,
+ * and articulation points are exactly the nodes which belong to several BCC.
+ * Loops are ignored.
+ */
+public class BiconnectivityFinder {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private final IGraph graph;
+	private final int n;
+	private BitSet restriction;
+	// dfs
+	private final int[] num, low, parent, stack, call;
+	private final GraphTraversal traversal;
+	// output
+	private final int[] nodeCC, bccNodes, bccOffsets;
+	private final BitSet articulation;
+	private int nbCC, nbBCC, bccEnd;
+	/**
+	 * Bridges found by the last search: (bridgeFrom.get(k), bridgeTo.get(k)) for every k,
+	 * where bridgeFrom is the end which is closer to the root of the dfs
+	 */
+	public final TIntArrayList bridgeFrom, bridgeTo;
+	/**
+	 * Articulation points found by the last search
+	 */
+	public final TIntArrayList articulationPoints;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * Create an object that can compute bridges, articulation points and BCC of g
+	 *
+	 * @param g an undirected graph
+	 */
+	public BiconnectivityFinder(IGraph g) {
+		assert !g.isDirected();
+		this.graph = g;
+		this.n = g.getNbMaxNodes();
+		this.num = new int[n];
+		this.low = new int[n];
+		this.parent = new int[n];
+		this.stack = new int[n];
+		this.call = new int[n];
+		this.traversal = new GraphTraversal(n);
+		this.nodeCC = new int[n];
+		this.bccNodes = new int[2 * n];
+		this.bccOffsets = new int[n + 1];
+		this.articulation = new BitSet(n);
+		this.bridgeFrom = new TIntArrayList();
+		this.bridgeTo = new TIntArrayList();
+		this.articulationPoints = new TIntArrayList();
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	/**
+	 * Searches the whole graph
+	 */
+	public void findAll() {
+		findAllOf(null);
+	}
+
+	/**
+	 * Searches the subgraph induced by the given nodes
+	 *
+	 * @param nodes subset of the nodes of the graph (null stands for all nodes)
+	 */
+	public void findAllOf(BitSet nodes) {
+		restriction = nodes;
+		bridgeFrom.resetQuick();
+		bridgeTo.resetQuick();
+		articulationPoints.resetQuick();
+		articulation.clear();
+		nbCC = 0;
+		nbBCC = 0;
+		bccEnd = 0;
+		ISetIterator iter = graph.getNodes().iterator();
+		while (iter.hasNext()) {
+			num[iter.nextInt()] = -1;
+		}
+		int time = 0;
+		iter.reset();
+		while (iter.hasNext()) {
+			int s = iter.nextInt();
+			if (num[s] == -1 && isIn(s)) {
+				time = dfs(s, time);
+				nbCC++;
+			}
+		}
+	}
+
+	private boolean isIn(int i) {
+		return restriction == null || restriction.get(i);
+	}
+
+	private int dfs(int root, int time) {
+		int sp = 0;
+		int cp = 0;
+		int rootChildren = 0;
+		num[root] = low[root] = time++;
+		parent[root] = -1;
+		nodeCC[root] = nbCC;
+		stack[sp++] = root;
+		call[cp++] = root;
+		traversal.cursor(root, graph.getSuccOrNeighOf(root));
+		while (cp > 0) {
+			int i = call[cp - 1];
+			ISetIterator iter = traversal.cursor(i);
+			if (iter.hasNext()) {
+				int j = iter.nextInt();
+				if (j == i || !isIn(j)) {
+					continue;
+				}
+				if (num[j] == -1) {
+					num[j] = low[j] = time++;
+					parent[j] = i;
+					nodeCC[j] = nbCC;
+					stack[sp++] = j;
+					call[cp++] = j;
+					traversal.cursor(j, graph.getSuccOrNeighOf(j));
+				} else if (j != parent[i]) {
+					low[i] = Math.min(low[i], num[j]);
+				}
+			} else if (--cp > 0) {
+				int p = call[cp - 1];
+				low[p] = Math.min(low[p], low[i]);
+				if (low[i] > num[p]) {
+					bridgeFrom.add(p);
+					bridgeTo.add(i);
+				}
+				if (low[i] >= num[p]) {
+					// p separates the subtree of i from the rest, which forms a BCC with p
+					if (p == root) {
+						rootChildren++;
+					} else {
+						markArticulation(p);
+					}
+					int j;
+					do {
+						j = stack[--sp];
+						addToBCC(j);
+					} while (j != i);
+					addToBCC(p);
+					closeBCC();
+				}
+			}
+		}
+		if (rootChildren > 1) {
+			markArticulation(root);
+		} else if (rootChildren == 0) {
+			addToBCC(root);
+			closeBCC();
+		}
+		return time;
+	}
+
+	private void markArticulation(int i) {
+		if (!articulation.get(i)) {
+			articulation.set(i);
+			articulationPoints.add(i);
+		}
+	}
+
+	private void addToBCC(int i) {
+		bccNodes[bccEnd++] = i;
+	}
+
+	private void closeBCC() {
+		bccOffsets[++nbBCC] = bccEnd;
+	}
+
+	//***********************************************************************************
+	// ACCESSORS
+	//***********************************************************************************
+
+	/**
+	 * @return the number of connected components found by the last search
+	 */
+	public int getNbCC() {
+		return nbCC;
+	}
+
+	/**
+	 * @return the index of the connected component of each searched node
+	 */
+	public int[] getNodeCC() {
+		return nodeCC;
+	}
+
+	/**
+	 * @return true iff the searched (sub)graph is connected and has no articulation point
+	 */
+	public boolean isBiconnected() {
+		return nbCC == 1 && articulationPoints.isEmpty();
+	}
+
+	/**
+	 * @param i a node
+	 * @return true iff i is an articulation point of the searched (sub)graph
+	 */
+	public boolean isArticulationPoint(int i) {
+		return articulation.get(i);
+	}
+
+	/**
+	 * @return the number of biconnected components found by the last search
+	 */
+	public int getNbBCC() {
+		return nbBCC;
+	}
+
+	/**
+	 * The nodes of BCC b are getBCCNodes()[k] for k in [getBCCOffsets()[b], getBCCOffsets()[b + 1][
+	 *
+	 * @return the nodes of all BCC, stored contiguously
+	 */
+	public int[] getBCCNodes() {
+		return bccNodes;
+	}
+
+	/**
+	 * @return the offset of each BCC in getBCCNodes(), followed by the total size
+	 */
+	public int[] getBCCOffsets() {
+		return bccOffsets;
+	}
+}
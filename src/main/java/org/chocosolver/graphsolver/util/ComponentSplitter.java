@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.util;
+
+import org.chocosolver.util.objects.graphs.IGraph;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+
+import java.util.Arrays;
+
+/**
+ * Checks whether two nodes of an undirected graph, which used to be connected, are still connected,
+ * by alternately growing a breadth-first search from each of them.
+ * The search stops as soon as both searches meet, or when one of them is exhausted:
+ * the connected component of its origin (called the cut side) has then been fully explored.
+ * Hence, the work is proportional to the smallest side, rather than to the graph size.
+ * <p/>
+ * Used by decremental connectivity propagators, after arc or node removals.
+ */
+public class ComponentSplitter {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private GraphTraversal traversal;
+	private IGraph graph;
+	// time-stamped marks
+	private int[] mark;
+	private int stamp;
+	// searches
+	private int[] fifoA, fifoB, side, other;
+	private int sideSize, otherFirst, otherLast, sideStamp, otherStamp;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * @param n maximum number of nodes
+	 */
+	public ComponentSplitter(int n) {
+		traversal = new GraphTraversal(n);
+		mark = new int[n];
+		fifoA = new int[n];
+		fifoB = new int[n];
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	/**
+	 * Checks whether a and b are disconnected in graph
+	 *
+	 * @param graph an undirected graph
+	 * @param a     a node of graph
+	 * @param b     a node of graph
+	 * @return true iff a and b are disconnected, the cut side is then given by getCutSide() and getCutSize()
+	 */
+	public boolean split(IGraph graph, int a, int b) {
+		assert !graph.isDirected();
+		this.graph = graph;
+		int sa = nextStamp();
+		int sb = nextStamp();
+		int fa = 0, la = 0, fb = 0, lb = 0;
+		mark[a] = sa;
+		fifoA[la++] = a;
+		mark[b] = sb;
+		fifoB[lb++] = b;
+		while (true) {
+			if (fa == la) {
+				cut(fifoA, la, sa, fifoB, fb, lb, sb);
+				return true;
+			}
+			la = expand(fifoA[fa++], fifoA, la, sa, sb);
+			if (la < 0) {
+				return false;
+			}
+			if (fb == lb) {
+				cut(fifoB, lb, sb, fifoA, fa, la, sa);
+				return true;
+			}
+			lb = expand(fifoB[fb++], fifoB, lb, sb, sa);
+			if (lb < 0) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * @return the nodes of the cut side (in the first getCutSize() cells), after split returned true
+	 */
+	public int[] getCutSide() {
+		return side;
+	}
+
+	/**
+	 * @return the number of nodes of the cut side, after split returned true
+	 */
+	public int getCutSize() {
+		return sideSize;
+	}
+
+	/**
+	 * @param i a node
+	 * @return true iff i belongs to the cut side, after split returned true
+	 */
+	public boolean isInCutSide(int i) {
+		return mark[i] == sideStamp;
+	}
+
+	/**
+	 * Completes the search which has not been exhausted, so as to get the whole component on the other side of the cut
+	 *
+	 * @return the number of nodes of the other side, which are stored in getOtherSide()
+	 */
+	public int completeOtherSide() {
+		while (otherFirst < otherLast) {
+			otherLast = expand(other[otherFirst++], other, otherLast, otherStamp, -1);
+		}
+		return otherLast;
+	}
+
+	/**
+	 * @return the nodes of the other side, after completeOtherSide() has been called
+	 */
+	public int[] getOtherSide() {
+		return other;
+	}
+
+	private void cut(int[] side, int size, int sideStamp, int[] other, int first, int last, int otherStamp) {
+		this.side = side;
+		this.sideSize = size;
+		this.sideStamp = sideStamp;
+		this.other = other;
+		this.otherFirst = first;
+		this.otherLast = last;
+		this.otherStamp = otherStamp;
+	}
+
+	/**
+	 * Adds to the given search the unmarked neighbors of i
+	 *
+	 * @return the new end of the queue, or -1 if a node of the other search has been reached
+	 */
+	private int expand(int i, int[] fifo, int last, int own, int other) {
+		ISetIterator iter = traversal.cursor(i, graph.getSuccOrNeighOf(i));
+		while (iter.hasNext()) {
+			int j = iter.nextInt();
+			if (mark[j] == other) {
+				return -1;
+			}
+			if (mark[j] != own) {
+				mark[j] = own;
+				fifo[last++] = j;
+			}
+		}
+		return last;
+	}
+
+	private int nextStamp() {
+		if (stamp == Integer.MAX_VALUE) {
+			Arrays.fill(mark, 0);
+			stamp = 0;
+		}
+		return ++stamp;
+	}
+}
@@ -43,8 +43,7 @@ package org.chocosolver.graphsolver.util;
 import gnu.trove.list.array.TIntArrayList;
 import org.chocosolver.util.objects.graphs.IGraph;
 import org.chocosolver.util.objects.setDataStructures.ISet;
-
-import java.util.Iterator;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
 
 /**
  * Class containing algorithms to find all connected components and articulation points of graph by performing one dfs
@@ -64,7 +63,10 @@ public class ConnectivityFinder {
 	private int nbCC;
 	//bonus biconnection
 	private int[] numOfNode, nodeOfNum, inf;
-	private Iterator<Integer>[] iterators;
+	private GraphTraversal traversal;
+	// parallel computation of large graphs
+	private int parallelThreshold = Integer.MAX_VALUE;
+	private ParallelConnectivityFinder parallelFinder;
 
 	/**
 	 * Create an object that can compute Connected Components (CC) of a graph g
@@ -77,7 +79,17 @@ public class ConnectivityFinder {
 		n = g.getNbMaxNodes();
 		p = new int[n];
 		fifo = new int[n];
-		iterators = new Iterator[n];
+		traversal = new GraphTraversal(n);
+	}
+
+	/**
+	 * findAllCC() delegates to a ParallelConnectivityFinder when the graph has at least threshold nodes
+	 * (by default, it never does)
+	 *
+	 * @param threshold minimum number of nodes for a parallel computation
+	 */
+	public void setParallelThreshold(int threshold) {
+		this.parallelThreshold = threshold;
 	}
 
 	/**
@@ -112,15 +124,21 @@ public class ConnectivityFinder {
 			CC_nextNode = new int[n];
 			node_CC = new int[n];
 		}
-		ISet act = graph.getNodes();
-		for (int i : act) {
-			p[i] = -1;
+		if (graph.getNodes().size() >= parallelThreshold) {
+			findAllCCInParallel();
+			return;
+		}
+		ISetIterator act = graph.getNodes().iterator();
+		while (act.hasNext()) {
+			p[act.nextInt()] = -1;
 		}
 		for(int i=0;i<CC_firstNode.length;i++){
 			CC_firstNode[i] = -1;
 		}
 		int cc = 0;
-		for(int i:act){
+		act.reset();
+		while (act.hasNext()) {
+			int i = act.nextInt();
 			if(p[i]==-1){
 				findCC(i, cc);
 				cc++;
@@ -129,6 +147,24 @@ public class ConnectivityFinder {
 		nbCC = cc;
 	}
 
+	private void findAllCCInParallel() {
+		if (parallelFinder == null) {
+			parallelFinder = new ParallelConnectivityFinder(graph);
+		}
+		parallelFinder.findAllCC();
+		nbCC = parallelFinder.getNBCC();
+		System.arraycopy(parallelFinder.getCC_firstNode(), 0, CC_firstNode, 0, nbCC);
+		for (int i = nbCC; i < n; i++) {
+			CC_firstNode[i] = -1;
+		}
+		ISetIterator act = graph.getNodes().iterator();
+		while (act.hasNext()) {
+			int i = act.nextInt();
+			node_CC[i] = parallelFinder.getNode_CC()[i];
+			CC_nextNode[i] = parallelFinder.getCC_nextNode()[i];
+		}
+	}
+
 	private void findCC(int start, int cc) {
 		int first= 0;
 		int last = 0;
@@ -137,25 +173,25 @@ public class ConnectivityFinder {
 		add(start,cc);
 		while(first<last){
 			int i = fifo[first++];
-			for(int j:graph.getSuccOrNeighOf(i)){
-				if(p[j]==-1){
-					p[j] = i;
-					add(j,cc);
-					fifo[last++] = j;
-				}
-			}
+			last = visit(i, traversal.cursor(i, graph.getSuccOrNeighOf(i)), cc, last);
 			if(graph.isDirected()){
-				for(int j:graph.getPredOrNeighOf(i)){
-					if(p[j]==-1){
-						p[j] = i;
-						add(j,cc);
-						fifo[last++] = j;
-					}
-				}
+				last = visit(i, graph.getPredOrNeighOf(i).iterator(), cc, last);
 			}
 		}
 	}
 
+	private int visit(int i, ISetIterator iter, int cc, int last) {
+		while (iter.hasNext()) {
+			int j = iter.nextInt();
+			if(p[j]==-1){
+				p[j] = i;
+				add(j,cc);
+				fifo[last++] = j;
+			}
+		}
+		return last;
+	}
+
 	private void add(int node, int cc) {
 		node_CC[node] = cc;
 		CC_nextNode[node] = CC_firstNode[cc];
@@ -176,13 +212,15 @@ public class ConnectivityFinder {
 			inf = new int[n];
 		}
 		ISet act = graph.getNodes();
-		for (int i : act) {
+		ISetIterator iter = act.iterator();
+		while (iter.hasNext()) {
+			int i = iter.nextInt();
 			inf[i] = Integer.MAX_VALUE;
 			p[i] = -1;
-			iterators[i] = graph.getSuccOrNeighOf(i).iterator();
+			traversal.cursor(i, graph.getSuccOrNeighOf(i));
 		}
 		//algo
-		int start = act.iterator().next();
+		int start = act.iterator().nextInt();
 		int i = start;
 		int k = 0;
 		numOfNode[start] = k;
@@ -191,8 +229,8 @@ public class ConnectivityFinder {
 		int j, q;
 		int nbRootChildren = 0;
 		while (true) {
-			if (iterators[i].hasNext()) {
-				j = iterators[i].next();
+			if (traversal.cursor(i).hasNext()) {
+				j = traversal.cursor(i).nextInt();
 				if (p[j] == -1) {
 					p[j] = i;
 					if (i == start) {
@@ -233,28 +271,36 @@ public class ConnectivityFinder {
 	 */
 	public boolean isConnectedAndFindIsthma() {
 		assert (!graph.isDirected());
-		if (numOfNode == null || CC_firstNode == null) {
+		if (CC_firstNode == null) {
 			CC_firstNode = new int[n];
 			CC_nextNode = new int[n];
 			node_CC = new int[n];
+		}
+		if (numOfNode == null) {
 			nodeOfNum = new int[n];
 			numOfNode = new int[n];
+		}
+		if (isthmusFrom == null) {
 			isthmusFrom = new TIntArrayList();
 			isthmusTo = new TIntArrayList();
+		}
+		if (ND == null) {
 			ND = new int[n];
 			L = new int[n];
 			H = new int[n];
 		}
 		ISet act = graph.getNodes();
-		for (int i : act) {
+		ISetIterator iter = act.iterator();
+		while (iter.hasNext()) {
+			int i = iter.nextInt();
 			p[i] = -1;
-			iterators[i] = graph.getSuccOrNeighOf(i).iterator();
+			traversal.cursor(i, graph.getSuccOrNeighOf(i));
 		}
 		for(int i=0;i<CC_firstNode.length;i++){
 			CC_firstNode[i] = -1;
 		}
 		//algo
-		int start = act.iterator().next();
+		int start = act.iterator().nextInt();
 		int i = start;
 		int k = 0;
 		numOfNode[start] = k;
@@ -262,8 +308,8 @@ public class ConnectivityFinder {
 		p[start] = start;
 		int j;
 		while (true) {
-			if (iterators[i].hasNext()) {
-				j = iterators[i].next();
+			if (traversal.cursor(i).hasNext()) {
+				j = traversal.cursor(i).nextInt();
 				if (p[j] == -1) {
 					p[j] = i;
 					i = j;
@@ -284,15 +330,17 @@ public class ConnectivityFinder {
 			}
 		}
 		// POST ORDER PASS FOR FINDING ISTHMUS
-		isthmusFrom.clear();
-		isthmusTo.clear();
+		isthmusFrom.resetQuick();
+		isthmusTo.resetQuick();
 		int currentNode;
 		for (i = k; i >= 0; i--) {
 			currentNode = nodeOfNum[i];
 			ND[currentNode] = 1;
 			L[currentNode] = i;
 			H[currentNode] = i;
-			for (int s : graph.getSuccOrNeighOf(currentNode)) {
+			ISetIterator nei = traversal.cursor(currentNode, graph.getSuccOrNeighOf(currentNode));
+			while (nei.hasNext()) {
+				int s = nei.nextInt();
 				if (p[s] == currentNode) {
 					ND[currentNode] += ND[s];
 					L[currentNode] = Math.min(L[currentNode], L[s]);
@@ -309,4 +357,89 @@ public class ConnectivityFinder {
 		}
 		return true;
 	}
-}
\ No newline at end of file
+
+	public TIntArrayList cutNodes;
+	private int[] nbMarked;
+
+	/**
+	 * Only for undirected graphs
+	 * Performs a dfs from root and finds the nodes and the bridges whose removal
+	 * would disconnect a node of marked from root (i.e. which dominate a node of marked).
+	 * Such nodes are stored in cutNodes (once per subtree they cut) and such bridges in isthmusFrom/isthmusTo.
+	 * Nodes which are not reachable from root are ignored.
+	 *
+	 * @param root		node from which the dfs starts, it should belong to marked
+	 * @param marked	set of nodes which should remain connected to root
+	 * @return the number of nodes reachable from root
+	 */
+	public int findCutsOf(int root, ISet marked) {
+		assert (!graph.isDirected());
+		if (nbMarked == null) {
+			nbMarked = new int[n];
+			cutNodes = new TIntArrayList();
+			if (isthmusFrom == null) {
+				isthmusFrom = new TIntArrayList();
+				isthmusTo = new TIntArrayList();
+			}
+			if (numOfNode == null) {
+				nodeOfNum = new int[n];
+				numOfNode = new int[n];
+			}
+			if (inf == null) {
+				inf = new int[n];
+			}
+		}
+		cutNodes.resetQuick();
+		isthmusFrom.resetQuick();
+		isthmusTo.resetQuick();
+		ISet act = graph.getNodes();
+		ISetIterator iter = act.iterator();
+		while (iter.hasNext()) {
+			int i = iter.nextInt();
+			p[i] = -1;
+			traversal.cursor(i, graph.getSuccOrNeighOf(i));
+		}
+		int i = root;
+		int k = 0;
+		numOfNode[root] = k;
+		nodeOfNum[k] = root;
+		inf[root] = k;
+		nbMarked[root] = marked.contains(root) ? 1 : 0;
+		p[root] = root;
+		int j;
+		while (true) {
+			if (traversal.cursor(i).hasNext()) {
+				j = traversal.cursor(i).nextInt();
+				if (p[j] == -1) {
+					p[j] = i;
+					i = j;
+					k++;
+					numOfNode[i] = k;
+					nodeOfNum[k] = i;
+					inf[i] = k;
+					nbMarked[i] = marked.contains(i) ? 1 : 0;
+				} else if (p[i] != j) {
+					inf[i] = Math.min(inf[i], numOfNode[j]);
+				}
+			} else {
+				if (i == root) {
+					return k + 1;
+				}
+				j = i;
+				i = p[j];
+				inf[i] = Math.min(inf[i], inf[j]);
+				nbMarked[i] += nbMarked[j];
+				if (nbMarked[j] > 0) {
+					// the subtree of j contains a marked node, which is cut from root without i (resp. (i,j))
+					if (i != root && inf[j] >= numOfNode[i]) {
+						cutNodes.add(i);
+					}
+					if (inf[j] > numOfNode[i]) {
+						isthmusFrom.add(i);
+						isthmusTo.add(j);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.util;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.procedure.TLongProcedure;
+import gnu.trove.set.hash.TLongHashSet;
+import org.chocosolver.util.objects.graphs.IGraph;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+
+import java.util.Arrays;
+
+/**
+ * Class computing edge-disjoint or internally vertex-disjoint paths between two nodes of an undirected graph,
+ * as a unit-capacity max-flow (augmenting paths found by bfs in the residual graph).
+ * Since at most k+1 paths are searched for, a call runs in O(k.(M+N)) time.
+ * When exactly k paths exist, edges and nodes which belong to a min cut (of size k, by Menger's theorem) are given:
+ * they are the saturated arcs of the residual graph whose extremities lie in different strongly connected components.
+ * <p/>
+ * In the vertex-disjoint case, each node v is split into in(v) and out(v), linked by an arc of capacity 1.
+ * A direct edge between the two nodes counts as one path.
+ */
+public class DisjointPathFinder {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private int n, nbStates, time, size, source;
+	private IGraph graph;
+	private boolean vertexDisjoint;
+	// parent, fifo and bfs stamp of residual graph states (nodes, or in/out copies of nodes)
+	private int[] p, fifo, stamp;
+	// vertex-disjoint case: nodes carrying a path
+	private boolean[] used;
+	// Tarjan algorithm over residual graph states
+	private int[] num, low, scc, stack;
+	private boolean[] inStack, pending;
+	private TLongProcedure addCutArc;
+	// arcs carrying a path, encoded as from*nbStates+to
+	private TLongHashSet flow;
+	private GraphTraversal traversal;
+	/**
+	 * Edges (cutFrom[i], cutTo[i]) and nodes (vertex-disjoint case only) which belong to at least one min cut,
+	 * found by the last call to findDisjointPaths, when exactly k paths exist
+	 */
+	public TIntArrayList cutFrom, cutTo, cutNodes;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * Create an object that can compute disjoint paths between nodes of an undirected graph g
+	 *
+	 * @param g              graph
+	 * @param vertexDisjoint true iff paths must be internally vertex-disjoint, false if they must be edge-disjoint
+	 */
+	public DisjointPathFinder(IGraph g, boolean vertexDisjoint) {
+		assert (!g.isDirected());
+		this.graph = g;
+		this.vertexDisjoint = vertexDisjoint;
+		this.n = g.getNbMaxNodes();
+		this.nbStates = vertexDisjoint ? 2 * n : n;
+		p = new int[nbStates];
+		fifo = new int[nbStates];
+		stamp = new int[nbStates];
+		if (vertexDisjoint) {
+			used = new boolean[n];
+			pending = new boolean[nbStates];
+		}
+		flow = new TLongHashSet();
+		traversal = new GraphTraversal(nbStates);
+		cutFrom = new TIntArrayList();
+		cutTo = new TIntArrayList();
+		cutNodes = new TIntArrayList();
+		addCutArc = arc -> {
+			int x = (int) (arc / nbStates);
+			int y = (int) (arc % nbStates);
+			if (scc[x] != scc[y]) {
+				cutFrom.add(vertexDisjoint ? x >> 1 : x);
+				cutTo.add(vertexDisjoint ? y >> 1 : y);
+			}
+			return true;
+		};
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	/**
+	 * Searches for k+1 disjoint paths between s and t (s != t).
+	 * If exactly k paths are found, cutFrom, cutTo and cutNodes are filled with edges and nodes belonging to min cuts,
+	 * i.e. to some set of k edges and nodes whose removal disconnects s from t (they are left empty otherwise).
+	 *
+	 * @param s first node
+	 * @param t second node
+	 * @param k expected number of paths
+	 * @return the number of disjoint paths between s and t, if it is lower than or equal to k, k+1 otherwise
+	 */
+	public int findDisjointPaths(int s, int t, int k) {
+		assert s != t;
+		flow.clear();
+		if (vertexDisjoint) {
+			Arrays.fill(used, false);
+		}
+		cutFrom.resetQuick();
+		cutTo.resetQuick();
+		cutNodes.resetQuick();
+		source = s;
+		int src = vertexDisjoint ? 2 * s + 1 : s;
+		int dst = vertexDisjoint ? 2 * t : t;
+		int nb = 0;
+		while (nb <= k && augment(src, dst)) {
+			nb++;
+		}
+		if (nb == k) {
+			findCuts();
+		}
+		return nb;
+	}
+
+	/**
+	 * Gives edges carrying the paths found by the last call to findDisjointPaths:
+	 * removing any other edge of the graph leaves these paths untouched
+	 *
+	 * @param from filled with first extremities of edges
+	 * @param to   filled with second extremities of edges
+	 */
+	public void getPathEdges(TIntArrayList from, TIntArrayList to) {
+		from.resetQuick();
+		to.resetQuick();
+		flow.forEach(arc -> {
+			int x = (int) (arc / nbStates);
+			int y = (int) (arc % nbStates);
+			from.add(vertexDisjoint ? x >> 1 : x);
+			to.add(vertexDisjoint ? y >> 1 : y);
+			return true;
+		});
+	}
+
+	private boolean augment(int src, int dst) {
+		time++;
+		size = 0;
+		reach(-1, src);
+		for (int first = 0; first < size && stamp[dst] != time; first++) {
+			int x = fifo[first];
+			startResidual(x);
+			for (int y = nextResidual(x); y != -1; y = nextResidual(x)) {
+				reach(x, y);
+			}
+		}
+		if (stamp[dst] != time) {
+			return false;
+		}
+		for (int y = dst; y != src; y = p[y]) {
+			push(p[y], y);
+		}
+		return true;
+	}
+
+	private void reach(int x, int y) {
+		if (stamp[y] != time) {
+			stamp[y] = time;
+			p[y] = x;
+			fifo[size++] = y;
+		}
+	}
+
+	private void push(int x, int y) {
+		if (!vertexDisjoint) {
+			// cancels the opposite path if any
+			if (!flow.remove(key(y, x))) {
+				flow.add(key(x, y));
+			}
+		} else if ((x >> 1) == (y >> 1)) {
+			used[x >> 1] = (x & 1) == 0;
+		} else if ((x & 1) == 1) {
+			flow.add(key(x, y));
+		} else {
+			flow.remove(key(y, x));
+		}
+	}
+
+	//***********************************************************************************
+	// RESIDUAL GRAPH
+	//***********************************************************************************
+
+	private void startResidual(int x) {
+		int v = vertexDisjoint ? x >> 1 : x;
+		traversal.cursor(x, graph.getSuccOrNeighOf(v));
+		if (vertexDisjoint) {
+			pending[x] = true;
+		}
+	}
+
+	/**
+	 * @return the next successor of state x in the residual graph, -1 if there is no more
+	 */
+	private int nextResidual(int x) {
+		if (!vertexDisjoint) {
+			ISetIterator iter = traversal.cursor(x);
+			while (iter.hasNext()) {
+				int y = iter.nextInt();
+				if (!flow.contains(key(x, y))) {
+					return y;
+				}
+			}
+			return -1;
+		}
+		int v = x >> 1;
+		boolean in = (x & 1) == 0;
+		if (pending[x]) {
+			// in(v) -> out(v) if v is free, out(v) -> in(v) if v carries a path
+			pending[x] = false;
+			if (used[v] != in) {
+				return in ? x + 1 : x - 1;
+			}
+		}
+		ISetIterator iter = traversal.cursor(x);
+		while (iter.hasNext()) {
+			int w = iter.nextInt();
+			if (in) {
+				// back along an arc out(w) -> in(v) carrying a path
+				if (flow.contains(key(2 * w + 1, x))) {
+					return 2 * w + 1;
+				}
+			} else if (w != source && !flow.contains(key(x, 2 * w))) {
+				// free arc out(v) -> in(w)
+				return 2 * w;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds strongly connected components of the residual graph (Tarjan, non recursive),
+	 * then saturated arcs linking two components
+	 */
+	private void findCuts() {
+		if (num == null) {
+			num = new int[nbStates];
+			low = new int[nbStates];
+			scc = new int[nbStates];
+			stack = new int[nbStates];
+			inStack = new boolean[nbStates];
+		}
+		ISetIterator iter = graph.getNodes().iterator();
+		while (iter.hasNext()) {
+			int v = iter.nextInt();
+			if (vertexDisjoint) {
+				num[2 * v] = num[2 * v + 1] = -1;
+			} else {
+				num[v] = -1;
+			}
+		}
+		int k = 0;
+		int nbSCC = 0;
+		int top = 0;
+		iter = graph.getNodes().iterator();
+		while (iter.hasNext()) {
+			int v = iter.nextInt();
+			for (int root = vertexDisjoint ? 2 * v : v; root <= (vertexDisjoint ? 2 * v + 1 : v); root++) {
+				if (num[root] != -1) {
+					continue;
+				}
+				int x = root;
+				num[x] = low[x] = k++;
+				stack[top++] = x;
+				inStack[x] = true;
+				startResidual(x);
+				while (true) {
+					int y = nextResidual(x);
+					if (y != -1) {
+						if (num[y] == -1) {
+							p[y] = x;
+							x = y;
+							num[x] = low[x] = k++;
+							stack[top++] = x;
+							inStack[x] = true;
+							startResidual(x);
+						} else if (inStack[y]) {
+							low[x] = Math.min(low[x], num[y]);
+						}
+					} else {
+						if (low[x] == num[x]) {
+							int z;
+							do {
+								z = stack[--top];
+								inStack[z] = false;
+								scc[z] = nbSCC;
+							} while (z != x);
+							nbSCC++;
+						}
+						if (x == root) {
+							break;
+						}
+						int px = p[x];
+						low[px] = Math.min(low[px], low[x]);
+						x = px;
+					}
+				}
+			}
+		}
+		if (vertexDisjoint) {
+			for (int v = 0; v < n; v++) {
+				if (used[v] && scc[2 * v] != scc[2 * v + 1]) {
+					cutNodes.add(v);
+				}
+			}
+		}
+		flow.forEach(addCutArc);
+	}
+
+	private long key(int from, int to) {
+		return (long) from * nbStates + to;
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package org.chocosolver.graphsolver.util;
+
+import java.util.Arrays;
+
+/**
+ * Stable LSD radix sort of indexes by double keys, in O(8.size) time and O(size) memory.
+ * Keys are sorted on their IEEE-754 bits, flipped so that the order of the bits is the order of the doubles
+ * (negative values and infinities included, NaN excluded). A byte which is the same for all keys
+ * (e.g. the exponent of costs of the same magnitude) is skipped.
+ * <p/>
+ * Used by Kruskal-based tree finders, which sort the edges of the graph at every call.
+ */
+public class DoubleRadixSort {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private static final int RADIX = 8;
+	private static final int NB_BUCKETS = 1 << RADIX;
+	private static final int NB_PASSES = 64 / RADIX;
+
+	private long[] bits, tmpBits;
+	private int[] tmpOrder;
+	private int[] count;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * @param capacity initial number of keys (grown on demand)
+	 */
+	public DoubleRadixSort(int capacity) {
+		count = new int[NB_PASSES * NB_BUCKETS];
+		ensureCapacity(capacity);
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	/**
+	 * Grows the scratch arrays so that they can sort size keys
+	 *
+	 * @param size number of keys
+	 */
+	public void ensureCapacity(int size) {
+		if (bits == null || bits.length < size) {
+			int capacity = bits == null ? size : Math.max(size, bits.length * 3 / 2);
+			bits = new long[capacity];
+			tmpBits = new long[capacity];
+			tmpOrder = new int[capacity];
+		}
+	}
+
+	/**
+	 * Sorts indexes 0..size-1 by increasing keys, equal keys keeping their index order
+	 *
+	 * @param keys  keys, keys[k] being the key of index k
+	 * @param size  number of keys
+	 * @param order output: order[k] is the index of the k-th smallest key
+	 */
+	public void sort(double[] keys, int size, int[] order) {
+		ensureCapacity(size);
+		Arrays.fill(count, 0);
+		long[] src = bits, dst = tmpBits;
+		int[] srcOrder = order, dstOrder = tmpOrder;
+		for (int k = 0; k < size; k++) {
+			long b = sortableBits(keys[k]);
+			src[k] = b;
+			srcOrder[k] = k;
+			for (int p = 0; p < NB_PASSES; p++) {
+				count[p * NB_BUCKETS + (int) ((b >>> (p * RADIX)) & (NB_BUCKETS - 1))]++;
+			}
+		}
+		for (int p = 0; p < NB_PASSES; p++) {
+			int offset = p * NB_BUCKETS;
+			if (size == 0 || count[offset + (int) ((src[0] >>> (p * RADIX)) & (NB_BUCKETS - 1))] == size) {
+				continue; // all keys share this byte
+			}
+			int sum = 0;
+			for (int d = 0; d < NB_BUCKETS; d++) {
+				int c = count[offset + d];
+				count[offset + d] = sum;
+				sum += c;
+			}
+			for (int k = 0; k < size; k++) {
+				long b = src[k];
+				int pos = count[offset + (int) ((b >>> (p * RADIX)) & (NB_BUCKETS - 1))]++;
+				dst[pos] = b;
+				dstOrder[pos] = srcOrder[k];
+			}
+			long[] t = src;
+			src = dst;
+			dst = t;
+			int[] to = srcOrder;
+			srcOrder = dstOrder;
+			dstOrder = to;
+		}
+		if (srcOrder != order) {
+			System.arraycopy(srcOrder, 0, order, 0, size);
+		}
+	}
+
+	/**
+	 * @return the bits of d, as a long whose unsigned order is the order of doubles
+	 */
+	private static long sortableBits(double d) {
+		long b = Double.doubleToLongBits(d == 0 ? 0d : d); // -0 and 0 are equal keys
+		return b < 0 ? ~b : b | Long.MIN_VALUE;
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.util;
+
+import org.chocosolver.util.objects.graphs.IGraph;
+import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+
+import java.util.BitSet;
+
+/**
+ * Allocation-free traversal kernels, used by connectivity finders and propagators.
+ *
+ * Neighbor sets are walked with primitive cursors (ISetIterator.nextInt), so that no Integer is boxed.
+ * Each slot owns its own cursor, created once per neighbor set and then reset at each use,
+ * so that a depth-first search can keep one open cursor per node of its stack
+ * without relying on the shared iterator of a set (which is reset by any other loop over that set).
+ */
+public class GraphTraversal {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private ISetIterator[] cursors, predCursors;
+	private ISet[] sets, predSets;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * Creates traversal kernels for graphs of at most n nodes
+	 *
+	 * @param n number of cursor slots (typically the maximum number of nodes)
+	 */
+	public GraphTraversal(int n) {
+		cursors = new ISetIterator[n];
+		sets = new ISet[n];
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	/**
+	 * Gets the cursor of the given slot, positioned at the beginning of set
+	 * Only allocates the first time set is given to this slot
+	 *
+	 * @param slot	index of the cursor (e.g. a node or a dfs number)
+	 * @param set	set to iterate over
+	 * @return a cursor over set, ready to be used
+	 */
+	public ISetIterator cursor(int slot, ISet set) {
+		return cursor(cursors, sets, slot, set);
+	}
+
+	/**
+	 * Gets the cursor of the given slot, as left by its last use
+	 *
+	 * @param slot	index of the cursor
+	 * @return the current cursor of slot
+	 */
+	public ISetIterator cursor(int slot) {
+		return cursors[slot];
+	}
+
+	/**
+	 * Breadth-first search from start, over successors (or neighbors) of graph.
+	 * If the graph is directed and both is true, predecessors are followed as well.
+	 * Nodes which are already in visited are not explored.
+	 *
+	 * @param graph    graph to explore
+	 * @param start    node from which the search starts (it should not be in visited)
+	 * @param both     true iff arcs should be followed in both directions
+	 * @param visited  set of visited nodes, it is completed with the nodes reached from start
+	 * @param fifo     array in which reached nodes are stored, in the order they are reached
+	 * @return the number of nodes reached from start (including start)
+	 */
+	public int bfs(IGraph graph, int start, boolean both, BitSet visited, int[] fifo) {
+		boolean pred = both && graph.isDirected();
+		int first = 0;
+		int last = 0;
+		fifo[last++] = start;
+		visited.set(start);
+		while (first < last) {
+			int i = fifo[first++];
+			last = visit(cursor(i, graph.getSuccOrNeighOf(i)), visited, fifo, last);
+			if (pred) {
+				if (predCursors == null) {
+					predCursors = new ISetIterator[cursors.length];
+					predSets = new ISet[cursors.length];
+				}
+				last = visit(cursor(predCursors, predSets, i, graph.getPredOrNeighOf(i)), visited, fifo, last);
+			}
+		}
+		return last;
+	}
+
+	private static ISetIterator cursor(ISetIterator[] cursors, ISet[] sets, int slot, ISet set) {
+		if (sets[slot] != set) {
+			sets[slot] = set;
+			cursors[slot] = set.newIterator();
+		} else {
+			cursors[slot].reset();
+		}
+		return cursors[slot];
+	}
+
+	private static int visit(ISetIterator iter, BitSet visited, int[] fifo, int last) {
+		while (iter.hasNext()) {
+			int j = iter.nextInt();
+			if (!visited.get(j)) {
+				visited.set(j);
+				fifo[last++] = j;
+			}
+		}
+		return last;
+	}
+}
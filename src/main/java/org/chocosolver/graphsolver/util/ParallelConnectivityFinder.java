@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.util;
+
+import org.chocosolver.util.objects.graphs.IGraph;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Finds the connected components of a (large) graph with several threads.
+ * Arcs are partitioned by their origin into fork/join tasks, which merge their endpoints
+ * in a lock-free union-find (roots are linked by compare-and-set, always below the smallest root, with path halving).
+ * The representative of a component is thus its smallest node.
+ * For directed graphs, components are weakly connected (arcs are considered in both directions).
+ * <p/>
+ * The graph must not be modified during the computation.
+ * The cost of forking tasks only pays off on large graphs, see ConnectivityFinder.setParallelThreshold(int)
+ */
+public class ParallelConnectivityFinder {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	/**
+	 * Default number of nodes below which a task is not split anymore
+	 */
+	public static final int DEFAULT_GRAIN = 1024;
+
+	private final IGraph graph;
+	private final int n;
+	private final ForkJoinPool pool;
+	private final int grain;
+	private final AtomicIntegerArray parent;
+	private final GraphTraversal traversal;
+	private final int[] nodes, CC_firstNode, CC_nextNode, node_CC;
+	private int nbNodes, nbCC;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * Create an object that can compute Connected Components (CC) of g,
+	 * using the common fork/join pool
+	 *
+	 * @param g graph
+	 */
+	public ParallelConnectivityFinder(IGraph g) {
+		this(g, ForkJoinPool.commonPool(), DEFAULT_GRAIN);
+	}
+
+	/**
+	 * Create an object that can compute Connected Components (CC) of g
+	 *
+	 * @param g     graph
+	 * @param pool  pool running the tasks
+	 * @param grain number of nodes below which a task is not split anymore
+	 */
+	public ParallelConnectivityFinder(IGraph g, ForkJoinPool pool, int grain) {
+		this.graph = g;
+		this.n = g.getNbMaxNodes();
+		this.pool = pool;
+		this.grain = Math.max(1, grain);
+		this.parent = new AtomicIntegerArray(n);
+		this.traversal = new GraphTraversal(n);
+		this.nodes = new int[n];
+		this.CC_firstNode = new int[n];
+		this.CC_nextNode = new int[n];
+		this.node_CC = new int[n];
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	/**
+	 * Find all connected components of graph
+	 * Complexity : O((M+N).alpha(N)) work, spread over the threads of the pool
+	 */
+	public void findAllCC() {
+		nbNodes = 0;
+		ISetIterator iter = graph.getNodes().iterator();
+		while (iter.hasNext()) {
+			int i = iter.nextInt();
+			nodes[nbNodes++] = i;
+			parent.set(i, i);
+		}
+		pool.invoke(new UnionTask(0, nbNodes));
+		// labelling (roots first, so that each node finds the label of its root)
+		nbCC = 0;
+		for (int k = 0; k < nbNodes; k++) {
+			int i = nodes[k];
+			if (find(i) == i) {
+				node_CC[i] = nbCC;
+				CC_firstNode[nbCC++] = -1;
+			}
+		}
+		for (int k = 0; k < nbNodes; k++) {
+			int i = nodes[k];
+			int cc = node_CC[find(i)];
+			node_CC[i] = cc;
+			CC_nextNode[i] = CC_firstNode[cc];
+			CC_firstNode[cc] = i;
+		}
+	}
+
+	private int find(int i) {
+		int p = parent.get(i);
+		while (p != i) {
+			int gp = parent.get(p);
+			if (gp != p) {
+				parent.compareAndSet(i, p, gp);
+			}
+			i = p;
+			p = gp;
+		}
+		return i;
+	}
+
+	private void union(int i, int j) {
+		while (true) {
+			i = find(i);
+			j = find(j);
+			if (i == j) {
+				return;
+			}
+			if (i < j) {
+				int t = i;
+				i = j;
+				j = t;
+			}
+			// i is the largest root, it goes below j unless another task linked it meanwhile
+			if (parent.compareAndSet(i, i, j)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * get the number of CC in g
+	 * Beware you should call method findAllCC() first
+	 *
+	 * @return nbCC the number of CC in g
+	 */
+	public int getNBCC() {
+		return nbCC;
+	}
+
+	public int[] getCC_firstNode() {
+		return CC_firstNode;
+	}
+
+	public int[] getCC_nextNode() {
+		return CC_nextNode;
+	}
+
+	public int[] getNode_CC() {
+		return node_CC;
+	}
+
+	//***********************************************************************************
+	// TASKS
+	//***********************************************************************************
+
+	/**
+	 * Merges the endpoints of the arcs going out of nodes[from..to[
+	 */
+	private class UnionTask extends RecursiveAction {
+
+		private final int from, to;
+
+		UnionTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > grain) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new UnionTask(from, mid), new UnionTask(mid, to));
+				return;
+			}
+			boolean directed = graph.isDirected();
+			for (int k = from; k < to; k++) {
+				int i = nodes[k];
+				// each node (hence each cursor slot) belongs to a single task
+				ISetIterator iter = traversal.cursor(i, graph.getSuccOrNeighOf(i));
+				while (iter.hasNext()) {
+					int j = iter.nextInt();
+					// an edge is seen from both endpoints
+					if (directed || i < j) {
+						union(i, j);
+					}
+				}
+			}
+		}
+	}
+}
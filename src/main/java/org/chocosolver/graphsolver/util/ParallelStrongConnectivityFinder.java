@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.util;
+
+import org.chocosolver.util.objects.graphs.DirectedGraph;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the strongly connected components of a (large) directed graph with several threads,
+ * with the forward-backward algorithm (Fleischer, Hendrickson and Pinar, 2000):
+ * the nodes reached from a pivot both forward and backward form the SCC of the pivot,
+ * and every other SCC lies entirely within the forward set, the backward set or the remaining nodes.
+ * These three parts are colored apart and handled by independent fork/join tasks.
+ * Before picking a pivot, a task removes (trims) the nodes with no predecessor or no successor in its part,
+ * which are singleton SCC. Parts smaller than the grain are solved sequentially with Tarjan algorithm.
+ * <p/>
+ * A part is a range of a single array of nodes, which a task partitions in place into the ranges of its sub-parts,
+ * so that no array is allocated during the computation.
+ * Tasks only write the entries of the nodes (and positions) of their own part, so they never conflict.
+ * The graph must not be modified during the computation.
+ * The cost of forking tasks only pays off on large graphs, see StrongConnectivityFinder.setParallelThreshold(int)
+ */
+public class ParallelStrongConnectivityFinder {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	/**
+	 * Default number of nodes below which a part is handled sequentially
+	 */
+	public static final int DEFAULT_GRAIN = 1024;
+
+	private static final int DONE = -1;
+
+	private final DirectedGraph graph;
+	private final int n;
+	private final ForkJoinPool pool;
+	private final int grain;
+	// color of the part containing each node, or DONE when its SCC is known
+	private final int[] color;
+	private final AtomicInteger nbColors;
+	// representative of the SCC of each node
+	private final int[] rep;
+	// position of each node in nodes (parts are ranges of nodes)
+	private final int[] pos;
+	// Tarjan numbering, stack and call stack (a part uses the range of its positions)
+	private final int[] dfsNum, low, stack, call;
+	private final GraphTraversal succs, preds;
+	// output
+	private final int[] nodes, sccFirstNode, nextNode, nodeSCC;
+	private int nbSCC;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * Create an object that can compute the Strongly Connected Components (SCC) of graph,
+	 * using the common fork/join pool
+	 *
+	 * @param graph a directed graph
+	 */
+	public ParallelStrongConnectivityFinder(DirectedGraph graph) {
+		this(graph, ForkJoinPool.commonPool(), DEFAULT_GRAIN);
+	}
+
+	/**
+	 * Create an object that can compute the Strongly Connected Components (SCC) of graph
+	 *
+	 * @param graph a directed graph
+	 * @param pool  pool running the tasks
+	 * @param grain number of nodes below which a part is handled sequentially
+	 */
+	public ParallelStrongConnectivityFinder(DirectedGraph graph, ForkJoinPool pool, int grain) {
+		this.graph = graph;
+		this.n = graph.getNbMaxNodes();
+		this.pool = pool;
+		this.grain = Math.max(1, grain);
+		this.color = new int[n];
+		this.nbColors = new AtomicInteger();
+		this.rep = new int[n];
+		this.pos = new int[n];
+		this.dfsNum = new int[n];
+		this.low = new int[n];
+		this.stack = new int[n];
+		this.call = new int[n];
+		this.succs = new GraphTraversal(n);
+		this.preds = new GraphTraversal(n);
+		this.nodes = new int[n];
+		this.sccFirstNode = new int[n];
+		this.nextNode = new int[n];
+		this.nodeSCC = new int[n];
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	/**
+	 * Find all strongly connected components of graph
+	 */
+	public void findAllSCC() {
+		int size = 0;
+		ISetIterator iter = graph.getNodes().iterator();
+		while (iter.hasNext()) {
+			int i = iter.nextInt();
+			pos[i] = size;
+			nodes[size++] = i;
+			color[i] = 0;
+		}
+		nbColors.set(1);
+		pool.invoke(new PartTask(0, size, 0));
+		// labelling (representatives first)
+		nbSCC = 0;
+		for (int k = 0; k < size; k++) {
+			int i = nodes[k];
+			if (rep[i] == i) {
+				nodeSCC[i] = nbSCC;
+				sccFirstNode[nbSCC++] = -1;
+			}
+		}
+		for (int k = 0; k < size; k++) {
+			int i = nodes[k];
+			int scc = nodeSCC[rep[i]];
+			nodeSCC[i] = scc;
+			nextNode[i] = sccFirstNode[scc];
+			sccFirstNode[scc] = i;
+		}
+	}
+
+	public int getNbSCC() {
+		return nbSCC;
+	}
+
+	public int[] getNodesSCC() {
+		return nodeSCC;
+	}
+
+	public int getSCCFirstNode(int i) {
+		return sccFirstNode[i];
+	}
+
+	public int getNextNode(int j) {
+		return nextNode[j];
+	}
+
+	//***********************************************************************************
+	// TASKS
+	//***********************************************************************************
+
+	private void done(int i, int r) {
+		color[i] = DONE;
+		rep[i] = r;
+	}
+
+	/**
+	 * Moves node i to position p of nodes
+	 */
+	private void moveTo(int i, int p) {
+		int j = nodes[p];
+		nodes[pos[i]] = j;
+		pos[j] = pos[i];
+		nodes[p] = i;
+		pos[i] = p;
+	}
+
+	/**
+	 * Finds the SCC of the subgraph induced by the nodes of color c,
+	 * which are the nodes of range [lo,hi) of nodes (some of which may already be done)
+	 */
+	private class PartTask extends RecursiveAction {
+
+		private final int lo, hi, c;
+
+		PartTask(int lo, int hi, int c) {
+			this.lo = lo;
+			this.hi = hi;
+			this.c = c;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= grain) {
+				tarjan();
+				return;
+			}
+			// done nodes are moved to [lo,first)
+			int first = trim();
+			if (first == hi) {
+				return;
+			}
+			// a pivot from the middle of the part, rather than its first node, balances the splits of
+			// long chains of SCC (e.g. a path of cycles), which are otherwise peeled one SCC at a time
+			int pivot = nodes[(first + hi) >>> 1];
+			moveTo(pivot, first);
+			// forward closure of the pivot, in color fc, moved to [first,f)
+			int fc = nbColors.getAndIncrement();
+			int f = first + 1;
+			color[pivot] = fc;
+			for (int k = first; k < f; k++) {
+				int i = nodes[k];
+				ISetIterator iter = succs.cursor(i, graph.getSuccOf(i));
+				while (iter.hasNext()) {
+					int j = iter.nextInt();
+					if (color[j] == c) {
+						color[j] = fc;
+						moveTo(j, f++);
+					}
+				}
+			}
+			// backward closure of the pivot: forward nodes form its SCC and are moved to [first,d),
+			// other ones go in color bc and are moved to [f,b)
+			int bc = nbColors.getAndIncrement();
+			int d = first + 1;
+			int b = f;
+			done(pivot, pivot);
+			int qd = first, qb = f;
+			while (qd < d || qb < b) {
+				int i = qd < d ? nodes[qd++] : nodes[qb++];
+				ISetIterator iter = preds.cursor(i, graph.getPredOf(i));
+				while (iter.hasNext()) {
+					int j = iter.nextInt();
+					if (color[j] == fc) {
+						done(j, pivot);
+						moveTo(j, d++);
+					} else if (color[j] == c) {
+						color[j] = bc;
+						moveTo(j, b++);
+					}
+				}
+			}
+			invokeAll(
+					new PartTask(d, f, fc),
+					new PartTask(f, b, bc),
+					new PartTask(b, hi, c)
+			);
+		}
+
+		/**
+		 * Removes nodes with no predecessor or no successor of color c (loops apart),
+		 * and moves every node which is not of color c to the beginning of the range
+		 *
+		 * @return the position of the first remaining node of color c (hi if there is none)
+		 */
+		private int trim() {
+			int first = lo;
+			for (int k = lo; k < hi; k++) {
+				int i = nodes[k];
+				if (color[i] == c && (!hasNeighbor(i, succs.cursor(i, graph.getSuccOf(i)))
+						|| !hasNeighbor(i, preds.cursor(i, graph.getPredOf(i))))) {
+					done(i, i);
+				}
+				if (color[i] != c) {
+					moveTo(i, first++);
+				}
+			}
+			return first;
+		}
+
+		private boolean hasNeighbor(int i, ISetIterator iter) {
+			while (iter.hasNext()) {
+				int j = iter.nextInt();
+				if (j != i && color[j] == c) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Iterative Tarjan algorithm over the nodes of color c.
+		 * Visited nodes get a fresh color vc until their SCC is known.
+		 * The stack and the call stack of the task are the range [lo,hi) of the arrays of the finder
+		 */
+		private void tarjan() {
+			int vc = nbColors.getAndIncrement();
+			int num = 0;
+			for (int k = lo; k < hi; k++) {
+				int s = nodes[k];
+				if (color[s] != c) {
+					continue;
+				}
+				int sp = lo;
+				int cp = lo;
+				color[s] = vc;
+				dfsNum[s] = low[s] = num++;
+				stack[sp++] = s;
+				call[cp++] = s;
+				succs.cursor(s, graph.getSuccOf(s));
+				while (cp > lo) {
+					int i = call[cp - 1];
+					ISetIterator iter = succs.cursor(i);
+					if (iter.hasNext()) {
+						int j = iter.nextInt();
+						if (color[j] == c) {
+							color[j] = vc;
+							dfsNum[j] = low[j] = num++;
+							stack[sp++] = j;
+							call[cp++] = j;
+							succs.cursor(j, graph.getSuccOf(j));
+						} else if (color[j] == vc) {
+							// j is visited but its SCC is unknown, so j is in the stack
+							low[i] = Math.min(low[i], dfsNum[j]);
+						}
+					} else {
+						cp--;
+						if (low[i] == dfsNum[i]) {
+							int j;
+							do {
+								j = stack[--sp];
+								done(j, i);
+							} while (j != i);
+						}
+						if (cp > lo) {
+							int p = call[cp - 1];
+							low[p] = Math.min(low[p], low[i]);
+						}
+					}
+				}
+			}
+		}
+	}
+}
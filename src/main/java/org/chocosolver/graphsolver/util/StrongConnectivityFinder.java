@@ -41,9 +41,9 @@ package org.chocosolver.graphsolver.util;
 
 import org.chocosolver.util.objects.graphs.DirectedGraph;
 import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
 
 import java.util.BitSet;
-import java.util.Iterator;
 
 public class StrongConnectivityFinder  {
 
@@ -57,8 +57,11 @@ public class StrongConnectivityFinder  {
 
 	// util
 	private int[] stack, p, inf, nodeOfDfsNum, dfsNumOfNode;
-	private Iterator<Integer>[] iterator;
+	private GraphTraversal traversal;
 	private BitSet inStack;
+	// parallel computation of large graphs
+	private int parallelThreshold = Integer.MAX_VALUE;
+	private ParallelStrongConnectivityFinder parallelFinder;
 
 	public StrongConnectivityFinder(DirectedGraph graph) {
 		this.graph = graph;
@@ -75,11 +78,25 @@ public class StrongConnectivityFinder  {
 		nextNode = new int[n];
 		nodeSCC = new int[n];
 		nbSCC = 0;
-		iterator = new Iterator[n];
+		traversal = new GraphTraversal(n);
+	}
+
+	/**
+	 * findAllSCC() delegates to a ParallelStrongConnectivityFinder when the graph has at least threshold nodes
+	 * (by default, it never does)
+	 *
+	 * @param threshold minimum number of nodes for a parallel computation
+	 */
+	public void setParallelThreshold(int threshold) {
+		this.parallelThreshold = threshold;
 	}
 
 	public void findAllSCC() {
 		ISet nodes = graph.getNodes();
+		if (nodes.size() >= parallelThreshold) {
+			findAllSCCInParallel();
+			return;
+		}
 		for (int i = 0; i < n; i++) {
 			restriction.set(i, nodes.contains(i));
 		}
@@ -104,6 +121,54 @@ public class StrongConnectivityFinder  {
 		}
 	}
 
+	/**
+	 * Finds the SCC of the subgraph induced by the given nodes.
+	 * Only the entries of these nodes are reset, so that the cost depends on size rather than on n
+	 * (except for bitset scans)
+	 *
+	 * @param nodes	array containing the nodes of the subgraph
+	 * @param size	number of nodes in the subgraph
+	 */
+	public void findAllSCCOf(int[] nodes, int size) {
+		inStack.clear();
+		restriction.clear();
+		for (int k = 0; k < size; k++) {
+			int i = nodes[k];
+			restriction.set(i);
+			dfsNumOfNode[i] = 0;
+			inf[k] = n + 2;
+			nextNode[i] = -1;
+			sccFirstNode[k] = -1;
+			nodeSCC[i] = -1;
+		}
+		nbSCC = 0;
+		findSingletons(restriction);
+		int first = restriction.nextSetBit(0);
+		while (first >= 0) {
+			findSCC(first, restriction, stack, p, inf, nodeOfDfsNum, dfsNumOfNode, inStack);
+			first = restriction.nextSetBit(first);
+		}
+	}
+
+	private void findAllSCCInParallel() {
+		if (parallelFinder == null) {
+			parallelFinder = new ParallelStrongConnectivityFinder(graph);
+		}
+		parallelFinder.findAllSCC();
+		nbSCC = parallelFinder.getNbSCC();
+		for (int i = 0; i < n; i++) {
+			nodeSCC[i] = -1;
+			nextNode[i] = -1;
+			sccFirstNode[i] = i < nbSCC ? parallelFinder.getSCCFirstNode(i) : -1;
+		}
+		ISetIterator iter = graph.getNodes().iterator();
+		while (iter.hasNext()) {
+			int i = iter.nextInt();
+			nodeSCC[i] = parallelFinder.getNodesSCC()[i];
+			nextNode[i] = parallelFinder.getNextNode(i);
+		}
+	}
+
 	private void findSingletons(BitSet restriction) {
 		ISet nodes = graph.getNodes();
 		for (int i = restriction.nextSetBit(0); i >= 0; i = restriction.nextSetBit(i + 1)) {
@@ -133,12 +198,12 @@ public class StrongConnectivityFinder  {
 		stack[stackIdx++] = i;
 		inStack.set(i);
 		p[k] = k;
-		iterator[k] = graph.getSuccOf(start).iterator();
+		traversal.cursor(start, graph.getSuccOf(start));
 		int j;
 		// algo
 		while (true) {
-			if (iterator[i].hasNext()) {
-				j = iterator[i].next();
+			if (traversal.cursor(nodeOfDfsNum[i]).hasNext()) {
+				j = traversal.cursor(nodeOfDfsNum[i]).nextInt();
 				if (restriction.get(j)) {
 					if (dfsNumOfNode[j] == 0 && j != start) {
 						k++;
@@ -146,7 +211,7 @@ public class StrongConnectivityFinder  {
 						dfsNumOfNode[j] = k;
 						p[k] = i;
 						i = k;
-						iterator[i] = graph.getSuccOf(j).iterator();
+						traversal.cursor(j, graph.getSuccOf(j));
 						stack[stackIdx++] = i;
 						inStack.set(i);
 						inf[i] = i;
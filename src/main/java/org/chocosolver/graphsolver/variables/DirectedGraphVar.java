@@ -27,10 +27,7 @@
 
 package org.chocosolver.graphsolver.variables;
 
-import org.chocosolver.graphsolver.variables.delta.GraphDelta;
-import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.Model;
-import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.util.objects.graphs.DirectedGraph;
 import org.chocosolver.util.objects.setDataStructures.ISet;
 
@@ -58,45 +55,15 @@ public class DirectedGraphVar extends GraphVar<DirectedGraph> {
     // METHODS
     //***********************************************************************************
 
-    @Override
-    public boolean removeArc(int x, int y, ICause cause) throws ContradictionException {
-        assert cause != null;
-        if (LB.arcExists(x, y)) {
-            this.contradiction(cause, "remove mandatory arc " + x + "->" + y);
-            return false;
-        }
-        if (UB.removeArc(x, y)) {
-            if (reactOnModification) {
-                delta.add(x, GraphDelta.AR_tail, cause);
-                delta.add(y, GraphDelta.AR_head, cause);
-            }
-			GraphEventType e = GraphEventType.REMOVE_ARC;
-            notifyPropagators(e, cause);
-            return true;
-        }
-        return false;
-    }
+	@Override
+	protected boolean removeUBArc(int x, int y) {
+		return UB.removeArc(x, y);
+	}
 
-    @Override
-    public boolean enforceArc(int x, int y, ICause cause) throws ContradictionException {
-        assert cause != null;
-        enforceNode(x, cause);
-        enforceNode(y, cause);
-        if (UB.arcExists(x, y)) {
-            if (LB.addArc(x, y)) {
-                if (reactOnModification) {
-                    delta.add(x, GraphDelta.AE_tail, cause);
-                    delta.add(y, GraphDelta.AE_head, cause);
-                }
-				GraphEventType e = GraphEventType.ADD_ARC;
-                notifyPropagators(e, cause);
-                return true;
-            }
-            return false;
-        }
-        this.contradiction(cause, "enforce arc which is not in the domain");
-        return false;
-    }
+	@Override
+	protected boolean addLBArc(int x, int y) {
+		return LB.addArc(x, y);
+	}
 
 	/**
 	 * Get the set of successors of vertex 'idx' in the lower bound graph
@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.variables;
+
+import org.chocosolver.memory.IStateIntVector;
+import org.chocosolver.solver.Model;
+import org.chocosolver.util.objects.graphs.UndirectedGraph;
+import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+import org.chocosolver.util.objects.setDataStructures.SetFactory;
+import org.chocosolver.util.objects.setDataStructures.SetType;
+
+/**
+ * Backtrackable undirected graph whose edges belong to a fixed EdgeUniverse.
+ * Edges are stored as a bitset over edge ids, so that the graph itself only requires O(n+m/64) words.
+ * Neighbor sets are views over the universe filtered by this bitset, and their size
+ * is given by trailed degree counters.
+ * <br/>
+ * The neighborhood structure inherited from UndirectedGraph is left empty and never used.
+ */
+public class EdgeIndexedGraph extends UndirectedGraph {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private final EdgeUniverse universe;
+	private final int n;
+	private final ISet nodes, edges;
+	private final IStateIntVector degrees;
+	private final ISet[] neighbors;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * Creates an empty backtrackable graph over the given universe
+	 *
+	 * @param model    model providing the backtracking environment
+	 * @param universe candidate edges
+	 * @param allNodes if true, every vertex in [0,n-1] belongs to the graph and cannot be removed
+	 */
+	public EdgeIndexedGraph(Model model, EdgeUniverse universe, boolean allNodes) {
+		super(0, SetType.LINKED_LIST, false);
+		this.universe = universe;
+		this.n = universe.getNbMaxNodes();
+		this.nodes = allNodes ? SetFactory.makeConstantSet(0, n - 1) : SetFactory.makeStoredSet(SetType.BITSET, 0, model);
+		this.edges = SetFactory.makeStoredSet(SetType.BITSET, 0, model);
+		this.degrees = model.getEnvironment().makeIntVector(n, 0);
+		this.neighbors = new ISet[n];
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	@Override
+	public boolean addNode(int x) {
+		return !nodes.contains(x) && nodes.add(x);
+	}
+
+	@Override
+	public boolean removeNode(int x) {
+		if (nodes.remove(x)) {
+			for (int k = universe.getDegree(x) - 1; k >= 0; k--) {
+				removeEdge(universe.getIncidentEdge(x, k));
+			}
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean addEdge(int x, int y) {
+		int e = universe.getEdge(x, y);
+		if (e == -1) {
+			throw new IllegalArgumentException("(" + x + "," + y + ") is not a candidate edge");
+		}
+		return addEdge(e);
+	}
+
+	/**
+	 * Adds the edge of id e to the graph
+	 *
+	 * @param e an edge id of the universe
+	 * @return true iff the edge has been added
+	 */
+	public boolean addEdge(int e) {
+		if (edges.add(e)) {
+			shiftDegree(universe.getFrom(e), 1);
+			if (universe.getFrom(e) != universe.getTo(e)) {
+				shiftDegree(universe.getTo(e), 1);
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds every edge of the universe to the graph (and every vertex if they can be removed)
+	 */
+	public void addAllEdges() {
+		for (int x = 0; x < n; x++) {
+			addNode(x);
+			degrees.quickSet(x, universe.getDegree(x));
+		}
+		for (int e = universe.getNbEdges() - 1; e >= 0; e--) {
+			edges.add(e);
+		}
+	}
+
+	@Override
+	public boolean removeEdge(int x, int y) {
+		int e = universe.getEdge(x, y);
+		return e != -1 && removeEdge(e);
+	}
+
+	/**
+	 * Removes the edge of id e from the graph
+	 *
+	 * @param e an edge id of the universe
+	 * @return true iff the edge has been removed
+	 */
+	public boolean removeEdge(int e) {
+		if (edges.remove(e)) {
+			shiftDegree(universe.getFrom(e), -1);
+			if (universe.getFrom(e) != universe.getTo(e)) {
+				shiftDegree(universe.getTo(e), -1);
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private void shiftDegree(int x, int delta) {
+		degrees.quickSet(x, degrees.quickGet(x) + delta);
+	}
+
+	@Override
+	public boolean edgeExists(int x, int y) {
+		int e = universe.getEdge(x, y);
+		return e != -1 && edges.contains(e);
+	}
+
+	@Override
+	public boolean isArcOrEdge(int x, int y) {
+		return edgeExists(x, y);
+	}
+
+	//***********************************************************************************
+	// ACCESSORS
+	//***********************************************************************************
+
+	/**
+	 * @return the candidate edges of this graph
+	 */
+	public EdgeUniverse getUniverse() {
+		return universe;
+	}
+
+	/**
+	 * @return the set of ids of the edges of this graph
+	 */
+	public ISet getEdges() {
+		return edges;
+	}
+
+	@Override
+	public int getNbMaxNodes() {
+		return n;
+	}
+
+	@Override
+	public ISet getNodes() {
+		return nodes;
+	}
+
+	@Override
+	public SetType getType() {
+		return SetType.BITSET;
+	}
+
+	@Override
+	public ISet getNeighOf(int x) {
+		if (neighbors[x] == null) {
+			neighbors[x] = new NeighborSet(x);
+		}
+		return neighbors[x];
+	}
+
+	@Override
+	public ISet getPredOrNeighOf(int x) {
+		return getNeighOf(x);
+	}
+
+	@Override
+	public ISet getSuccOrNeighOf(int x) {
+		return getNeighOf(x);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("nodes : \n").append(nodes).append("\n");
+		sb.append("neighbors : \n");
+		for (int i : nodes) {
+			sb.append(i).append(" -> {");
+			for (int j : getNeighOf(i)) {
+				sb.append(j).append(" ");
+			}
+			sb.append("}\n");
+		}
+		return sb.toString();
+	}
+
+	//***********************************************************************************
+	// NEIGHBOR SET VIEW
+	//***********************************************************************************
+
+	/**
+	 * Neighbors of a vertex x: candidate neighbors of x in the universe whose edge belongs to the graph.
+	 * Neighbors are iterated in increasing order and removing the current neighbor during iteration is safe.
+	 */
+	private class NeighborSet implements ISet {
+
+		private final int x;
+		private ISetIterator iter;
+
+		private NeighborSet(int x) {
+			this.x = x;
+		}
+
+		@Override
+		public ISetIterator iterator() {
+			if (iter == null) {
+				iter = newIterator();
+			}
+			iter.reset();
+			return iter;
+		}
+
+		@Override
+		public ISetIterator newIterator() {
+			return new ISetIterator() {
+				private int k;
+
+				@Override
+				public void reset() {
+					k = 0;
+				}
+
+				@Override
+				public boolean hasNext() {
+					skipAbsentEdges();
+					return k < universe.getDegree(x);
+				}
+
+				@Override
+				public int nextInt() {
+					skipAbsentEdges();
+					return universe.getNeighbor(x, k++);
+				}
+
+				private void skipAbsentEdges() {
+					int d = universe.getDegree(x);
+					while (k < d && !edges.contains(universe.getIncidentEdge(x, k))) {
+						k++;
+					}
+				}
+			};
+		}
+
+		@Override
+		public boolean add(int y) {
+			return addEdge(x, y);
+		}
+
+		@Override
+		public boolean remove(int y) {
+			return removeEdge(x, y);
+		}
+
+		@Override
+		public boolean contains(int y) {
+			return edgeExists(x, y);
+		}
+
+		@Override
+		public int size() {
+			return degrees.quickGet(x);
+		}
+
+		@Override
+		public void clear() {
+			for (int k = universe.getDegree(x) - 1; k >= 0; k--) {
+				removeEdge(universe.getIncidentEdge(x, k));
+			}
+		}
+
+		@Override
+		public int min() {
+			if (isEmpty()) {
+				throw new IllegalStateException("cannot find minimum of an empty set");
+			}
+			return newIterator().nextInt();
+		}
+
+		@Override
+		public int max() {
+			if (isEmpty()) {
+				throw new IllegalStateException("cannot find maximum of an empty set");
+			}
+			int k = universe.getDegree(x) - 1;
+			while (!edges.contains(universe.getIncidentEdge(x, k))) {
+				k--;
+			}
+			return universe.getNeighbor(x, k);
+		}
+
+		@Override
+		public SetType getSetType() {
+			return SetType.BITSET;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder("{");
+			ISetIterator it = newIterator();
+			while (it.hasNext()) {
+				sb.append(it.nextInt());
+				if (it.hasNext()) {
+					sb.append(", ");
+				}
+			}
+			return sb.append("}").toString();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.variables;
+
+import org.chocosolver.solver.ICause;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.util.objects.setDataStructures.ISet;
+
+/**
+ * Undirected graph variable whose potential edges are taken from a fixed EdgeUniverse.
+ * Each candidate edge has an int id in [0,m-1], so that both bounds are stored as bitsets over edge ids
+ * and edges can be handled directly through their id.
+ */
+public class EdgeIndexedGraphVar extends UndirectedGraphVar {
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * Creates a graph variable over an edge universe
+	 *
+	 * @param name	name of the variable
+	 * @param model	model of the variable
+	 * @param LB	lower bound graph
+	 * @param UB	upper bound graph (must share the universe of LB)
+	 */
+	public EdgeIndexedGraphVar(String name, Model model, EdgeIndexedGraph LB, EdgeIndexedGraph UB) {
+		super(name, model, LB, UB);
+		assert LB.getUniverse() == UB.getUniverse();
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	/**
+	 * Remove the edge of id e from the domain
+	 *
+	 * @param e     edge id
+	 * @param cause algorithm which is related to the removal
+	 * @return true iff the removal has an effect
+	 */
+	public boolean removeEdge(int e, ICause cause) throws ContradictionException {
+		return removeArc(getFrom(e), getTo(e), cause);
+	}
+
+	/**
+	 * Enforce the edge of id e to belong to any solution
+	 *
+	 * @param e     edge id
+	 * @param cause algorithm which is related to the enforcing
+	 * @return true iff the enforcing has an effect
+	 */
+	public boolean enforceEdge(int e, ICause cause) throws ContradictionException {
+		return enforceArc(getFrom(e), getTo(e), cause);
+	}
+
+	//***********************************************************************************
+	// ACCESSORS
+	//***********************************************************************************
+
+	@Override
+	public EdgeIndexedGraph getLB() {
+		return (EdgeIndexedGraph) LB;
+	}
+
+	@Override
+	public EdgeIndexedGraph getUB() {
+		return (EdgeIndexedGraph) UB;
+	}
+
+	/**
+	 * @return the candidate edges of this variable
+	 */
+	public EdgeUniverse getUniverse() {
+		return getUB().getUniverse();
+	}
+
+	/**
+	 * @param x a vertex
+	 * @param y a vertex
+	 * @return the id of edge (x,y), or -1 if (x,y) is not a candidate edge
+	 */
+	public int getEdge(int x, int y) {
+		return getUniverse().getEdge(x, y);
+	}
+
+	/**
+	 * @param e an edge id
+	 * @return the first endpoint of edge e
+	 */
+	public int getFrom(int e) {
+		return getUniverse().getFrom(e);
+	}
+
+	/**
+	 * @param e an edge id
+	 * @return the second endpoint of edge e
+	 */
+	public int getTo(int e) {
+		return getUniverse().getTo(e);
+	}
+
+	/**
+	 * @return the ids of mandatory edges
+	 */
+	public ISet getMandatoryEdges() {
+		return getLB().getEdges();
+	}
+
+	/**
+	 * @return the ids of potential edges
+	 */
+	public ISet getPotentialEdges() {
+		return getUB().getEdges();
+	}
+}
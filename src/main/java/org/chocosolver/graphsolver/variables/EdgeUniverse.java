@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.variables;
+
+import org.chocosolver.util.objects.graphs.UndirectedGraph;
+
+import java.util.Arrays;
+
+/**
+ * Fixed set of candidate edges over vertices [0,n-1], numbered from 0 to m-1 in the order they are given.
+ * Gives the endpoints of every edge id and, for every vertex, its neighbors sorted increasingly together
+ * with the ids of the corresponding edges (compressed sparse rows), so that an edge id is found by binary search.
+ * This object is immutable: it requires O(n+m) memory and may be shared by several graph variables.
+ */
+public class EdgeUniverse {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private final int n;
+	private final int[] from, to;
+	// neighbors of vertex i (and incident edges) are stored in [first[i],first[i+1])
+	private final int[] first, neighbor, edge;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * Numbers the given edges
+	 *
+	 * @param n		maximum number of vertices
+	 * @param edges	candidate edges, each one given as a pair of vertices {i,j} in [0,n-1],
+	 *              the edge edges[e] gets the id e
+	 */
+	public EdgeUniverse(int n, int[][] edges) {
+		this.n = n;
+		int m = edges.length;
+		this.from = new int[m];
+		this.to = new int[m];
+		this.first = new int[n + 1];
+		for (int e = 0; e < m; e++) {
+			from[e] = edges[e][0];
+			to[e] = edges[e][1];
+			first[from[e] + 1]++;
+			if (from[e] != to[e]) {
+				first[to[e] + 1]++;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			first[i + 1] += first[i];
+		}
+		// neighbor (high bits) and edge id (low bits) are packed so that sorting orders neighbors
+		long[] packed = new long[first[n]];
+		int[] next = Arrays.copyOf(first, n);
+		for (int e = 0; e < m; e++) {
+			packed[next[from[e]]++] = ((long) to[e] << 32) | e;
+			if (from[e] != to[e]) {
+				packed[next[to[e]]++] = ((long) from[e] << 32) | e;
+			}
+		}
+		this.neighbor = new int[first[n]];
+		this.edge = new int[first[n]];
+		for (int i = 0; i < n; i++) {
+			Arrays.sort(packed, first[i], first[i + 1]);
+			for (int k = first[i]; k < first[i + 1]; k++) {
+				neighbor[k] = (int) (packed[k] >>> 32);
+				edge[k] = (int) packed[k];
+				if (k > first[i] && neighbor[k] == neighbor[k - 1]) {
+					throw new IllegalArgumentException("edge (" + i + "," + neighbor[k] + ") is given twice");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Numbers the edges of the given graph (e.g. a road network), by increasing first endpoint
+	 * and then increasing second endpoint. The graph is only read and may be discarded afterwards.
+	 *
+	 * @param graph	candidate edges
+	 */
+	public EdgeUniverse(UndirectedGraph graph) {
+		this(graph.getNbMaxNodes(), edgesOf(graph));
+	}
+
+	private static int[][] edgesOf(UndirectedGraph graph) {
+		int m = 0;
+		for (int i : graph.getNodes()) {
+			for (int j : graph.getNeighOf(i)) {
+				if (i <= j) {
+					m++;
+				}
+			}
+		}
+		int[][] edges = new int[m][];
+		m = 0;
+		for (int i = 0; i < graph.getNbMaxNodes(); i++) {
+			if (graph.getNodes().contains(i)) {
+				for (int j : graph.getNeighOf(i)) {
+					if (i <= j) {
+						edges[m++] = new int[]{i, j};
+					}
+				}
+			}
+		}
+		return edges;
+	}
+
+	//***********************************************************************************
+	// ACCESSORS
+	//***********************************************************************************
+
+	/**
+	 * @return the maximum number of vertices, vertices are in [0,getNbMaxNodes()-1]
+	 */
+	public int getNbMaxNodes() {
+		return n;
+	}
+
+	/**
+	 * @return the number m of candidate edges, edge ids are in [0,m-1]
+	 */
+	public int getNbEdges() {
+		return from.length;
+	}
+
+	/**
+	 * @param e an edge id
+	 * @return the first endpoint of edge e, as given at construction
+	 */
+	public int getFrom(int e) {
+		return from[e];
+	}
+
+	/**
+	 * @param e an edge id
+	 * @return the second endpoint of edge e, as given at construction
+	 */
+	public int getTo(int e) {
+		return to[e];
+	}
+
+	/**
+	 * Get the id of edge (x,y) in O(log(degree(x)))
+	 *
+	 * @param x a vertex
+	 * @param y a vertex
+	 * @return the id of edge (x,y), or -1 if (x,y) is not a candidate edge
+	 */
+	public int getEdge(int x, int y) {
+		int k = Arrays.binarySearch(neighbor, first[x], first[x + 1], y);
+		return k < 0 ? -1 : edge[k];
+	}
+
+	/**
+	 * @param x a vertex
+	 * @return the number of candidate edges incident to x
+	 */
+	public int getDegree(int x) {
+		return first[x + 1] - first[x];
+	}
+
+	/**
+	 * @param x a vertex
+	 * @param k an index in [0,getDegree(x)-1]
+	 * @return the k-th neighbor of x (neighbors are sorted increasingly)
+	 */
+	public int getNeighbor(int x, int k) {
+		return neighbor[first[x] + k];
+	}
+
+	/**
+	 * @param x a vertex
+	 * @param k an index in [0,getDegree(x)-1]
+	 * @return the id of the edge between x and its k-th neighbor
+	 */
+	public int getIncidentEdge(int x, int k) {
+		return edge[first[x] + k];
+	}
+}
@@ -48,6 +48,19 @@ public enum GraphEventType implements IEventType {
 
 	private final int mask;
 
+	/** Events indexed by their mask, including combinations of several fine events */
+	private static final IEventType[] EVENTS = new IEventType[16];
+
+	static {
+		for (int m = 0; m < EVENTS.length; m++) {
+			final int mask = m;
+			EVENTS[m] = () -> mask;
+		}
+		for (GraphEventType e : values()) {
+			EVENTS[e.mask] = e;
+		}
+	}
+
 	//***********************************************************************************
 	// CONSTRUCTORS
 	//***********************************************************************************
@@ -86,4 +99,14 @@ public enum GraphEventType implements IEventType {
 	public static boolean isRemArc(int mask) {
 		return (mask & REMOVE_ARC.mask) != 0;
 	}
+
+	/**
+	 * Get the event corresponding to a mask. If several bits are set, the returned event combines
+	 * the corresponding fine events, so that propagators are notified once for several modifications.
+	 * @param mask a combination of fine event masks
+	 * @return the (possibly combined) event of the given mask
+	 */
+	public static IEventType fromMask(int mask) {
+		return EVENTS[mask];
+	}
 }
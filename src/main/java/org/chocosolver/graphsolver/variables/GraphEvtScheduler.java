@@ -39,14 +39,15 @@
 
 package org.chocosolver.graphsolver.variables;
 
+import org.chocosolver.solver.variables.events.IEventType;
 import org.chocosolver.util.iterators.EvtScheduler;
 
-public class GraphEvtScheduler implements EvtScheduler<GraphEventType> {
+public class GraphEvtScheduler implements EvtScheduler<IEventType> {
 
 	private boolean done = true;
 
 	@Override
-	public void init(GraphEventType type) {
+	public void init(IEventType type) {
 		done = false;
 	}
 
@@ -29,6 +29,8 @@ package org.chocosolver.graphsolver.variables;
 
 import org.chocosolver.graphsolver.variables.delta.GraphDelta;
 import org.chocosolver.graphsolver.variables.delta.GraphDeltaMonitor;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.memory.IStateIntVector;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.exception.ContradictionException;
@@ -54,6 +56,14 @@ public abstract class GraphVar<E extends IGraph> extends AbstractVariable implem
     protected int n;
     ///////////// Attributes related to Variable ////////////
     protected boolean reactOnModification;
+    /** Buffer of incident nodes, so that arcs can be removed while iterating */
+    private int[] buffer;
+    ///////////// Trailed counters (pred degrees are succ degrees for undirected graphs) ////////////
+    private IStateIntVector mandSuccDeg, potSuccDeg, mandPredDeg, potPredDeg;
+    private IStateInt nbMandNodes, nbPotNodes, nbMandArcs, nbPotArcs;
+    ///////////// Node watchers (see watchNode) ////////////
+    private NodeWatcher[] watchers, touched;
+    private int nbTouched;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -70,39 +80,82 @@ public abstract class GraphVar<E extends IGraph> extends AbstractVariable implem
         this.UB = UB;
         this.n = UB.getNbMaxNodes();
         assert n == LB.getNbMaxNodes();
+        installScheduler(this);
+        initCounters();
+	}
+
+    /**
+     * Sets a GraphEvtScheduler to var (choco-solver does not know graph events)
+     */
+    static void installScheduler(AbstractVariable var) {
         Field f = null; //NoSuchFieldException
         try {
-            AbstractVariable me = this;
-            f = me.getClass().getSuperclass().getSuperclass().getDeclaredField("scheduler");
+            f = AbstractVariable.class.getDeclaredField("scheduler");
             f.setAccessible(true);
-            f.set(me, new GraphEvtScheduler());
+            f.set(var, new GraphEvtScheduler());
         } catch (NoSuchFieldException | IllegalAccessException e) {
             e.printStackTrace();
         }
-	}
+    }
+
+    /**
+     * Creates degree and cardinality counters from the current LB and UB graphs.
+     * From now on, LB and UB should only be modified through this variable.
+     */
+    private void initCounters() {
+        boolean directed = isDirected();
+        mandSuccDeg = getEnvironment().makeIntVector(n, 0);
+        potSuccDeg = getEnvironment().makeIntVector(n, 0);
+        mandPredDeg = directed ? getEnvironment().makeIntVector(n, 0) : mandSuccDeg;
+        potPredDeg = directed ? getEnvironment().makeIntVector(n, 0) : potSuccDeg;
+        int nbM = 0, nbP = 0;
+        for (int i = 0; i < n; i++) {
+            mandSuccDeg.quickSet(i, LB.getSuccOrNeighOf(i).size());
+            potSuccDeg.quickSet(i, UB.getSuccOrNeighOf(i).size());
+            if (directed) {
+                mandPredDeg.quickSet(i, LB.getPredOrNeighOf(i).size());
+                potPredDeg.quickSet(i, UB.getPredOrNeighOf(i).size());
+                nbM += LB.getSuccOrNeighOf(i).size();
+                nbP += UB.getSuccOrNeighOf(i).size();
+            } else {
+                for (int j : LB.getSuccOrNeighOf(i)) {
+                    if (i <= j) nbM++;
+                }
+                for (int j : UB.getSuccOrNeighOf(i)) {
+                    if (i <= j) nbP++;
+                }
+            }
+        }
+        nbMandArcs = getEnvironment().makeInt(nbM);
+        nbPotArcs = getEnvironment().makeInt(nbP);
+        nbMandNodes = getEnvironment().makeInt(LB.getNodes().size());
+        nbPotNodes = getEnvironment().makeInt(UB.getNodes().size());
+    }
 
     //***********************************************************************************
     // METHODS
     //***********************************************************************************
 
+    /**
+     * Runs in O(1), using trailed node and arc counters
+     * @return true iff the lower bound graph equals the upper bound graph
+     */
     @Override
     public boolean isInstantiated() {
-        if (getPotentialNodes().size() != getMandatoryNodes().size()) {
-            return false;
-        }
-        ISet suc;
-        for (int i :getUB().getNodes()) {
-            suc = UB.getSuccOrNeighOf(i);
-            if (suc.size() != getLB().getSuccOrNeighOf(i).size()) {
-                return false;
-            }
-        }
-        return true;
+        return getNbUndecided() == 0;
+    }
+
+    /**
+     * @return the number of nodes and arcs which are potential but not mandatory, in O(1)
+     */
+    public int getNbUndecided() {
+        return nbPotNodes.get() - nbMandNodes.get() + nbPotArcs.get() - nbMandArcs.get();
     }
 
     /**
      * Remove node x from the domain
-     * Removes x from the upper bound graph
+     * Removes x and its incident arcs from the upper bound graph.
+     * Propagators are notified only once, whatever the number of removed arcs.
      *
      * @param x     node's index
      * @param cause algorithm which is related to the removal
@@ -110,30 +163,7 @@ public abstract class GraphVar<E extends IGraph> extends AbstractVariable implem
      */
     public boolean removeNode(int x, ICause cause) throws ContradictionException {
         assert cause != null;
-        assert (x >= 0 && x < n);
-        if (LB.getNodes().contains(x)) {
-            this.contradiction(cause, "remove mandatory node");
-            return true;
-        } else if (!UB.getNodes().contains(x)) {
-            return false;
-        }
-        ISet nei = UB.getSuccOrNeighOf(x);
-        for (int i : nei) {
-            removeArc(x, i, cause);
-        }
-        nei = UB.getPredOrNeighOf(x);
-        for (int i : nei) {
-            removeArc(i, x, cause);
-        }
-        if (UB.removeNode(x)) {
-            if (reactOnModification) {
-                delta.add(x, GraphDelta.NR, cause);
-            }
-            GraphEventType e = GraphEventType.REMOVE_NODE;
-            notifyPropagators(e, cause);
-            return true;
-        }
-        return false;
+        return notifyPropagators(doRemoveNode(x, cause), cause);
     }
 
     /**
@@ -146,20 +176,7 @@ public abstract class GraphVar<E extends IGraph> extends AbstractVariable implem
      */
     public boolean enforceNode(int x, ICause cause) throws ContradictionException {
         assert cause != null;
-        assert (x >= 0 && x < n);
-        if (UB.getNodes().contains(x)) {
-            if (LB.addNode(x)) {
-                if (reactOnModification) {
-                    delta.add(x, GraphDelta.NE, cause);
-                }
-                GraphEventType e = GraphEventType.ADD_NODE;
-                notifyPropagators(e, cause);
-                return true;
-            }
-            return false;
-        }
-        this.contradiction(cause,"enforce node which is not in the domain");
-        return true;
+        return notifyPropagators(doEnforceNode(x, cause), cause);
     }
 
     /**
@@ -172,18 +189,276 @@ public abstract class GraphVar<E extends IGraph> extends AbstractVariable implem
      * @return true iff the removal has an effect
      * @throws ContradictionException if the arc was mandatory
      */
-    public abstract boolean removeArc(int x, int y, ICause cause) throws ContradictionException;
+    public boolean removeArc(int x, int y, ICause cause) throws ContradictionException {
+        assert cause != null;
+        return notifyPropagators(doRemoveArc(x, y, cause), cause);
+    }
 
     /**
      * Enforces arc (or edge in case of undirected graph variable) (x,y) to belong to any solution
-     * Adds (x,y) to the lower bound graph
+     * Adds (x,y) and its endpoints to the lower bound graph
      *
      * @param x     node's index
      * @param y     node's index
      * @param cause algorithm which is related to the removal
      * @return true iff the enforcing has an effect
      */
-    public abstract boolean enforceArc(int x, int y, ICause cause) throws ContradictionException;
+    public boolean enforceArc(int x, int y, ICause cause) throws ContradictionException {
+        assert cause != null;
+        return notifyPropagators(doEnforceArc(x, y, cause), cause);
+    }
+
+    //***********************************************************************************
+    // BULK METHODS
+    //***********************************************************************************
+
+    /**
+     * Remove nodes[0], ..., nodes[size-1] (and their incident arcs) from the domain.
+     * Every modification is recorded in the delta, but propagators are notified only once.
+     *
+     * @param nodes nodes' indexes
+     * @param size  number of nodes to consider in 'nodes'
+     * @param cause algorithm which is related to the removal
+     * @return true iff the removal has an effect
+     * @throws ContradictionException if one of the nodes was mandatory
+     */
+    public boolean removeNodes(int[] nodes, int size, ICause cause) throws ContradictionException {
+        assert cause != null;
+        int mask = 0;
+        for (int k = 0; k < size; k++) {
+            mask |= doRemoveNode(nodes[k], cause);
+        }
+        return notifyPropagators(mask, cause);
+    }
+
+    /**
+     * Remove every potential arc (or edge) incident to x from the domain, but not x itself.
+     * Propagators are notified only once.
+     *
+     * @param x     node's index
+     * @param cause algorithm which is related to the removal
+     * @return true iff the removal has an effect
+     * @throws ContradictionException if one of the arcs was mandatory
+     */
+    public boolean removeIncidentArcs(int x, ICause cause) throws ContradictionException {
+        assert cause != null;
+        return notifyPropagators(doRemoveIncidentArcs(x, cause), cause);
+    }
+
+    /**
+     * Remove arcs (from[0],to[0]), ..., (from[size-1],to[size-1]) from the domain.
+     * Every modification is recorded in the delta, but propagators are notified only once.
+     *
+     * @param from  tails of the arcs
+     * @param to    heads of the arcs
+     * @param size  number of arcs to consider
+     * @param cause algorithm which is related to the removal
+     * @return true iff the removal has an effect
+     * @throws ContradictionException if one of the arcs was mandatory
+     */
+    public boolean removeArcs(int[] from, int[] to, int size, ICause cause) throws ContradictionException {
+        assert cause != null;
+        int mask = 0;
+        for (int k = 0; k < size; k++) {
+            mask |= doRemoveArc(from[k], to[k], cause);
+        }
+        return notifyPropagators(mask, cause);
+    }
+
+    /**
+     * Enforces arcs (from[0],to[0]), ..., (from[size-1],to[size-1]) (and their endpoints) to belong to any solution.
+     * Every modification is recorded in the delta, but propagators are notified only once.
+     *
+     * @param from  tails of the arcs
+     * @param to    heads of the arcs
+     * @param size  number of arcs to consider
+     * @param cause algorithm which is related to the enforcing
+     * @return true iff the enforcing has an effect
+     * @throws ContradictionException if one of the arcs was not in the domain
+     */
+    public boolean enforceArcs(int[] from, int[] to, int size, ICause cause) throws ContradictionException {
+        assert cause != null;
+        int mask = 0;
+        for (int k = 0; k < size; k++) {
+            mask |= doEnforceArc(from[k], to[k], cause);
+        }
+        return notifyPropagators(mask, cause);
+    }
+
+    //***********************************************************************************
+    // SILENT MODIFICATIONS
+    //***********************************************************************************
+
+    /**
+     * Removes (x,y) from the upper bound graph (no check, no notification)
+     * @return true iff (x,y) was in the upper bound graph
+     */
+    protected abstract boolean removeUBArc(int x, int y);
+
+    /**
+     * Adds (x,y) to the lower bound graph (no check, no notification)
+     * @return true iff (x,y) was not in the lower bound graph
+     */
+    protected abstract boolean addLBArc(int x, int y);
+
+    /**
+     * Notifies propagators of the events encoded in mask, if any
+     * @return true iff mask encodes at least one event
+     */
+    private boolean notifyPropagators(int mask, ICause cause) throws ContradictionException {
+        if (mask != 0) {
+            try {
+                notifyPropagators(GraphEventType.fromMask(mask), cause);
+                for (int k = 0; k < nbTouched; k++) {
+                    touched[k].flush(cause);
+                }
+            } finally {
+                // on a contradiction, pending events of watchers not flushed yet are dropped
+                clearTouched();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Drops the pending events of touched watchers, which must be done before any contradiction
+     */
+    private void clearTouched() {
+        for (int k = 0; k < nbTouched; k++) {
+            touched[k].clearPending();
+        }
+        nbTouched = 0;
+    }
+
+    /**
+     * Fails in the middle of a (possibly bulk) modification: watchers touched by its previous steps
+     * are reset, so that their events are not flushed by the next modification
+     */
+    private void fail(ICause cause, String message) throws ContradictionException {
+        clearTouched();
+        this.contradiction(cause, message);
+    }
+
+    private void touchNode(int x, int type, ICause cause) {
+        if (watchers != null && watchers[x] != null && watchers[x].recordNode(type, cause)) {
+            touched[nbTouched++] = watchers[x];
+        }
+    }
+
+    private void touchArc(int x, int y, int type, ICause cause) {
+        if (watchers != null) {
+            if (watchers[x] != null && watchers[x].recordArc(x, y, type, cause)) {
+                touched[nbTouched++] = watchers[x];
+            }
+            if (x != y && watchers[y] != null && watchers[y].recordArc(x, y, type, cause)) {
+                touched[nbTouched++] = watchers[y];
+            }
+        }
+    }
+
+    private int doRemoveNode(int x, ICause cause) throws ContradictionException {
+        assert (x >= 0 && x < n);
+        if (LB.getNodes().contains(x)) {
+            fail(cause, "remove mandatory node");
+        } else if (!UB.getNodes().contains(x)) {
+            return 0;
+        }
+        int mask = doRemoveIncidentArcs(x, cause);
+        if (UB.removeNode(x)) {
+            if (reactOnModification) {
+                delta.add(x, GraphDelta.NR, cause);
+            }
+            touchNode(x, GraphDelta.NR, cause);
+            nbPotNodes.add(-1);
+            mask |= GraphEventType.REMOVE_NODE.getMask();
+        }
+        return mask;
+    }
+
+    private int doEnforceNode(int x, ICause cause) throws ContradictionException {
+        assert (x >= 0 && x < n);
+        if (UB.getNodes().contains(x)) {
+            if (LB.addNode(x)) {
+                if (reactOnModification) {
+                    delta.add(x, GraphDelta.NE, cause);
+                }
+                touchNode(x, GraphDelta.NE, cause);
+                nbMandNodes.add(1);
+                return GraphEventType.ADD_NODE.getMask();
+            }
+            return 0;
+        }
+        fail(cause, "enforce node which is not in the domain");
+        return 0;
+    }
+
+    private int doRemoveIncidentArcs(int x, ICause cause) throws ContradictionException {
+        int mask = 0;
+        int size = copyToBuffer(UB.getSuccOrNeighOf(x));
+        for (int k = 0; k < size; k++) {
+            mask |= doRemoveArc(x, buffer[k], cause);
+        }
+        if (isDirected()) {
+            size = copyToBuffer(UB.getPredOrNeighOf(x));
+            for (int k = 0; k < size; k++) {
+                mask |= doRemoveArc(buffer[k], x, cause);
+            }
+        }
+        return mask;
+    }
+
+    private int copyToBuffer(ISet set) {
+        if (buffer == null) {
+            buffer = new int[n];
+        }
+        int size = 0;
+        for (int i : set) {
+            buffer[size++] = i;
+        }
+        return size;
+    }
+
+    private int doRemoveArc(int x, int y, ICause cause) throws ContradictionException {
+        if (LB.isArcOrEdge(x, y)) {
+            fail(cause, "remove mandatory arc " + x + "->" + y);
+        }
+        if (removeUBArc(x, y)) {
+            if (reactOnModification) {
+                delta.addArc(x, y, GraphDelta.AR, cause);
+            }
+            touchArc(x, y, GraphDelta.AR, cause);
+            shift(potSuccDeg, potPredDeg, x, y, -1);
+            nbPotArcs.add(-1);
+            return GraphEventType.REMOVE_ARC.getMask();
+        }
+        return 0;
+    }
+
+    private static void shift(IStateIntVector succDeg, IStateIntVector predDeg, int x, int y, int delta) {
+        succDeg.quickSet(x, succDeg.quickGet(x) + delta);
+        if (succDeg != predDeg || x != y) { // a loop is a single neighbor in undirected graphs
+            predDeg.quickSet(y, predDeg.quickGet(y) + delta);
+        }
+    }
+
+    private int doEnforceArc(int x, int y, ICause cause) throws ContradictionException {
+        int mask = doEnforceNode(x, cause) | doEnforceNode(y, cause);
+        if (UB.isArcOrEdge(x, y)) {
+            if (addLBArc(x, y)) {
+                if (reactOnModification) {
+                    delta.addArc(x, y, GraphDelta.AE, cause);
+                }
+                touchArc(x, y, GraphDelta.AE, cause);
+                shift(mandSuccDeg, mandPredDeg, x, y, 1);
+                nbMandArcs.add(1);
+                mask |= GraphEventType.ADD_ARC.getMask();
+            }
+            return mask;
+        }
+        fail(cause, "enforce arc which is not in the domain");
+        return mask;
+    }
 
     //***********************************************************************************
     // ACCESSORS
@@ -268,6 +543,66 @@ public abstract class GraphVar<E extends IGraph> extends AbstractVariable implem
         return UB.getNodes();
     }
 
+    /**
+     * @param x a vertex
+     * @return the number of successors (if directed) or neighbors (if undirected) of x in LB, in O(1)
+     */
+    public int getMandSuccOrNeighDegree(int x) {
+        return mandSuccDeg.quickGet(x);
+    }
+
+    /**
+     * @param x a vertex
+     * @return the number of successors (if directed) or neighbors (if undirected) of x in UB, in O(1)
+     */
+    public int getPotSuccOrNeighDegree(int x) {
+        return potSuccDeg.quickGet(x);
+    }
+
+    /**
+     * @param x a vertex
+     * @return the number of predecessors (if directed) or neighbors (if undirected) of x in LB, in O(1)
+     */
+    public int getMandPredOrNeighDegree(int x) {
+        return mandPredDeg.quickGet(x);
+    }
+
+    /**
+     * @param x a vertex
+     * @return the number of predecessors (if directed) or neighbors (if undirected) of x in UB, in O(1)
+     */
+    public int getPotPredOrNeighDegree(int x) {
+        return potPredDeg.quickGet(x);
+    }
+
+    /**
+     * @return the number of nodes of the lower bound graph, in O(1)
+     */
+    public int getNbMandatoryNodes() {
+        return nbMandNodes.get();
+    }
+
+    /**
+     * @return the number of nodes of the upper bound graph, in O(1)
+     */
+    public int getNbPotentialNodes() {
+        return nbPotNodes.get();
+    }
+
+    /**
+     * @return the number of arcs (or edges) of the lower bound graph, in O(1)
+     */
+    public int getNbMandatoryArcs() {
+        return nbMandArcs.get();
+    }
+
+    /**
+     * @return the number of arcs (or edges) of the upper bound graph, in O(1)
+     */
+    public int getNbPotentialArcs() {
+        return nbPotArcs.get();
+    }
+
 	/**
 	 * @return true iff the graph is directed. It is undirected otherwise.
 	 */
@@ -322,6 +657,25 @@ public abstract class GraphVar<E extends IGraph> extends AbstractVariable implem
         return new GraphDeltaMonitor(delta, propagator);
     }
 
+    /**
+     * Get a subscription to the modifications of node x.
+     * Propagators which only depend on x and its incident arcs can have the watcher in their scope
+     * instead of this variable, so that they are not scheduled on modifications of other nodes.
+     * @param x a node
+     * @return the (unique) watcher of node x
+     */
+    public NodeWatcher watchNode(int x) {
+        assert (x >= 0 && x < n);
+        if (watchers == null) {
+            watchers = new NodeWatcher[n];
+            touched = new NodeWatcher[n];
+        }
+        if (watchers[x] == null) {
+            watchers[x] = new NodeWatcher(this, x);
+        }
+        return watchers[x];
+    }
+
     @Override
     public void notifyMonitors(IEventType event) throws ContradictionException {
         for (int i = mIdx - 1; i >= 0; i--) {
@@ -361,20 +715,91 @@ public abstract class GraphVar<E extends IGraph> extends AbstractVariable implem
 	 */
     public void instantiateTo(boolean[][] value, ICause cause) throws ContradictionException {
         int n = value.length - 1;
+        int mask = 0;
         for (int i = 0; i < n; i++) {
             if (value[n][i]) {//nodes
-                enforceNode(i, cause);
+                mask |= doEnforceNode(i, cause);
             } else {
-                removeNode(i, cause);
+                mask |= doRemoveNode(i, cause);
             }
             for (int j = 0; j < n; j++) {
                 if (value[i][j]) {//arcs
-                    enforceArc(i, j, cause);
+                    mask |= doEnforceArc(i, j, cause);
                 } else {
-                    removeArc(i, j, cause);
+                    mask |= doRemoveArc(i, j, cause);
+                }
+            }
+        }
+        notifyPropagators(mask, cause);
+    }
+
+	/**
+	 * Compact representation of the value of the graph variable (its lower bound), of size 1 + #nodes + 2 * #arcs:
+	 * {k, node_1, ..., node_k, tail_1, head_1, ..., tail_m, head_m}.
+	 * Undirected edges are given once, with tail &lt;= head.
+	 * This method is not supposed to be used except for storing solutions (see GraphSolution).
+	 *
+	 * @return the encoded value of the graph variable
+	 */
+    public int[] getEncodedValue() {
+        int[] value = new int[1 + getNbMandatoryNodes() + 2 * getNbMandatoryArcs()];
+        int k = 0;
+        value[k++] = getNbMandatoryNodes();
+        for (int i : LB.getNodes()) {
+            value[k++] = i;
+        }
+        boolean directed = isDirected();
+        for (int i : LB.getNodes()) {
+            for (int j : LB.getSuccOrNeighOf(i)) {
+                if (directed || i <= j) {
+                    value[k++] = i;
+                    value[k++] = j;
+                }
+            }
+        }
+        assert k == value.length;
+        return value;
+    }
+
+	/**
+	 * Instantiates <code>this</code> to the graph encoded by value (see getEncodedValue()).
+	 * Runs in O(n + #potential arcs) and notifies propagators once.
+	 * This method is not supposed to be used except for restoring solutions.
+	 *
+	 * @param value encoded value of <code>this</code>
+	 * @param cause algorithm which is related to the modification
+	 * @throws ContradictionException if value is not in the domain
+	 */
+    public void instantiateTo(int[] value, ICause cause) throws ContradictionException {
+        int nbNodes = value[0];
+        int mask = 0;
+        for (int k = 1; k <= nbNodes; k++) {
+            mask |= doEnforceNode(value[k], cause);
+        }
+        if (getNbPotentialNodes() > nbNodes) {
+            int size = copyToBuffer(UB.getNodes());
+            for (int k = 0; k < size; k++) {
+                if (!LB.getNodes().contains(buffer[k])) {
+                    mask |= doRemoveNode(buffer[k], cause);
+                }
+            }
+        }
+        for (int k = 1 + nbNodes; k < value.length; k += 2) {
+            mask |= doEnforceArc(value[k], value[k + 1], cause);
+        }
+        if (getNbPotentialArcs() > getNbMandatoryArcs()) {
+            for (int i : LB.getNodes()) {
+                if (getPotSuccOrNeighDegree(i) > getMandSuccOrNeighDegree(i)) {
+                    int size = copyToBuffer(UB.getSuccOrNeighOf(i));
+                    for (int k = 0; k < size; k++) {
+                        if (!LB.isArcOrEdge(i, buffer[k])) {
+                            mask |= doRemoveArc(i, buffer[k], cause);
+                        }
+                    }
                 }
             }
         }
+        notifyPropagators(mask, cause);
     }
 
 	//***********************************************************************************
@@ -14,6 +14,24 @@ import java.util.Arrays;
 
 public interface IGraphVarFactory {
 
+	/**
+	 * Average degree (relative to the maximum number of vertices) under which graph variables built
+	 * from a list of arcs use sparse neighbor sets instead of bitsets
+	 */
+	double SPARSE_DENSITY = 1d / 32;
+
+	/**
+	 * Neighbor set representation of the upper bound of sparse graph variables.
+	 * The upper bound only loses elements during search, which swap-based lists handle by a trailed size
+	 */
+	SetType SPARSE_UB_TYPE = SetType.SMALLBIPARTITESET;
+
+	/**
+	 * Neighbor set representation of the lower bound of sparse graph variables.
+	 * The lower bound only gains elements during search, which linked lists handle by trailed operations
+	 */
+	SetType SPARSE_LB_TYPE = SetType.LINKED_LIST;
+
 	GraphModel _me();
 
 	//*************************************************************************************
@@ -51,6 +69,120 @@ public interface IGraphVarFactory {
 		return graphVar(name, lb, ub);
 	}
 
+	/**
+	 * Creates a graph variable comprised between an empty graph and K_n (complete graph of n vertices)
+	 * whose lower and upper bounds use the given neighbor set representations
+	 * @param name	name of the variable
+	 * @param n		Maximum number of vertices
+	 * @param allNodes If true then every vertex in [0,n-1] belongs to every solution.
+	 * @param lbType	neighbor set representation of the lower bound
+	 * @param ubType	neighbor set representation of the upper bound
+	 * @return a graph variable having n vertices
+	 */
+	default UndirectedGraphVar graphVar(String name, int n, boolean allNodes, SetType lbType, SetType ubType) {
+		UndirectedGraph lb = new UndirectedGraph(_me(), n,lbType,allNodes);
+		UndirectedGraph ub = new UndirectedGraph(_me(), n,ubType,allNodes);
+		for(int i=0;i<n;i++){
+			if(!allNodes) {
+				ub.addNode(i);
+			}
+			for(int j=i;j<n;j++){
+				ub.addEdge(i,j);
+			}
+		}
+		return graphVar(name, lb, ub);
+	}
+
+	/**
+	 * Creates a graph variable comprised between an empty graph and the graph formed by the given edges.
+	 * The neighbor set representation is selected from the density of the upper bound:
+	 * bitsets for dense graphs, sparse sets (whose memory is linear in the number of edges) otherwise.
+	 * @param name	name of the variable
+	 * @param n		Maximum number of vertices
+	 * @param edges	potential edges, each one given as a pair of vertices {i,j} in [0,n-1]
+	 * @param allNodes If true then every vertex in [0,n-1] belongs to every solution.
+	 * @return a graph variable having n vertices
+	 */
+	default UndirectedGraphVar graphVar(String name, int n, int[][] edges, boolean allNodes) {
+		boolean sparse = isSparse(n, 2d * edges.length);
+		return graphVar(name, n, edges, allNodes,
+				sparse ? SPARSE_LB_TYPE : SetType.BITSET,
+				sparse ? SPARSE_UB_TYPE : SetType.BITSET);
+	}
+
+	/**
+	 * Creates a graph variable comprised between an empty graph and the graph formed by the given edges
+	 * whose lower and upper bounds use the given neighbor set representations
+	 * @param name	name of the variable
+	 * @param n		Maximum number of vertices
+	 * @param edges	potential edges, each one given as a pair of vertices {i,j} in [0,n-1]
+	 * @param allNodes If true then every vertex in [0,n-1] belongs to every solution.
+	 * @param lbType	neighbor set representation of the lower bound
+	 * @param ubType	neighbor set representation of the upper bound
+	 * @return a graph variable having n vertices
+	 */
+	default UndirectedGraphVar graphVar(String name, int n, int[][] edges, boolean allNodes, SetType lbType, SetType ubType) {
+		UndirectedGraph lb = new UndirectedGraph(_me(), n,lbType,allNodes);
+		UndirectedGraph ub = new UndirectedGraph(_me(), n,ubType,allNodes);
+		if(!allNodes) {
+			for(int i=0;i<n;i++){
+				ub.addNode(i);
+			}
+		}
+		for(int[] e:edges){
+			ub.addEdge(e[0],e[1]);
+		}
+		return graphVar(name, lb, ub);
+	}
+
+	/**
+	 * Creates a graph variable comprised between an empty graph and the graph formed by all edges of the universe.
+	 * Edges are identified by their id in the universe and both bounds are stored as bitsets over edge ids.
+	 * @param name	name of the variable
+	 * @param universe	candidate edges
+	 * @param allNodes If true then every vertex in [0,n-1] belongs to every solution.
+	 * @return a graph variable whose potential edges are the edges of universe
+	 */
+	default EdgeIndexedGraphVar graphVar(String name, EdgeUniverse universe, boolean allNodes) {
+		EdgeIndexedGraph lb = new EdgeIndexedGraph(_me(), universe, allNodes);
+		EdgeIndexedGraph ub = new EdgeIndexedGraph(_me(), universe, allNodes);
+		ub.addAllEdges();
+		return new EdgeIndexedGraphVar(name, _me(), lb, ub);
+	}
+
+	/**
+	 * Creates an array of graph variables over the same candidate edges,
+	 * each one comprised between an empty graph and the graph formed by all edges of the universe.
+	 * The universe is shared (read-only) by all variables: each variable only stores its own bounds,
+	 * as bitsets over edge ids, that is O(n+m/64) words per variable instead of a full adjacency structure.
+	 * @param name	prefix of the names of the variables
+	 * @param size	number of variables
+	 * @param universe	candidate edges, shared by all variables
+	 * @param allNodes If true then every vertex in [0,n-1] belongs to every solution.
+	 * @return an array of size graph variables whose potential edges are the edges of universe
+	 */
+	default EdgeIndexedGraphVar[] graphVarArray(String name, int size, EdgeUniverse universe, boolean allNodes) {
+		EdgeIndexedGraphVar[] vars = new EdgeIndexedGraphVar[size];
+		for(int k=0;k<size;k++){
+			vars[k] = graphVar(name+"["+k+"]", universe, allNodes);
+		}
+		return vars;
+	}
+
+	/**
+	 * Creates an array of graph variables over the edges of skeleton (e.g. a road network),
+	 * see graphVarArray(String, int, EdgeUniverse, boolean).
+	 * The skeleton is only read once to build the shared universe.
+	 * @param name	prefix of the names of the variables
+	 * @param size	number of variables
+	 * @param skeleton	graph whose edges are the candidate edges of every variable
+	 * @param allNodes If true then every vertex in [0,n-1] belongs to every solution.
+	 * @return an array of size graph variables whose potential edges are the edges of skeleton
+	 */
+	default EdgeIndexedGraphVar[] graphVarArray(String name, int size, UndirectedGraph skeleton, boolean allNodes) {
+		return graphVarArray(name, size, new EdgeUniverse(skeleton), allNodes);
+	}
+
 	/**
 	 * Create an undirected graph variable named name
 	 * and whose domain is the graph interval [lb,ub]
@@ -97,6 +229,72 @@ public interface IGraphVarFactory {
 		return digraphVar(name, lb, ub);
 	}
 
+	/**
+	 * Creates a directed graph variable comprised between an empty graph and K_n (complete graph of n vertices)
+	 * whose lower and upper bounds use the given neighbor set representations
+	 * @param name	name of the variable
+	 * @param n		Maximum number of vertices
+	 * @param allNodes If true then every vertex in [0,n-1] belongs to every solution.
+	 * @param lbType	successor and predecessor set representation of the lower bound
+	 * @param ubType	successor and predecessor set representation of the upper bound
+	 * @return a directed graph variable having n vertices
+	 */
+	default DirectedGraphVar digraphVar(String name, int n, boolean allNodes, SetType lbType, SetType ubType) {
+		DirectedGraph lb = new DirectedGraph(_me(), n,lbType,allNodes);
+		DirectedGraph ub = new DirectedGraph(_me(), n,ubType,allNodes);
+		for(int i=0;i<n;i++){
+			if(!allNodes) {
+				ub.addNode(i);
+			}
+			for(int j=0;j<n;j++){
+				ub.addArc(i,j);
+			}
+		}
+		return digraphVar(name, lb, ub);
+	}
+
+	/**
+	 * Creates a directed graph variable comprised between an empty graph and the graph formed by the given arcs.
+	 * The successor and predecessor set representation is selected from the density of the upper bound:
+	 * bitsets for dense graphs, sparse sets (whose memory is linear in the number of arcs) otherwise.
+	 * @param name	name of the variable
+	 * @param n		Maximum number of vertices
+	 * @param arcs	potential arcs, each one given as a pair of vertices {from,to} in [0,n-1]
+	 * @param allNodes If true then every vertex in [0,n-1] belongs to every solution.
+	 * @return a directed graph variable having n vertices
+	 */
+	default DirectedGraphVar digraphVar(String name, int n, int[][] arcs, boolean allNodes) {
+		boolean sparse = isSparse(n, arcs.length);
+		return digraphVar(name, n, arcs, allNodes,
+				sparse ? SPARSE_LB_TYPE : SetType.BITSET,
+				sparse ? SPARSE_UB_TYPE : SetType.BITSET);
+	}
+
+	/**
+	 * Creates a directed graph variable comprised between an empty graph and the graph formed by the given arcs
+	 * whose lower and upper bounds use the given neighbor set representations
+	 * @param name	name of the variable
+	 * @param n		Maximum number of vertices
+	 * @param arcs	potential arcs, each one given as a pair of vertices {from,to} in [0,n-1]
+	 * @param allNodes If true then every vertex in [0,n-1] belongs to every solution.
+	 * @param lbType	successor and predecessor set representation of the lower bound
+	 * @param ubType	successor and predecessor set representation of the upper bound
+	 * @return a directed graph variable having n vertices
+	 */
+	default DirectedGraphVar digraphVar(String name, int n, int[][] arcs, boolean allNodes, SetType lbType, SetType ubType) {
+		DirectedGraph lb = new DirectedGraph(_me(), n,lbType,allNodes);
+		DirectedGraph ub = new DirectedGraph(_me(), n,ubType,allNodes);
+		if(!allNodes) {
+			for(int i=0;i<n;i++){
+				ub.addNode(i);
+			}
+		}
+		for(int[] a:arcs){
+			ub.addArc(a[0],a[1]);
+		}
+		return digraphVar(name, lb, ub);
+	}
+
 	/**
 	 * Create a directed graph variable named name
 	 * and whose domain is the graph interval [lb,ub]
@@ -112,6 +310,17 @@ public interface IGraphVarFactory {
 		return new DirectedGraphVar(name, _me(), lb, ub);
 	}
 
+	/**
+	 * States whether a graph of n vertices whose neighbor sets hold nbEntries elements in total
+	 * is sparse enough to use sparse neighbor sets, i.e. its average degree is lower than SPARSE_DENSITY*n
+	 * @param n			Maximum number of vertices
+	 * @param nbEntries	sum of the neighbor set sizes (twice the number of edges in an undirected graph)
+	 * @return true iff sparse neighbor sets require less memory than bitsets
+	 */
+	default boolean isSparse(int n, double nbEntries) {
+		return nbEntries < SPARSE_DENSITY * n * n;
+	}
+
 	//*************************************************************************************
 	// OTHER
 	//*************************************************************************************
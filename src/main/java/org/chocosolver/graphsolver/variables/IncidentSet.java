@@ -44,6 +44,12 @@ public interface IncidentSet {
 
 	ISet getMandSet(GraphVar graph, int i);
 
+	/** @return the size of getPotSet(graph, i), in O(1) */
+	int getPotDegree(GraphVar graph, int i);
+
+	/** @return the size of getMandSet(graph, i), in O(1) */
+	int getMandDegree(GraphVar graph, int i);
+
 	boolean enforce(GraphVar g, int from, int to, ICause cause) throws ContradictionException;
 
 	boolean remove(GraphVar g, int from, int to, ICause cause) throws ContradictionException;
@@ -60,6 +66,16 @@ public interface IncidentSet {
 			return graph.getMandSuccOrNeighOf(i);
 		}
 
+		@Override
+		public int getPotDegree(GraphVar graph, int i) {
+			return graph.getPotSuccOrNeighDegree(i);
+		}
+
+		@Override
+		public int getMandDegree(GraphVar graph, int i) {
+			return graph.getMandSuccOrNeighDegree(i);
+		}
+
 		@Override
 		public boolean enforce(GraphVar g, int from, int to, ICause cause) throws ContradictionException {
 			return g.enforceArc(from, to, cause);
@@ -81,6 +97,14 @@ public interface IncidentSet {
 			return graph.getMandPredOrNeighOf(i);
 		}
 		@Override
+		public int getPotDegree(GraphVar graph, int i) {
+			return graph.getPotPredOrNeighDegree(i);
+		}
+		@Override
+		public int getMandDegree(GraphVar graph, int i) {
+			return graph.getMandPredOrNeighDegree(i);
+		}
+		@Override
 		public boolean enforce(GraphVar g, int from, int to, ICause cause) throws ContradictionException {
 			return g.enforceArc(to, from, cause);
 		}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.variables;
+
+import org.chocosolver.graphsolver.variables.delta.GraphDelta;
+import org.chocosolver.graphsolver.variables.delta.GraphDeltaMonitor;
+import org.chocosolver.solver.ICause;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.solver.variables.events.IEventType;
+import org.chocosolver.solver.variables.impl.AbstractVariable;
+
+/**
+ * Subscription to the modifications of a single node of a graph variable.
+ * A propagator having a NodeWatcher in its scope (instead of the graph variable itself)
+ * is scheduled only when the watched node, or one of its incident arcs, is removed or enforced.
+ * Its delta only records those events.
+ * <br/>
+ * Watchers are created through GraphVar.watchNode(int) and never modify the graph by themselves:
+ * filtering should be performed on the graph variable.
+ */
+public class NodeWatcher extends AbstractVariable implements Variable {
+
+    public static final int WATCH = 1 << 8; // beware, this relies on choco-solver
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    private final GraphVar graph;
+    private final int node;
+    private GraphDelta delta;
+    private boolean reactOnModification;
+    private int pendingMask; // events not notified yet
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    NodeWatcher(GraphVar graph, int node) {
+        super(graph.getName() + "[" + node + "]", graph.getModel());
+        this.graph = graph;
+        this.node = node;
+        GraphVar.installScheduler(this);
+    }
+
+    //***********************************************************************************
+    // METHODS
+    //***********************************************************************************
+
+    /**
+     * Records a node event
+     * @return true iff this is the first pending event of this watcher
+     */
+    boolean recordNode(int type, ICause cause) {
+        if (reactOnModification) {
+            delta.add(node, type, cause);
+        }
+        return addPending(type == GraphDelta.NR ? GraphEventType.REMOVE_NODE : GraphEventType.ADD_NODE);
+    }
+
+    /**
+     * Records an event on arc (x,y), which is incident to the watched node
+     * @return true iff this is the first pending event of this watcher
+     */
+    boolean recordArc(int x, int y, int type, ICause cause) {
+        if (reactOnModification) {
+            delta.addArc(x, y, type, cause);
+        }
+        return addPending(type == GraphDelta.AR ? GraphEventType.REMOVE_ARC : GraphEventType.ADD_ARC);
+    }
+
+    private boolean addPending(GraphEventType e) {
+        boolean first = pendingMask == 0;
+        pendingMask |= e.getMask();
+        return first;
+    }
+
+    /**
+     * Notifies propagators of pending events
+     */
+    void flush(ICause cause) throws ContradictionException {
+        int mask = pendingMask;
+        pendingMask = 0;
+        if (mask != 0) {
+            notifyPropagators(GraphEventType.fromMask(mask), cause);
+        }
+    }
+
+    /**
+     * Drops pending events without notifying them
+     */
+    void clearPending() {
+        pendingMask = 0;
+    }
+
+    /**
+     * @return true iff the watched node and all its incident arcs are either mandatory or removed
+     */
+    @Override
+    public boolean isInstantiated() {
+        return graph.getMandatoryNodes().contains(node) == graph.getPotentialNodes().contains(node)
+                && graph.getMandSuccOrNeighDegree(node) == graph.getPotSuccOrNeighDegree(node)
+                && graph.getMandPredOrNeighDegree(node) == graph.getPotPredOrNeighDegree(node);
+    }
+
+    //***********************************************************************************
+    // ACCESSORS
+    //***********************************************************************************
+
+    /**
+     * @return the graph variable this watcher is attached to
+     */
+    public GraphVar getGraphVar() {
+        return graph;
+    }
+
+    /**
+     * @return the watched node
+     */
+    public int getNode() {
+        return node;
+    }
+
+    //***********************************************************************************
+    // VARIABLE STUFF
+    //***********************************************************************************
+
+    @Override
+    public GraphDelta getDelta() {
+        return delta;
+    }
+
+    @Override
+    public void createDelta() {
+        if (!reactOnModification) {
+            reactOnModification = true;
+            delta = new GraphDelta(getEnvironment());
+        }
+    }
+
+    /**
+     * Make the propagator 'prop' have an incremental filtering w.r.t. the watched node
+     * @param propagator A propagator involving this watcher
+     * @return A new instance of GraphDeltaMonitor restricted to events of the watched node
+     */
+    public GraphDeltaMonitor monitorDelta(ICause propagator) {
+        createDelta();
+        return new GraphDeltaMonitor(delta, propagator);
+    }
+
+    @Override
+    public void notifyMonitors(IEventType event) throws ContradictionException {
+        for (int i = mIdx - 1; i >= 0; i--) {
+            monitors[i].onUpdate(this, event);
+        }
+    }
+
+    @Override
+    public int getTypeAndKind() {
+        return VAR | WATCH;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
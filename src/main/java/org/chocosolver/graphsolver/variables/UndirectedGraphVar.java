@@ -27,10 +27,7 @@
 
 package org.chocosolver.graphsolver.variables;
 
-import org.chocosolver.graphsolver.variables.delta.GraphDelta;
-import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.Model;
-import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.util.objects.graphs.UndirectedGraph;
 import org.chocosolver.util.objects.setDataStructures.ISet;
 
@@ -59,44 +56,14 @@ public class UndirectedGraphVar extends GraphVar<UndirectedGraph> {
     //***********************************************************************************
 
 	@Override
-    public boolean removeArc(int x, int y, ICause cause) throws ContradictionException {
-        assert cause != null;
-        if (LB.edgeExists(x, y)) {
-            this.contradiction(cause, "remove mandatory arc");
-            return false;
-        }
-        if (UB.removeEdge(x, y)) {
-            if (reactOnModification) {
-                delta.add(x, GraphDelta.AR_tail, cause);
-                delta.add(y, GraphDelta.AR_head, cause);
-            }
-            GraphEventType e = GraphEventType.REMOVE_ARC;
-            notifyPropagators(e, cause);
-            return true;
-        }
-        return false;
-    }
+	protected boolean removeUBArc(int x, int y) {
+		return UB.removeEdge(x, y);
+	}
 
 	@Override
-    public boolean enforceArc(int x, int y, ICause cause) throws ContradictionException {
-        assert cause != null;
-        enforceNode(x, cause);
-        enforceNode(y, cause);
-        if (UB.edgeExists(x, y)) {
-            if (LB.addEdge(x, y)) {
-                if (reactOnModification) {
-                    delta.add(x, GraphDelta.AE_tail, cause);
-                    delta.add(y, GraphDelta.AE_head, cause);
-                }
-				GraphEventType e = GraphEventType.ADD_ARC;
-                notifyPropagators(e, cause);
-                return true;
-            }
-            return false;
-        }
-        this.contradiction(cause, "enforce arc which is not in the domain");
-        return false;
-    }
+	protected boolean addLBArc(int x, int y) {
+		return LB.addEdge(x, y);
+	}
 
 	/**
 	 * Get the set of neighbors of vertex 'idx' in the lower bound graph
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.graphsolver.variables.delta;
+
+import org.chocosolver.solver.ICause;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.util.procedure.PairProcedure;
+
+import java.util.Arrays;
+
+/**
+ * Delta of arcs: each arc is stored as a single long (tail in the high bits, head in the low bits)
+ * together with a single cause, in arrays which grow without boxing.
+ * The delta is cleared by its owner (GraphDelta).
+ */
+public class ArcDelta {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private static final int SIZE = 16;
+
+	private long[] arcs;
+	private ICause[] causes;
+	private int size;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	public ArcDelta() {
+		arcs = new long[SIZE];
+		causes = new ICause[SIZE];
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	/**
+	 * Records arc (tail,head)
+	 * @param tail	tail of the arc
+	 * @param head	head of the arc
+	 * @param cause	cause of the modification
+	 */
+	public void add(int tail, int head, ICause cause) {
+		if (size == arcs.length) {
+			int capacity = (size * 3) / 2 + 1;
+			arcs = Arrays.copyOf(arcs, capacity);
+			causes = Arrays.copyOf(causes, capacity);
+		}
+		arcs[size] = ((long) tail << 32) | (head & 0xFFFFFFFFL);
+		causes[size++] = cause;
+	}
+
+	/**
+	 * Applies proc to every arc of index in [from,to[ which has not been caused by skip
+	 * @param from	index of the first arc
+	 * @param to	index following the last arc
+	 * @param proc	procedure over (tail,head) pairs
+	 * @param skip	cause whose arcs should be ignored
+	 * @throws ContradictionException if a failure occurs
+	 */
+	public void forEach(int from, int to, PairProcedure proc, ICause skip) throws ContradictionException {
+		for (int i = from; i < to; i++) {
+			if (causes[i] != skip) {
+				long arc = arcs[i];
+				proc.execute((int) (arc >>> 32), (int) arc);
+			}
+		}
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getTail(int index) {
+		return (int) (arcs[index] >>> 32);
+	}
+
+	public int getHead(int index) {
+		return (int) arcs[index];
+	}
+
+	public ICause getCause(int index) {
+		return causes[index];
+	}
+}
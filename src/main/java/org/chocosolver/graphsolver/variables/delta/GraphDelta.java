@@ -39,17 +39,16 @@ public class GraphDelta extends TimeStampedObject implements IDelta{
 	//NR NE AR AE : NodeRemoved NodeEnforced ArcRemoved ArcEnforced
 	public final static int NR = 0;
 	public final static int NE = 1;
-	public final static int AR_tail = 2;
-	public final static int AR_head = 3;
-	public final static int AE_tail = 4;
-	public final static int AE_head = 5;
-	public final static int NB = 6;
+	public final static int AR = 2;
+	public final static int AE = 3;
+	public final static int NB = 4;
 
     //***********************************************************************************
     // VARIABLES
     //***********************************************************************************
 
-    private IEnumDelta[] deltaOfType;
+    private IEnumDelta[] nodeDeltas; // indexed by NR and NE
+    private ArcDelta[] arcDeltas;    // indexed by AR-2 and AE-2
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -57,39 +56,76 @@ public class GraphDelta extends TimeStampedObject implements IDelta{
 
     public GraphDelta(IEnvironment environment) {
         super(environment);
-        deltaOfType = new IEnumDelta[NB];
-        for (int i = 0; i < NB; i++) {
-            deltaOfType[i] = new EnumDelta(environment);
-        }
+        nodeDeltas = new IEnumDelta[]{new EnumDelta(environment), new EnumDelta(environment)};
+        arcDeltas = new ArcDelta[]{new ArcDelta(), new ArcDelta()};
     }
 
     //***********************************************************************************
     // METHODS
     //***********************************************************************************
 
-    public int getSize(int i) {
-        return deltaOfType[i].size();
+    public int getSize(int type) {
+        return type < AR ? nodeDeltas[type].size() : arcDeltas[type - AR].size();
     }
 
+    /**
+     * Records a node event
+     * @param element	node
+     * @param type		either NR or NE
+     * @param cause		cause of the modification
+     */
     public void add(int element, int type, ICause cause) {
 		lazyClear();
-        deltaOfType[type].add(element, cause);
+        nodeDeltas[type].add(element, cause);
+    }
+
+    /**
+     * Records an arc event
+     * @param tail	tail of the arc
+     * @param head	head of the arc
+     * @param type	either AR or AE
+     * @param cause	cause of the modification
+     */
+    public void addArc(int tail, int head, int type, ICause cause) {
+		lazyClear();
+        arcDeltas[type - AR].add(tail, head, cause);
     }
 
     public void lazyClear() {
         if (needReset()) {
-			for (int i = 0; i < NB; i++) {
-				deltaOfType[i].lazyClear();
+			for (IEnumDelta d : nodeDeltas) {
+				d.lazyClear();
+			}
+			for (ArcDelta d : arcDeltas) {
+				d.clear();
 			}
 			resetStamp();
 		}
     }
 
+    /**
+     * @param index	index of a node event
+     * @param type	either NR or NE
+     * @return the node of the event
+     */
     public int get(int index, int type) {
-        return deltaOfType[type].get(index);
+        return nodeDeltas[type].get(index);
     }
 
+    /**
+     * @param index	index of an event
+     * @param type	type of the event (NR, NE, AR or AE)
+     * @return the cause of the event
+     */
     public ICause getCause(int index, int type) {
-        return deltaOfType[type].getCause(index);
+        return type < AR ? nodeDeltas[type].getCause(index) : arcDeltas[type - AR].getCause(index);
+    }
+
+    /**
+     * @param type	either AR or AE
+     * @return the arc delta of the given type
+     */
+    public ArcDelta getArcDelta(int type) {
+        return arcDeltas[type - AR];
     }
 }
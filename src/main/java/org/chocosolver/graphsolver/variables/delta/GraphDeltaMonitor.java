@@ -50,37 +50,34 @@ public class GraphDeltaMonitor extends TimeStampedObject implements IDeltaMonito
     public GraphDeltaMonitor(GraphDelta delta, ICause propagator) {
 		super(delta.getEnvironment());
         this.delta = delta;
-        this.first = new int[4];
-        this.last = new int[4];
-        this.frozenFirst = new int[4];
-        this.frozenLast = new int[4];
+        this.first = new int[GraphDelta.NB];
+        this.last = new int[GraphDelta.NB];
+        this.frozenFirst = new int[GraphDelta.NB];
+        this.frozenLast = new int[GraphDelta.NB];
         this.propagator = propagator;
     }
 
     @Override
     public void freeze() {
 		if (needReset()) {
-			for (int i = 0; i < 4; i++) {
+			for (int i = 0; i < GraphDelta.NB; i++) {
 				first[i] = last[i] = 0;
 			}
 			resetStamp();
 		}
-        for (int i = 0; i < 3; i++) {
+        for (int i = 0; i < GraphDelta.NB; i++) {
             frozenFirst[i] = first[i]; // freeze indices
             first[i] = frozenLast[i] = last[i] = delta.getSize(i);
         }
-        frozenFirst[3] = first[3]; // freeze indices
-        first[3] = frozenLast[3] = last[3] = delta.getSize(GraphDelta.AE_tail);
     }
 
     @Override
     public void unfreeze() {
         delta.lazyClear();    // fix 27/07/12
         resetStamp();
-        for (int i = 0; i < 3; i++) {
+        for (int i = 0; i < GraphDelta.NB; i++) {
             first[i] = last[i] = delta.getSize(i);
         }
-        first[3] = last[3] = delta.getSize(GraphDelta.AE_tail);
     }
 
     /**
@@ -117,20 +114,14 @@ public class GraphDeltaMonitor extends TimeStampedObject implements IDeltaMonito
      * @throws ContradictionException if a failure occurs
      */
     public void forEachArc(PairProcedure proc, GraphEventType evt) throws ContradictionException {
+        int type;
         if (evt == GraphEventType.REMOVE_ARC) {
-            for (int i = frozenFirst[2]; i < frozenLast[2]; i++) {
-                if (delta.getCause(i, GraphDelta.AR_tail) != propagator) {
-                    proc.execute(delta.get(i, GraphDelta.AR_tail), delta.get(i, GraphDelta.AR_head));
-                }
-            }
+            type = GraphDelta.AR;
         } else if (evt == GraphEventType.ADD_ARC) {
-            for (int i = frozenFirst[3]; i < frozenLast[3]; i++) {
-                if (delta.getCause(i, GraphDelta.AE_tail) != propagator) {
-                    proc.execute(delta.get(i, GraphDelta.AE_tail), delta.get(i, GraphDelta.AE_head));
-                }
-            }
+            type = GraphDelta.AE;
         } else {
             throw new UnsupportedOperationException();
         }
+        delta.getArcDelta(type).forEach(frozenFirst[type], frozenLast[type], proc, propagator);
     }
 }
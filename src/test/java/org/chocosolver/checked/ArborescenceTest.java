@@ -28,13 +28,22 @@
 package org.chocosolver.checked;
 
 import org.chocosolver.graphsolver.GraphModel;
+import org.chocosolver.graphsolver.cstrs.degree.PropNodeDegree_AtLeast_Incr;
+import org.chocosolver.graphsolver.cstrs.degree.PropNodeDegree_AtMost_Coarse;
+import org.chocosolver.graphsolver.cstrs.tree.PropArborescence;
+import org.chocosolver.graphsolver.cstrs.tree.PropArborescences;
+import org.chocosolver.graphsolver.cstrs.tree.PropReachability;
 import org.chocosolver.graphsolver.search.strategy.GraphStrategy;
 import org.chocosolver.graphsolver.variables.DirectedGraphVar;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.util.objects.graphs.DirectedGraph;
+import org.chocosolver.util.objects.graphs.Orientation;
 import org.chocosolver.util.objects.setDataStructures.SetType;
 import org.testng.annotations.Test;
 
+import java.util.Random;
+
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -114,4 +123,52 @@ public class ArborescenceTest {
 			smallTrees();
 		}
 	}
+
+	@Test(groups = "10s")
+	public static void testIncremental() {
+		for (int s = 0; s < 40; s++) {
+			for (int type = 0; type < 3; type++) {
+				Solver inc = randomModel(s, type, true);
+				Solver full = randomModel(s, type, false);
+				assertEquals(inc.getMeasures().getSolutionCount(), full.getMeasures().getSolutionCount());
+				assertEquals(inc.getMeasures().getNodeCount(), full.getMeasures().getNodeCount());
+			}
+		}
+	}
+
+	private static Solver randomModel(int seed, int type, boolean incremental) {
+		Random rd = new Random(seed);
+		int n = 6;
+		GraphModel m = new GraphModel();
+		DirectedGraph GLB = new DirectedGraph(m, n, SetType.BITSET, false);
+		DirectedGraph GUB = new DirectedGraph(m, n, SetType.BITSET, false);
+		for (int i = 0; i < n; i++) {
+			GUB.addNode(i);
+			for (int j = 0; j < n; j++) {
+				if (rd.nextDouble() < 0.35) {
+					GUB.addArc(i, j);
+				}
+			}
+		}
+		for (int i = 0; i < seed % 3; i++) {
+			GLB.addNode(rd.nextInt(n));
+		}
+		DirectedGraphVar g = m.digraphVar("G", GLB, GUB);
+		if (type == 0) {
+			int[] preds = new int[n];
+			for (int i = 1; i < n; i++) {
+				preds[i] = 1;
+			}
+			new Constraint("directedTree", new PropArborescence(g, 0, false, incremental),
+					new PropNodeDegree_AtMost_Coarse(g, Orientation.PREDECESSORS, preds),
+					new PropNodeDegree_AtLeast_Incr(g, Orientation.PREDECESSORS, preds)).post();
+		} else if (type == 1) {
+			new Constraint("directedForest", new PropArborescences(g, false, incremental),
+					new PropNodeDegree_AtMost_Coarse(g, Orientation.PREDECESSORS, 1)).post();
+		} else {
+			new Constraint("reachability", new PropReachability(g, 0, false, incremental)).post();
+		}
+		while (m.getSolver().solve()) ;
+		return m.getSolver();
+	}
 }
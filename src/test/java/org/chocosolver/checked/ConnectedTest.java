@@ -1,13 +1,33 @@
 package org.chocosolver.checked;
 
 import org.chocosolver.graphsolver.GraphModel;
+import org.chocosolver.graphsolver.cstrs.connectivity.PropNbSCC;
+import org.chocosolver.graphsolver.util.BiconnectivityFinder;
+import org.chocosolver.graphsolver.util.ConnectivityFinder;
+import org.chocosolver.graphsolver.util.ParallelConnectivityFinder;
+import org.chocosolver.graphsolver.util.ParallelStrongConnectivityFinder;
+import org.chocosolver.graphsolver.util.StrongConnectivityFinder;
+import org.chocosolver.graphsolver.variables.DirectedGraphVar;
 import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.util.ESat;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.objects.graphs.DirectedGraph;
+import org.chocosolver.util.objects.graphs.IGraph;
 import org.chocosolver.util.objects.graphs.UndirectedGraph;
 import org.chocosolver.util.objects.setDataStructures.SetType;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 /**
  * Created by ezulkosk on 5/22/15.
@@ -73,4 +93,604 @@ public class ConnectedTest {
             System.out.println(g);
         }
     }
+
+    @Test(groups = "10s")
+    public void testIncremental() {
+        for (int seed = 0; seed < 20; seed++) {
+            assertEquals(nbConnected(seed, true), nbConnected(seed, false));
+        }
+    }
+
+    private static long nbConnected(int seed, boolean incremental) {
+        Random rd = new Random(seed);
+        int n = 7;
+        GraphModel m = new GraphModel();
+        UndirectedGraph LB = new UndirectedGraph(m, n, SetType.BITSET, false);
+        UndirectedGraph UB = new UndirectedGraph(m, n, SetType.BITSET, false);
+        for (int i = 0; i < n; i++) {
+            UB.addNode(i);
+            for (int j = i + 1; j < n; j++) {
+                if (rd.nextDouble() < 0.3) {
+                    UB.addEdge(i, j);
+                }
+            }
+        }
+        if (seed % 2 == 0) {
+            LB.addNode(rd.nextInt(n));
+        }
+        UndirectedGraphVar g = m.graphVar("g", LB, UB);
+        m.connected(g, incremental).post();
+        return m.getSolver().findAllSolutions().size();
+    }
+
+    @Test(groups = "1s")
+    public void testCutNodes() throws ContradictionException {
+        // two triangles {0,1,2} and {3,4,5} linked by the path 2-6-3, plus a pendant node 7 attached to 6
+        GraphModel m = new GraphModel();
+        UndirectedGraph LB = new UndirectedGraph(m, 8, SetType.BITSET, false);
+        UndirectedGraph UB = new UndirectedGraph(m, 8, SetType.BITSET, true);
+        int[][] edges = {{0, 1}, {1, 2}, {0, 2}, {3, 4}, {4, 5}, {3, 5}, {2, 6}, {6, 3}, {6, 7}};
+        for (int[] e : edges) {
+            UB.addEdge(e[0], e[1]);
+        }
+        LB.addNode(0);
+        LB.addNode(4);
+        UndirectedGraphVar g = m.graphVar("g", LB, UB);
+        m.connected(g).post();
+        m.getSolver().propagate();
+        for (int i : new int[]{2, 3, 6}) {
+            assertTrue(g.getMandatoryNodes().contains(i));
+        }
+        assertTrue(g.getMandNeighOf(6).contains(2));
+        assertTrue(g.getMandNeighOf(6).contains(3));
+        assertFalse(g.getMandatoryNodes().contains(1));
+        assertFalse(g.getMandatoryNodes().contains(7));
+        assertFalse(g.getMandNeighOf(0).contains(2));
+    }
+
+    @Test(groups = "10s")
+    public void testNbSCC() {
+        for (int seed = 0; seed < 10; seed++) {
+            // compares with a model without the constraint, filtered by a SCC computation of each solution
+            assertEquals(nbSCCSolutions(seed, true), nbSCCSolutions(seed, false));
+        }
+    }
+
+    private static long nbSCCSolutions(int seed, boolean constrained) {
+        Random rd = new Random(seed);
+        int n = 4;
+        GraphModel m = new GraphModel();
+        DirectedGraph LB = new DirectedGraph(m, n, SetType.BITSET, false);
+        DirectedGraph UB = new DirectedGraph(m, n, SetType.BITSET, false);
+        for (int i = 0; i < n; i++) {
+            UB.addNode(i);
+            for (int j = 0; j < n; j++) {
+                if (i != j && rd.nextDouble() < 0.5) {
+                    UB.addArc(i, j);
+                }
+            }
+        }
+        LB.addNode(rd.nextInt(n));
+        DirectedGraphVar g = m.digraphVar("g", LB, UB);
+        IntVar k = m.intVar("k", 0, n);
+        if (constrained) {
+            m.nbStronglyConnectedComponents(g, k).post();
+            return m.getSolver().findAllSolutions().size();
+        }
+        long nb = 0;
+        while (m.getSolver().solve()) {
+            DirectedGraph sol = new DirectedGraph(n, SetType.BITSET, false);
+            for (int i : g.getMandatoryNodes()) {
+                sol.addNode(i);
+                for (int j : g.getMandSuccOf(i)) {
+                    sol.addArc(i, j);
+                }
+            }
+            StrongConnectivityFinder finder = new StrongConnectivityFinder(sol);
+            finder.findAllSCC();
+            // k takes every value, only one is consistent
+            if (finder.getNbSCC() == k.getValue()) {
+                nb++;
+            }
+        }
+        return nb;
+    }
+
+    @Test(groups = "10s")
+    public void testNbCC() {
+        for (int seed = 0; seed < 20; seed++) {
+            // compares with a model without the constraint, filtered by a CC computation of each solution
+            assertEquals(nbCCSolutions(seed, true), nbCCSolutions(seed, false));
+        }
+    }
+
+    private static long nbCCSolutions(int seed, boolean constrained) {
+        Random rd = new Random(seed);
+        int n = 6;
+        GraphModel m = new GraphModel();
+        UndirectedGraph LB = new UndirectedGraph(m, n, SetType.BITSET, false);
+        UndirectedGraph UB = new UndirectedGraph(m, n, SetType.BITSET, false);
+        for (int i = 0; i < n; i++) {
+            UB.addNode(i);
+            for (int j = i + 1; j < n; j++) {
+                if (rd.nextDouble() < 0.3) {
+                    UB.addEdge(i, j);
+                }
+            }
+        }
+        LB.addNode(rd.nextInt(n));
+        UndirectedGraphVar g = m.graphVar("g", LB, UB);
+        IntVar k = seed % 2 == 0 ? m.intVar("k", 0, n) : m.intVar("k", 2);
+        if (constrained) {
+            m.nbConnectedComponents(g, k).post();
+            return m.getSolver().findAllSolutions().size();
+        }
+        long nb = 0;
+        while (m.getSolver().solve()) {
+            UndirectedGraph sol = new UndirectedGraph(n, SetType.BITSET, false);
+            for (int i : g.getMandatoryNodes()) {
+                sol.addNode(i);
+                for (int j : g.getMandNeighOf(i)) {
+                    sol.addEdge(i, j);
+                }
+            }
+            ConnectivityFinder finder = new ConnectivityFinder(sol);
+            finder.findAllCC();
+            if (finder.getNBCC() == k.getValue()) {
+                nb++;
+            }
+        }
+        return nb;
+    }
+
+    @Test(groups = "1s")
+    public void testKEdgeConnected() throws ContradictionException {
+        // a cycle is 2-edge-connected, and each of its edges is in a min cut
+        GraphModel m = new GraphModel();
+        UndirectedGraphVar g = m.graphVar("g", new UndirectedGraph(m, 6, SetType.BITSET, true), bowtie(m, 6, false));
+        m.kEdgeConnected(g, 2).post();
+        m.getSolver().propagate();
+        assertEquals(g.getNbMandatoryArcs(), 6);
+        // a bowtie is 2-edge-connected but not 3-edge-connected
+        assertEquals(nbKConnectedSolutions(2, false, true), 1);
+        assertEquals(nbKConnectedSolutions(3, false, true), 0);
+    }
+
+    @Test(groups = "1s")
+    public void testKVertexConnected() throws ContradictionException {
+        // a bowtie is not 2-vertex-connected, a cycle is
+        assertEquals(nbKConnectedSolutions(2, true, true), 0);
+        assertEquals(nbKConnectedSolutions(2, true, false), 1);
+        assertEquals(nbKConnectedSolutions(3, true, false), 0);
+        // nodes which cannot be linked to node 0 by 2 disjoint paths are removed
+        GraphModel m = new GraphModel();
+        UndirectedGraph LB = new UndirectedGraph(m, 5, SetType.BITSET, false);
+        LB.addNode(0);
+        UndirectedGraph UB = bowtie(m, 5, true);
+        UndirectedGraphVar g = m.graphVar("g", LB, UB);
+        m.kVertexConnected(g, 2).post();
+        m.getSolver().propagate();
+        assertFalse(g.getPotentialNodes().contains(3));
+        assertFalse(g.getPotentialNodes().contains(4));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(g.getPotentialNodes().contains(i));
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testKEdgeConnectedIncremental() throws ContradictionException {
+        // a cycle of 6 nodes with chord (0,3)
+        GraphModel m = new GraphModel();
+        UndirectedGraph LB = new UndirectedGraph(m, 6, SetType.BITSET, false);
+        LB.addNode(0);
+        UndirectedGraph UB = bowtie(m, 6, false);
+        UB.addEdge(0, 3);
+        UndirectedGraphVar g = m.graphVar("g", LB, UB);
+        m.kEdgeConnected(g, 2).post();
+        m.getSolver().propagate();
+        assertEquals(g.getNbMandatoryArcs(), 0);
+        // no removal: node 4 is linked to node 0 by exactly 2 paths, its edges form a min cut
+        m.getEnvironment().worldPush();
+        g.enforceNode(4, Cause.Null);
+        m.getSolver().propagate();
+        assertTrue(g.getMandNeighOf(4).contains(3));
+        assertTrue(g.getMandNeighOf(4).contains(5));
+        m.getEnvironment().worldPop();
+        // removals break some of the paths found so far, also after a backtrack
+        m.getEnvironment().worldPush();
+        g.removeArc(4, 5, Cause.Null);
+        m.getSolver().propagate();
+        assertFalse(g.getPotentialNodes().contains(4));
+        assertFalse(g.getPotentialNodes().contains(5));
+        assertTrue(g.getPotentialNodes().contains(3));
+        m.getEnvironment().worldPop();
+        assertEquals(g.getPotentialNodes().size(), 6);
+        g.removeArc(1, 2, Cause.Null);
+        m.getSolver().propagate();
+        assertFalse(g.getPotentialNodes().contains(1));
+        assertFalse(g.getPotentialNodes().contains(2));
+        for (int i = 3; i < 6; i++) {
+            assertTrue(g.getPotentialNodes().contains(i));
+        }
+    }
+
+    private static long nbKConnectedSolutions(int k, boolean vertex, boolean bowtie) {
+        GraphModel m = new GraphModel();
+        int n = bowtie ? 5 : 6;
+        UndirectedGraph LB = new UndirectedGraph(m, n, SetType.BITSET, true);
+        UndirectedGraphVar g = m.graphVar("g", LB, bowtie(m, n, bowtie));
+        (vertex ? m.kVertexConnected(g, k) : m.kEdgeConnected(g, k)).post();
+        return m.getSolver().findAllSolutions().size();
+    }
+
+    /**
+     * @return two triangles sharing node 2 if bowtie, a cycle of n nodes otherwise
+     */
+    private static UndirectedGraph bowtie(GraphModel m, int n, boolean bowtie) {
+        UndirectedGraph UB = new UndirectedGraph(m, n, SetType.BITSET, false);
+        for (int i = 0; i < n; i++) {
+            UB.addNode(i);
+        }
+        if (bowtie) {
+            UB.addEdge(0, 1);
+            UB.addEdge(1, 2);
+            UB.addEdge(2, 0);
+            UB.addEdge(2, 3);
+            UB.addEdge(3, 4);
+            UB.addEdge(4, 2);
+        } else {
+            for (int i = 0; i < n; i++) {
+                UB.addEdge(i, (i + 1) % n);
+            }
+        }
+        return UB;
+    }
+
+    @Test(groups = "10s")
+    public void testParallelFinders() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int seed = 0; seed < 20; seed++) {
+            Random rd = new Random(seed);
+            int n = 2000;
+            // sparse graphs, close to the connectivity threshold, with missing nodes
+            double p = (0.5 + rd.nextDouble()) / n;
+            UndirectedGraph ug = new UndirectedGraph(n, SetType.BIPARTITESET, false);
+            DirectedGraph dg = new DirectedGraph(n, SetType.BIPARTITESET, false);
+            for (int i = 0; i < n; i++) {
+                if (rd.nextInt(10) > 0) {
+                    ug.addNode(i);
+                    dg.addNode(i);
+                }
+            }
+            for (int i : ug.getNodes()) {
+                for (int j : ug.getNodes()) {
+                    if (rd.nextDouble() < p) {
+                        ug.addEdge(i, j);
+                    }
+                    if (rd.nextDouble() < 2 * p) {
+                        dg.addArc(i, j);
+                    }
+                }
+            }
+            ConnectivityFinder cc = new ConnectivityFinder(ug);
+            cc.findAllCC();
+            ParallelConnectivityFinder pcc = new ParallelConnectivityFinder(ug, pool, 16);
+            pcc.findAllCC();
+            assertEquals(pcc.getNBCC(), cc.getNBCC());
+            assertTrue(samePartition(ug, cc.getNode_CC(), pcc.getNode_CC()));
+            StrongConnectivityFinder scc = new StrongConnectivityFinder(dg);
+            scc.findAllSCC();
+            ParallelStrongConnectivityFinder pscc = new ParallelStrongConnectivityFinder(dg, pool, 16);
+            pscc.findAllSCC();
+            assertEquals(pscc.getNbSCC(), scc.getNbSCC());
+            assertTrue(samePartition(dg, scc.getNodesSCC(), pscc.getNodesSCC()));
+            // delegation from the sequential finder
+            int[] expected = scc.getNodesSCC().clone();
+            scc.setParallelThreshold(0);
+            scc.findAllSCC();
+            assertTrue(samePartition(dg, expected, scc.getNodesSCC()));
+            for (int c = 0; c < scc.getNbSCC(); c++) {
+                for (int i = scc.getSCCFirstNode(c); i >= 0; i = scc.getNextNode(i)) {
+                    assertEquals(scc.getNodesSCC()[i], c);
+                }
+            }
+        }
+        pool.shutdown();
+    }
+
+    private static boolean samePartition(IGraph g, int[] a, int[] b) {
+        int n = g.getNbMaxNodes();
+        int[] map = new int[n];
+        int[] inv = new int[n];
+        Arrays.fill(map, -1);
+        Arrays.fill(inv, -1);
+        for (int i : g.getNodes()) {
+            if (map[a[i]] == -1 && inv[b[i]] == -1) {
+                map[a[i]] = b[i];
+                inv[b[i]] = a[i];
+            } else if (map[a[i]] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test(groups = "1s")
+    public void testNbSCCSameRound() throws ContradictionException {
+        for (boolean kFirst : new boolean[]{true, false}) {
+            // four isolated nodes, one of them mandatory: k can be 1 to 4
+            GraphModel m = new GraphModel();
+            DirectedGraph LB = new DirectedGraph(m, 4, SetType.BITSET, false);
+            DirectedGraph UB = new DirectedGraph(m, 4, SetType.BITSET, true);
+            LB.addNode(0);
+            DirectedGraphVar g = m.digraphVar("g", LB, UB);
+            IntVar k = m.intVar("k", 1, 4);
+            m.nbStronglyConnectedComponents(g, k).post();
+            m.getSolver().propagate();
+            assertEquals(k.getUB(), 4);
+            // k and the graph are modified in the same propagation round, in both orders
+            m.getEnvironment().worldPush();
+            if (kFirst) {
+                k.instantiateTo(4, Cause.Null);
+                g.enforceNode(1, Cause.Null);
+            } else {
+                g.enforceNode(1, Cause.Null);
+                k.instantiateTo(4, Cause.Null);
+            }
+            m.getSolver().propagate();
+            assertEquals(g.getMandatoryNodes().size(), 4);
+            m.getEnvironment().worldPop();
+            // k bounded by the number of mandatory nodes: nodes 2 and 3 are removed
+            m.getEnvironment().worldPush();
+            if (kFirst) {
+                k.instantiateTo(2, Cause.Null);
+                g.enforceNode(1, Cause.Null);
+            } else {
+                g.enforceNode(1, Cause.Null);
+                k.instantiateTo(2, Cause.Null);
+            }
+            m.getSolver().propagate();
+            assertEquals(g.getPotentialNodes().size(), 2);
+            assertTrue(g.getMandatoryNodes().contains(1));
+            m.getEnvironment().worldPop();
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testParallelSCCChain() {
+        // a path of 3-cycles, far above the grain: every split of a part is deep
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int n = 30000;
+        DirectedGraph dg = new DirectedGraph(n, SetType.LINKED_LIST, true);
+        for (int i = 0; i + 2 < n; i += 3) {
+            dg.addArc(i, i + 1);
+            dg.addArc(i + 1, i + 2);
+            dg.addArc(i + 2, i);
+            if (i + 3 < n) {
+                dg.addArc(i + 2, i + 3);
+            }
+        }
+        ParallelStrongConnectivityFinder pscc = new ParallelStrongConnectivityFinder(dg, pool, 4);
+        for (int k = 0; k < 2; k++) {
+            pscc.findAllSCC();
+            assertEquals(pscc.getNbSCC(), n / 3);
+            for (int i = 0; i < n; i += 3) {
+                assertEquals(pscc.getNodesSCC()[i + 1], pscc.getNodesSCC()[i]);
+                assertEquals(pscc.getNodesSCC()[i + 2], pscc.getNodesSCC()[i]);
+                if (i > 0) {
+                    assertTrue(pscc.getNodesSCC()[i] != pscc.getNodesSCC()[i - 1]);
+                }
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test(groups = "10s")
+    public void testNbSCCParallel() {
+        for (int seed = 0; seed < 10; seed++) {
+            assertEquals(nbParallelSCCSolutions(seed, true), nbParallelSCCSolutions(seed, false));
+        }
+    }
+
+    private static long nbParallelSCCSolutions(int seed, boolean parallel) {
+        Random rd = new Random(seed);
+        int n = 6;
+        GraphModel m = new GraphModel();
+        DirectedGraph LB = new DirectedGraph(m, n, SetType.BITSET, false);
+        DirectedGraph UB = new DirectedGraph(m, n, SetType.BITSET, false);
+        for (int i = 0; i < n; i++) {
+            UB.addNode(i);
+            for (int j = 0; j < n; j++) {
+                if (rd.nextDouble() < 0.3) {
+                    UB.addArc(i, j);
+                }
+            }
+        }
+        DirectedGraphVar g = m.digraphVar("g", LB, UB);
+        Constraint c = m.nbStronglyConnectedComponents(g, m.intVar("k", 2, 3));
+        if (parallel) {
+            ((PropNbSCC) c.getPropagator(0)).setParallelThreshold(0);
+        }
+        c.post();
+        return m.getSolver().findAllSolutions().size();
+    }
+
+    @Test(groups = "1s")
+    public void testBiconnectivityFinder() {
+        for (int seed = 0; seed < 200; seed++) {
+            Random rd = new Random(seed);
+            int n = 3 + rd.nextInt(8);
+            UndirectedGraph g = new UndirectedGraph(n, SetType.BITSET, false);
+            BitSet subset = new BitSet(n);
+            for (int i = 0; i < n; i++) {
+                g.addNode(i);
+                subset.set(i, rd.nextInt(4) > 0);
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = i; j < n; j++) {
+                    if (rd.nextDouble() < 0.3) {
+                        g.addEdge(i, j);
+                    }
+                }
+            }
+            // compares the search restricted to subset with a brute force on the induced subgraph
+            UndirectedGraph sub = new UndirectedGraph(n, SetType.BITSET, false);
+            for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+                sub.addNode(i);
+                for (int j : g.getNeighOf(i)) {
+                    if (subset.get(j)) {
+                        sub.addNode(j);
+                        sub.addEdge(i, j);
+                    }
+                }
+            }
+            BiconnectivityFinder finder = new BiconnectivityFinder(g);
+            finder.findAllOf(subset);
+            int nbCC = nbCC(sub);
+            assertEquals(finder.getNbCC(), nbCC);
+            int[] nbBCCOf = new int[n];
+            for (int b = 0; b < finder.getNbBCC(); b++) {
+                for (int k = finder.getBCCOffsets()[b]; k < finder.getBCCOffsets()[b + 1]; k++) {
+                    nbBCCOf[finder.getBCCNodes()[k]]++;
+                }
+            }
+            for (int i : sub.getNodes()) {
+                UndirectedGraph without = copy(sub);
+                without.removeNode(i);
+                boolean articulation = nbCC(without) > nbCC - (sub.getNeighOf(i).size() == 0 ? 1 : 0);
+                assertEquals(finder.isArticulationPoint(i), articulation);
+                assertEquals(nbBCCOf[i] > 1, articulation);
+                for (int j : sub.getNeighOf(i)) {
+                    if (i < j) {
+                        without = copy(sub);
+                        without.removeEdge(i, j);
+                        boolean bridge = nbCC(without) > nbCC;
+                        boolean found = false;
+                        for (int k = 0; k < finder.bridgeFrom.size(); k++) {
+                            found |= Math.min(finder.bridgeFrom.get(k), finder.bridgeTo.get(k)) == i
+                                    && Math.max(finder.bridgeFrom.get(k), finder.bridgeTo.get(k)) == j;
+                        }
+                        assertEquals(found, bridge);
+                        // each edge belongs to exactly one BCC
+                        int nbBCC = 0;
+                        for (int b = 0; b < finder.getNbBCC(); b++) {
+                            boolean hasI = false, hasJ = false;
+                            for (int k = finder.getBCCOffsets()[b]; k < finder.getBCCOffsets()[b + 1]; k++) {
+                                hasI |= finder.getBCCNodes()[k] == i;
+                                hasJ |= finder.getBCCNodes()[k] == j;
+                            }
+                            if (hasI && hasJ) {
+                                nbBCC++;
+                            }
+                        }
+                        assertEquals(nbBCC, 1);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int nbCC(UndirectedGraph g) {
+        ConnectivityFinder finder = new ConnectivityFinder(g);
+        finder.findAllCC();
+        return finder.getNBCC();
+    }
+
+    @Test(groups = "1s")
+    public void testIsthmaAfterFindAllCC() {
+        // two triangles {0,1,2} and {3,4,5} linked by the bridge 2-3, plus a pendant node 6 attached to 5
+        UndirectedGraph g = new UndirectedGraph(7, SetType.BITSET, false);
+        int[][] edges = {{0, 1}, {1, 2}, {0, 2}, {3, 4}, {4, 5}, {3, 5}, {2, 3}, {5, 6}};
+        for (int[] e : edges) {
+            g.addNode(e[0]);
+            g.addNode(e[1]);
+            g.addEdge(e[0], e[1]);
+        }
+        ConnectivityFinder finder = new ConnectivityFinder(g);
+        finder.findAllCC();
+        assertEquals(finder.getNBCC(), 1);
+        assertTrue(finder.isConnectedAndFindIsthma());
+        assertEquals(isthma(finder), new String[]{"2-3", "5-6"});
+        // the same finder on the modified graph, after another findAllCC
+        g.removeEdge(0, 1);
+        finder.findAllCC();
+        assertEquals(finder.getNBCC(), 1);
+        assertTrue(finder.isConnectedAndFindIsthma());
+        assertEquals(isthma(finder), new String[]{"0-2", "1-2", "2-3", "5-6"});
+        g.removeEdge(2, 3);
+        finder.findAllCC();
+        assertEquals(finder.getNBCC(), 2);
+        assertFalse(finder.isConnectedAndFindIsthma());
+    }
+
+    private static String[] isthma(ConnectivityFinder finder) {
+        String[] isthma = new String[finder.isthmusFrom.size()];
+        for (int k = 0; k < isthma.length; k++) {
+            int i = finder.isthmusFrom.get(k);
+            int j = finder.isthmusTo.get(k);
+            isthma[k] = Math.min(i, j) + "-" + Math.max(i, j);
+        }
+        Arrays.sort(isthma);
+        return isthma;
+    }
+
+    private static UndirectedGraph copy(UndirectedGraph g) {
+        UndirectedGraph c = new UndirectedGraph(g.getNbMaxNodes(), SetType.BITSET, false);
+        for (int i : g.getNodes()) {
+            c.addNode(i);
+            for (int j : g.getNeighOf(i)) {
+                c.addNode(j);
+                c.addEdge(i, j);
+            }
+        }
+        return c;
+    }
+
+    @Test(groups = "10s")
+    public void testBiconnected() {
+        for (int seed = 0; seed < 40; seed++) {
+            // compares with a model without the constraint, filtered by a biconnectivity check of each solution
+            assertEquals(nbBiconnectedSolutions(seed, true), nbBiconnectedSolutions(seed, false));
+        }
+    }
+
+    private static long nbBiconnectedSolutions(int seed, boolean constrained) {
+        Random rd = new Random(seed);
+        int n = 6;
+        GraphModel m = new GraphModel();
+        UndirectedGraph LB = new UndirectedGraph(m, n, SetType.BITSET, false);
+        UndirectedGraph UB = new UndirectedGraph(m, n, SetType.BITSET, false);
+        for (int i = 0; i < n; i++) {
+            UB.addNode(i);
+            for (int j = i + 1; j < n; j++) {
+                if (rd.nextDouble() < 0.5) {
+                    UB.addEdge(i, j);
+                }
+            }
+        }
+        for (int k = 0; k < seed % 3; k++) {
+            LB.addNode(rd.nextInt(n));
+        }
+        UndirectedGraphVar g = m.graphVar("g", LB, UB);
+        if (constrained) {
+            m.biconnected(g).post();
+            return m.getSolver().findAllSolutions().size();
+        }
+        long nb = 0;
+        while (m.getSolver().solve()) {
+            UndirectedGraph sol = new UndirectedGraph(n, SetType.BITSET, false);
+            for (int i : g.getMandatoryNodes()) {
+                sol.addNode(i);
+                for (int j : g.getMandNeighOf(i)) {
+                    sol.addEdge(i, j);
+                }
+            }
+            BiconnectivityFinder finder = new BiconnectivityFinder(sol);
+            finder.findAll();
+            if (finder.isBiconnected()) {
+                nb++;
+            }
+        }
+        return nb;
+    }
 }
@@ -0,0 +1,441 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.checked;
+
+import gnu.trove.list.array.TIntArrayList;
+import org.chocosolver.graphsolver.GraphModel;
+import org.chocosolver.graphsolver.cstrs.cost.GraphLagrangianRelaxation;
+import org.chocosolver.graphsolver.cstrs.cost.ICostProvider;
+import org.chocosolver.graphsolver.cstrs.cost.trees.lagrangianRelaxation.AbstractTreeFinder.EdgeWeights;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.heap.DAryHeap;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.heap.DenseArrayHeap;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.heap.ISimpleHeap;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.lagrangianRelaxation.CandidateSetFinder;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.lagrangianRelaxation.PrimOneTreeFinder;
+import org.chocosolver.graphsolver.search.strategy.GraphSearch;
+import org.chocosolver.graphsolver.util.BatchLCAFinder;
+import org.chocosolver.graphsolver.util.DoubleRadixSort;
+import org.chocosolver.graphsolver.variables.EdgeUniverse;
+import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.samples.tsp.HeapBenchmark;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.objects.graphs.DirectedGraph;
+import org.chocosolver.util.objects.graphs.IGraph;
+import org.chocosolver.util.objects.graphs.UndirectedGraph;
+import org.chocosolver.util.objects.setDataStructures.SetType;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests cost-based constraints with dense, sparse and computed costs
+ */
+public class CostProviderTest {
+
+	private static int solveTSP(int n, int[][] edges, ICostProvider costs, int lagrMode) {
+		return solveTSP(n, edges, costs, lagrMode, null);
+	}
+
+	private static int solveTSP(int n, int[][] edges, ICostProvider costs, int lagrMode, CandidateSetFinder candidates) {
+		GraphModel model = new GraphModel();
+		IntVar cost = model.intVar("cost", 0, 100000, true);
+		UndirectedGraphVar g = model.graphVar("g", new EdgeUniverse(n, edges), true);
+		model.tsp(g, cost, costs, lagrMode, candidates).post();
+		Solver solver = model.getSolver();
+		GraphSearch search = new GraphSearch(g, costs).configure(GraphSearch.MIN_COST);
+		if (candidates != null) {
+			search.preferCandidates(candidates.getCandidates());
+		}
+		solver.setSearch(search);
+		model.setObjective(Model.MINIMIZE, cost);
+		while (solver.solve()) ;
+		return solver.getBestSolutionValue().intValue();
+	}
+
+	@Test(groups = "10s")
+	public void testTSP() {
+		int n = 12;
+		Random rd = new Random(0);
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = rd.nextInt(100);
+			y[i] = rd.nextInt(100);
+		}
+		ICostProvider euclidean = ICostProvider.euclidean(x, y);
+		int[][] matrix = new int[n][n];
+		int[][] complete = new int[n * (n - 1) / 2][];
+		int[] costs = new int[complete.length];
+		int e = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				matrix[i][j] = euclidean.getCost(i, j);
+				if (i < j) {
+					costs[e] = matrix[i][j];
+					complete[e++] = new int[]{i, j};
+				}
+			}
+		}
+		int opt = solveTSP(n, complete, ICostProvider.dense(matrix), 0);
+		Assert.assertEquals(solveTSP(n, complete, ICostProvider.dense(matrix), 1), opt);
+		Assert.assertEquals(solveTSP(n, complete, euclidean, 1), opt);
+		Assert.assertEquals(solveTSP(n, complete, ICostProvider.sparse(new EdgeUniverse(n, complete), costs), 1), opt);
+	}
+
+	@Test(groups = "1s")
+	public void testSparseTSP() {
+		// a ring with chords: only candidate edges have a cost
+		int n = 10;
+		int[][] edges = new int[n + n / 2][];
+		int[] costs = new int[edges.length];
+		for (int i = 0; i < n; i++) {
+			edges[i] = new int[]{i, (i + 1) % n};
+			costs[i] = 10;
+		}
+		for (int k = 0; k < n / 2; k++) {
+			edges[n + k] = new int[]{k, k + n / 2};
+			costs[n + k] = 1;
+		}
+		ICostProvider sparse = ICostProvider.sparse(new EdgeUniverse(n, edges), costs);
+		Assert.assertEquals(sparse.getCost(3, 2), 10);
+		Assert.assertEquals(sparse.getCost(7, 2), 1);
+		int opt = solveTSP(n, edges, sparse, 0);
+		Assert.assertEquals(solveTSP(n, edges, sparse, 1), opt);
+		Assert.assertEquals(solveTSP(n, edges, sparse, 2), opt);
+	}
+
+	@Test(groups = "10s")
+	public void testCandidateSetTSP() {
+		int n = 14;
+		Random rd = new Random(1);
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = rd.nextInt(100);
+			y[i] = rd.nextInt(100);
+		}
+		ICostProvider euclidean = ICostProvider.euclidean(x, y);
+		int[][] complete = new int[n * (n - 1) / 2][];
+		int e = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				complete[e++] = new int[]{i, j};
+			}
+		}
+		int opt = solveTSP(n, complete, euclidean, 1);
+		Assert.assertEquals(solveTSP(n, complete, euclidean, 1,
+				new CandidateSetFinder(n, CandidateSetFinder.ALPHA_NEARNESS, 3)), opt);
+		Assert.assertEquals(solveTSP(n, complete, euclidean, 1,
+				new CandidateSetFinder(n, CandidateSetFinder.K_NEAREST, 3)), opt);
+		Assert.assertEquals(solveTSP(n, complete, euclidean, 2,
+				new CandidateSetFinder(n, CandidateSetFinder.ALPHA_NEARNESS, 2)), opt);
+	}
+
+	@Test(groups = "1s")
+	public void testDoubleRadixSort() {
+		Random rd = new Random(0);
+		DoubleRadixSort sorter = new DoubleRadixSort(4);
+		for (int size : new int[]{0, 1, 7, 100, 1000}) {
+			double[] keys = new double[size];
+			for (int k = 0; k < size; k++) {
+				switch (rd.nextInt(5)) {
+					case 0: keys[k] = rd.nextInt(10); break;
+					case 1: keys[k] = -rd.nextDouble() * 1e6; break;
+					case 2: keys[k] = rd.nextBoolean() ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY; break;
+					case 3: keys[k] = rd.nextBoolean() ? 0d : -0d; break;
+					default: keys[k] = rd.nextDouble() * 1e-3;
+				}
+			}
+			int[] order = new int[size];
+			sorter.sort(keys, size, order);
+			Integer[] expected = new Integer[size];
+			for (int k = 0; k < size; k++) {
+				expected[k] = k;
+			}
+			Arrays.sort(expected, (i, j) -> keys[i] == keys[j] ? 0 : Double.compare(keys[i], keys[j]));
+			for (int k = 0; k < size; k++) {
+				Assert.assertEquals(order[k], expected[k].intValue());
+			}
+		}
+	}
+
+	@Test(groups = "1s")
+	public void testBatchLCA() {
+		Random rd = new Random(0);
+		int n = 200;
+		BatchLCAFinder finder = new BatchLCAFinder(n, 1);
+		for (int t = 0; t < 10; t++) {
+			// random tree rooted at node r, fathers having smaller depth
+			DirectedGraph tree = new DirectedGraph(n, SetType.LINKED_LIST, true);
+			int r = rd.nextInt(n);
+			int[] father = new int[n];
+			int[] depth = new int[n];
+			int[] perm = new int[n];
+			for (int i = 0; i < n; i++) {
+				perm[i] = i;
+			}
+			perm[r] = 0;
+			perm[0] = r;
+			father[r] = r;
+			for (int k = 1; k < n; k++) {
+				int s = k + rd.nextInt(n - k);
+				int tmp = perm[k];
+				perm[k] = perm[s];
+				perm[s] = tmp;
+				int f = perm[rd.nextInt(k)];
+				father[perm[k]] = f;
+				depth[perm[k]] = depth[f] + 1;
+				tree.addArc(f, perm[k]);
+			}
+			finder.clear();
+			int[][] queries = new int[300][];
+			for (int q = 0; q < queries.length; q++) {
+				queries[q] = new int[]{rd.nextInt(n), rd.nextInt(n)};
+				Assert.assertEquals(finder.addQuery(queries[q][0], queries[q][1]), q);
+			}
+			finder.solve(r, tree);
+			for (int q = 0; q < queries.length; q++) {
+				int x = queries[q][0], y = queries[q][1];
+				while (x != y) {
+					if (depth[x] >= depth[y]) {
+						x = father[x];
+					} else {
+						y = father[y];
+					}
+				}
+				Assert.assertEquals(finder.getLCA(q), x);
+			}
+		}
+	}
+
+	@Test(groups = "1s")
+	public void testHeaps() {
+		Random rd = new Random(0);
+		int n = 50;
+		for (int d : new int[]{0, 2, 3, 4, 8}) {
+			ISimpleHeap heap = d == 0 ? new DenseArrayHeap(n) : new DAryHeap(n, d);
+			double[] keys = new double[n];
+			for (int t = 0; t < 20; t++) {
+				heap.clear();
+				Arrays.fill(keys, Double.POSITIVE_INFINITY);
+				for (int k = 0; k < 200; k++) {
+					int e = rd.nextInt(n);
+					double v = rd.nextInt(100) - 50;
+					boolean added = keys[e] == Double.POSITIVE_INFINITY || v < keys[e];
+					Assert.assertEquals(heap.addOrUpdateElement(e, v), added);
+					if (added) {
+						keys[e] = v;
+					}
+				}
+				double last = Double.NEGATIVE_INFINITY;
+				while (!heap.isEmpty()) {
+					int e = heap.removeFirstElement();
+					Assert.assertTrue(keys[e] >= last);
+					Assert.assertTrue(keys[e] < Double.POSITIVE_INFINITY);
+					last = keys[e];
+					keys[e] = Double.POSITIVE_INFINITY;
+				}
+				for (double k : keys) {
+					Assert.assertEquals(k, Double.POSITIVE_INFINITY);
+				}
+			}
+		}
+		HeapBenchmark sparse = new HeapBenchmark(100, 4, 0);
+		HeapBenchmark complete = new HeapBenchmark(100, 99, 0);
+		Assert.assertTrue(ISimpleHeap.make(100, sparse.nbEdges()) instanceof DAryHeap);
+		Assert.assertTrue(ISimpleHeap.make(100, complete.nbEdges()) instanceof DenseArrayHeap);
+		Assert.assertEquals(sparse.prim(new DAryHeap(100)), sparse.prim(new DenseArrayHeap(100)), 1e-6);
+		Assert.assertEquals(complete.prim(new DAryHeap(100)), complete.prim(new DenseArrayHeap(100)), 1e-6);
+	}
+
+	@Test(groups = "1s")
+	public void testOneTreeRepair() throws ContradictionException {
+		int n = 40;
+		OneTreeRelaxation relax = new OneTreeRelaxation(n);
+		for (int seed = 0; seed < 20; seed++) {
+			Random rd = new Random(seed);
+			relax.clear();
+			double[][] c = new double[n][n];
+			UndirectedGraph g = new UndirectedGraph(n, SetType.BITSET, true);
+			for (int i = 0; i < n; i++) {
+				for (int j = i + 1; j < n; j++) {
+					c[i][j] = c[j][i] = rd.nextDouble() * 100;
+					g.addEdge(i, j);
+				}
+			}
+			double[] penalities = new double[n];
+			EdgeWeights costs = (i, j) -> c[i][j] + penalities[i] + penalities[j];
+			PrimOneTreeFinder repaired = new PrimOneTreeFinder(n, relax);
+			repaired.setPenalities(penalities);
+			for (int it = 0; it < 50; it++) {
+				if (it % 10 == 0) {
+					relax.syncMandatoryArcs();
+				}
+				// as in late subgradient iterations, only a few penalities change
+				for (int k = rd.nextInt(3); k >= 0; k--) {
+					penalities[rd.nextInt(n)] += rd.nextDouble() * 10 - 5;
+				}
+				if (rd.nextInt(3) == 0) {
+					int i = rd.nextInt(n);
+					int j = rd.nextInt(n);
+					if (i != j && g.edgeExists(i, j) && !relax.isMandatory(i, j)
+							&& g.getNeighOf(i).size() > 3 && g.getNeighOf(j).size() > 3) {
+						g.removeEdge(i, j);
+					}
+				}
+				if (rd.nextInt(5) == 0) {
+					// edges (k,k+1) form paths, so mandatory edges never make a cycle
+					int k = 1 + rd.nextInt(n - 2);
+					if (g.edgeExists(k, k + 1) && !relax.isMandatory(k, k + 1)) {
+						relax.enforce(k, k + 1);
+						repaired.edgeEnforced(k, k + 1);
+					}
+				}
+				repaired.computeMST(costs, g);
+				PrimOneTreeFinder fresh = new PrimOneTreeFinder(n, relax);
+				fresh.computeMST(costs, g);
+				Assert.assertEquals(repaired.getBound(), fresh.getBound(), 1e-6);
+				Assert.assertEquals(weight(repaired.getMST(), costs), weight(fresh.getMST(), costs), 1e-6);
+				Assert.assertEquals(weight(repaired.getMST(), costs), repaired.getBound(), 1e-6);
+				Assert.assertEquals(repaired.getMST().getNeighOf(0).size(), 2);
+				for (int k = 0; k < relax.enforcedList.size(); k++) {
+					int e = relax.enforcedList.get(k);
+					Assert.assertTrue(repaired.getMST().edgeExists(e / n, e % n));
+				}
+			}
+		}
+		// the 1-tree has been repaired, rather than recomputed, in most iterations
+		Assert.assertTrue(relax.nbRepairs > 500, "" + relax.nbRepairs);
+	}
+
+	private static double weight(UndirectedGraph tree, EdgeWeights costs) {
+		double w = 0;
+		for (int i = 0; i < tree.getNbMaxNodes(); i++) {
+			for (int j : tree.getNeighOf(i)) {
+				if (i < j) {
+					w += costs.get(i, j);
+				}
+			}
+		}
+		return w;
+	}
+
+	/**
+	 * Relaxation stub which counts the repairs of PrimOneTreeFinder.
+	 * As in PropLagr_OneTree, the list of mandatory edges is only rebuilt from time to time,
+	 * so edges enforced in between are only known through isMandatory and PrimOneTreeFinder.edgeEnforced
+	 */
+	private static class OneTreeRelaxation implements GraphLagrangianRelaxation {
+
+		private final int n;
+		private final boolean[][] mandatory;
+		private final TIntArrayList mandatoryList = new TIntArrayList();
+		private final TIntArrayList enforcedList = new TIntArrayList();
+		private int nbRepairs;
+
+		OneTreeRelaxation(int n) {
+			this.n = n;
+			this.mandatory = new boolean[n][n];
+		}
+
+		void clear() {
+			for (boolean[] row : mandatory) {
+				Arrays.fill(row, false);
+			}
+			mandatoryList.resetQuick();
+			enforcedList.resetQuick();
+		}
+
+		void syncMandatoryArcs() {
+			mandatoryList.resetQuick();
+			mandatoryList.addAll(enforcedList);
+		}
+
+		@Override
+		public void waitFirstSolution(boolean b) {
+		}
+
+		@Override
+		public boolean isMandatory(int i, int j) {
+			return mandatory[i][j];
+		}
+
+		@Override
+		public TIntArrayList getMandatoryArcsList() {
+			// only the repair of the 1-tree queries this list
+			nbRepairs++;
+			return mandatoryList;
+		}
+
+		@Override
+		public double getMinArcVal() {
+			return -1000;
+		}
+
+		@Override
+		public void contradiction() {
+			Assert.fail("the graph has a 1-tree");
+		}
+
+		@Override
+		public void remove(int i, int j) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void enforce(int i, int j) {
+			mandatory[i][j] = mandatory[j][i] = true;
+			enforcedList.add(i * n + j);
+		}
+
+		@Override
+		public boolean contains(int i, int j) {
+			return false;
+		}
+
+		@Override
+		public double getReplacementCost(int i, int j) {
+			return 0;
+		}
+
+		@Override
+		public double getMarginalCost(int i, int j) {
+			return 0;
+		}
+
+		@Override
+		public IGraph getSupport() {
+			return null;
+		}
+	}
+}
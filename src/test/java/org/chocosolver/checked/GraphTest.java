@@ -2,9 +2,19 @@ package org.chocosolver.checked;
 
 
 import org.chocosolver.graphsolver.GraphModel;
+import org.chocosolver.graphsolver.GraphSolution;
+import org.chocosolver.graphsolver.variables.DirectedGraphVar;
+import org.chocosolver.graphsolver.variables.GraphEventType;
+import org.chocosolver.graphsolver.variables.NodeWatcher;
 import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
+import org.chocosolver.graphsolver.variables.delta.GraphDelta;
+import org.chocosolver.graphsolver.variables.delta.GraphDeltaMonitor;
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.Model;
+import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.IVariableMonitor;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.ESat;
 import org.chocosolver.util.objects.graphs.UndirectedGraph;
@@ -13,6 +23,9 @@ import org.chocosolver.util.tools.ArrayUtils;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author Jean-Guillaume Fages
  * @since 22/11/14
@@ -69,4 +82,245 @@ public class GraphTest {
         Assert.assertEquals(model.getSolver().isFeasible(), ESat.TRUE);
         System.out.println(model.getSolver().toOneLineString());
     }
+
+    @Test(groups = "1s")
+    public void testBulkModifications() throws ContradictionException {
+        GraphModel model = new GraphModel();
+        DirectedGraphVar g = model.digraphVar("g", 5, false);
+        int[] nbEvents = new int[1];
+        IVariableMonitor<DirectedGraphVar> monitor = (var, evt) -> nbEvents[0]++;
+        g.addMonitor(monitor);
+        // removing a node and its 8 incident arcs triggers a single event
+        Assert.assertTrue(g.removeNode(0, Cause.Null));
+        Assert.assertEquals(nbEvents[0], 1);
+        Assert.assertFalse(g.getPotPredOf(1).contains(0));
+        Assert.assertFalse(g.removeNode(0, Cause.Null));
+        Assert.assertEquals(nbEvents[0], 1);
+        Assert.assertTrue(g.removeArcs(new int[]{1, 2}, new int[]{2, 3}, 2, Cause.Null));
+        Assert.assertEquals(nbEvents[0], 2);
+        Assert.assertFalse(g.getPotSuccOf(1).contains(2));
+        Assert.assertTrue(g.enforceArcs(new int[]{1, 3}, new int[]{4, 4}, 2, Cause.Null));
+        Assert.assertEquals(nbEvents[0], 3);
+        Assert.assertEquals(g.getMandatoryNodes().size(), 3);
+        Assert.assertTrue(g.removeIncidentArcs(2, Cause.Null));
+        Assert.assertEquals(nbEvents[0], 4);
+        Assert.assertTrue(g.getPotentialNodes().contains(2));
+        Assert.assertEquals(g.getPotSuccOf(2).size() + g.getPotPredOf(2).size(), 0);
+        Assert.assertTrue(g.removeNodes(new int[]{0, 2}, 2, Cause.Null));
+        Assert.assertEquals(nbEvents[0], 5);
+        Assert.assertEquals(g.getPotentialNodes().size(), 3);
+        try {
+            g.removeNodes(new int[]{1}, 1, Cause.Null);
+            Assert.fail();
+        } catch (ContradictionException e) {
+            Assert.assertEquals(nbEvents[0], 5);
+        }
+    }
+
+    @Test(groups = "1s")
+    public void testDegreeCounters() throws ContradictionException {
+        GraphModel model = new GraphModel();
+        UndirectedGraphVar g = model.graphVar("g", 4, new int[][]{{0, 1}, {1, 2}, {2, 3}, {3, 0}, {1, 1}}, false);
+        Assert.assertEquals(g.getNbPotentialArcs(), 5);
+        Assert.assertEquals(g.getNbPotentialNodes(), 4);
+        Assert.assertEquals(g.getPotSuccOrNeighDegree(1), 3);
+        model.getEnvironment().worldPush();
+        g.enforceArc(1, 1, Cause.Null);
+        g.enforceArc(0, 1, Cause.Null);
+        g.removeNode(3, Cause.Null);
+        Assert.assertEquals(g.getNbMandatoryArcs(), 2);
+        Assert.assertEquals(g.getNbMandatoryNodes(), 2);
+        Assert.assertEquals(g.getMandSuccOrNeighDegree(1), 2);
+        Assert.assertEquals(g.getMandPredOrNeighDegree(0), 1);
+        Assert.assertEquals(g.getNbPotentialArcs(), 3);
+        Assert.assertEquals(g.getNbPotentialNodes(), 3);
+        Assert.assertEquals(g.getPotSuccOrNeighDegree(0), 1);
+        Assert.assertEquals(g.getPotSuccOrNeighDegree(2), g.getPotNeighOf(2).size());
+        model.getEnvironment().worldPop();
+        Assert.assertEquals(g.getNbMandatoryArcs(), 0);
+        Assert.assertEquals(g.getNbPotentialArcs(), 5);
+        Assert.assertEquals(g.getPotSuccOrNeighDegree(0), 2);
+        Assert.assertEquals(g.getMandSuccOrNeighDegree(1), 0);
+    }
+
+    @Test(groups = "1s")
+    public void testInstantiation() throws ContradictionException {
+        GraphModel model = new GraphModel();
+        DirectedGraphVar g = model.digraphVar("g", 3, false);
+        Assert.assertEquals(g.getNbUndecided(), 12);
+        model.getEnvironment().worldPush();
+        g.enforceArcs(new int[]{0, 1}, new int[]{1, 1}, 2, Cause.Null);
+        g.removeNode(2, Cause.Null);
+        Assert.assertFalse(g.isInstantiated());
+        g.removeArcs(new int[]{0, 1}, new int[]{0, 0}, 2, Cause.Null);
+        Assert.assertTrue(g.isInstantiated());
+        model.getEnvironment().worldPop();
+        Assert.assertFalse(g.isInstantiated());
+        Assert.assertEquals(g.getNbUndecided(), 12);
+    }
+
+    @Test(groups = "1s")
+    public void testNodeWatcher() throws ContradictionException {
+        GraphModel model = new GraphModel();
+        UndirectedGraphVar g = model.graphVar("g", 4, false);
+        NodeWatcher w = g.watchNode(0);
+        Assert.assertSame(g.watchNode(0), w);
+        int[] nbEvents = new int[1];
+        IVariableMonitor<NodeWatcher> monitor = (var, evt) -> nbEvents[0]++;
+        w.addMonitor(monitor);
+        g.removeArc(1, 2, Cause.Null);
+        g.enforceNode(3, Cause.Null);
+        Assert.assertEquals(nbEvents[0], 0);
+        g.removeArc(1, 0, Cause.Null);
+        Assert.assertEquals(nbEvents[0], 1);
+        g.removeNode(2, Cause.Null);
+        Assert.assertEquals(nbEvents[0], 2);
+        Assert.assertFalse(w.isInstantiated());
+        g.enforceArc(0, 3, Cause.Null);
+        g.enforceArc(0, 0, Cause.Null);
+        Assert.assertEquals(nbEvents[0], 4);
+        Assert.assertTrue(w.isInstantiated());
+    }
+
+    @Test(groups = "1s")
+    public void testNodeWatcherContradiction() throws ContradictionException {
+        GraphModel model = new GraphModel();
+        UndirectedGraphVar g = model.graphVar("g", 4, false);
+        NodeWatcher w = g.watchNode(0);
+        int[] nbEvents = new int[1];
+        IVariableMonitor<NodeWatcher> monitor = (var, evt) -> nbEvents[0]++;
+        w.addMonitor(monitor);
+        boolean[] fail = new boolean[]{true};
+        IVariableMonitor<UndirectedGraphVar> failing = (var, evt) -> {
+            if (fail[0]) {
+                fail[0] = false;
+                var.contradiction(Cause.Null, "test");
+            }
+        };
+        g.addMonitor(failing);
+        try {
+            g.removeArc(0, 1, Cause.Null);
+            Assert.fail();
+        } catch (ContradictionException ignored) {
+        }
+        Assert.assertEquals(nbEvents[0], 0);
+        // the failed notification must not leak into the next one
+        g.removeArc(1, 2, Cause.Null);
+        Assert.assertEquals(nbEvents[0], 0);
+        g.removeArc(0, 2, Cause.Null);
+        Assert.assertEquals(nbEvents[0], 1);
+    }
+
+    @Test(groups = "1s")
+    public void testNodeWatcherBulkContradiction() throws ContradictionException {
+        GraphModel model = new GraphModel();
+        UndirectedGraphVar g = model.graphVar("g", 4, false);
+        NodeWatcher w = g.watchNode(0);
+        int[] nbEvents = new int[1];
+        IVariableMonitor<NodeWatcher> monitor = (var, evt) -> nbEvents[0]++;
+        w.addMonitor(monitor);
+        g.enforceArc(2, 3, Cause.Null);
+        Assert.assertEquals(nbEvents[0], 0);
+        // (0,1) is removed, then the batch fails on the mandatory edge (2,3)
+        try {
+            g.removeArcs(new int[]{0, 2}, new int[]{1, 3}, 2, Cause.Null);
+            Assert.fail();
+        } catch (ContradictionException ignored) {
+        }
+        Assert.assertEquals(nbEvents[0], 0);
+        // the failed batch must not leak into the next modification
+        g.removeArc(1, 2, Cause.Null);
+        Assert.assertEquals(nbEvents[0], 0);
+        g.removeArc(0, 2, Cause.Null);
+        Assert.assertEquals(nbEvents[0], 1);
+    }
+
+    @Test(groups = "1s")
+    public void testWatchedChanneling() {
+        GraphModel model = new GraphModel();
+        UndirectedGraphVar g = model.graphVar("g", 4, new int[][]{{0, 1}, {1, 2}, {2, 3}, {3, 0}}, true);
+        BoolVar[][] adj = model.boolVarMatrix("adj", 4, 4);
+        for (int i = 0; i < 4; i++) {
+            model.neighborsChanneling(g, adj[i], i).post();
+        }
+        model.nbEdges(g, model.intVar(2)).post();
+        Assert.assertEquals(model.getSolver().findAllSolutions().size(), 6);
+    }
+
+    @Test(groups = "1s")
+    public void testSolutionEncoding() throws ContradictionException {
+        GraphModel model = new GraphModel();
+        int n = 6;
+        DirectedGraphVar g = model.digraphVar("g", n, false);
+        IntVar nbArcs = model.intVar("nbArcs", 0, n * n);
+        model.nbArcs(g, nbArcs).post();
+        model.nbNodes(g, model.intVar(4)).post();
+        model.arithm(nbArcs, "=", 5).post();
+        GraphSolution solution = new GraphSolution(model);
+        Assert.assertTrue(model.getSolver().solve());
+        solution.record();
+        int[] value = solution.getGraphVal(g);
+        Assert.assertEquals(value, g.getEncodedValue());
+        Assert.assertEquals(value.length, 1 + 4 + 2 * 5);
+        boolean[][] matrix = g.getValue();
+        model.getSolver().reset();
+        Assert.assertFalse(g.isInstantiated());
+        model.getEnvironment().worldPush();
+        solution.copySolution().restore();
+        Assert.assertTrue(g.isInstantiated());
+        Assert.assertEquals(g.getValue(), matrix);
+        Assert.assertEquals(solution.getIntVal(nbArcs), 5);
+        Assert.assertEquals(nbArcs.getValue(), 5);
+        model.getEnvironment().worldPop();
+        Assert.assertFalse(g.isInstantiated());
+        UndirectedGraphVar u = model.graphVar("u", 4, new int[][]{{0, 1}, {1, 2}, {2, 3}, {3, 0}, {1, 1}}, false);
+        model.getEnvironment().worldPush();
+        u.instantiateTo(new int[]{3, 0, 1, 2, 0, 1, 1, 1, 1, 2}, Cause.Null);
+        Assert.assertTrue(u.isInstantiated());
+        Assert.assertEquals(u.getNbMandatoryArcs(), 3);
+        Assert.assertFalse(u.getPotentialNodes().contains(3));
+        Assert.assertEquals(u.getEncodedValue(), new int[]{3, 0, 1, 2, 0, 1, 1, 1, 1, 2});
+        model.getEnvironment().worldPop();
+    }
+
+    @Test(groups = "1s")
+    public void testArcDelta() throws ContradictionException {
+        GraphModel model = new GraphModel();
+        BoolVar b = model.boolVar("b");
+        ICause self = model.arithm(b, "=", 1).getPropagator(0);
+        ICause other = model.arithm(b, "=", 0).getPropagator(0);
+        ICause[] causes = new ICause[]{Cause.Null, self, other};
+        GraphDelta delta = new GraphDelta(model.getEnvironment());
+        GraphDeltaMonitor monitor = new GraphDeltaMonitor(delta, self);
+        List<String> expRemoved = new ArrayList<>();
+        List<String> expAdded = new ArrayList<>();
+        // more events than the initial capacity of an arc delta, with ids that need the full 32 bits
+        for (int k = 0; k < 50; k++) {
+            int from = Integer.MAX_VALUE - k;
+            int to = (1 << 20) + 7 * k;
+            int type = k % 2 == 0 ? GraphDelta.AR : GraphDelta.AE;
+            ICause cause = causes[k % 3];
+            delta.addArc(from, to, type, cause);
+            if (cause != self) {
+                (type == GraphDelta.AR ? expRemoved : expAdded).add(from + "-" + to);
+            }
+        }
+        Assert.assertEquals(delta.getSize(GraphDelta.AR), 25);
+        Assert.assertEquals(delta.getSize(GraphDelta.AE), 25);
+        monitor.freeze();
+        List<String> removed = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        monitor.forEachArc((i, j) -> removed.add(i + "-" + j), GraphEventType.REMOVE_ARC);
+        monitor.forEachArc((i, j) -> added.add(i + "-" + j), GraphEventType.ADD_ARC);
+        Assert.assertEquals(removed, expRemoved);
+        Assert.assertEquals(added, expAdded);
+        monitor.unfreeze();
+        monitor.freeze();
+        removed.clear();
+        added.clear();
+        monitor.forEachArc((i, j) -> removed.add(i + "-" + j), GraphEventType.REMOVE_ARC);
+        monitor.forEachArc((i, j) -> added.add(i + "-" + j), GraphEventType.ADD_ARC);
+        Assert.assertTrue(removed.isEmpty());
+        Assert.assertTrue(added.isEmpty());
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.checked;
+
+import org.chocosolver.graphsolver.GraphModel;
+import org.chocosolver.graphsolver.variables.DirectedGraphVar;
+import org.chocosolver.graphsolver.variables.EdgeIndexedGraphVar;
+import org.chocosolver.graphsolver.variables.EdgeUniverse;
+import org.chocosolver.graphsolver.variables.UndirectedGraphVar;
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.util.objects.graphs.UndirectedGraph;
+import org.chocosolver.util.objects.setDataStructures.SetType;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests graph variables built from a list of arcs, with sparse or dense neighbor sets
+ */
+public class SparseGraphVarTest {
+
+	private static int[][] grid(int w, int h) {
+		int[][] edges = new int[(w - 1) * h + w * (h - 1)][];
+		int k = 0;
+		for (int i = 0; i < w; i++) {
+			for (int j = 0; j < h; j++) {
+				if (i + 1 < w) {
+					edges[k++] = new int[]{i * h + j, (i + 1) * h + j};
+				}
+				if (j + 1 < h) {
+					edges[k++] = new int[]{i * h + j, i * h + j + 1};
+				}
+			}
+		}
+		return edges;
+	}
+
+	@Test(groups = "1s")
+	public void testDensitySelection() {
+		GraphModel model = new GraphModel();
+		UndirectedGraphVar sparse = model.graphVar("sparse", 400, grid(20, 20), false);
+		Assert.assertEquals(sparse.getUB().getType(), GraphModel.SPARSE_UB_TYPE);
+		Assert.assertEquals(sparse.getLB().getType(), GraphModel.SPARSE_LB_TYPE);
+		Assert.assertEquals(sparse.getPotNeighOf(21).size(), 4);
+		UndirectedGraphVar dense = model.graphVar("dense", 4, grid(2, 2), false);
+		Assert.assertEquals(dense.getUB().getType(), SetType.BITSET);
+		DirectedGraphVar arcs = model.digraphVar("arcs", 400, grid(20, 20), true);
+		Assert.assertEquals(arcs.getUB().getType(), GraphModel.SPARSE_UB_TYPE);
+		Assert.assertEquals(arcs.getPotSuccOf(0).size() + arcs.getPotPredOf(0).size(), 2);
+	}
+
+	@Test(groups = "10s")
+	public void testSpanningTrees() {
+		// a 3x3 grid has 192 spanning trees
+		Assert.assertEquals(nbSpanningTrees(SetType.BITSET, SetType.BITSET), 192);
+		Assert.assertEquals(nbSpanningTrees(GraphModel.SPARSE_LB_TYPE, GraphModel.SPARSE_UB_TYPE), 192);
+	}
+
+	private static long nbSpanningTrees(SetType lbType, SetType ubType) {
+		GraphModel model = new GraphModel();
+		UndirectedGraphVar g = model.graphVar("g", 9, grid(3, 3), true, lbType, ubType);
+		model.tree(g).post();
+		model.nbEdges(g, model.intVar(8)).post();
+		return model.getSolver().findAllSolutions().size();
+	}
+
+	@Test(groups = "10s")
+	public void testEdgeIndexed() {
+		GraphModel model = new GraphModel();
+		EdgeUniverse universe = new EdgeUniverse(9, grid(3, 3));
+		EdgeIndexedGraphVar g = model.graphVar("g", universe, true);
+		Assert.assertEquals(universe.getNbEdges(), 12);
+		Assert.assertEquals(g.getPotentialEdges().size(), 12);
+		Assert.assertEquals(g.getPotNeighOf(4).size(), 4);
+		Assert.assertEquals(g.getEdge(0, 2), -1);
+		int e = g.getEdge(4, 1);
+		Assert.assertEquals(g.getEdge(1, 4), e);
+		model.tree(g).post();
+		model.nbEdges(g, model.intVar(8)).post();
+		Assert.assertEquals(model.getSolver().findAllSolutions().size(), 192);
+	}
+
+	@Test(groups = "1s")
+	public void testSharedSkeleton() throws ContradictionException {
+		GraphModel model = new GraphModel();
+		UndirectedGraph skeleton = new UndirectedGraph(9, SetType.BITSET, true);
+		for (int[] e : grid(3, 3)) {
+			skeleton.addEdge(e[0], e[1]);
+		}
+		EdgeIndexedGraphVar[] vars = model.graphVarArray("v", 3, skeleton, true);
+		Assert.assertSame(vars[0].getUniverse(), vars[2].getUniverse());
+		Assert.assertEquals(vars[1].getUniverse().getNbEdges(), 12);
+		Assert.assertEquals(vars[1].getPotNeighOf(4).size(), 4);
+		Assert.assertEquals(vars[1].getNbPotentialArcs(), 12);
+		model.getEnvironment().worldPush();
+		vars[0].removeArc(4, 1, Cause.Null);
+		Assert.assertEquals(vars[0].getPotNeighOf(4).size(), 3);
+		Assert.assertTrue(vars[1].getPotNeighOf(4).contains(1));
+		model.getEnvironment().worldPop();
+		Assert.assertTrue(vars[0].getPotNeighOf(4).contains(1));
+		model.nbEdges(vars[0], model.intVar(11)).post();
+		model.nbEdges(vars[1], model.intVar(12)).post();
+		model.nbEdges(vars[2], model.intVar(0)).post();
+		Assert.assertEquals(model.getSolver().findAllSolutions().size(), 12);
+	}
+}
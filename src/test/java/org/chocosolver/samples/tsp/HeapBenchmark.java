@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 1999-2014, Ecole des Mines de Nantes
+ * All rights reserved.
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the Ecole des Mines de Nantes nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE REGENTS AND CONTRIBUTORS ``AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE REGENTS AND CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.chocosolver.samples.tsp;
+
+import org.chocosolver.graphsolver.cstrs.cost.tsp.heap.ArrayHeap;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.heap.BinarySimpleHeap;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.heap.DAryHeap;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.heap.DenseArrayHeap;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.heap.FastArrayHeap;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.heap.FastSimpleHeap;
+import org.chocosolver.graphsolver.cstrs.cost.tsp.heap.ISimpleHeap;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Compares the heaps of Prim's algorithm (as used by PrimMSTFinder and PrimOneTreeFinder)
+ * on random Euclidean graphs of various densities.
+ * Reports the median time of a minimum spanning tree computation, after a warm-up phase.
+ */
+public class HeapBenchmark {
+
+    //***********************************************************************************
+    // MAIN
+    //***********************************************************************************
+
+    public static void main(String[] args) {
+        int[] sizes = {500, 2000};
+        int[] degrees = {8, 32, -1}; // -1 for complete graphs
+        for (int n : sizes) {
+            for (int deg : degrees) {
+                HeapBenchmark bench = new HeapBenchmark(n, deg < 0 ? n - 1 : deg, 0);
+                long m = bench.nbEdges();
+                Map<String, IntFunction<ISimpleHeap>> heaps = new LinkedHashMap<>();
+                heaps.put("ArrayHeap", ArrayHeap::new);
+                heaps.put("FastArrayHeap", FastArrayHeap::new);
+                heaps.put("BinarySimpleHeap", BinarySimpleHeap::new);
+                heaps.put("FastSimpleHeap", FastSimpleHeap::new);
+                heaps.put("DAryHeap(4)", DAryHeap::new);
+                heaps.put("DAryHeap(8)", k -> new DAryHeap(k, 8));
+                heaps.put("DenseArrayHeap", DenseArrayHeap::new);
+                heaps.put("auto", k -> ISimpleHeap.make(k, m));
+                System.out.println("n = " + n + ", m = " + m);
+                double ref = Double.NaN;
+                for (Map.Entry<String, IntFunction<ISimpleHeap>> entry : heaps.entrySet()) {
+                    ISimpleHeap heap = entry.getValue().apply(n);
+                    double cost = 0;
+                    for (int k = 0; k < 20; k++) {
+                        cost = bench.prim(heap);
+                    }
+                    long[] times = new long[30];
+                    for (int k = 0; k < times.length; k++) {
+                        long t = System.nanoTime();
+                        cost = bench.prim(heap);
+                        times[k] = System.nanoTime() - t;
+                    }
+                    Arrays.sort(times);
+                    if (Double.isNaN(ref)) {
+                        ref = cost;
+                    } else if (Math.abs(cost - ref) > 1e-6) {
+                        throw new IllegalStateException(entry.getKey() + " found a tree of cost " + cost + " instead of " + ref);
+                    }
+                    System.out.println(String.format("\t%-17s %8.3f ms", entry.getKey(), times[times.length / 2] / 1e6));
+                }
+            }
+        }
+    }
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    private int n;
+    private int[][] neigh;
+    private double[][] weights;
+    private boolean[] inTree;
+    private double[] key;
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    /**
+     * Random points in the plane, each linked to its deg nearest neighbors (and a Hamiltonian path for connectivity)
+     */
+    public HeapBenchmark(int n, int deg, long seed) {
+        this.n = n;
+        Random rd = new Random(seed);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = rd.nextDouble() * 1000;
+            y[i] = rd.nextDouble() * 1000;
+        }
+        boolean[][] adj = new boolean[n][n];
+        Integer[] others = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                others[j] = j;
+            }
+            final int fi = i;
+            Arrays.sort(others, (a, b) -> Double.compare(dist(x, y, fi, a), dist(x, y, fi, b)));
+            for (int k = 1; k <= deg && k < n; k++) {
+                adj[i][others[k]] = adj[others[k]][i] = true;
+            }
+            if (i > 0) {
+                adj[i][i - 1] = adj[i - 1][i] = true;
+            }
+        }
+        neigh = new int[n][];
+        weights = new double[n][];
+        for (int i = 0; i < n; i++) {
+            int d = 0;
+            for (int j = 0; j < n; j++) {
+                if (adj[i][j]) {
+                    d++;
+                }
+            }
+            neigh[i] = new int[d];
+            weights[i] = new double[d];
+            d = 0;
+            for (int j = 0; j < n; j++) {
+                if (adj[i][j]) {
+                    neigh[i][d] = j;
+                    weights[i][d++] = dist(x, y, i, j);
+                }
+            }
+        }
+        inTree = new boolean[n];
+        key = new double[n];
+    }
+
+    //***********************************************************************************
+    // METHODS
+    //***********************************************************************************
+
+    private static double dist(double[] x, double[] y, int i, int j) {
+        return Math.sqrt((x[i] - x[j]) * (x[i] - x[j]) + (y[i] - y[j]) * (y[i] - y[j]));
+    }
+
+    public long nbEdges() {
+        long m = 0;
+        for (int[] nei : neigh) {
+            m += nei.length;
+        }
+        return m / 2;
+    }
+
+    /**
+     * @return the cost of a minimum spanning tree, computed by Prim's algorithm with heap
+     */
+    public double prim(ISimpleHeap heap) {
+        heap.clear();
+        Arrays.fill(inTree, false);
+        double cost = 0;
+        int size = 0;
+        int i = 0;
+        while (true) {
+            inTree[i] = true;
+            size++;
+            for (int k = 0; k < neigh[i].length; k++) {
+                int j = neigh[i][k];
+                if (!inTree[j] && heap.addOrUpdateElement(j, weights[i][k])) {
+                    key[j] = weights[i][k];
+                }
+            }
+            if (size == n || heap.isEmpty()) {
+                return cost;
+            }
+            i = heap.removeFirstElement();
+            cost += key[i];
+        }
+    }
+}